@@ -35,6 +35,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -135,6 +136,7 @@ import com.eucalyptus.util.FUtils;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
@@ -326,15 +328,26 @@ public class ClusterServiceImpl implements ClusterFullService {
         try ( final ScheduleResource scheduleResource = Schedulers.context( ) ) {
           final Predicate<ClusterNode> nodePredicate =
               nodePredicate( request.getAllowHosts( ), request.getDestinationHosts( ), sourceNode.get().getNode( ) );
+          // schedule all instances of each type together
+          final Map<String,List<ClusterVm>> vmsByType = Maps.newTreeMap( );
           for ( final String instanceId : instanceIds ) {
             final ClusterVm vm = sourceNode.get( ).vm( instanceId ).getOrElseThrow( () -> new RuntimeException( instanceId ) );
-            final InstanceType instance = ClusterNodes.vmToInstanceType( vm );
-            final ClusterNode destinationNode = schedulerForName.apply( conf.getScheduler( ) )
-                  .schedule( nodes( ).filter( nodePredicate ), vm.getVmType( ) ).getOrElseThrow( () -> new RuntimeException( "resources" ) );
-            instance.setMigrationStateName( "none" );
-            instance.setMigrationSource( sourceNode.get( ).getNode( ) );
-            instance.setMigrationDestination( destinationNode.getNode( ) );
-            destinationAndInstances.add( Tuple.of( destinationNode, instance ) );
+            vmsByType.computeIfAbsent( vm.getVmType( ).getName( ), type -> Lists.newArrayList( ) ).add( vm );
+          }
+          for ( final List<ClusterVm> vms : vmsByType.values( ) ) {
+            final List<ClusterNode> destinationNodes = schedulerForName.apply( conf.getScheduler( ) )
+                .schedule( nodes( ).filter( nodePredicate ), vms.get( 0 ).getVmType( ), vms.size( ) ).toJavaList( );
+            if ( destinationNodes.size( ) < vms.size( ) ) {
+              throw new RuntimeException( "resources" );
+            }
+            for ( int i = 0; i < vms.size( ); i++ ) {
+              final ClusterNode destinationNode = destinationNodes.get( i );
+              final InstanceType instance = ClusterNodes.vmToInstanceType( vms.get( i ) );
+              instance.setMigrationStateName( "none" );
+              instance.setMigrationSource( sourceNode.get( ).getNode( ) );
+              instance.setMigrationDestination( destinationNode.getNode( ) );
+              destinationAndInstances.add( Tuple.of( destinationNode, instance ) );
+            }
           }
 
           scheduleResource.commit( );
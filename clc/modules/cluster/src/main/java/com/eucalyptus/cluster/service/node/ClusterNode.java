@@ -196,6 +196,45 @@ public final class ClusterNode {
     }
   }
 
+  /**
+   * Reduce the available capacity if there is sufficient capacity.
+   *
+   * @return True if the capacity was reserved
+   */
+  public boolean reserve(
+      final int cores,
+      final int disk,
+      final int memory
+  ) {
+    while( true ) {
+      final ClusterNodeAvailability current = this.availability.get( );
+      if ( current.getCoresAvailable( ) < cores ||
+          current.getDiskAvailable( ) < disk ||
+          current.getMemoryAvailable( ) < memory ) {
+        return false;
+      }
+      if ( this.availability.compareAndSet( current, current.adjust( -cores, -disk, -memory ) ) ) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Adjust the available capacity by the given amounts.
+   */
+  public void adjustAvailability(
+      final int cores,
+      final int disk,
+      final int memory
+  ) {
+    while( true ) {
+      final ClusterNodeAvailability current = this.availability.get( );
+      if ( this.availability.compareAndSet( current, current.adjust( cores, disk, memory ) ) ) {
+        return;
+      }
+    }
+  }
+
   public String getNodeStatus( ) {
     return status.getStatus( );
   }
@@ -463,6 +502,17 @@ public final class ClusterNode {
       return NONE;
     }
 
+    ClusterNodeAvailability adjust( final int cores, final int disk, final int memory ) {
+      return of(
+          coresAvailable + cores,
+          coresTotal,
+          diskAvailable + disk,
+          diskTotal,
+          memoryAvailable + memory,
+          memoryTotal
+      );
+    }
+
     int getCoresAvailable( ) {
       return coresAvailable;
     }
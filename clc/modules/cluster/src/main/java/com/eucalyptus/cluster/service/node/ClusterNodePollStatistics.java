@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.cluster.service.node;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Polling statistics for a node and type of poll.
+ */
+public final class ClusterNodePollStatistics {
+
+  private final String poll;
+  private final String node;
+  private final long lastLatencyMillis;
+  private final long averageLatencyMillis;
+  private final long stalenessMillis;
+  private final int failures;
+  private final long timeouts;
+
+  ClusterNodePollStatistics(
+      final String poll,
+      final String node,
+      final long lastLatencyMillis,
+      final long averageLatencyMillis,
+      final long stalenessMillis,
+      final int failures,
+      final long timeouts
+  ) {
+    this.poll = poll;
+    this.node = node;
+    this.lastLatencyMillis = lastLatencyMillis;
+    this.averageLatencyMillis = averageLatencyMillis;
+    this.stalenessMillis = stalenessMillis;
+    this.failures = failures;
+    this.timeouts = timeouts;
+  }
+
+  /**
+   * The type of poll, e.g. resources, vms or sensors
+   */
+  public String getPoll( ) {
+    return poll;
+  }
+
+  public String getNode( ) {
+    return node;
+  }
+
+  public long getLastLatencyMillis( ) {
+    return lastLatencyMillis;
+  }
+
+  public long getAverageLatencyMillis( ) {
+    return averageLatencyMillis;
+  }
+
+  /**
+   * Time since the last successful reply from the node, -1 if there has been none.
+   */
+  public long getStalenessMillis( ) {
+    return stalenessMillis;
+  }
+
+  /**
+   * Consecutive failed polls
+   */
+  public int getFailures( ) {
+    return failures;
+  }
+
+  public long getTimeouts( ) {
+    return timeouts;
+  }
+
+  public String toString( ) {
+    return MoreObjects.toStringHelper( this )
+        .add( "poll", getPoll( ) )
+        .add( "node", getNode( ) )
+        .add( "last-latency-ms", getLastLatencyMillis( ) )
+        .add( "average-latency-ms", getAverageLatencyMillis( ) )
+        .add( "staleness-ms", getStalenessMillis( ) )
+        .add( "failures", getFailures( ) )
+        .add( "timeouts", getTimeouts( ) )
+        .toString( );
+  }
+}
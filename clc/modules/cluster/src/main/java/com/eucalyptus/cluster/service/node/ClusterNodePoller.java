@@ -0,0 +1,348 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.cluster.service.node;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.log4j.Logger;
+import com.eucalyptus.util.async.CheckedListenableFuture;
+import com.eucalyptus.util.async.Futures;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.vavr.collection.Stream;
+import io.vavr.control.Either;
+
+/**
+ * Polls nodes with a bounded number of requests in flight, processing each reply as it arrives.
+ *
+ * <p>Replies are processed on the polling thread. A node is not polled while a request for the
+ * node is outstanding, and the poll stops waiting for a node when its timeout expires, so a slow
+ * node does not delay polling or processing for other nodes. A request that times out is
+ * cancelled and counts as a failure for the node, the handler is passed a
+ * {@link ClusterNodeTimeoutException}. The permit for the request is held until the request
+ * completes or is cancelled, a reply that arrives after the timeout is discarded so handlers only
+ * see replies for the current poll.</p>
+ *
+ * <p>The timeout for a node adapts to the nodes average latency. A node that fails is not polled
+ * again until a backoff interval expires.</p>
+ */
+final class ClusterNodePoller<R> {
+
+  private static final Logger logger = Logger.getLogger( ClusterNodePoller.class );
+
+  private static final long MIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos( 5 );
+  private static final long MAX_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos( 60 );
+  private static final long MIN_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos( 5 );
+  private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos( 60 );
+  private static final int TIMEOUT_LATENCY_FACTOR = 4;
+
+  private final String name;
+  private final Semaphore requestPermits;
+  private final long minTimeoutNanos;
+  private final long minBackoffNanos;
+  private final BlockingQueue<NodeRequest<R>> replies = new LinkedBlockingQueue<>( );
+  private final ConcurrentMap<String,NodePollState> states = Maps.newConcurrentMap( );
+  private final AtomicLong polls = new AtomicLong( );
+
+  /**
+   * @param name The name for the type of poll
+   * @param requestPermits Permits for requests in flight, may be shared between pollers
+   */
+  ClusterNodePoller( final String name, final Semaphore requestPermits ) {
+    this( name, requestPermits, MIN_TIMEOUT_NANOS, MIN_BACKOFF_NANOS );
+  }
+
+  ClusterNodePoller(
+      final String name,
+      final Semaphore requestPermits,
+      final long minTimeoutNanos,
+      final long minBackoffNanos
+  ) {
+    this.name = name;
+    this.requestPermits = requestPermits;
+    this.minTimeoutNanos = minTimeoutNanos;
+    this.minBackoffNanos = minBackoffNanos;
+  }
+
+  /**
+   * Poll the nodes that are due and process replies until all replies are processed or have
+   * timed out.
+   *
+   * @param nodes The nodes to poll
+   * @param requestsFor Requests for a node, each request is sent when a permit is available
+   * @param handler Handler for each node reply, failure or timeout
+   */
+  void poll(
+      final Stream<ClusterNode> nodes,
+      final Function<ClusterNode,List<Supplier<CheckedListenableFuture<R>>>> requestsFor,
+      final BiConsumer<ClusterNode,Either<Exception,R>> handler
+  ) {
+    final long start = System.nanoTime( );
+    final long poll = polls.incrementAndGet( );
+    processAvailable( poll, handler );
+
+    final List<NodeRequest<R>> requests = Lists.newArrayList( );
+    requests:
+    for ( final ClusterNode node : nodes ) {
+      final NodePollState state = states.computeIfAbsent(
+          node.getNode( ), key -> new NodePollState( key, minTimeoutNanos, minBackoffNanos ) );
+      if ( !state.isDue( System.nanoTime( ) ) ) {
+        continue;
+      }
+      for ( final Supplier<CheckedListenableFuture<R>> request : requestsFor.apply( node ) ) {
+        final long permitWaitStart = System.nanoTime( );
+        while ( !requestPermits.tryAcquire( ) ) {
+          if ( ( System.nanoTime( ) - permitWaitStart ) > MAX_TIMEOUT_NANOS ) {
+            logger.warn( "Timeout waiting to send " + name + " request for node " + node.getNode( ) );
+            break requests;
+          }
+          processNext( poll, handler, TimeUnit.MILLISECONDS.toNanos( 10 ) );
+        }
+        requests.add( send( poll, node, state, request ) );
+      }
+    }
+
+    while ( !Thread.currentThread( ).isInterrupted( ) ) {
+      final long now = System.nanoTime( );
+      long nextDeadline = Long.MAX_VALUE;
+      for ( final NodeRequest<R> request : requests ) {
+        if ( !request.processed ) {
+          if ( now - request.deadline >= 0 ) {
+            if ( !timedOut( request, now, handler ) ) {
+              // reply arrived as the request timed out, wait for it to be queued
+              nextDeadline = Math.min( nextDeadline, TimeUnit.MILLISECONDS.toNanos( 10 ) );
+            }
+          } else {
+            nextDeadline = Math.min( nextDeadline, request.deadline - now );
+          }
+        }
+      }
+      if ( nextDeadline == Long.MAX_VALUE ) {
+        break;
+      }
+      processNext( poll, handler, nextDeadline );
+    }
+
+    if ( logger.isDebugEnabled( ) ) {
+      final ClusterNodePollStatistics slowest = statistics( )
+          .maxBy( ClusterNodePollStatistics::getLastLatencyMillis ).getOrNull( );
+      logger.debug( "Polled " + name + " with " + requests.size( ) + " requests in " +
+          TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - start ) + "ms, slowest " + slowest );
+    }
+  }
+
+  /**
+   * Statistics for each node that has been polled.
+   */
+  Stream<ClusterNodePollStatistics> statistics( ) {
+    final long now = System.nanoTime( );
+    return Stream.ofAll( states.values( ) ).map( state -> state.statistics( name, now ) );
+  }
+
+  private NodeRequest<R> send(
+      final long poll,
+      final ClusterNode node,
+      final NodePollState state,
+      final Supplier<CheckedListenableFuture<R>> request
+  ) {
+    final NodeRequest<R> nodeRequest = new NodeRequest<>( poll, node, state, System.nanoTime( ) );
+    state.inFlight.incrementAndGet( );
+    try {
+      final CheckedListenableFuture<R> future = request.get( );
+      nodeRequest.future = future;
+      future.addListener( ( ) -> received( nodeRequest, Futures.asEither( future ) ) );
+    } catch ( final Exception e ) {
+      received( nodeRequest, Either.left( e ) );
+    }
+    return nodeRequest;
+  }
+
+  private void received( final NodeRequest<R> request, final Either<Exception,R> result ) {
+    requestPermits.release( );
+    if ( request.complete( ) ) {
+      request.received = System.nanoTime( );
+      request.result = result;
+      replies.add( request );
+    } else {
+      request.state.inFlight.decrementAndGet( );
+      logger.debug( "Discarding " + name + " reply for node " + request.node.getNode( ) + " received after timeout" );
+    }
+  }
+
+  /**
+   * Abandon the request if there is no reply, the node is treated as failed.
+   *
+   * <p>The request is cancelled, its permit is released when the cancellation or reply
+   * completes the request.</p>
+   *
+   * @return True if the request timed out, false if a reply is being queued
+   */
+  private boolean timedOut(
+      final NodeRequest<R> request,
+      final long now,
+      final BiConsumer<ClusterNode,Either<Exception,R>> handler
+  ) {
+    if ( !request.complete( ) ) {
+      return false;
+    }
+    request.processed = true;
+    request.state.timeouts.incrementAndGet( );
+    request.state.completed( now, request.sent, false );
+    final String message = "Timeout waiting for " + name + " reply from node " + request.node.getNode( );
+    logger.info( message );
+    final CheckedListenableFuture<R> future = request.future;
+    if ( future != null ) {
+      future.cancel( true );
+    }
+    handle( request, Either.left( new ClusterNodeTimeoutException( message, request.state.failures ) ), handler );
+    return true;
+  }
+
+  private void processAvailable( final long poll, final BiConsumer<ClusterNode,Either<Exception,R>> handler ) {
+    NodeRequest<R> request;
+    while ( ( request = replies.poll( ) ) != null ) {
+      process( poll, request, handler );
+    }
+  }
+
+  private void processNext(
+      final long poll,
+      final BiConsumer<ClusterNode,Either<Exception,R>> handler,
+      final long timeoutNanos
+  ) {
+    try {
+      final NodeRequest<R> request = replies.poll( timeoutNanos, TimeUnit.NANOSECONDS );
+      if ( request != null ) {
+        process( poll, request, handler );
+      }
+    } catch ( final InterruptedException e ) {
+      Thread.currentThread( ).interrupt( );
+    }
+  }
+
+  private void process(
+      final long poll,
+      final NodeRequest<R> request,
+      final BiConsumer<ClusterNode,Either<Exception,R>> handler
+  ) {
+    request.processed = true;
+    request.state.completed( request.received, request.sent, request.result.isRight( ) );
+    request.state.inFlight.decrementAndGet( );
+    if ( request.poll != poll ) {
+      // reply for an earlier poll that stopped waiting, the data may be older than the current state
+      logger.debug( "Discarding " + name + " reply for node " + request.node.getNode( ) + " from an earlier poll" );
+      return;
+    }
+    handle( request, request.result, handler );
+  }
+
+  private void handle(
+      final NodeRequest<R> request,
+      final Either<Exception,R> result,
+      final BiConsumer<ClusterNode,Either<Exception,R>> handler
+  ) {
+    try {
+      handler.accept( request.node, result );
+    } catch ( final Exception e ) {
+      logger.error( "Error processing " + name + " reply for node " + request.node.getNode( ), e );
+    }
+  }
+
+  private static final class NodeRequest<R> {
+    private final long poll;
+    private final ClusterNode node;
+    private final NodePollState state;
+    private final long sent;
+    private final long deadline;
+    private final AtomicBoolean completed = new AtomicBoolean( );
+    private volatile CheckedListenableFuture<R> future;
+    private volatile long received;
+    private volatile Either<Exception,R> result;
+    private volatile boolean processed;
+
+    private NodeRequest( final long poll, final ClusterNode node, final NodePollState state, final long sent ) {
+      this.poll = poll;
+      this.node = node;
+      this.state = state;
+      this.sent = sent;
+      this.deadline = sent + state.timeout( );
+    }
+
+    /**
+     * Mark the request complete, either on reply or on timeout.
+     *
+     * @return True if this call completed the request
+     */
+    private boolean complete( ) {
+      return completed.compareAndSet( false, true );
+    }
+  }
+
+  private static final class NodePollState {
+    private final String node;
+    private final long minTimeoutNanos;
+    private final long minBackoffNanos;
+    private final AtomicInteger inFlight = new AtomicInteger( );
+    private final AtomicLong timeouts = new AtomicLong( );
+    private volatile long averageLatency;
+    private volatile long lastLatency;
+    private volatile long lastSuccess;
+    private volatile boolean succeeded;
+    private volatile int failures;
+    private volatile long nextPoll;
+
+    private NodePollState( final String node, final long minTimeoutNanos, final long minBackoffNanos ) {
+      this.node = node;
+      this.minTimeoutNanos = minTimeoutNanos;
+      this.minBackoffNanos = minBackoffNanos;
+    }
+
+    private boolean isDue( final long now ) {
+      return inFlight.get( ) == 0 && ( failures == 0 || now - nextPoll >= 0 );
+    }
+
+    private long timeout( ) {
+      return Math.min( MAX_TIMEOUT_NANOS, Math.max( minTimeoutNanos, averageLatency * TIMEOUT_LATENCY_FACTOR ) );
+    }
+
+    private void completed( final long now, final long sent, final boolean success ) {
+      final long latency = now - sent;
+      lastLatency = latency;
+      averageLatency = averageLatency == 0 ? latency : ( ( averageLatency * 7 ) + latency ) / 8;
+      if ( success ) {
+        failures = 0;
+        succeeded = true;
+        lastSuccess = now;
+      } else {
+        failures++;
+        nextPoll = now + Math.min( MAX_BACKOFF_NANOS, minBackoffNanos << Math.min( failures - 1, 4 ) );
+      }
+    }
+
+    private ClusterNodePollStatistics statistics( final String poll, final long now ) {
+      return new ClusterNodePollStatistics(
+          poll,
+          node,
+          TimeUnit.NANOSECONDS.toMillis( lastLatency ),
+          TimeUnit.NANOSECONDS.toMillis( averageLatency ),
+          succeeded ? TimeUnit.NANOSECONDS.toMillis( now - lastSuccess ) : -1,
+          failures,
+          timeouts.get( ) );
+    }
+  }
+}
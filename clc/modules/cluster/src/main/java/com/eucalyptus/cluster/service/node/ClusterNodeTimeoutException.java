@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.cluster.service.node;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Timeout waiting for a node reply.
+ */
+public class ClusterNodeTimeoutException extends TimeoutException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int failures;
+
+  public ClusterNodeTimeoutException( final String message, final int failures ) {
+    super( message );
+    this.failures = failures;
+  }
+
+  /**
+   * Consecutive failures for the node, including this timeout.
+   */
+  public int getFailures( ) {
+    return failures;
+  }
+}
@@ -32,15 +32,17 @@ import java.lang.reflect.Proxy;
 import java.net.ConnectException;
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import org.apache.log4j.Logger;
 import com.eucalyptus.cluster.common.msgs.InstanceType;
@@ -71,7 +73,6 @@ import com.eucalyptus.component.annotation.ComponentNamed;
 import com.eucalyptus.util.Assert;
 import com.eucalyptus.util.Exceptions;
 import com.eucalyptus.util.async.CheckedListenableFuture;
-import com.eucalyptus.util.async.Futures;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
@@ -84,7 +85,6 @@ import io.vavr.Tuple;
 import io.vavr.Tuple2;
 import io.vavr.Tuple3;
 import io.vavr.collection.Stream;
-import io.vavr.control.Either;
 import io.vavr.control.Option;
 
 /**
@@ -96,11 +96,24 @@ public class ClusterNodes {
   private static final Logger logger = Logger.getLogger( ClusterNodes.class );
 
   private static final int DEFAULT_PORT = 8775;
+  private static final int POLL_REQUESTS =
+      Integer.getInteger( "com.eucalyptus.cluster.service.nodePollRequests", 32 );
+  private static final int SENSOR_BATCH_SIZE =
+      Integer.getInteger( "com.eucalyptus.cluster.service.sensorBatchSize", 100 );
+  private static final int NODE_TIMEOUT_FAILURES =
+      Integer.getInteger( "com.eucalyptus.cluster.service.nodeTimeoutFailures", 3 );
 
   private final ConcurrentMap<String,ClusterNode> nodesByIp = Maps.newConcurrentMap( );
   private final AtomicReference<Integer> nodePort = new AtomicReference<>( DEFAULT_PORT );
   private final AtomicLong lastSensorRefresh = new AtomicLong( );
   private final AtomicReference<ClusterNodesStatus> statusRef = new AtomicReference<>( ClusterNodesStatus.none( ) );
+  private final Semaphore pollRequestPermits = new Semaphore( POLL_REQUESTS );
+  private final ClusterNodePoller<NcDescribeResourceResponseType> resourcesPoller =
+      new ClusterNodePoller<>( "resources", pollRequestPermits );
+  private final ClusterNodePoller<NcDescribeInstancesResponseType> vmsPoller =
+      new ClusterNodePoller<>( "vms", pollRequestPermits );
+  private final ClusterNodePoller<NcDescribeSensorsResponseType> sensorsPoller =
+      new ClusterNodePoller<>( "sensors", pollRequestPermits );
   private final ClusterEucaConfLoader clusterEucaConfLoader;
   private final ClusterNodeServiceFactory nodeServiceFactory;
   private final Clock clock;
@@ -216,19 +229,11 @@ public class ClusterNodes {
   }
 
   public void refreshResources( ) {
-    final Stream<ClusterNode> nodes = nodes( );
-    final List<CheckedListenableFuture<NcDescribeResourceResponseType>> replyFutures = Lists.newArrayList( );
-    for ( final ClusterNode node : nodes ) {
-      final NodeService nodeService = nodeService( node );
-      final NcDescribeResourceType ncDescribeResource = new NcDescribeResourceType( );
-      replyFutures.add( nodeService.describeResourceAsync( ncDescribeResource ) );
-    }
-
     try {
-      final Iterator<Either<Exception, NcDescribeResourceResponseType>> replies =
-          Futures.allAsEitherList( replyFutures ).get( ).iterator( );
-      for ( final ClusterNode node : nodes ) {
-        final Either<Exception, NcDescribeResourceResponseType> replyEither = replies.next( );
+      resourcesPoller.poll(
+          nodes( ),
+          node -> request( ( ) -> nodeService( node ).describeResourceAsync( new NcDescribeResourceType( ) ) ),
+          ( node, replyEither ) -> {
         replyEither.swap( ).forEach( e -> handleNodeException( Option.of( node ), "refresh resources", e ) );
         replyEither.forEach( reply -> {
           if ( node.setDetails(
@@ -260,7 +265,7 @@ public class ClusterNodes {
             return true;
           } );
         } );
-      }
+      } );
     } catch ( final Exception ex ) {
       handleRefreshException( "resources", ex );
     }
@@ -277,23 +282,20 @@ public class ClusterNodes {
   ) {
     final long lastRefresh = lastSensorRefresh.get( );
     if ( ( (now - lastRefresh) >= collectionIntervalTimeMs ) && lastSensorRefresh.compareAndSet( lastRefresh, now ) ) {
-      final Stream<ClusterNode> nodes = nodes( );
-      final List<Tuple2<ClusterNode,CheckedListenableFuture<NcDescribeSensorsResponseType>>> replyFutures = Lists.newArrayList( );
-      for ( final ClusterNode node : nodes ) {
-        final NodeService nodeService = nodeService( node );
-        for ( final List<String> instanceBatch :
-            Iterables.partition( node.getVms( ).map( ClusterVm::getId ).toJavaList( ArrayList::new ), 10 ) ) {
-          final NcDescribeSensorsType describeSensors = new NcDescribeSensorsType( );
-          describeSensors.setInstanceIds( Lists.newArrayList( instanceBatch ) );
-          describeSensors.setHistorySize( historySize );
-          describeSensors.setCollectionIntervalTimeMs( collectionIntervalTimeMs );
-          replyFutures.add( Tuple.of( node, nodeService.describeSensorsAsync( describeSensors ) ) );
+      sensorsPoller.poll( nodes( ), node -> {
+        final List<String> instanceIds = node.getVms( ).map( ClusterVm::getId ).toJavaList( ArrayList::new );
+        final List<Supplier<CheckedListenableFuture<NcDescribeSensorsResponseType>>> requests = Lists.newArrayList( );
+        for ( final List<String> instanceBatch : Iterables.partition( instanceIds, sensorBatchSize( instanceIds.size( ) ) ) ) {
+          requests.add( ( ) -> {
+            final NcDescribeSensorsType describeSensors = new NcDescribeSensorsType( );
+            describeSensors.setInstanceIds( Lists.newArrayList( instanceBatch ) );
+            describeSensors.setHistorySize( historySize );
+            describeSensors.setCollectionIntervalTimeMs( collectionIntervalTimeMs );
+            return nodeService( node ).describeSensorsAsync( describeSensors );
+          } );
         }
-      }
-
-      for ( final Tuple2<ClusterNode,CheckedListenableFuture<NcDescribeSensorsResponseType>> nodeAndFuture : replyFutures ) {
-        final ClusterNode node = nodeAndFuture._1;
-        final Either<Exception,NcDescribeSensorsResponseType> replyEither = Futures.asEither( nodeAndFuture._2 );
+        return requests;
+      }, ( node, replyEither ) -> {
         replyEither.swap( ).forEach( e -> handleNodeException( Option.of( node ), "refresh sensors", e ) );
         replyEither.forEach( reply -> {
           for ( final SensorsResourceType sensorsResource : reply.getSensorsResources() ) {
@@ -304,7 +306,7 @@ public class ClusterNodes {
             }
           }
         } );
-      }
+      } );
     }
   }
 
@@ -316,18 +318,12 @@ public class ClusterNodes {
       final long now
   ) {
     final Stream<ClusterNode> nodes = nodes( );
-    final List<CheckedListenableFuture<NcDescribeInstancesResponseType>> replyFutures = Lists.newArrayList( );
-    for ( final ClusterNode node : nodes ) {
-      final NodeService nodeService = nodeService( node );
-      replyFutures.add( nodeService.describeInstancesAsync( new NcDescribeInstancesType( ) ) );
-    }
-
     final Set<Tuple3<String, String, String>> migrationActions = Sets.newLinkedHashSet( );
     try {
-      final Iterator<Either<Exception, NcDescribeInstancesResponseType>> replies =
-          Futures.allAsEitherList( replyFutures ).get( ).iterator( );
-      for ( final ClusterNode node : nodes ) {
-        final Either<Exception, NcDescribeInstancesResponseType> replyEither = replies.next( );
+      vmsPoller.poll(
+          nodes,
+          node -> request( ( ) -> nodeService( node ).describeInstancesAsync( new NcDescribeInstancesType( ) ) ),
+          ( node, replyEither ) -> {
         replyEither.swap( ).forEach( e -> handleNodeException( Option.of( node ), "refresh vms", e ) );
         replyEither.forEach( reply -> reply.getInstances( ).forEach( nodeVm -> nodeWithVm( nodeVm.getInstanceId( ) ).map( nodeVmTuple -> {
           final ClusterVm vm = nodeVmTuple._2;
@@ -404,7 +400,7 @@ public class ClusterNodes {
           vm.getVolumeAttachments( ).keySet( ).retainAll( volumeIds );
           return vm;
         } ).orElse( () -> Option.of( node.vm( ClusterVm.create( nodeVm, now ) ) ) ) ) );
-      }
+      } );
     } catch ( final Exception ex ) {
       handleRefreshException( "vms", ex );
     }
@@ -439,6 +435,30 @@ public class ClusterNodes {
     }
   }
 
+  /**
+   * Latency and staleness for each node and type of poll.
+   */
+  public Stream<ClusterNodePollStatistics> pollStatistics( ) {
+    return resourcesPoller.statistics( )
+        .appendAll( vmsPoller.statistics( ) )
+        .appendAll( sensorsPoller.statistics( ) );
+  }
+
+  /**
+   * Sensor batch size for the instances on a node, the fewest equally sized batches within the
+   * maximum batch size.
+   */
+  static int sensorBatchSize( final int instances ) {
+    final int batches = Math.max( 1, ( instances + SENSOR_BATCH_SIZE - 1 ) / SENSOR_BATCH_SIZE );
+    return Math.max( 1, ( instances + batches - 1 ) / batches );
+  }
+
+  private static <R> List<Supplier<CheckedListenableFuture<R>>> request(
+      final Supplier<CheckedListenableFuture<R>> request
+  ) {
+    return Collections.singletonList( request );
+  }
+
   @SuppressWarnings( "WeakerAccess" )
   public void logStatus( ) {
     while ( true ) {
@@ -556,27 +576,35 @@ public class ClusterNodes {
   private boolean handleNodeException( final Option<ClusterNode> node, final String activity, final Exception ex ) {
     boolean handled = false;
     final ConnectException connectException = Exceptions.findCause( ex, ConnectException.class );
+    final ClusterNodeTimeoutException timeoutException = Exceptions.findCause( ex, ClusterNodeTimeoutException.class );
     if ( connectException != null ) {
       if ( node.isDefined( ) ) {
-        node.forEach( clusterNode -> {
-          clusterNode.clearCapacity( );
-          if ( !Component.State.NOTREADY.name( ).equals(clusterNode.getNodeStatus( ) ) ) {
-            logger.info( "Error connecting to node " + clusterNode.getNode( ) + " for " + activity );
-          }
-          if ( clusterNode.setStatus(
-              Component.State.NOTREADY.name( ),
-              ClusterNode.NODE_STATUS_DETAIL_NOTREADY ) ) {
-            logger.info( "Node status updated due to network issue " + clusterNode );
-          }
-        } );
+        node.forEach( clusterNode -> setNotReady( clusterNode, "Error connecting to node", activity ) );
       } else {
         logger.info( "Error connecting to node for " + activity );
       }
       handled = true;
+    } else if ( timeoutException != null ) {
+      if ( timeoutException.getFailures( ) >= NODE_TIMEOUT_FAILURES ) {
+        node.forEach( clusterNode -> setNotReady( clusterNode, "Repeated timeouts for node", activity ) );
+      }
+      handled = true;
     }
     return handled;
   }
 
+  private void setNotReady( final ClusterNode clusterNode, final String reason, final String activity ) {
+    clusterNode.clearCapacity( );
+    if ( !Component.State.NOTREADY.name( ).equals(clusterNode.getNodeStatus( ) ) ) {
+      logger.info( reason + " " + clusterNode.getNode( ) + " for " + activity );
+    }
+    if ( clusterNode.setStatus(
+        Component.State.NOTREADY.name( ),
+        ClusterNode.NODE_STATUS_DETAIL_NOTREADY ) ) {
+      logger.info( "Node status updated due to network issue " + clusterNode );
+    }
+  }
+
   private static class ClusterNodesStatus {
     private final int instancesTotal;
     private final int instancesExtant;
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.cluster.service.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import com.eucalyptus.cluster.service.node.ClusterNode;
+import com.eucalyptus.cluster.service.vm.ClusterVmType;
+import io.vavr.collection.Stream;
+import io.vavr.control.Option;
+
+/**
+ * Nodes bucketed by the number of instances of a vm type that fit in the available capacity.
+ *
+ * <p>Buckets are kept in node order so that nodes with equal capacity are selected in the
+ * order given.</p>
+ */
+final class CapacityIndex {
+
+  private final ClusterVmType vmType;
+  private final TreeMap<Integer,Deque<ClusterNode>> nodesBySlots = new TreeMap<>( );
+
+  private CapacityIndex( final ClusterVmType vmType ) {
+    this.vmType = vmType;
+  }
+
+  static CapacityIndex of( final Stream<ClusterNode> nodes, final ClusterVmType vmType ) {
+    final CapacityIndex index = new CapacityIndex( vmType );
+    nodes.forEach( node -> index.add( node, false ) );
+    return index;
+  }
+
+  /**
+   * The number of instances of the vm type that fit in the available capacity of the node.
+   */
+  static int slots( final ClusterNode node, final ClusterVmType vmType ) {
+    return Math.min(
+        slots( node.getCoresAvailable( ), vmType.getCores( ) ),
+        Math.min(
+            slots( node.getDiskAvailable( ), vmType.getDisk( ) ),
+            slots( node.getMemoryAvailable( ), vmType.getMemory( ) ) ) );
+  }
+
+  boolean isEmpty( ) {
+    return nodesBySlots.isEmpty( );
+  }
+
+  /**
+   * Remove the node with the least capacity for the vm type.
+   */
+  Option<ClusterNode> pollLeast( ) {
+    return poll( nodesBySlots.firstEntry( ) );
+  }
+
+  /**
+   * Remove the node with the most capacity for the vm type.
+   */
+  Option<ClusterNode> pollMost( ) {
+    return poll( nodesBySlots.lastEntry( ) );
+  }
+
+  /**
+   * Add a node using its current capacity, nodes without capacity are not added.
+   *
+   * @param first True to select the node before others with equal capacity
+   */
+  void add( final ClusterNode node, final boolean first ) {
+    final int slots = slots( node, vmType );
+    if ( slots > 0 ) {
+      final Deque<ClusterNode> bucket = nodesBySlots.computeIfAbsent( slots, __ -> new ArrayDeque<>( ) );
+      if ( first ) {
+        bucket.addFirst( node );
+      } else {
+        bucket.addLast( node );
+      }
+    }
+  }
+
+  private Option<ClusterNode> poll( final Map.Entry<Integer,Deque<ClusterNode>> entry ) {
+    if ( entry == null ) {
+      return Option.none( );
+    }
+    final ClusterNode node = entry.getValue( ).pollFirst( );
+    if ( entry.getValue( ).isEmpty( ) ) {
+      nodesBySlots.remove( entry.getKey( ) );
+    }
+    return Option.of( node );
+  }
+
+  private static int slots( final int available, final int required ) {
+    return required <= 0 ? Integer.MAX_VALUE : Math.max( 0, available / required );
+  }
+}
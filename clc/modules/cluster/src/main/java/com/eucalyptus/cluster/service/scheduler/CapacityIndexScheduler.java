@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.cluster.service.scheduler;
+
+import java.util.List;
+import com.eucalyptus.cluster.service.node.ClusterNode;
+import com.eucalyptus.cluster.service.vm.ClusterVmType;
+import com.google.common.collect.Lists;
+import io.vavr.collection.Stream;
+import io.vavr.control.Option;
+
+/**
+ * Scheduler selecting nodes from a capacity index for the vm type.
+ *
+ * <p>Capacity is reserved per node without the scheduling lock and multiple instances are
+ * scheduled with a single pass over the nodes.</p>
+ */
+public abstract class CapacityIndexScheduler implements Scheduler {
+
+  private final boolean pack;
+
+  /**
+   * @param pack True to fill nodes with the least capacity first, false to spread instances
+   */
+  protected CapacityIndexScheduler( final boolean pack ) {
+    this.pack = pack;
+  }
+
+  @Override
+  public Option<ClusterNode> schedule(
+      final Stream<ClusterNode> nodes,
+      final ClusterVmType vmTypeResources
+  ) {
+    return schedule( nodes, vmTypeResources, 1 ).headOption( );
+  }
+
+  @Override
+  public Stream<ClusterNode> schedule(
+      final Stream<ClusterNode> nodes,
+      final ClusterVmType vmTypeResources,
+      final int count
+  ) {
+    final Option<ScheduleResource> resourceOption = ScheduleResource.active( );
+    if ( resourceOption.isEmpty( ) ) {
+      return Stream.empty( );
+    }
+    if ( count == 1 ) {
+      return scheduleOne( nodes, vmTypeResources, resourceOption.get( ) ).toStream( );
+    }
+    final CapacityIndex index = CapacityIndex.of( nodes, vmTypeResources );
+    final List<ClusterNode> scheduled = Lists.newArrayList( );
+    while ( scheduled.size( ) < count && !index.isEmpty( ) ) {
+      final ClusterNode node = ( pack ? index.pollLeast( ) : index.pollMost( ) ).get( );
+      if ( resourceOption.get( ).reserve( node, vmTypeResources ) ) {
+        scheduled.add( node );
+      }
+      // re-index with capacity after reservation, or as updated concurrently
+      index.add( node, pack );
+    }
+    return Stream.ofAll( scheduled );
+  }
+
+  /**
+   * Schedule a single instance with a scan of the nodes rather than building an index.
+   */
+  private Option<ClusterNode> scheduleOne(
+      final Stream<ClusterNode> nodes,
+      final ClusterVmType vmTypeResources,
+      final ScheduleResource resource
+  ) {
+    while ( true ) {
+      ClusterNode selected = null;
+      int selectedSlots = 0;
+      for ( final ClusterNode node : nodes ) {
+        final int slots = CapacityIndex.slots( node, vmTypeResources );
+        if ( slots > 0 && ( selected == null || ( pack ? slots < selectedSlots : slots > selectedSlots ) ) ) {
+          selected = node;
+          selectedSlots = slots;
+        }
+      }
+      if ( selected == null ) {
+        return Option.none( );
+      }
+      if ( resource.reserve( selected, vmTypeResources ) ) {
+        return Option.of( selected );
+      }
+    }
+  }
+}
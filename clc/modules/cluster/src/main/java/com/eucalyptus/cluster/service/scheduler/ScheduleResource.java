@@ -28,9 +28,12 @@
  ************************************************************************/
 package com.eucalyptus.cluster.service.scheduler;
 
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import com.eucalyptus.cluster.service.node.ClusterNode;
+import com.eucalyptus.cluster.service.vm.ClusterVmType;
 import com.google.common.collect.Sets;
 import io.vavr.control.Option;
 
@@ -43,12 +46,11 @@ public class ScheduleResource implements AutoCloseable {
   private static final Set<ScheduleResource> activeScheduleResources = Sets.newConcurrentHashSet( );
 
   private final AtomicBoolean complete = new AtomicBoolean( false );
+  private final Queue<Reservation> reservations = new ConcurrentLinkedQueue<>( );
 
-  private volatile String node;
   private volatile int cores;
   private volatile int disk;
   private volatile int memory;
-  private volatile Runnable rollback;
 
   static Option<ScheduleResource> active( ) {
     return Option.of( threadScheduleResource.get( ) );
@@ -68,10 +70,9 @@ public class ScheduleResource implements AutoCloseable {
   }
 
   public void rollback( ) {
-    final Runnable rollback = this.rollback;
     Scheduler.withLock( () -> {
-      if ( complete( ) && rollback != null ) {
-        rollback.run( );
+      if ( complete( ) ) {
+        reservations.forEach( reservation -> reservation.adjustWithFactor( reservation.clusterNode, -1 ) );
       }
       return true;
     } );
@@ -89,22 +90,46 @@ public class ScheduleResource implements AutoCloseable {
   }
 
   void apply( final ClusterNode clusterNode ) {
-    this.node = clusterNode.getNode( );
-    adjust( clusterNode );
-    this.rollback = ( ) -> adjustWithFactor( clusterNode, -1 );
+    final Reservation reservation = new Reservation( clusterNode, cores, disk, memory );
+    reservations.add( reservation );
+    reservation.adjustWithFactor( clusterNode, 1 );
   }
 
-  void adjust( final ClusterNode clusterNode ) {
-    adjustWithFactor( clusterNode, 1 );
+  /**
+   * Reserve capacity for the vm type on the node without the scheduling lock.
+   *
+   * <p>The reservation is recorded before the capacity is reserved so that a concurrent
+   * refresh of the node capacity includes it, at worst the reservation is counted twice
+   * until the next refresh.</p>
+   *
+   * <p>If the capacity cannot be reserved the reservation is removed, capacity taken for the
+   * reservation by a refresh of the node is returned. Refreshes hold the scheduling lock so
+   * this is done with the lock held.</p>
+   *
+   * @return True if the capacity was reserved
+   */
+  boolean reserve( final ClusterNode clusterNode, final ClusterVmType vmType ) {
+    final Reservation reservation =
+        new Reservation( clusterNode, vmType.getCores( ), vmType.getDisk( ), vmType.getMemory( ) );
+    reservations.add( reservation );
+    if ( clusterNode.reserve( vmType.getCores( ), vmType.getDisk( ), vmType.getMemory( ) ) ) {
+      return true;
+    }
+    Scheduler.withLock( ( ) -> {
+      if ( reservations.remove( reservation ) && reservation.refreshed ) {
+        reservation.adjustWithFactor( clusterNode, -1 );
+      }
+      return true;
+    } );
+    return false;
   }
 
-  private void adjustWithFactor( final ClusterNode clusterNode, final int factor ) {
-    if ( clusterNode.getNode( ).equals( this.node ) ) {
-      clusterNode.setAvailability(
-          clusterNode.getCoresAvailable( ) - (cores * factor),
-          clusterNode.getDiskAvailable( ) - (disk * factor),
-          clusterNode.getMemoryAvailable( ) - (memory * factor) );
-    }
+  void adjust( final ClusterNode clusterNode ) {
+    reservations.forEach( reservation -> {
+      if ( reservation.adjustWithFactor( clusterNode, 1 ) ) {
+        reservation.refreshed = true;
+      }
+    } );
   }
 
   private boolean complete( ) {
@@ -115,4 +140,27 @@ public class ScheduleResource implements AutoCloseable {
     }
     return completing;
   }
+
+  private static final class Reservation {
+    private final ClusterNode clusterNode;
+    private final int cores;
+    private final int disk;
+    private final int memory;
+    private volatile boolean refreshed; // capacity for reservation taken by a node refresh
+
+    private Reservation( final ClusterNode clusterNode, final int cores, final int disk, final int memory ) {
+      this.clusterNode = clusterNode;
+      this.cores = cores;
+      this.disk = disk;
+      this.memory = memory;
+    }
+
+    private boolean adjustWithFactor( final ClusterNode clusterNode, final int factor ) {
+      if ( clusterNode.getNode( ).equals( this.clusterNode.getNode( ) ) ) {
+        clusterNode.adjustAvailability( -(cores * factor), -(disk * factor), -(memory * factor) );
+        return true;
+      }
+      return false;
+    }
+  }
 }
@@ -28,6 +28,7 @@
  ************************************************************************/
 package com.eucalyptus.cluster.service.scheduler;
 
+import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
@@ -35,6 +36,7 @@ import java.util.function.Supplier;
 import com.eucalyptus.cluster.service.node.ClusterNode;
 import com.eucalyptus.cluster.service.vm.ClusterVmType;
 import com.eucalyptus.util.LockResource;
+import com.google.common.collect.Lists;
 import io.vavr.collection.Stream;
 import io.vavr.control.Option;
 
@@ -49,6 +51,27 @@ public interface Scheduler {
 
   Option<ClusterNode> schedule( Stream<ClusterNode> nodes, ClusterVmType vmTypeResources );
 
+  /**
+   * Schedule multiple instances of the given type.
+   *
+   * @return The node for each scheduled instance, fewer than count if capacity is insufficient
+   */
+  default Stream<ClusterNode> schedule(
+      final Stream<ClusterNode> nodes,
+      final ClusterVmType vmTypeResources,
+      final int count
+  ) {
+    final List<ClusterNode> scheduled = Lists.newArrayList( );
+    for ( int i = 0; i < count; i++ ) {
+      final Option<ClusterNode> node = schedule( nodes, vmTypeResources );
+      if ( node.isEmpty( ) ) {
+        break;
+      }
+      scheduled.add( node.get( ) );
+    }
+    return Stream.ofAll( scheduled );
+  }
+
   static <R> R withLock( Supplier<R> schedulingAction ) {
     try ( final LockResource resource = LockResource.lock( schedulingLock ) ) {
       return schedulingAction.get( );
@@ -0,0 +1,23 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.cluster.service.scheduler;
+
+/**
+ * Scheduler selecting the nodes with the most capacity for the vm type first.
+ */
+public class SpreadScheduler extends CapacityIndexScheduler {
+
+  public SpreadScheduler( ) {
+    super( false );
+  }
+
+  @Override
+  public String name( ) {
+    return "SPREAD";
+  }
+}
@@ -42,6 +42,7 @@ import com.eucalyptus.cluster.common.msgs.VmRunType
 import com.eucalyptus.cluster.service.conf.ClusterEucaConfLoader
 import com.eucalyptus.cluster.service.fake.FakeClusterNodeServiceFactory
 import com.eucalyptus.cluster.service.node.ClusterNodeActivities
+import com.eucalyptus.cluster.service.node.ClusterNodePollStatistics
 import com.eucalyptus.cluster.service.node.ClusterNodes
 import com.eucalyptus.compute.common.internal.network.NetworkGroup
 import com.eucalyptus.cluster.common.msgs.VmTypeInfo
@@ -54,6 +55,7 @@ import java.time.ZoneId
 
 import static org.junit.Assert.assertEquals
 import static org.junit.Assert.assertNotNull
+import static org.junit.Assert.assertTrue
 
 /**
  *
@@ -95,6 +97,26 @@ class ClusterServiceTest {
     }
   }
 
+  @Test
+  void testPollStatistics( ) {
+    final Clock clock = Clock.fixed( Instant.now( ), ZoneId.systemDefault( ) )
+    final ClusterEucaConfLoader loader = new ClusterEucaConfLoader( { [
+        NODES: '"10.20.40.1 10.20.40.2 10.20.40.3"'
+    ] } )
+    final ClusterNodes nodes = new ClusterNodes(
+        loader,
+        new FakeClusterNodeServiceFactory( clock, false )
+    )
+    nodes.refreshResources( );
+    nodes.refreshVms( clock.millis( ) );
+    assertEquals( 'statistics count', 6, nodes.pollStatistics( ).size( ) )
+    nodes.pollStatistics( ).forEach { ClusterNodePollStatistics statistics ->
+      assertEquals( 'failures', 0, statistics.failures )
+      assertEquals( 'timeouts', 0L, statistics.timeouts )
+      assertTrue( 'staleness', statistics.stalenessMillis >= 0 )
+    }
+  }
+
   @Test
   void testDescribeSensors( ) {
     final Clock clock = Clock.fixed( Instant.now( ), ZoneId.systemDefault( ) )
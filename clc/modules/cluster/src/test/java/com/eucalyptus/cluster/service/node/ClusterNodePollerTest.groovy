@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.cluster.service.node
+
+import static org.junit.Assert.*
+import groovy.transform.CompileStatic
+import com.eucalyptus.util.async.CheckedListenableFuture
+import com.eucalyptus.util.async.Futures
+import com.eucalyptus.util.concurrent.GenericCheckedListenableFuture
+import io.vavr.collection.Stream
+import io.vavr.control.Either
+import org.junit.Test
+
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.function.BiConsumer
+import java.util.function.Function
+import java.util.function.Supplier
+
+/**
+ *
+ */
+@CompileStatic
+class ClusterNodePollerTest {
+
+  private static final long TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos( 200 )
+  private static final long BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos( 300 )
+
+  private final ClusterNode fast = new ClusterNode( '10.20.40.1' )
+  private final ClusterNode slow = new ClusterNode( '10.20.40.2' )
+
+  @Test
+  void testSlowNodeIsolation( ) {
+    Semaphore permits = new Semaphore( 2 )
+    ClusterNodePoller<String> poller = poller( permits )
+    CheckedListenableFuture<String> slowFuture = new GenericCheckedListenableFuture<String>( ) {
+      @Override
+      boolean cancel( final boolean mayInterruptIfRunning ) {
+        cancel( )
+      }
+    }
+    Map<String,Either<Exception,String>> replies = [ : ]
+
+    long start = System.nanoTime( )
+    poller.poll( Stream.of( fast, slow ), { ClusterNode node ->
+      [ { node == fast ? Futures.predestinedFuture( 'fast-1' ) : slowFuture } as Supplier<CheckedListenableFuture<String>> ]
+    } as Function<ClusterNode,List<Supplier<CheckedListenableFuture<String>>>>, recorder( replies ) )
+    long elapsed = System.nanoTime( ) - start
+
+    assertEquals( 'replies', [ fast.node, slow.node ] as Set, replies.keySet( ) )
+    assertEquals( 'fast reply', Either.right( 'fast-1' ), replies[ fast.node ] )
+    assertEquals( 'slow timeout failures', 1, timeoutFailures( replies[ slow.node ] ) )
+    assertTrue( 'poll bounded by timeout', elapsed < TIMEOUT_NANOS + TimeUnit.SECONDS.toNanos( 1 ) )
+    assertTrue( 'slow request cancelled', slowFuture.isCancelled( ) )
+    awaitPermits( permits, 2 )
+    ClusterNodePollStatistics slowStatistics = statistics( poller, slow )
+    assertEquals( 'slow timeouts', 1L, slowStatistics.timeouts )
+    assertEquals( 'slow failures', 1, slowStatistics.failures )
+    assertEquals( 'fast failures', 0, statistics( poller, fast ).failures )
+
+    replies.clear( )
+    poller.poll( Stream.of( fast, slow ), requests( 'fast-2', 'slow-2' ), recorder( replies ) )
+    assertEquals( 'slow node backing off', [ ( fast.node ): Either.right( 'fast-2' ) ], replies )
+    assertEquals( 'permits released', 2, permits.availablePermits( ) )
+
+    TimeUnit.NANOSECONDS.sleep( BACKOFF_NANOS )
+    replies.clear( )
+    poller.poll( Stream.of( fast, slow ), requests( 'fast-3', 'slow-3' ), recorder( replies ) )
+    assertEquals( 'slow node polled after backoff',
+        [ ( fast.node ): Either.right( 'fast-3' ), ( slow.node ): Either.right( 'slow-3' ) ], replies )
+    assertEquals( 'slow failures reset', 0, statistics( poller, slow ).failures )
+  }
+
+  @Test
+  void testPermitHeldUntilComplete( ) {
+    Semaphore permits = new Semaphore( 2 )
+    ClusterNodePoller<String> poller = poller( permits )
+    CheckedListenableFuture<String> slowFuture = Futures.newGenericeFuture( )
+    Map<String,Either<Exception,String>> replies = [ : ]
+    Closure slowRequests = { ClusterNode node ->
+      [ { slowFuture } as Supplier<CheckedListenableFuture<String>> ]
+    }
+
+    poller.poll( Stream.of( slow ), slowRequests as Function<ClusterNode,List<Supplier<CheckedListenableFuture<String>>>>, recorder( replies ) )
+    assertEquals( 'slow timeout failures', 1, timeoutFailures( replies[ slow.node ] ) )
+    assertEquals( 'permit held for outstanding request', 1, permits.availablePermits( ) )
+
+    // node not polled again while the request is outstanding
+    TimeUnit.NANOSECONDS.sleep( BACKOFF_NANOS )
+    replies.clear( )
+    poller.poll( Stream.of( slow ), requests( null, 'slow-1' ), recorder( replies ) )
+    assertEquals( 'not polled while outstanding', [ : ], replies )
+
+    // reply after timeout is discarded, not handled by a later poll
+    slowFuture.set( 'slow-late' )
+    awaitPermits( permits, 2 )
+    Closure timingOut = { ClusterNode node ->
+      [ { Futures.newGenericeFuture( ) } as Supplier<CheckedListenableFuture<String>> ]
+    }
+    poller.poll( Stream.of( slow ), timingOut as Function<ClusterNode,List<Supplier<CheckedListenableFuture<String>>>>, recorder( replies ) )
+    assertEquals( 'slow consecutive timeout failures', 2, timeoutFailures( replies[ slow.node ] ) )
+    assertEquals( 'slow timeouts', 2L, statistics( poller, slow ).timeouts )
+  }
+
+  @Test
+  void testBackoff( ) {
+    ClusterNodePoller<String> poller = poller( new Semaphore( 2 ) )
+    Map<String,Either<Exception,String>> replies = [ : ]
+    Closure failing = { ClusterNode node ->
+      [ { Futures.predestinedFailedFuture( new IOException( 'refused' ) ) } as Supplier<CheckedListenableFuture<String>> ]
+    }
+
+    poller.poll( Stream.of( fast ), failing as Function<ClusterNode,List<Supplier<CheckedListenableFuture<String>>>>, recorder( replies ) )
+    assertTrue( 'failure handled', replies[ fast.node ].isLeft( ) )
+    assertEquals( 'failures', 1, statistics( poller, fast ).failures )
+    assertEquals( 'no timeouts', 0L, statistics( poller, fast ).timeouts )
+
+    replies.clear( )
+    poller.poll( Stream.of( fast ), requests( 'fast-1', null ), recorder( replies ) )
+    assertEquals( 'not polled during backoff', [ : ], replies )
+
+    TimeUnit.NANOSECONDS.sleep( BACKOFF_NANOS )
+    poller.poll( Stream.of( fast ), requests( 'fast-2', null ), recorder( replies ) )
+    assertEquals( 'polled after backoff', [ ( fast.node ): Either.right( 'fast-2' ) ], replies )
+    assertEquals( 'failures reset', 0, statistics( poller, fast ).failures )
+  }
+
+  @Test
+  void testSensorBatchSize( ) {
+    assertEquals( 'no instances', 1, ClusterNodes.sensorBatchSize( 0 ) )
+    assertEquals( 'single instance', 1, ClusterNodes.sensorBatchSize( 1 ) )
+    assertEquals( 'maximum batch', 100, ClusterNodes.sensorBatchSize( 100 ) )
+    assertEquals( 'two equal batches', 51, ClusterNodes.sensorBatchSize( 101 ) )
+    assertEquals( 'three equal batches', 84, ClusterNodes.sensorBatchSize( 250 ) )
+  }
+
+  private static ClusterNodePoller<String> poller( Semaphore permits ) {
+    new ClusterNodePoller<String>( 'test', permits, TIMEOUT_NANOS, BACKOFF_NANOS )
+  }
+
+  private Function<ClusterNode,List<Supplier<CheckedListenableFuture<String>>>> requests( String fastReply, String slowReply ) {
+    Closure requests = { ClusterNode node ->
+      [ { Futures.predestinedFuture( node == fast ? fastReply : slowReply ) } as Supplier<CheckedListenableFuture<String>> ]
+    }
+    requests as Function<ClusterNode,List<Supplier<CheckedListenableFuture<String>>>>
+  }
+
+  private static BiConsumer<ClusterNode,Either<Exception,String>> recorder( Map<String,Either<Exception,String>> replies ) {
+    Closure recorder = { ClusterNode node, Either<Exception,String> reply ->
+      replies.put( node.node, reply )
+    }
+    recorder as BiConsumer<ClusterNode,Either<Exception,String>>
+  }
+
+  private static int timeoutFailures( Either<Exception,String> reply ) {
+    assertNotNull( 'reply', reply )
+    assertTrue( 'timeout', reply.isLeft( ) && reply.getLeft( ) instanceof ClusterNodeTimeoutException )
+    ( (ClusterNodeTimeoutException) reply.getLeft( ) ).failures
+  }
+
+  private static void awaitPermits( Semaphore permits, int expected ) {
+    long deadline = System.nanoTime( ) + TimeUnit.SECONDS.toNanos( 5 )
+    while ( permits.availablePermits( ) != expected && System.nanoTime( ) - deadline < 0 ) {
+      TimeUnit.MILLISECONDS.sleep( 10 )
+    }
+    assertEquals( 'permits released', expected, permits.availablePermits( ) )
+  }
+
+  private static ClusterNodePollStatistics statistics( ClusterNodePoller<String> poller, ClusterNode node ) {
+    poller.statistics( ).toJavaList( ).find{ ClusterNodePollStatistics statistics -> statistics.node == node.node }
+  }
+}
@@ -28,13 +28,26 @@
  ************************************************************************/
 package com.eucalyptus.cluster.service.scheduler
 
+import com.eucalyptus.cluster.service.conf.ClusterEucaConfLoader
+import com.eucalyptus.cluster.service.fake.FakeClusterNodeServiceFactory
 import com.eucalyptus.cluster.service.node.ClusterNode
+import com.eucalyptus.cluster.service.node.ClusterNodes
 import com.eucalyptus.cluster.service.vm.ClusterVmType
 import io.vavr.collection.Stream
 import io.vavr.control.Option
 import org.junit.Assert
+import org.junit.Ignore
 import org.junit.Test
 
+import java.time.Clock
+import java.time.Instant
+import java.time.ZoneId
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.locks.ReentrantLock
+
 /**
  *
  */
@@ -238,6 +251,220 @@ class SchedulerTest {
     }
   }
 
+  @Test
+  void testBinPackSchedulerLeastCapacity( ) {
+    Scheduler scheduler = new BinPackScheduler( )
+    ClusterNode node1 = node( "one", 10, 100, 10_000 )
+    ClusterNode node2 = node( "two", 4, 100, 10_000 )
+    ClusterNode node3 = node( "three", 10, 1, 10_000 )
+    Option<ClusterNode> scheduledNodeOption = Schedulers.withAutoCommitContext{
+      scheduler.schedule( Stream.of( node1, node2, node3 ), type( 1, 5, 512 ) )
+    }
+    Assert.assertTrue( 'scheduled', scheduledNodeOption.defined )
+    Assert.assertEquals( 'node', node2.node, scheduledNodeOption.get( ).node )
+    Assert.assertEquals( 'available cores', 3, node2.coresAvailable )
+    Assert.assertEquals( 'available disk', 95, node2.diskAvailable )
+    Assert.assertEquals( 'available memory', 9_488, node2.memoryAvailable )
+  }
+
+  @Test
+  void testBinPackSchedulerMultipleInstances( ) {
+    Scheduler scheduler = new BinPackScheduler( )
+    ClusterNode node1 = node( "one", 10, 20, 10_000 )
+    ClusterNode node2 = node( "two", 10, 20, 10_000 )
+    Stream<ClusterNode> scheduledNodes = Schedulers.withAutoCommitContext{
+      scheduler.schedule( Stream.of( node1, node2 ), type( 1, 5, 512 ), 6 )
+    }
+    Assert.assertEquals( 'nodes', [ 'one', 'one', 'one', 'one', 'two', 'two' ], scheduledNodes.map{ it.node }.toJavaList( ) )
+    Assert.assertEquals( 'available disk', 0, node1.diskAvailable )
+    Assert.assertEquals( 'available disk', 10, node2.diskAvailable )
+  }
+
+  @Test
+  void testSpreadSchedulerMostCapacity( ) {
+    Scheduler scheduler = new SpreadScheduler( )
+    ClusterNode node1 = node( "one", 4, 100, 10_000 )
+    ClusterNode node2 = node( "two", 10, 100, 10_000 )
+    Option<ClusterNode> scheduledNodeOption = Schedulers.withAutoCommitContext{
+      scheduler.schedule( Stream.of( node1, node2 ), type( 1, 5, 512 ) )
+    }
+    Assert.assertTrue( 'scheduled', scheduledNodeOption.defined )
+    Assert.assertEquals( 'node', node2.node, scheduledNodeOption.get( ).node )
+  }
+
+  @Test
+  void testSpreadSchedulerMultipleInstances( ) {
+    Scheduler scheduler = new SpreadScheduler( )
+    ClusterNode node1 = node( "one", 10, 20, 10_000 )
+    ClusterNode node2 = node( "two", 10, 20, 10_000 )
+    ClusterNode node3 = node( "three", 10, 10, 10_000 )
+    Stream<ClusterNode> scheduledNodes = Schedulers.withAutoCommitContext{
+      scheduler.schedule( Stream.of( node1, node2, node3 ), type( 1, 5, 512 ), 6 )
+    }
+    Assert.assertEquals( 'nodes', [ 'one', 'two', 'one', 'two', 'three', 'one' ], scheduledNodes.map{ it.node }.toJavaList( ) )
+  }
+
+  @Test
+  void testCapacitySchedulerInstancesToCapacity( ) {
+    Scheduler scheduler = new BinPackScheduler( )
+    ClusterNode node1 = node( "one", 10, 10, 10_000 )
+    ClusterNode node2 = node( "two", 10, 10, 10_000 )
+    Stream<ClusterNode> scheduledNodes = Schedulers.withAutoCommitContext{
+      scheduler.schedule( Stream.of( node1, node2 ), type( 1, 5, 512 ), 5 )
+    }
+    Assert.assertEquals( 'scheduled count', 4, scheduledNodes.size( ) )
+    Assert.assertEquals( 'available disk', 0, node1.diskAvailable )
+    Assert.assertEquals( 'available disk', 0, node2.diskAvailable )
+  }
+
+  @Test
+  void testCapacitySchedulerRollback( ) {
+    Scheduler scheduler = new SpreadScheduler( )
+    ClusterNode node1 = node( "one", 10, 10, 10_000 )
+    ClusterNode node2 = node( "two", 10, 10, 10_000 )
+    Stream<ClusterNode> scheduledNodes = Schedulers.withContext{
+      scheduler.schedule( Stream.of( node1, node2 ), type( 1, 5, 512 ), 3 )
+    }
+    Assert.assertEquals( 'scheduled count', 3, scheduledNodes.size( ) )
+    [ node1, node2 ].each { ClusterNode node ->
+      Assert.assertEquals( 'available cores', 10, node.coresAvailable )
+      Assert.assertEquals( 'available disk', 10, node.diskAvailable )
+      Assert.assertEquals( 'available memory', 10_000, node.memoryAvailable )
+    }
+  }
+
+  @Test
+  void testCapacitySchedulerAdjustForRefresh( ) {
+    Scheduler scheduler = new BinPackScheduler( )
+    ClusterNode node1 = node( "one", 10, 20, 10_000 )
+    ScheduleResource resource = Schedulers.context( )
+    try {
+      scheduler.schedule( Stream.of( node1 ), type( 1, 5, 512 ), 2 )
+      node1.setAvailability( 10, 10, 20, 20, 10_000, 10_000 )
+      Scheduler.adjust( node1 )
+      Assert.assertEquals( 'available disk', 10, node1.diskAvailable )
+      resource.commit( )
+    } finally {
+      resource.close( )
+    }
+    Assert.assertEquals( 'available disk', 10, node1.diskAvailable )
+  }
+
+  @Test
+  void testCapacityReserveFailureAfterRefresh( ) {
+    ClusterNode node1 = node( "one", 10, 4, 10_000 )
+    ScheduleResource resource = Schedulers.context( )
+    ExecutorService executor = Executors.newSingleThreadExecutor( )
+    try {
+      Future<Boolean> reserved
+      Scheduler.withLock{
+        // reservation fails for lack of capacity and waits for the lock to remove the reservation
+        reserved = executor.submit( { resource.reserve( node1, type( 1, 5, 512 ) ) } as Callable<Boolean> )
+        while ( !( (ReentrantLock) Scheduler.schedulingLock ).hasQueuedThreads( ) ) {
+          Thread.sleep( 5 )
+        }
+        // refresh applies the failed reservation
+        node1.setAvailability( 10, 10, 10, 10, 10_000, 10_000 )
+        Scheduler.adjust( node1 )
+        Assert.assertEquals( 'available disk after refresh', 5, node1.diskAvailable )
+        true
+      }
+      Assert.assertFalse( 'reserved', reserved.get( ) )
+      Assert.assertEquals( 'available disk', 10, node1.diskAvailable )
+      resource.commit( )
+    } finally {
+      resource.close( )
+      executor.shutdown( )
+    }
+  }
+
+  @Test
+  void testCapacityReserveFailure( ) {
+    ClusterNode node1 = node( "one", 10, 4, 10_000 )
+    ScheduleResource resource = Schedulers.context( )
+    try {
+      Assert.assertFalse( 'reserved', resource.reserve( node1, type( 1, 5, 512 ) ) )
+      Assert.assertEquals( 'available disk', 4, node1.diskAvailable )
+      Scheduler.adjust( node1 )
+      Assert.assertEquals( 'available disk after refresh', 4, node1.diskAvailable )
+      resource.commit( )
+    } finally {
+      resource.close( )
+    }
+  }
+
+  @Test
+  void testCapacitySchedulerManyNodes( ) {
+    Scheduler scheduler = new BinPackScheduler( )
+    List<ClusterNode> nodes = ( 1..1000 ).collect { Integer number ->
+      node("node${number}", 10, 10, 10_000)
+    }
+    Stream<ClusterNode> scheduledNodes = Schedulers.withAutoCommitContext{
+      scheduler.schedule( Stream.ofAll( nodes ), type( 1, 5, 512 ), 2000 )
+    }
+    Assert.assertEquals( 'scheduled count', 2000, scheduledNodes.size( ) )
+    Assert.assertEquals( 'scheduled nodes', nodes.collectMany{ [ it.node, it.node ] }, scheduledNodes.map{ it.node }.toJavaList( ) )
+  }
+
+  /**
+   * Place RunInstances requests of 200 instances from concurrent threads on 1,000 fake nodes,
+   * one instance at a time and in batches.
+   */
+  @Ignore( "Manual development test" )
+  @Test
+  void benchmarkSchedulers( ) {
+    final Clock clock = Clock.fixed( Instant.now( ), ZoneId.systemDefault( ) )
+    final List<String> addresses = ( 0..<1000 ).collect{ Integer number -> "10.20.${number.intdiv( 250 )}.${number % 250 + 1}".toString( ) }
+    final ClusterNodes clusterNodes = new ClusterNodes(
+        new ClusterEucaConfLoader( { [ NODES: '"' + addresses.join( ' ' ) + '"' ] } ),
+        new FakeClusterNodeServiceFactory( clock, false ),
+        clock
+    )
+    clusterNodes.refreshResources( )
+    final List<ClusterNode> nodes = clusterNodes.nodes( ).toJavaList( )
+    final ClusterVmType vmType = type( 1, 5, 512 )
+    final int threads = 8
+    final int requests = 120
+    final int instancesPerRequest = 200
+    final ExecutorService executor = Executors.newFixedThreadPool( threads )
+    try {
+      for ( String name : [ 'GREEDY', 'ROUNDROBIN', 'BINPACK', 'SPREAD' ] ) {
+        for ( boolean batch : ( name in [ 'BINPACK', 'SPREAD' ] ? [ false, true ] : [ false ] ) ) {
+          nodes.each { ClusterNode node -> node.setAvailability( 32, 32, 1_000, 1_000, 128_000, 128_000 ) }
+          final Scheduler scheduler = [
+              GREEDY: new GreedyScheduler( ),
+              ROUNDROBIN: new RoundRobinScheduler( ),
+              BINPACK: new BinPackScheduler( ),
+              SPREAD: new SpreadScheduler( ),
+          ].get( name )
+          final long start = System.nanoTime( )
+          final List<Future<Integer>> futures = ( 1..requests ).collect{
+            executor.submit( {
+              int scheduled = 0
+              if ( batch ) {
+                scheduled = Schedulers.withAutoCommitContext{
+                  scheduler.schedule( Stream.ofAll( nodes ), vmType, instancesPerRequest ).size( )
+                }
+              } else {
+                for ( int i = 0; i < instancesPerRequest; i++ ) {
+                  scheduled += Schedulers.withAutoCommitContext{
+                    scheduler.schedule( Stream.ofAll( nodes ), vmType ).size( )
+                  }
+                }
+              }
+              scheduled
+            } as Callable<Integer> )
+          }
+          final int scheduled = futures.sum{ Future<Integer> future -> future.get( ) } as int
+          final long millis = ( System.nanoTime( ) - start ).intdiv( 1_000_000 ) as long
+          println "${name} ${batch ? 'batch' : 'single'}: ${scheduled} instances in ${millis}ms, ${( scheduled * 1000L ).intdiv( Math.max( 1L, millis ) )} instances/s"
+        }
+      }
+    } finally {
+      executor.shutdown( )
+    }
+  }
+
   private static ClusterNode node( String name, int cores, int disk, int memory ) {
     new ClusterNode( name, "iqn.1994-05.com.redhat:c7ec6fad289", cores, disk, memory )
   }
@@ -105,6 +105,7 @@ import com.eucalyptus.util.TypeMapper;
 import com.eucalyptus.compute.common.internal.vm.VmInstance;
 import com.eucalyptus.compute.common.internal.vm.VmInstance.VmState;
 import com.eucalyptus.vm.VmInstances;
+import com.eucalyptus.vm.dns.VmDnsTable;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
@@ -267,6 +268,7 @@ public class Addresses {
         disable( address.getAddress( ) );
       }
       if ( unassign ) {
+        VmDnsTable.invalidatePublicAddress( address.getAddress( ) );
         addressFlushRequired( );
       }
       return unassign;
@@ -308,6 +310,9 @@ public class Addresses {
     if ( unassign && !unassignTransition.get( ).newAddressInfo( ).isAllocated( ) ) {
       disable( address.getAddress( ) );
     }
+    if ( unassign ) {
+      VmDnsTable.invalidatePublicAddress( address.getAddress( ) );
+    }
     return unassign;
   }
 
@@ -340,6 +345,7 @@ public class Addresses {
         fireDisassociateUsageEvent( stopTransition.get( ) );
       }
       if ( stop ) {
+        VmDnsTable.invalidatePublicAddress( address.getAddress( ) );
         addressFlushRequired( );
       }
       return stop;
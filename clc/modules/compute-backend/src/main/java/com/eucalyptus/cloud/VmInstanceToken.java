@@ -28,12 +28,14 @@
  ************************************************************************/
 package com.eucalyptus.cloud;
 
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.log4j.Logger;
 import com.eucalyptus.auth.principal.OwnerFullName;
 import com.eucalyptus.cloud.run.Allocations;
 import com.eucalyptus.cluster.Clusters;
+import com.eucalyptus.cluster.common.Cluster;
 import com.eucalyptus.cluster.common.ResourceToken;
 import com.eucalyptus.cluster.common.ClusterController;
 import com.eucalyptus.component.Topology;
@@ -41,6 +43,7 @@ import com.eucalyptus.compute.common.CloudMetadata;
 import com.eucalyptus.compute.common.CloudMetadatas;
 import com.eucalyptus.compute.common.internal.blockstorage.Volume;
 import com.eucalyptus.compute.common.internal.vm.VmInstance;
+import com.eucalyptus.compute.common.network.NetworkResource;
 import com.eucalyptus.compute.common.network.Networking;
 import com.eucalyptus.compute.common.network.ReleaseNetworkResourcesType;
 import com.eucalyptus.vm.VmInstances;
@@ -68,8 +71,18 @@ public class VmInstanceToken extends ResourceToken implements CloudMetadata.VmIn
   private boolean             zombie;
 
   public VmInstanceToken( final Allocations.Allocation allocInfo, final int launchIndex ) {
-    super(
+    this(
+        allocInfo,
         Clusters.lookupAny( Topology.lookup( ClusterController.class, allocInfo.getPartition( ) ) ),
+        launchIndex );
+  }
+
+  /**
+   * Create a token for a cluster already looked up for the allocation partition.
+   */
+  public VmInstanceToken( final Allocations.Allocation allocInfo, final Cluster cluster, final int launchIndex ) {
+    super(
+        cluster,
         allocInfo.getVmType( ),
         VmTypes.isUnorderedType( allocInfo.getVmType( ) ),
         allocInfo.getInstanceId( launchIndex )
@@ -104,6 +117,16 @@ public class VmInstanceToken extends ResourceToken implements CloudMetadata.VmIn
   }
 
   public void abort( ) {
+    abort( null );
+  }
+
+  /**
+   * Abort the token, releasing unused resources.
+   *
+   * @param networkResources If not null, the network resources to release are added to this list
+   *                         rather than released by the token
+   */
+  public void abort( @Nullable final List<NetworkResource> networkResources ) {
     if ( aborted ) return;
     aborted = true;
 
@@ -115,7 +138,9 @@ public class VmInstanceToken extends ResourceToken implements CloudMetadata.VmIn
         LOG.error( ex, ex );
       }
 
-      try {
+      if ( networkResources != null ) {
+        networkResources.addAll( getAttribute( VmInstanceLifecycleHelper.NetworkResourcesKey ) );
+      } else try {
         final ReleaseNetworkResourcesType releaseNetworkResourcesType = new ReleaseNetworkResourcesType( );
         releaseNetworkResourcesType.setVpc( allocation.getSubnet( ) == null ?
             null :
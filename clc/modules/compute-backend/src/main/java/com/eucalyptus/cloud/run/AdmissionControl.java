@@ -280,7 +280,7 @@ public class AdmissionControl {
                   private int count = 0;
                   @Override
                   public VmInstanceToken get( ) {
-                    return new VmInstanceToken( allocInfo, count++ );
+                    return new VmInstanceToken( allocInfo, cluster, count++ );
                   }
                 } );
                 allocInfo.getAllocationTokens().addAll( ret );
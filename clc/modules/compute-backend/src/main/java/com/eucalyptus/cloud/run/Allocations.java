@@ -50,6 +50,9 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.persistence.EntityTransaction;
@@ -67,6 +70,10 @@ import com.eucalyptus.compute.common.internal.util.MetadataException;
 import com.eucalyptus.component.Partition;
 import com.eucalyptus.compute.common.backend.RunInstancesType;
 import com.eucalyptus.compute.common.internal.vpc.Subnet;
+import com.eucalyptus.compute.common.CloudMetadatas;
+import com.eucalyptus.compute.common.network.NetworkResource;
+import com.eucalyptus.compute.common.network.Networking;
+import com.eucalyptus.compute.common.network.ReleaseNetworkResourcesType;
 import com.eucalyptus.context.Context;
 import com.eucalyptus.context.Contexts;
 import com.eucalyptus.entities.Entities;
@@ -311,9 +318,7 @@ public class Allocations {
 
     public void commit() throws Exception {
       if ( !committed.get( ) ) try {
-        for (final VmInstanceToken t : this.getAllocationTokens()) {
-          VmInstances.Create.INSTANCE.apply(t);
-        }
+        VmInstances.create( this.getAllocationTokens( ) );
         committed.set( true );
       } catch (final Exception ex) {
         this.abort();
@@ -325,20 +330,24 @@ public class Allocations {
       return committed.get( );
     }
 
+    /**
+     * Abort all tokens, network resources for the tokens are released with a single request.
+     */
     public void abort() {
-      for (final VmInstanceToken token : this.allocationTokens) {
-        LOG.warn("Aborting resource token: " + token);
-        Logs.exhaust().error( "Aborting resource token", new RuntimeException( ) );
-        final EntityTransaction db = Entities.get(VmInstance.class);
-        try {
-          token.abort();
-          db.commit();
-        } catch (final Exception ex) {
-          LOG.warn(ex.getMessage());
-          Logs.exhaust().error(ex, ex);
-          db.rollback();
-        }
-      }
+      Allocations.abort(
+          this.allocationTokens,
+          () -> Entities.get( VmInstance.class ),
+          VmInstanceToken::abort,
+          this::releaseNetworkResources );
+    }
+
+    private void releaseNetworkResources( final List<NetworkResource> networkResources ) {
+      final ReleaseNetworkResourcesType releaseNetworkResourcesType = new ReleaseNetworkResourcesType( );
+      releaseNetworkResourcesType.setVpc( subnet == null ?
+          null :
+          CloudMetadatas.toDisplayName( ).apply( subnet.getVpc( ) ) );
+      releaseNetworkResourcesType.getResources( ).addAll( networkResources );
+      Networking.getInstance( ).release( releaseNetworkResourcesType );
     }
 
     public List<NetworkGroup> getNetworkGroups() {
@@ -563,6 +572,41 @@ public class Allocations {
     }
   }
 
+  /**
+   * Abort tokens, each in its own transaction.
+   *
+   * @param tokens The tokens to abort
+   * @param transactions Supplier for a transaction for each token
+   * @param tokenAbort Aborts a token, adding network resources to release to the given list
+   * @param release Releases the network resources for all tokens, called once if there are resources
+   */
+  static <T> void abort(
+      final Iterable<T> tokens,
+      final Supplier<EntityTransaction> transactions,
+      final BiConsumer<T,List<NetworkResource>> tokenAbort,
+      final Consumer<List<NetworkResource>> release
+  ) {
+    final List<NetworkResource> networkResources = Lists.newArrayList( );
+    for (final T token : tokens) {
+      LOG.warn("Aborting resource token: " + token);
+      Logs.exhaust().error( "Aborting resource token", new RuntimeException( ) );
+      final EntityTransaction db = transactions.get( );
+      try {
+        tokenAbort.accept( token, networkResources );
+        db.commit();
+      } catch (final Exception ex) {
+        LOG.warn(ex.getMessage());
+        Logs.exhaust().error(ex, ex);
+        db.rollback();
+      }
+    }
+    if ( !networkResources.isEmpty( ) ) try {
+      release.accept( networkResources );
+    } catch ( final Exception ex ) {
+      LOG.error( ex, ex );
+    }
+  }
+
   public static Allocation run(final RunInstancesType request) {
     return new Allocation(request);
   }
@@ -60,6 +60,7 @@ import com.eucalyptus.util.Exceptions;
 import com.eucalyptus.vm.MetadataRequest;
 import com.eucalyptus.compute.common.internal.vm.VmInstance;
 import com.eucalyptus.vm.VmInstanceMetadata;
+import com.eucalyptus.vm.VmInstanceMetadata.MetadataDocument;
 import com.eucalyptus.vm.VmInstances;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
@@ -223,6 +224,44 @@ public class VmMetadata {
   }
 
 
+  /**
+   * Serve an instance metadata request from a rendered document.
+   *
+   * @return The content or absent if the request must be served from the instance
+   */
+  static Optional<ByteArray> fromDocument( final MetadataDocument document,
+                                           final MetadataRequest request ) {
+    final String path = request.getLocalPath( );
+    final String value;
+    switch ( request.getMetadataName( ) ) {
+      case "":
+        return Optional.of( ByteArray.newInstance( document.getUserData( ) == null ?
+            "dynamic\nmeta-data" :
+            "dynamic\nmeta-data\nuser-data" ) );
+      case "dynamic":
+        value = document.getDynamicByKey( path );
+        break;
+      case "meta-data":
+        if ( !document.isRendered( path ) ) {
+          return Optional.absent( );
+        }
+        value = document.getByKey( path );
+        break;
+      case "user-data":
+        final byte[] userData = document.getUserData( );
+        if ( userData == null ) {
+          throw new NoSuchElementException( "Failed to lookup path: " + path );
+        }
+        return Optional.of( ByteArray.newInstance( userData ) );
+      default:
+        return Optional.absent( );
+    }
+    if ( value == null ) {
+      throw new NoSuchElementException( "Failed to lookup path: " + path );
+    }
+    return Optional.of( ByteArray.newInstance( value ) );
+  }
+
   /**
    * @return byte[] for content or String for expected error
    */
@@ -231,18 +270,28 @@ public class VmMetadata {
     try {
       final String requestIpOrInstanceId = ResourceIdentifiers.tryNormalize( ).apply( parts[0] );
       final boolean isInstanceId = requestIpOrInstanceId.startsWith( "i-" );
+      final MetadataDocument document = isInstanceId ?
+          VmMetadataDocuments.lookup( requestIpOrInstanceId ) :
+          VmMetadataDocuments.lookupByIp( requestIpOrInstanceId );
       final MetadataRequest request = new MetadataRequest(
           isInstanceId ? "127.0.0.1" : requestIpOrInstanceId,
           parts.length == 2 ?
               parts[1] :
               "/",
-          isInstanceId ? Optional.of( requestIpOrInstanceId ) : ipToVmIdCache.get( requestIpOrInstanceId ) );
+          isInstanceId ? Optional.of( requestIpOrInstanceId ) :
+              document != null ? Optional.of( document.getInstanceId( ) ) : ipToVmIdCache.get( requestIpOrInstanceId ) );
 
       if ( instanceMetadataEndpoints.containsKey( request.getMetadataName( ) ) && request.isInstance( ) ) {
         if ( ( isInstanceId && !networkingFeatureSupplier.get( ).contains( NetworkingFeature.Vpc ) ) ||
             ( !isInstanceId && !networkingFeatureSupplier.get( ).contains( NetworkingFeature.Classic ) ) ) {
           throw new NoSuchElementException( "Metadata request failed (invalid for platform): " + path );
         }
+        if ( document != null ) {
+          final Optional<ByteArray> content = fromDocument( document, request );
+          if ( content.isPresent( ) ) {
+            return content.get( ).getBytes( );
+          }
+        }
         return instanceMetadataEndpoints.get( request.getMetadataName( ) ).apply( request ).getBytes( );
       } else if ( publicMetadataEndpoints.containsKey( request.getMetadataName( ) ) ) {
         return publicMetadataEndpoints.get( request.getMetadataName( ) ).apply( request ).getBytes( );
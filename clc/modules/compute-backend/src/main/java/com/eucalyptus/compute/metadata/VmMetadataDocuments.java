@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.compute.metadata;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import com.eucalyptus.address.Addresses;
+import com.eucalyptus.bootstrap.Bootstrap;
+import com.eucalyptus.bootstrap.Databases;
+import com.eucalyptus.component.Topology;
+import com.eucalyptus.component.id.Eucalyptus;
+import com.eucalyptus.compute.common.internal.vm.VmInstance;
+import com.eucalyptus.entities.Entities;
+import com.eucalyptus.entities.TransactionResource;
+import com.eucalyptus.event.ClockTick;
+import com.eucalyptus.event.EventListener;
+import com.eucalyptus.event.Listeners;
+import com.eucalyptus.system.Threads;
+import com.eucalyptus.util.Pair;
+import com.eucalyptus.vm.VmInstanceMetadata;
+import com.eucalyptus.vm.VmInstanceMetadata.MetadataDocument;
+import com.eucalyptus.vm.VmInstances;
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+
+/**
+ * Metadata documents for running instances.
+ *
+ * <p>Documents are rendered in the background when an instance is running and re-rendered when the
+ * instance version changes, so metadata requests for running instances do not access the
+ * database.</p>
+ *
+ * <p>Documents are evicted when an instance is cleaned up, before its addresses are released. A
+ * public address can move to another instance while running, so a document is only found by public
+ * address while the address is assigned to the instance.</p>
+ */
+public class VmMetadataDocuments {
+
+  private static final Logger LOG = Logger.getLogger( VmMetadataDocuments.class );
+
+  private static final ConcurrentMap<String,MetadataDocument> documentsById = new ConcurrentHashMap<>( );
+  private static final ConcurrentMap<String,MetadataDocument> documentsByIp = new ConcurrentHashMap<>( );
+  private static final ConcurrentMap<String,Long> evictions = new ConcurrentHashMap<>( );
+  private static final long EVICTION_EXPIRY_NANOS = TimeUnit.MINUTES.toNanos( 1 );
+  private static final Semaphore refreshSemaphore = new Semaphore( 1 );
+
+  public static boolean isEnabled( ) {
+    return VmInstances.VM_METADATA_DOCUMENTS;
+  }
+
+  @Nullable
+  public static MetadataDocument lookup( final String instanceId ) {
+    return isEnabled( ) ? documentsById.get( instanceId ) : null;
+  }
+
+  @Nullable
+  public static MetadataDocument lookupByIp( final String ip ) {
+    return lookupByIp( ip, VmMetadataDocuments::lookupPublicAddressInstanceId );
+  }
+
+  /**
+   * Lookup a document by address, the document is not found by public address if the address is
+   * not currently assigned to the instance.
+   *
+   * @param publicAddressInstanceId Function to find the instance for a public address
+   */
+  @Nullable
+  static MetadataDocument lookupByIp( final String ip, final Function<String,String> publicAddressInstanceId ) {
+    final MetadataDocument document = isEnabled( ) ? documentsByIp.get( ip ) : null;
+    if ( document != null && !ip.equals( document.getPrivateAddress( ) ) &&
+        !document.getInstanceId( ).equals( publicAddressInstanceId.apply( ip ) ) ) {
+      return null;
+    }
+    return document;
+  }
+
+  /**
+   * Evict the document for an instance, documents being rendered for the instance are discarded.
+   */
+  public static void evict( final String instanceId ) {
+    evictions.put( instanceId, System.nanoTime( ) );
+    remove( instanceId );
+  }
+
+  static void put( final MetadataDocument document ) {
+    final MetadataDocument previous = documentsById.put( document.getInstanceId( ), document );
+    if ( previous != null ) {
+      removeAddresses( previous );
+    }
+    putAddress( document.getPrivateAddress( ), document );
+    putAddress( document.getPublicAddress( ), document );
+  }
+
+  static void remove( final String instanceId ) {
+    final MetadataDocument document = documentsById.remove( instanceId );
+    if ( document != null ) {
+      removeAddresses( document );
+    }
+  }
+
+  static void clear( ) {
+    documentsById.clear( );
+    documentsByIp.clear( );
+    evictions.clear( );
+  }
+
+  @Nullable
+  private static String lookupPublicAddressInstanceId( final String ip ) {
+    try {
+      return Addresses.getInstance( ).lookupActiveAddress( ip ).getInstanceId( );
+    } catch ( final NoSuchElementException e ) {
+      return null;
+    }
+  }
+
+  private static boolean evictedSince( final String instanceId, final long since ) {
+    final Long evicted = evictions.get( instanceId );
+    return evicted != null && evicted - since >= 0;
+  }
+
+  private static void putAddress( @Nullable final String ip, final MetadataDocument document ) {
+    if ( !Strings.isNullOrEmpty( ip ) ) {
+      documentsByIp.put( ip, document );
+    }
+  }
+
+  private static void removeAddresses( final MetadataDocument document ) {
+    for ( final String ip : new String[]{ document.getPrivateAddress( ), document.getPublicAddress( ) } ) {
+      if ( !Strings.isNullOrEmpty( ip ) ) {
+        documentsByIp.remove( ip, document );
+      }
+    }
+  }
+
+  /**
+   * Render documents for new or updated running instances and discard documents for instances that
+   * are no longer running.
+   */
+  static void refresh( ) {
+    if ( !refreshSemaphore.tryAcquire( ) ) {
+      return;
+    }
+    try {
+      if ( !isEnabled( ) || Databases.isVolatile( ) ) {
+        clear( );
+        return;
+      }
+      final List<Pair<String,Integer>> running = VmInstances.listWithProjection(
+          VmInstances.instanceIdAndVersionProjection( ),
+          VmInstance.criterion( VmInstance.VmState.RUNNING ) );
+      final Map<String,Integer> runningVersions = Maps.newHashMapWithExpectedSize( running.size( ) );
+      for ( final Pair<String,Integer> instanceIdAndVersion : running ) {
+        runningVersions.put( instanceIdAndVersion.getLeft( ), instanceIdAndVersion.getRight( ) );
+      }
+      refresh( runningVersions, VmMetadataDocuments::render );
+    } catch ( final Exception e ) {
+      LOG.error( "Error refreshing instance metadata documents", e );
+    } finally {
+      refreshSemaphore.release( );
+    }
+  }
+
+  /**
+   * Discard documents for instances that are not running and render documents for new or updated
+   * instances.
+   *
+   * @param runningVersions The entity version by instance id for running instances
+   * @param renderer Renders the document for an instance, null if not running
+   */
+  static void refresh( final Map<String,Integer> runningVersions,
+                       final Function<String,MetadataDocument> renderer ) {
+    final long now = System.nanoTime( );
+    evictions.values( ).removeIf( evicted -> now - evicted > EVICTION_EXPIRY_NANOS );
+    for ( final String instanceId : documentsById.keySet( ) ) {
+      if ( !runningVersions.containsKey( instanceId ) ) {
+        remove( instanceId );
+      }
+    }
+    for ( final Map.Entry<String,Integer> entry : runningVersions.entrySet( ) ) {
+      final String instanceId = entry.getKey( );
+      final MetadataDocument document = documentsById.get( instanceId );
+      if ( document == null || !Objects.equals( document.getVersion( ), entry.getValue( ) ) ) {
+        final long renderStart = System.nanoTime( );
+        final MetadataDocument rendered = renderer.apply( instanceId );
+        if ( rendered == null ) {
+          remove( instanceId );
+        } else {
+          put( rendered );
+          if ( evictedSince( instanceId, renderStart ) ) {
+            remove( instanceId ); // evicted while rendering
+          }
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private static MetadataDocument render( final String instanceId ) {
+    try ( final TransactionResource db = Entities.readOnlyDistinctTransactionFor( VmInstance.class ) ) {
+      final VmInstance instance = VmInstances.lookup( instanceId );
+      if ( VmInstance.VmState.RUNNING.apply( instance ) ) {
+        return VmInstanceMetadata.render( instance );
+      }
+    } catch ( final Exception e ) {
+      LOG.debug( "Unable to render metadata document for instance " + instanceId + ": " + e.getMessage( ) );
+    }
+    return null;
+  }
+
+  public static class VmMetadataDocumentsEventListener implements EventListener<ClockTick> {
+
+    public static void register( ) {
+      Listeners.register( ClockTick.class, new VmMetadataDocumentsEventListener( ) );
+    }
+
+    @Override
+    public void fireEvent( final ClockTick event ) {
+      if ( Bootstrap.isOperational( ) && Topology.isEnabledLocally( Eucalyptus.class ) ) {
+        if ( refreshSemaphore.availablePermits( ) > 0 ) {
+          Threads.lookup( Eucalyptus.class, VmMetadataDocuments.class ).limitTo( 1 ).submit( ( Runnable ) VmMetadataDocuments::refresh );
+        }
+      } else if ( !documentsById.isEmpty( ) ) {
+        clear( );
+      }
+    }
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.network;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import org.apache.log4j.Logger;
+import com.eucalyptus.compute.common.internal.util.NotEnoughResourcesException;
+import com.eucalyptus.util.Pair;
+import com.eucalyptus.util.RestrictedTypes;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+
+/**
+ * Private address allocator using a bitmap of used addresses for each scope and address range.
+ *
+ * <p>The bitmap for a range is loaded from persistence on first use and is updated on allocation
+ * and release, so allocating an address usually takes a single insert to confirm the address.
+ * A scope can have bitmaps for multiple ranges, such as a range for each zone when there is no
+ * scope. Bitmaps for a scope expire together a fixed time after the first is loaded so that
+ * changes from elsewhere are picked up, an address found to be in use on insert is marked used
+ * and the next free address tried.</p>
+ *
+ * <p>Single addresses and address lists larger than the maximum bitmap size are allocated first
+ * free, skipping listed allocated addresses.</p>
+ */
+public class BitmapPrivateAddressAllocator extends PrivateAddressAllocatorSupport {
+
+  private static final Logger logger = Logger.getLogger( BitmapPrivateAddressAllocator.class );
+  private static final int defaultMaximumBitmapSize =
+      MoreObjects.firstNonNull( Ints.tryParse( System.getProperty( "com.eucalyptus.network.bitmapAllocatorMaximumSize", "" ) ), 1 << 18 );
+  private static final String defaultBitmapCacheSpec =
+      System.getProperty( "com.eucalyptus.network.bitmapAllocatorCacheSpec", "maximumSize=1000, expireAfterWrite=15m" );
+
+  private final int maximumBitmapSize;
+  private final Cache<Pair<String, String>, ConcurrentMap<Pair<Integer, Integer>, PrivateAddressBitmap>> bitmaps;
+
+  public BitmapPrivateAddressAllocator( ) {
+    this( new DatabasePrivateAddressPersistence( ), defaultMaximumBitmapSize, defaultBitmapCacheSpec );
+  }
+
+  protected BitmapPrivateAddressAllocator(
+      final PrivateAddressPersistence persistence,
+      final int maximumBitmapSize,
+      final String bitmapCacheSpec
+  ) {
+    super( logger, persistence );
+    this.maximumBitmapSize = maximumBitmapSize;
+    this.bitmaps = CacheBuilder.from( CacheBuilderSpec.parse( bitmapCacheSpec ) ).build( );
+  }
+
+  @Override
+  public String allocate(
+      final String scope,
+      final String tag,
+      final Iterable<Integer> addresses,
+      final int addressCount,
+      final int allocatedCount
+  ) throws NotEnoughResourcesException {
+    if ( !isBitmapAllocation( addressCount ) ) {
+      return allocated( scope, tag, super.allocate( scope, tag, addresses, addressCount, allocatedCount ) );
+    }
+    return Iterables.getOnlyElement( allocateFromBitmap( scope, tag, addresses, addressCount, 1 ) );
+  }
+
+  @Override
+  public List<String> allocate(
+      final String scope,
+      final String tag,
+      final Iterable<Integer> addresses,
+      final int addressCount,
+      final int allocatedCount,
+      final int count
+  ) throws NotEnoughResourcesException {
+    if ( !isBitmapAllocation( addressCount ) ) {
+      return super.allocate( scope, tag, addresses, addressCount, allocatedCount, count );
+    }
+    return allocateFromBitmap( scope, tag, addresses, addressCount, count );
+  }
+
+  @Override
+  protected String allocate(
+      final Iterable<Integer> addresses,
+      final int addressCount,
+      final int allocatedCount,
+      final Function<Integer,String> allocator,
+      final Supplier<Set<Integer>> lister
+  ) {
+    final Set<Integer> allocated = addressCount > 1 ? lister.get( ) : null;
+    for ( final Integer address : addresses ) {
+      if ( allocated == null || !allocated.contains( address ) ) {
+        final String value = allocator.apply( address );
+        if ( !Strings.isNullOrEmpty( value ) ) {
+          return value;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  protected void addressReleased( final String scope, final String tag, final int address ) {
+    final ConcurrentMap<Pair<Integer, Integer>, PrivateAddressBitmap> scopeBitmaps =
+        bitmaps.getIfPresent( key( scope, tag ) );
+    if ( scopeBitmaps != null ) {
+      scopeBitmaps.values( ).forEach( bitmap -> bitmap.release( address ) );
+    }
+  }
+
+  @Override
+  protected void addressesReleased( ) {
+    bitmaps.invalidateAll( );
+  }
+
+  private boolean isBitmapAllocation( final int addressCount ) {
+    return addressCount > 1 && addressCount <= maximumBitmapSize;
+  }
+
+  private List<String> allocateFromBitmap(
+      final String scope,
+      final String tag,
+      final Iterable<Integer> addresses,
+      final int addressCount,
+      final int count
+  ) throws NotEnoughResourcesException {
+    final Pair<String, String> key = key( scope, tag );
+    final Pair<Integer, Integer> range = Pair.pair( Iterables.getFirst( addresses, 0 ), addressCount );
+    final List<String> allocated = Lists.newArrayListWithCapacity( count );
+    PrivateAddressBitmap bitmap = scopeBitmaps( key ).get( range );
+    boolean loaded = false;
+    if ( bitmap == null ) {
+      bitmap = load( key, range, addresses );
+      loaded = true;
+    }
+    try {
+      while ( allocated.size( ) < count ) {
+        final List<Integer> reserved = bitmap.reserve( count - allocated.size( ) );
+        if ( reserved.isEmpty( ) ) {
+          if ( loaded ) {
+            break;
+          }
+          bitmap = load( key, range, addresses );
+          loaded = true;
+          continue;
+        }
+        for ( int i = 0; i < reserved.size( ); i++ ) {
+          final String address;
+          try {
+            address = getDistinctPersistence( )
+                .tryCreate( scope, tag, PrivateAddresses.fromInteger( reserved.get( i ) ) )
+                .map( RestrictedTypes.toDisplayName( ) )
+                .orElse( null );
+          } catch ( final RuntimeException e ) {
+            reserved.subList( i, reserved.size( ) ).forEach( bitmap::release );
+            throw e;
+          }
+          if ( address != null ) {
+            allocated.add( address );
+          } else {
+            logger.debug( "Private address " + PrivateAddresses.fromInteger( reserved.get( i ) ) +
+                " in use for " + scope + "/" + tag );
+          }
+        }
+      }
+    } catch ( final RuntimeException e ) {
+      release( scope, allocated );
+      throw e;
+    }
+    if ( allocated.size( ) < count ) {
+      release( scope, allocated );
+      throw new NotEnoughResourcesException( "Insufficient addresses" );
+    }
+    return allocated;
+  }
+
+  private String allocated( final String scope, final String tag, final String address ) {
+    final ConcurrentMap<Pair<Integer, Integer>, PrivateAddressBitmap> scopeBitmaps =
+        bitmaps.getIfPresent( key( scope, tag ) );
+    if ( scopeBitmaps != null ) {
+      final int addressInt = PrivateAddresses.asInteger( address );
+      scopeBitmaps.values( ).forEach( bitmap -> bitmap.markUsed( addressInt ) );
+    }
+    return address;
+  }
+
+  private void release( final String scope, final List<String> addresses ) {
+    for ( final String address : addresses ) {
+      release( scope, address, null );
+    }
+  }
+
+  private ConcurrentMap<Pair<Integer, Integer>, PrivateAddressBitmap> scopeBitmaps( final Pair<String, String> key ) {
+    final ConcurrentMap<Pair<Integer, Integer>, PrivateAddressBitmap> scopeBitmaps = bitmaps.getIfPresent( key );
+    if ( scopeBitmaps != null ) {
+      return scopeBitmaps;
+    }
+    final ConcurrentMap<Pair<Integer, Integer>, PrivateAddressBitmap> created = Maps.newConcurrentMap( );
+    return MoreObjects.firstNonNull( bitmaps.asMap( ).putIfAbsent( key, created ), created );
+  }
+
+  private PrivateAddressBitmap load(
+      final Pair<String, String> key,
+      final Pair<Integer, Integer> range,
+      final Iterable<Integer> addresses
+  ) {
+    final int[] addressArray = Ints.toArray( Lists.newArrayList( Iterables.limit( addresses, range.getRight( ) ) ) );
+    final PrivateAddressBitmap bitmap = PrivateAddressBitmap.of(
+        addressArray,
+        getPersistence( ).list(
+            Strings.emptyToNull( key.getLeft( ) ),
+            Strings.emptyToNull( key.getRight( ) ),
+            pa -> PrivateAddresses.asInteger( pa.getDisplayName( ) ) ) );
+    scopeBitmaps( key ).put( range, bitmap );
+    return bitmap;
+  }
+
+  private static Pair<String, String> key( final String scope, final String tag ) {
+    return Pair.pair( Strings.nullToEmpty( scope ), Strings.nullToEmpty( tag ) );
+  }
+}
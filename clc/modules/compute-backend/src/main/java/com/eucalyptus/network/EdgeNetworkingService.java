@@ -32,6 +32,7 @@ import static com.eucalyptus.compute.common.network.NetworkingFeature.Classic;
 import static com.eucalyptus.compute.common.network.NetworkingFeature.SiteLocalManaged;
 import static com.eucalyptus.compute.common.network.NetworkingFeature.Vpc;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -98,21 +99,29 @@ public class EdgeNetworkingService extends NetworkingServiceSupport {
       final List<NetworkResource> resources
   ) throws NotEnoughResourcesException {
     boolean vpc = request.getVpc( ) != null;
+    final List<PrivateIPResource> privateIpResources = Lists.newArrayList( );
     for ( NetworkResource networkResource : request.getResources( ) ) {
       if ( PublicIPResource.class.isInstance( networkResource ) ) {
         resources.addAll( preparePublicIp( request, (PublicIPResource) networkResource ) );
       } else if ( PrivateIPResource.class.isInstance( networkResource ) ) {
         if ( !vpc ) {
-          resources.addAll( preparePrivateIp(
-              request.getAvailabilityZone( ),
-              null,
-              null,
-              (PrivateIPResource) networkResource ) );
+          if ( networkResource.getValue( ) != null ) {
+            resources.addAll( preparePrivateIp(
+                request.getAvailabilityZone( ),
+                null,
+                null,
+                (PrivateIPResource) networkResource ) );
+          } else {
+            privateIpResources.add( (PrivateIPResource) networkResource );
+          }
         }
       } else if ( VpcNetworkInterfaceResource.class.isInstance( networkResource ) ) {
         resources.addAll( prepareNetworkInterface( request, (VpcNetworkInterfaceResource) networkResource ) );
       }
     }
+    if ( !privateIpResources.isEmpty( ) ) {
+      resources.addAll( preparePrivateIps( request.getAvailabilityZone( ), privateIpResources ) );
+    }
     return request.reply( new PrepareNetworkResourcesResponseType(
         new PrepareNetworkResourcesResultType( Lists.newArrayList( resources ) )
     ) );
@@ -193,6 +202,31 @@ public class EdgeNetworkingService extends NetworkingServiceSupport {
         Lists.newArrayList( );
   }
 
+  /**
+   * Allocate zone private addresses for the given resources as a batch
+   */
+  private Collection<NetworkResource> preparePrivateIps(
+      final String zone,
+      final List<PrivateIPResource> privateIPResources
+  ) throws NotEnoughResourcesException {
+    final Pair<Iterable<Integer>, Integer> addressPair = NetworkConfigurations.getPrivateAddresses( zone );
+    final Iterator<String> addresses = PrivateAddresses.allocate(
+        null,
+        null,
+        addressPair.getLeft( ),
+        addressPair.getRight( ),
+        -1,
+        privateIPResources.size( ) ).iterator( );
+    final List<NetworkResource> resources = Lists.newArrayList( );
+    for ( final PrivateIPResource privateIPResource : privateIPResources ) {
+      resources.add( new PrivateIPResource(
+          privateIPResource.getOwnerId( ),
+          addresses.next( ),
+          NetworkingServiceSupport.mac( privateIPResource.getOwnerId( ) ) ) );
+    }
+    return resources;
+  }
+
   /**
    * either zone or both vpcId and subnetId must be specified
    */
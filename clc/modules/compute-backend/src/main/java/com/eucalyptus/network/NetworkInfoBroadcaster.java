@@ -112,6 +112,7 @@ import com.eucalyptus.util.TypeMapper;
 import com.eucalyptus.util.TypeMappers;
 import com.eucalyptus.compute.common.internal.vm.VmInstance;
 import com.eucalyptus.vm.VmInstances;
+import com.eucalyptus.vm.dns.VmDnsTable;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
@@ -261,6 +262,7 @@ public class NetworkInfoBroadcaster {
 
   public static void requestNetworkInfoBroadcast( ) {
     final long requestedTime = System.currentTimeMillis( );
+    VmDnsTable.requestRefresh( );
     final Callable<Void> broadcastRequest = new Callable<Void>( ) {
       @SuppressWarnings( "unused" )
       @Override
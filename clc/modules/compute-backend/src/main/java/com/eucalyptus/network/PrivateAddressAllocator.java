@@ -28,6 +28,7 @@
  ************************************************************************/
 package com.eucalyptus.network;
 
+import java.util.List;
 import com.eucalyptus.compute.common.internal.util.NotEnoughResourcesException;
 import com.eucalyptus.compute.common.internal.util.ResourceAllocationException;
 import com.eucalyptus.compute.common.internal.vm.VmInstance;
@@ -51,6 +52,20 @@ public interface PrivateAddressAllocator {
    */
   String allocate( String scope, String tag, Iterable<Integer> addresses, int addressCount, int allocatedCount ) throws NotEnoughResourcesException;
 
+  /**
+   * Allocate addresses, all addresses are allocated or none.
+   *
+   * @param scope          The scope (namespace) for the allocation
+   * @param tag            The tag for the addresses, returned on release
+   * @param addresses      The list of all addresses
+   * @param addressCount   The number of addresses
+   * @param allocatedCount The number of allocated addresses or -1 for unknown
+   * @param count          The number of addresses to allocate
+   * @return The allocated addresses
+   * @throws NotEnoughResourcesException If the addresses cannot be allocated.
+   */
+  List<String> allocate( String scope, String tag, Iterable<Integer> addresses, int addressCount, int allocatedCount, int count ) throws NotEnoughResourcesException;
+
   void associate( String address, VmInstance instance ) throws ResourceAllocationException;
 
   void associate( String address, NetworkInterface networkInterface ) throws ResourceAllocationException;
@@ -30,6 +30,7 @@ package com.eucalyptus.network;
 
 import static com.eucalyptus.compute.common.internal.util.Reference.State.*;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -53,6 +54,7 @@ import com.google.common.cache.CacheBuilderSpec;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -103,6 +105,29 @@ public abstract class PrivateAddressAllocatorSupport implements PrivateAddressAl
     return allocated;
   }
 
+  @Override
+  public List<String> allocate(
+      final String scope,
+      final String tag,
+      final Iterable<Integer> addresses,
+      final int addressCount,
+      final int allocatedCount,
+      final int count
+  ) throws NotEnoughResourcesException {
+    final List<String> allocated = Lists.newArrayListWithCapacity( count );
+    try {
+      for ( int i = 0; i < count; i++ ) {
+        allocated.add( allocate( scope, tag, addresses, addressCount, allocatedCount < 0 ? -1 : allocatedCount + i ) );
+      }
+    } catch ( final NotEnoughResourcesException e ) {
+      for ( final String address : allocated ) {
+        release( scope, address, null );
+      }
+      throw e;
+    }
+    return allocated;
+  }
+
   @Override
   public void associate( String address, final VmInstance instance ) throws ResourceAllocationException {
     Exceptions.unwrap( ResourceAllocationException.class, ( ) ->
@@ -144,6 +169,9 @@ public abstract class PrivateAddressAllocatorSupport implements PrivateAddressAl
     if ( tag != null && torndown.get( ) ) {
       released( scope, tag, address );
     }
+    if ( torndown.get( ) ) {
+      addressReleased( scope, tag, PrivateAddresses.asInteger( address ) );
+    }
     return tag;
   }
 
@@ -183,6 +211,7 @@ public abstract class PrivateAddressAllocatorSupport implements PrivateAddressAl
     } );
     if ( released.get( ) ) {
       cache.invalidate( key( "", "" ) );
+      addressesReleased( );
     }
     return released.get( );
   }
@@ -204,6 +233,22 @@ public abstract class PrivateAddressAllocatorSupport implements PrivateAddressAl
       Function<Integer,String> allocator,
       Supplier<Set<Integer>> lister );
 
+  /**
+   * Called when an address is released.
+   *
+   * @param scope   The scope (namespace) for the address
+   * @param tag     The tag for the address, may be null
+   * @param address The released address
+   */
+  protected void addressReleased( final String scope, final String tag, final int address ) {
+  }
+
+  /**
+   * Called when addresses are released that were not released via {@link #release}
+   */
+  protected void addressesReleased( ) {
+  }
+
   protected PrivateAddressPersistence getPersistence( ) {
     return persistence;
   }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.network;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import com.google.common.collect.Lists;
+
+/**
+ * Bitmap of used addresses for a list of addresses.
+ *
+ * <p>Free addresses are reserved next fit from the position of the last reservation so the cost
+ * of a reservation does not depend on the number of used addresses.</p>
+ */
+final class PrivateAddressBitmap {
+
+  private final int[] addresses;
+  private final long[] addressIndexes; // address in high bits, index in low bits, sorted
+  private final BitSet used;
+  private int free;
+  private int next;
+
+  private PrivateAddressBitmap( final int[] addresses ) {
+    this.addresses = addresses;
+    this.addressIndexes = new long[ addresses.length ];
+    for ( int i = 0; i < addresses.length; i++ ) {
+      addressIndexes[ i ] = ( (long) addresses[ i ] << 32 ) | i;
+    }
+    Arrays.sort( addressIndexes );
+    this.used = new BitSet( addresses.length );
+    this.free = addresses.length;
+  }
+
+  /**
+   * Create a bitmap for the given addresses.
+   *
+   * @param addresses The list of all addresses
+   * @param used The used addresses
+   */
+  static PrivateAddressBitmap of( final int[] addresses, final Iterable<Integer> used ) {
+    final PrivateAddressBitmap bitmap = new PrivateAddressBitmap( addresses );
+    for ( final Integer address : used ) {
+      bitmap.markUsed( address );
+    }
+    return bitmap;
+  }
+
+  synchronized int getFree( ) {
+    return free;
+  }
+
+  /**
+   * Reserve up to count free addresses, marking them as used.
+   *
+   * @return The reserved addresses, empty if there are no free addresses
+   */
+  synchronized List<Integer> reserve( final int count ) {
+    final List<Integer> reserved = Lists.newArrayListWithCapacity( Math.min( count, free ) );
+    while ( reserved.size( ) < count && free > 0 ) {
+      int index = used.nextClearBit( next );
+      if ( index >= addresses.length ) {
+        index = used.nextClearBit( 0 );
+      }
+      used.set( index );
+      free--;
+      next = index + 1;
+      reserved.add( addresses[ index ] );
+    }
+    return reserved;
+  }
+
+  synchronized void markUsed( final int address ) {
+    final int index = indexOf( address );
+    if ( index >= 0 && !used.get( index ) ) {
+      used.set( index );
+      free--;
+    }
+  }
+
+  synchronized void release( final int address ) {
+    final int index = indexOf( address );
+    if ( index >= 0 && used.get( index ) ) {
+      used.clear( index );
+      free++;
+    }
+  }
+
+  private int indexOf( final int address ) {
+    int low = 0;
+    int high = addressIndexes.length - 1;
+    while ( low <= high ) {
+      final int mid = ( low + high ) >>> 1;
+      final int midAddress = (int) ( addressIndexes[ mid ] >> 32 );
+      if ( midAddress < address ) {
+        low = mid + 1;
+      } else if ( midAddress > address ) {
+        high = mid - 1;
+      } else {
+        return (int) addressIndexes[ mid ];
+      }
+    }
+    return -1;
+  }
+}
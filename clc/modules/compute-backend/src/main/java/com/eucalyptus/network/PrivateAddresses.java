@@ -1,5 +1,6 @@
 package com.eucalyptus.network;
 
+import java.util.List;
 import java.util.ServiceLoader;
 import javax.annotation.Nullable;
 import com.eucalyptus.compute.common.internal.util.NotEnoughResourcesException;
@@ -43,6 +44,15 @@ public class PrivateAddresses {
     return allocator.allocate( scope, tag, addresses, addressCount, allocatedCount );
   }
 
+  /**
+   * Allocate private addresses, all addresses are allocated or none.
+   *
+   * <p>There must not be an active transaction for private addresses.</p>
+   */
+  public static List<String> allocate( String scope, String tag, Iterable<Integer> addresses, int addressCount, int allocatedCount, int count ) throws NotEnoughResourcesException {
+    return allocator.allocate( scope, tag, addresses, addressCount, allocatedCount, count );
+  }
+
   public static void associate( String address, VmInstance instance ) throws ResourceAllocationException {
     allocator.associate( address, instance );
   }
@@ -99,6 +99,7 @@ import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
@@ -144,16 +145,68 @@ public class VmInstanceMetadata {
     return getByKeyInternal( vm, pathArg, Type.Dynamic );
   }
 
+  /**
+   * Render the metadata document for an instance.
+   *
+   * <p>The caller must have an active transaction for the instance.</p>
+   */
+  public static MetadataDocument render( final VmInstance vm ) {
+    return render(
+        vm.getInstanceId( ),
+        MoreObjects.firstNonNull( vm.getVersion( ), 0 ),
+        vm.getPublicAddress( ),
+        vm.getPrivateAddress( ),
+        group -> group.apply( vm ),
+        vm.getUserData( ) );
+  }
+
+  /**
+   * Create a document from metadata by group name, metadata for groups that are not rendered is
+   * ignored.
+   */
+  public static MetadataDocument document( final String instanceId,
+                                           final int version,
+                                           @Nullable final String publicAddress,
+                                           @Nullable final String privateAddress,
+                                           final Map<String,Map<String,String>> metadataByGroup,
+                                           @Nullable final byte[] userData ) {
+    return render( instanceId, version, publicAddress, privateAddress, group -> metadataByGroup.get( group.name( ) ), userData );
+  }
+
+  private static MetadataDocument render( final String instanceId,
+                                          final int version,
+                                          @Nullable final String publicAddress,
+                                          @Nullable final String privateAddress,
+                                          final Function<MetadataGroup,Map<String,String>> groupRenderer,
+                                          @Nullable final byte[] userData ) {
+    final ImmutableMap.Builder<MetadataGroup,ImmutableMap<String,String>> groups = ImmutableMap.builder( );
+    for ( final MetadataGroup group : MetadataGroup.values( ) ) {
+      if ( group.isRendered( ) ) {
+        final Map<String,String> metadataMap =
+            Optional.fromNullable( groupRenderer.apply( group ) ).or( Collections.<String, String>emptyMap() );
+        groups.put( group, ImmutableMap.copyOf( Maps.filterValues( metadataMap, Predicates.notNull( ) ) ) );
+      }
+    }
+    return new MetadataDocument( instanceId, version, publicAddress, privateAddress, groups.build( ), userData );
+  }
+
   private static String getByKeyInternal( final VmInstance vm, final String pathArg, final Type type ) {
     final String path = MoreObjects.firstNonNull( pathArg, "" );
-    final String pathNoSlash;
     LOG.debug( "Servicing metadata request:" + path );
-    if ( path.endsWith( "/" ) ) {
-      pathNoSlash = path.substring( 0, path.length() -1 );
-    } else {
-      pathNoSlash = path;
-    }
+    final MetadataGroup group = group( path, type );
+    final Map<String,String> metadataMap =
+        Optional.fromNullable( group.apply( vm ) ).or( Collections.<String, String>emptyMap() );
+    return lookup( metadataMap, path );
+  }
 
+  private static String noSlash( final String path ) {
+    return path.endsWith( "/" ) ?
+        path.substring( 0, path.length() -1 ) :
+        path;
+  }
+
+  private static MetadataGroup group( final String path, final Type type ) {
+    final String pathNoSlash = noSlash( path );
     Optional<MetadataGroup> groupOption = Optional.absent();
     for ( final MetadataGroup metadataGroup : MetadataGroup.values() ) {
       if ( metadataGroup.isType( type ) && (
@@ -162,11 +215,12 @@ public class VmInstanceMetadata {
         groupOption = Optional.of( metadataGroup );
       }
     }
-    final MetadataGroup group = groupOption.or( MetadataGroup.core( type ) );
-    final Map<String,String> metadataMap =
-        Optional.fromNullable( group.apply( vm ) ).or( Collections.<String, String>emptyMap() );
+    return groupOption.or( MetadataGroup.core( type ) );
+  }
+
+  private static String lookup( final Map<String,String> metadataMap, final String path ) {
     final String value = metadataMap.get( path );
-    return value == null ? metadataMap.get( pathNoSlash ) : value;
+    return value == null ? metadataMap.get( noSlash( path ) ) : value;
   }
 
   private static Map<String, String> getCoreMetadataMap( final VmInstance vm ) {
@@ -502,6 +556,11 @@ public class VmInstanceMetadata {
       protected boolean isPresent( final VmInstance instance ) {
         return !Strings.isNullOrEmpty( instance.getIamInstanceProfileArn() );
       }
+
+      @Override
+      protected boolean isRendered( ) {
+        return false; // credentials are time dependent
+      }
     },
     PublicKeys( "public-keys" ) {
       @Override
@@ -537,6 +596,11 @@ public class VmInstanceMetadata {
         public Map<String, String> apply( final VmInstance instance ) {
           return addListingEntries( instance, getApiMetadataMap( instance ), true, Optional.of( Type.Api ) );
         }
+
+        @Override
+        protected boolean isRendered( ) {
+          return false; // tokens are generated per request
+        }
     };
 
     private final Optional<String> prefix;
@@ -570,6 +634,13 @@ public class VmInstanceMetadata {
       return true;
     }
 
+    /**
+     * Is the group included in a metadata document.
+     */
+    protected boolean isRendered( ) {
+      return true;
+    }
+
     @Nonnull
     public static MetadataGroup core( final Type type ) {
       for ( final MetadataGroup group : values( ) ) {
@@ -632,6 +703,86 @@ public class VmInstanceMetadata {
     }
   }
 
+  /**
+   * Metadata rendered for an instance, served without access to the instance.
+   *
+   * <p>Time dependent metadata (iam, api) is not rendered and must be looked up from the
+   * instance.</p>
+   */
+  public static final class MetadataDocument {
+    private final String instanceId;
+    private final int version;
+    private final String publicAddress;
+    private final String privateAddress;
+    private final ImmutableMap<MetadataGroup,ImmutableMap<String,String>> groups;
+    private final byte[] userData;
+
+    private MetadataDocument( final String instanceId,
+                              final int version,
+                              @Nullable final String publicAddress,
+                              @Nullable final String privateAddress,
+                              final ImmutableMap<MetadataGroup, ImmutableMap<String, String>> groups,
+                              @Nullable final byte[] userData ) {
+      this.instanceId = instanceId;
+      this.version = version;
+      this.publicAddress = publicAddress;
+      this.privateAddress = privateAddress;
+      this.groups = groups;
+      this.userData = userData == null ? null : userData.clone( );
+    }
+
+    public String getInstanceId( ) {
+      return instanceId;
+    }
+
+    public int getVersion( ) {
+      return version;
+    }
+
+    @Nullable
+    public String getPublicAddress( ) {
+      return publicAddress;
+    }
+
+    @Nullable
+    public String getPrivateAddress( ) {
+      return privateAddress;
+    }
+
+    /**
+     * Is the meta-data for the path included in this document.
+     */
+    public boolean isRendered( final String pathArg ) {
+      return groups.containsKey( group( MoreObjects.firstNonNull( pathArg, "" ), Type.Instance ) );
+    }
+
+    /**
+     * Get meta-data by path, the path must be rendered.
+     *
+     * @see #isRendered(String)
+     */
+    @Nullable
+    public String getByKey( final String pathArg ) {
+      return getInternal( pathArg, Type.Instance );
+    }
+
+    @Nullable
+    public String getDynamicByKey( final String pathArg ) {
+      return getInternal( pathArg, Type.Dynamic );
+    }
+
+    @Nullable
+    public byte[] getUserData( ) {
+      return userData == null ? null : userData.clone( );
+    }
+
+    private String getInternal( final String pathArg, final Type type ) {
+      final String path = MoreObjects.firstNonNull( pathArg, "" );
+      final Map<String,String> metadataMap = groups.get( group( path, type ) );
+      return metadataMap == null ? null : lookup( metadataMap, path );
+    }
+  }
+
   private static final class MetadataKey {
     private final String id; // internal id
     private final Integer version;
@@ -49,6 +49,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -150,6 +151,7 @@ import com.eucalyptus.compute.common.internal.vpc.NetworkInterface;
 import com.eucalyptus.compute.common.internal.vpc.NetworkInterfaceAttachment;
 import com.eucalyptus.compute.common.internal.vpc.NetworkInterfaces;
 import com.eucalyptus.compute.common.internal.vpc.Subnet;
+import com.eucalyptus.compute.metadata.VmMetadataDocuments;
 import com.eucalyptus.configurable.ConfigurableClass;
 import com.eucalyptus.configurable.ConfigurableField;
 import com.eucalyptus.configurable.ConfigurableProperty;
@@ -183,8 +185,10 @@ import com.eucalyptus.util.Strings;
 import com.eucalyptus.util.async.AsyncRequests;
 import com.eucalyptus.util.async.MessageCallback;
 import com.eucalyptus.util.dns.DomainNames;
+import com.eucalyptus.vm.dns.VmDnsTable;
 import com.eucalyptus.vmtypes.VmTypes;
 import com.google.common.base.CaseFormat;
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Enums;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
@@ -595,6 +599,11 @@ public class VmInstances extends com.eucalyptus.compute.common.internal.vm.VmIns
       changeListener = PropertyChangeListeners.CacheSpecListener.class )
   public static volatile String VM_METADATA_GENERATED_CACHE     = "maximumSize=1000, expireAfterWrite=5m";
 
+  @ConfigurableField( description = "Serve instance metadata from documents rendered for running instances.",
+      initial = "true",
+      changeListener = PropertyChangeListeners.IsBoolean.class )
+  public static volatile Boolean VM_METADATA_DOCUMENTS          = Boolean.TRUE;
+
   public static class SubdomainListener implements PropertyChangeListener {
     @Override
     public void fireChange( final ConfigurableProperty t, final Object newValue ) throws ConfigurablePropertyException {
@@ -830,6 +839,9 @@ public class VmInstances extends com.eucalyptus.compute.common.internal.vm.VmIns
     LOG.debug( logEx.getMessage( ) );
     Logs.extreme( ).info( logEx, logEx );
 
+    VmDnsTable.invalidateInstance( vm.getInstanceId( ) );
+    VmMetadataDocuments.evict( vm.getInstanceId( ) );
+
     try {
       VmInstances.cleanUpAttachedVolumes( vm );
     } catch ( Exception ex ) {
@@ -1828,67 +1840,158 @@ public class VmInstances extends com.eucalyptus.compute.common.internal.vm.VmIns
      */
     @Override
     public VmInstance apply( final VmInstanceToken token ) {
-      final EntityTransaction db = Entities.get( VmInstance.class );
-      try {
-        // remove existing persistent terminated instance.
-        try {
-          Entities.delete( Entities.uniqueResult( VmInstance.withUuid( token.getInstanceUuid( ) ) ) );
-          Entities.flush( VmInstance.class );
-        } catch ( NoSuchElementException e ) {
-          // OK, no persistent entity
+      return Iterables.getOnlyElement( create( Collections.singletonList( token ) ) );
+    }
+  }
+
+  /**
+   * Create instances for the given tokens in a single transaction.
+   *
+   * <p>Existing persistent terminated instances for the tokens are found with a single query and
+   * removed. Instances are flushed together on commit.</p>
+   */
+  public static List<VmInstance> create( final List<VmInstanceToken> tokens ) {
+    return create( tokens, TokenInstanceBatch.INSTANCE );
+  }
+
+  static <T> List<VmInstance> create( final List<T> tokens, final InstanceBatch<T> batch ) {
+    final EntityTransaction db = batch.begin( );
+    try {
+      // remove existing persistent terminated instances.
+      final List<VmInstance> existingInstances = batch.existing( tokens );
+      if ( !existingInstances.isEmpty( ) ) {
+        for ( final VmInstance existingInstance : existingInstances ) {
+          batch.delete( existingInstance );
         }
+        batch.flush( );
+      }
 
-        final Allocations.Allocation allocInfo = token.getAllocationInfo( );
-        final Builder builder = new Builder( );
-        builder.onBuild( new Callback<VmInstance>() {
-          @Override
-          public void fire( final VmInstance input ) {
-            final VmInstance persistedInstance = Entities.persist( input );
-            final List<ResourceTag> instanceTags =
-                TagHelper.tagsForResource( allocInfo.getRequest( ).getTagSpecification( ), PolicySpec.EC2_RESOURCE_INSTANCE );
-            TagHelper.createOrUpdateTags( allocInfo.getOwnerFullName( ), persistedInstance, instanceTags );
-          }
-        } );
-        VmInstanceLifecycleHelpers.get().prepareVmInstance( token, builder );
-        VmInstance vmInst = builder
-            .owner( allocInfo.getOwnerFullName( ) )
-            .withIds( token.getInstanceId(),
-                token.getInstanceUuid(),
-                allocInfo.getReservationId(),
-                allocInfo.getClientToken(),
-                allocInfo.getUniqueClientToken( token.getLaunchIndex( ) ) )
-            .bootRecord( allocInfo.getBootSet( ),
-                allocInfo.getUserData( ),
-                allocInfo.getSshKeyPair( ),
-                allocInfo.getVmType( ),
-                allocInfo.getSubnet( ),
-                allocInfo.isMonitoring(),
-                allocInfo.getIamInstanceProfileArn(),
-                allocInfo.getIamInstanceProfileId(),
-                allocInfo.getIamRoleArn() )
-            .placement( allocInfo.getPartition( ) )
-            .networkGroups( allocInfo.getNetworkGroups() )
-            .addressing( allocInfo.isUsePrivateAddressing() )
-            .disableApiTermination( allocInfo.isDisableApiTermination() )
-            .zombie( token.isZombie( ) )
-            .expiresOn( allocInfo.getExpiration() )
-            .build( token.getLaunchIndex( ) );
-        Entities.flush( vmInst );
-        db.commit( );
-        token.setVmInstance( vmInst );
-        return vmInst;
-      } catch ( final ResourceAllocationException ex ) {
-        Logs.extreme( ).error( ex, ex );
-        throw Exceptions.toUndeclared( ex );
-      } catch ( final Exception ex ) {
-        Logs.extreme( ).error( ex, ex );
-        throw Exceptions.toUndeclared( new TransactionExecutionException( ex ) );
-      } finally {
-        if ( db.isActive() ) db.rollback();
+      final List<VmInstance> instances = Lists.newArrayListWithCapacity( tokens.size( ) );
+      for ( final T token : tokens ) {
+        instances.add( batch.build( token ) );
+      }
+      batch.flush( );
+      db.commit( );
+      for ( int i = 0; i < tokens.size( ); i++ ) {
+        batch.created( tokens.get( i ), instances.get( i ) );
       }
+      return instances;
+    } catch ( final ResourceAllocationException ex ) {
+      Logs.extreme( ).error( ex, ex );
+      throw Exceptions.toUndeclared( ex );
+    } catch ( final Exception ex ) {
+      Logs.extreme( ).error( ex, ex );
+      throw Exceptions.toUndeclared( new TransactionExecutionException( ex ) );
+    } finally {
+      if ( db.isActive() ) db.rollback();
     }
   }
 
+  /**
+   * Persistence for creating the instances for a batch of tokens.
+   */
+  interface InstanceBatch<T> {
+    EntityTransaction begin( );
+
+    /**
+     * Persistent terminated instances with the uuids of the given tokens.
+     */
+    List<VmInstance> existing( List<T> tokens );
+
+    void delete( VmInstance instance );
+
+    /**
+     * Build and persist the instance for the token.
+     */
+    VmInstance build( T token ) throws ResourceAllocationException;
+
+    void flush( );
+
+    /**
+     * Called for each token after the batch is committed.
+     */
+    void created( T token, VmInstance instance );
+  }
+
+  private enum TokenInstanceBatch implements InstanceBatch<VmInstanceToken> {
+    INSTANCE;
+
+    @Override
+    public EntityTransaction begin( ) {
+      return Entities.get( VmInstance.class );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public List<VmInstance> existing( final List<VmInstanceToken> tokens ) {
+      final List<String> uuids = Lists.newArrayListWithCapacity( tokens.size( ) );
+      for ( final VmInstanceToken token : tokens ) {
+        uuids.add( token.getInstanceUuid( ) );
+      }
+      return (List<VmInstance>) Entities.createCriteria( VmInstance.class )
+          .add( Restrictions.in( "naturalId", uuids ) )
+          .list( );
+    }
+
+    @Override
+    public void delete( final VmInstance instance ) {
+      Entities.delete( instance );
+    }
+
+    @Override
+    public VmInstance build( final VmInstanceToken token ) throws ResourceAllocationException {
+      return VmInstances.build( token );
+    }
+
+    @Override
+    public void flush( ) {
+      Entities.flush( VmInstance.class );
+    }
+
+    @Override
+    public void created( final VmInstanceToken token, final VmInstance instance ) {
+      token.setVmInstance( instance );
+    }
+  }
+
+  private static VmInstance build( final VmInstanceToken token ) throws ResourceAllocationException {
+    final Allocations.Allocation allocInfo = token.getAllocationInfo( );
+    final Builder builder = new Builder( );
+    builder.onBuild( new Callback<VmInstance>() {
+      @Override
+      public void fire( final VmInstance input ) {
+        final VmInstance persistedInstance = Entities.persist( input );
+        final List<ResourceTag> instanceTags =
+            TagHelper.tagsForResource( allocInfo.getRequest( ).getTagSpecification( ), PolicySpec.EC2_RESOURCE_INSTANCE );
+        TagHelper.createOrUpdateTags( allocInfo.getOwnerFullName( ), persistedInstance, instanceTags );
+      }
+    } );
+    VmInstanceLifecycleHelpers.get().prepareVmInstance( token, builder );
+    return builder
+        .owner( allocInfo.getOwnerFullName( ) )
+        .withIds( token.getInstanceId(),
+            token.getInstanceUuid(),
+            allocInfo.getReservationId(),
+            allocInfo.getClientToken(),
+            allocInfo.getUniqueClientToken( token.getLaunchIndex( ) ) )
+        .bootRecord( allocInfo.getBootSet( ),
+            allocInfo.getUserData( ),
+            allocInfo.getSshKeyPair( ),
+            allocInfo.getVmType( ),
+            allocInfo.getSubnet( ),
+            allocInfo.isMonitoring(),
+            allocInfo.getIamInstanceProfileArn(),
+            allocInfo.getIamInstanceProfileId(),
+            allocInfo.getIamRoleArn() )
+        .placement( allocInfo.getPartition( ) )
+        .networkGroups( allocInfo.getNetworkGroups() )
+        .addressing( allocInfo.isUsePrivateAddressing() )
+        .disableApiTermination( allocInfo.isDisableApiTermination() )
+        .zombie( token.isZombie( ) )
+        .expiresOn( allocInfo.getExpiration() )
+        .build( token.getLaunchIndex( ) );
+  }
+
   public static class Builder {
     private VmId                vmId;
     private String              uuid;
@@ -2533,6 +2636,7 @@ public class VmInstances extends com.eucalyptus.compute.common.internal.vm.VmIns
           .withPersistenceFilter( "iam-instance-profile.arn", "bootRecord.iamInstanceProfileArn", Collections.<String>emptySet() )
           .withPersistenceFilter( "image-id", "image.displayName", Sets.newHashSet( "bootRecord.machineImage" ) )
           .withPersistenceFilter( "instance-id", "displayName" )
+          .withPersistenceFilter( "instance-state-name", "state", Collections.<String>emptySet( ), VmStatesForDisplayName.INSTANCE )
           .withPersistenceFilter( "instance-type", "vmType.name", Sets.newHashSet( "bootRecord.vmType" ) )
           .withPersistenceFilter( "instance.group-id", "networkGroups.groupId" )
           .withPersistenceFilter( "instance.group-name", "networkGroups.displayName" )
@@ -2592,6 +2696,7 @@ public class VmInstances extends com.eucalyptus.compute.common.internal.vm.VmIns
               .withStringProperty( "instance-status.reachability", VmInstanceFilterFunctions.INSTANCE_REACHABILITY_STATUS )
               .withPersistenceFilter( "availability-zone", "placement.partitionName", Collections.<String>emptySet() )
               .withPersistenceFilter( "instance-id", "displayName" )
+              .withPersistenceFilter( "instance-state-name", "state", Collections.<String>emptySet( ), VmStatesForDisplayName.INSTANCE )
               .withPersistenceFilter( "system-status.status", "runtimeState.instanceStatus", Collections.<String>emptySet( ), VmRuntimeState.InstanceStatus.fromString( ) )
               .withPersistenceFilter( "system-status.reachability", "runtimeState.reachabilityStatus", Collections.<String>emptySet( ), VmRuntimeState.ReachabilityStatus.fromString( ) )
               .withPersistenceFilter( "instance-status.status", "runtimeState.instanceStatus", Collections.<String>emptySet( ), VmRuntimeState.InstanceStatus.fromString( ) )
@@ -3012,6 +3117,27 @@ public class VmInstances extends com.eucalyptus.compute.common.internal.vm.VmIns
     },
   }
 
+  /**
+   * States with the given display name, wildcard names are not supported.
+   */
+  private enum VmStatesForDisplayName implements Function<String,Set<VmState>> {
+    INSTANCE {
+      @Override
+      public Set<VmState> apply( final String displayName ) {
+        if ( CharMatcher.anyOf( "\\*?" ).matchesAnyOf( displayName ) ) {
+          return null;
+        }
+        final Set<VmState> states = EnumSet.noneOf( VmState.class );
+        for ( final VmState state : VmState.values( ) ) {
+          if ( state.getDisplayState( ).getName( ).equals( displayName ) ) {
+            states.add( state );
+          }
+        }
+        return states;
+      }
+    }
+  }
+
   private enum VmInstanceIntegerFilterFunctions implements Function<VmInstance,Integer> {
     INSTANCE_STATE_CODE {
       @Override
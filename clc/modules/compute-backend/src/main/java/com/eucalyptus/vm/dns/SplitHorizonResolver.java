@@ -122,6 +122,10 @@ public abstract class SplitHorizonResolver extends DnsResolver {
                                     + "Note: dns.enable must also be 'true'", initial = "true" )
   public static Boolean       enabled = Boolean.TRUE;
 
+  @ConfigurableField( description = "Answer instance DNS queries from the in-memory instance table, "
+                                    + "looking up only addresses that are not in the table.", initial = "true" )
+  public static Boolean       instance_table_enabled = Boolean.TRUE;
+
   private static final LoadingCache<VmDnsCacheKey, Optional<VmDnsInfo>> instanceCache = CacheBuilder.newBuilder( )
       .maximumSize( 25_000 )
       .refreshAfterWrite( 5, TimeUnit.SECONDS )
@@ -141,7 +145,9 @@ public abstract class SplitHorizonResolver extends DnsResolver {
     if ( vmInfo.isPresent( ) ) {
       final String vpcId = vmInfo.get( ).getVpcId( );
       if (  vpcId != null ) {
-        return vpcCache.getUnchecked( vpcId ).transform( VpcDnsInfo.cidr( ) );  
+        return VmDnsTable.isAvailable( ) ?
+            VmDnsTable.lookupVpcCidr( vpcId, ( ) -> lookupVpcCidr( vpcId ) ) :
+            lookupVpcCidr( vpcId );
       } else {
         final InetAddress privateAddress = InetAddresses.forString( vmInfo.get( ).getPrivateIp( ) );
         for ( final Cidr cidr : clusterSubnetsSupplier.get( ) ) {
@@ -253,11 +259,21 @@ public abstract class SplitHorizonResolver extends DnsResolver {
   }
 
   private static Optional<VmDnsInfo> lookupPrivate( InetAddress ip ) {
-    return instanceCache.getUnchecked( VmDnsCacheKey.forPrivateAddress( ip ) );
+    final VmDnsCacheKey key = VmDnsCacheKey.forPrivateAddress( ip );
+    return VmDnsTable.isAvailable( ) ?
+        VmDnsTable.lookupPrivate( ip.getHostAddress( ), ( ) -> instanceCache.getUnchecked( key ) ) :
+        instanceCache.getUnchecked( key );
   }
 
   private static Optional<VmDnsInfo> lookupPublic( InetAddress ip ) {
-    return instanceCache.getUnchecked( VmDnsCacheKey.forPublicAddress( ip ) );
+    final VmDnsCacheKey key = VmDnsCacheKey.forPublicAddress( ip );
+    return VmDnsTable.isAvailable( ) ?
+        VmDnsTable.lookupPublic( ip.getHostAddress( ), ( ) -> instanceCache.getUnchecked( key ) ) :
+        instanceCache.getUnchecked( key );
+  }
+
+  private static Optional<Cidr> lookupVpcCidr( final String vpcId ) {
+    return vpcCache.getUnchecked( vpcId ).transform( VpcDnsInfo.cidr( ) );
   }
 
   @Override
@@ -572,6 +588,10 @@ public abstract class SplitHorizonResolver extends DnsResolver {
       this.vpcId = vpcId;
     }
 
+    public String getId( ) {
+      return id;
+    }
+
     public String getPrivateIp( ) {
       return privateIp;
     }
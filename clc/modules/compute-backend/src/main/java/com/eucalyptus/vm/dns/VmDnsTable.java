@@ -0,0 +1,411 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.vm.dns;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.apache.log4j.Logger;
+import org.hibernate.criterion.Projection;
+import org.hibernate.criterion.Projections;
+import com.eucalyptus.bootstrap.Bootstrap;
+import com.eucalyptus.bootstrap.Databases;
+import com.eucalyptus.component.Topology;
+import com.eucalyptus.component.id.Eucalyptus;
+import com.eucalyptus.compute.common.internal.vm.VmInstance;
+import com.eucalyptus.compute.common.internal.vm.VmInstance.VmStateSet;
+import com.eucalyptus.compute.common.internal.vm.VmInstances.InstanceProjection;
+import com.eucalyptus.compute.common.internal.vm.VmNetworkConfig;
+import com.eucalyptus.compute.common.internal.vpc.Vpc;
+import com.eucalyptus.entities.Entities;
+import com.eucalyptus.entities.TransactionResource;
+import com.eucalyptus.event.ClockTick;
+import com.eucalyptus.event.EventListener;
+import com.eucalyptus.event.Listeners;
+import com.eucalyptus.system.Threads;
+import com.eucalyptus.util.Cidr;
+import com.eucalyptus.vm.VmInstances;
+import com.eucalyptus.vm.dns.SplitHorizonResolver.VmDnsInfo;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * In memory table of DNS information for pending and running instances.
+ *
+ * <p>The table is reloaded in the background when instance state or address assignments change
+ * and periodically as a fallback for changes on other hosts. Changes that remove an address are
+ * applied to the table immediately so answers for the address stop before the reload. VPC
+ * networks for the instances are loaded with the table.</p>
+ *
+ * <p>An address that is not in the table may be for an instance launched since the last reload,
+ * so a miss falls back to a single lookup. A lookup that finds an instance requests a reload.
+ * Addresses removed from the table do not fall back until the next reload.</p>
+ *
+ * <p>Lookup counts and staleness are published as the {@value #OBJECT_NAME} MXBean.</p>
+ */
+public class VmDnsTable {
+
+  private static final Logger LOG = Logger.getLogger( VmDnsTable.class );
+
+  public static final String OBJECT_NAME = "com.eucalyptus.vm.dns:type=VmDnsTable";
+
+  private static final int REFRESH_INTERVAL_TICKS = 3;
+
+  private static final AtomicReference<Table> table = new AtomicReference<>( );
+  private static final Semaphore refreshSemaphore = new Semaphore( 1 );
+  private static final AtomicBoolean refreshRequested = new AtomicBoolean( );
+
+  // time of the earliest change not yet included in the table, 0 if none
+  private static final AtomicLong pendingChangeTime = new AtomicLong( );
+
+  private static final AtomicLong answers = new AtomicLong( );
+  private static final AtomicLong misses = new AtomicLong( );
+  private static final AtomicLong fallbackAnswers = new AtomicLong( );
+  private static final AtomicLong lastStalenessMillis = new AtomicLong( );
+  private static final AtomicLong maxStalenessMillis = new AtomicLong( );
+
+  /**
+   * True if the table is enabled and has been loaded.
+   */
+  public static boolean isAvailable( ) {
+    return SplitHorizonResolver.instance_table_enabled && table.get( ) != null;
+  }
+
+  /**
+   * Lookup an instance by private address.
+   *
+   * @param fallback Lookup used when the address is not in the table
+   */
+  static Optional<VmDnsInfo> lookupPrivate( final String address, final Supplier<Optional<VmDnsInfo>> fallback ) {
+    return lookup( address, false, fallback );
+  }
+
+  /**
+   * Lookup an instance by public address.
+   *
+   * @param fallback Lookup used when the address is not in the table
+   */
+  static Optional<VmDnsInfo> lookupPublic( final String address, final Supplier<Optional<VmDnsInfo>> fallback ) {
+    return lookup( address, true, fallback );
+  }
+
+  /**
+   * Lookup the network for a VPC.
+   *
+   * @param fallback Lookup used when the VPC is not in the table
+   */
+  static Optional<Cidr> lookupVpcCidr( final String vpcId, final Supplier<Optional<Cidr>> fallback ) {
+    final Table current = table.get( );
+    final Cidr cidr = current == null ? null : current.vpcCidrs.get( vpcId );
+    return cidr == null ? fallback.get( ) : Optional.of( cidr );
+  }
+
+  private static Optional<VmDnsInfo> lookup(
+      final String address,
+      final boolean publicAddress,
+      final Supplier<Optional<VmDnsInfo>> fallback
+  ) {
+    final Table current = table.get( );
+    final VmDnsInfo info = current == null ?
+        null :
+        ( publicAddress ? current.byPublicAddress : current.byPrivateAddress ).get( address );
+    if ( info != null ) {
+      answers.incrementAndGet( );
+      return Optional.of( info );
+    }
+    misses.incrementAndGet( );
+    if ( current != null && current.removedAddresses.contains( address ) ) {
+      return Optional.absent( );
+    }
+    final Optional<VmDnsInfo> fallbackInfo = fallback.get( );
+    if ( fallbackInfo.isPresent( ) ) {
+      fallbackAnswers.incrementAndGet( );
+      requestRefresh( );
+    }
+    return fallbackInfo;
+  }
+
+  /**
+   * Request a reload of the table following an instance or address change.
+   */
+  public static void requestRefresh( ) {
+    pendingChangeTime.compareAndSet( 0, System.currentTimeMillis( ) );
+    if ( isAvailable( ) && refreshRequested.compareAndSet( false, true ) ) {
+      Threads.lookup( Eucalyptus.class, VmDnsTable.class ).limitTo( 1 ).submit( VmDnsTable::refresh );
+    }
+  }
+
+  /**
+   * Remove the given instance from the table and request a reload.
+   */
+  public static void invalidateInstance( final String instanceId ) {
+    final Table current = table.get( );
+    if ( current != null ) {
+      final VmDnsInfo info = current.byInstanceId.remove( instanceId );
+      if ( info != null ) {
+        current.removedAddresses.add( info.getPrivateIp( ) );
+        current.byPrivateAddress.remove( info.getPrivateIp( ), info );
+        if ( info.getPublicIp( ) != null ) {
+          current.removedAddresses.add( info.getPublicIp( ) );
+          current.byPublicAddress.remove( info.getPublicIp( ), info );
+        }
+      }
+    }
+    requestRefresh( );
+  }
+
+  /**
+   * Remove the given public address from the table and request a reload.
+   */
+  public static void invalidatePublicAddress( final String address ) {
+    final Table current = table.get( );
+    if ( current != null ) {
+      current.removedAddresses.add( address );
+      current.byPublicAddress.remove( address );
+    }
+    requestRefresh( );
+  }
+
+  public static long getAnswers( ) {
+    return answers.get( );
+  }
+
+  public static long getMisses( ) {
+    return misses.get( );
+  }
+
+  /**
+   * Misses answered by the fallback lookup, each is an instance not yet in the table.
+   */
+  public static long getFallbackAnswers( ) {
+    return fallbackAnswers.get( );
+  }
+
+  /**
+   * Time between the last change and the reload that included it.
+   */
+  public static long getLastStalenessMillis( ) {
+    return lastStalenessMillis.get( );
+  }
+
+  public static long getMaxStalenessMillis( ) {
+    return maxStalenessMillis.get( );
+  }
+
+  static void refresh( ) {
+    refreshRequested.set( false );
+    if ( !refreshSemaphore.tryAcquire( ) ) {
+      return;
+    }
+    try {
+      if ( !SplitHorizonResolver.instance_table_enabled || Databases.isVolatile( ) ) {
+        return;
+      }
+      final long changeTime = pendingChangeTime.getAndSet( 0 );
+      final List<VmDnsInfo> infos = VmInstances.listWithProjection(
+          VmDnsInfoProjection.INSTANCE,
+          VmInstance.criterion( VmStateSet.RUN.array( ) ) );
+      table.set( new Table( infos, loadVpcCidrs( ) ) );
+      if ( changeTime > 0 ) {
+        final long staleness = System.currentTimeMillis( ) - changeTime;
+        lastStalenessMillis.set( staleness );
+        maxStalenessMillis.accumulateAndGet( staleness, Math::max );
+      }
+      if ( LOG.isDebugEnabled( ) ) {
+        LOG.debug( "Instance DNS table loaded with " + table.get( ).byInstanceId.size( ) + " instances, answers " +
+            answers.get( ) + " misses " + misses.get( ) + " (fallback answers " + fallbackAnswers.get( ) + ") staleness " + lastStalenessMillis.get( ) + "ms (max " +
+            maxStalenessMillis.get( ) + "ms)" );
+      }
+    } catch ( final Exception e ) {
+      LOG.error( "Error loading instance DNS table", e );
+    } finally {
+      refreshSemaphore.release( );
+    }
+  }
+
+  private static Map<String,Cidr> loadVpcCidrs( ) {
+    final Map<String,Cidr> vpcCidrs = Maps.newHashMap( );
+    try ( final TransactionResource db = Entities.readOnlyDistinctTransactionFor( Vpc.class ) ) {
+      @SuppressWarnings( "unchecked" )
+      final List<Object[]> rows = (List<Object[]>) Entities.createCriteria( Vpc.class )
+          .setReadOnly( true )
+          .setProjection( Projections.projectionList( )
+              .add( Projections.property( "displayName" ) )
+              .add( Projections.property( "cidr" ) ) )
+          .list( );
+      for ( final Object[] row : rows ) {
+        final Optional<Cidr> cidr = Cidr.parse( ).apply( (String) row[ 1 ] );
+        if ( cidr.isPresent( ) ) {
+          vpcCidrs.put( (String) row[ 0 ], cidr.get( ) );
+        }
+      }
+    }
+    return vpcCidrs;
+  }
+
+  static void clear( ) {
+    table.set( null );
+  }
+
+  static void load( final List<VmDnsInfo> infos, final Map<String,Cidr> vpcCidrs ) {
+    table.set( new Table( infos, vpcCidrs ) );
+  }
+
+  private static final class Table {
+    private final Map<String,VmDnsInfo> byInstanceId;
+    private final Map<String,VmDnsInfo> byPrivateAddress;
+    private final Map<String,VmDnsInfo> byPublicAddress;
+    private final Map<String,Cidr> vpcCidrs;
+    // addresses removed since the table was loaded, these do not fall back to a lookup
+    private final Set<String> removedAddresses = Sets.newConcurrentHashSet( );
+
+    private Table( final List<VmDnsInfo> infos, final Map<String,Cidr> vpcCidrs ) {
+      byInstanceId = Maps.newConcurrentMap( );
+      byPrivateAddress = Maps.newConcurrentMap( );
+      byPublicAddress = Maps.newConcurrentMap( );
+      this.vpcCidrs = vpcCidrs;
+      for ( final VmDnsInfo info : infos ) {
+        byInstanceId.put( info.getId( ), info );
+        if ( !Strings.isNullOrEmpty( info.getPrivateIp( ) ) ) {
+          byPrivateAddress.put( info.getPrivateIp( ), info );
+        }
+        if ( info.getPublicIp( ) != null ) {
+          byPublicAddress.put( info.getPublicIp( ), info );
+        }
+      }
+    }
+  }
+
+  private enum VmDnsInfoProjection implements InstanceProjection<VmDnsInfo> {
+    INSTANCE;
+
+    @Override
+    public Projection getProjection( ) {
+      return Projections.projectionList( )
+          .add( Projections.property( "naturalId" ) )
+          .add( Projections.property( "displayName" ) )
+          .add( Projections.property( "version" ) )
+          .add( Projections.property( "networkConfig.privateAddress" ) )
+          .add( Projections.property( "networkConfig.publicAddress" ) )
+          .add( Projections.property( "bootRecord.vpcId" ) );
+    }
+
+    @Override
+    public List<VmDnsInfo> results( final List<?> listing ) {
+      final List<VmDnsInfo> results = Lists.newArrayListWithCapacity( listing.size( ) );
+      for ( final Object item : listing ) {
+        final Object[] row = (Object[]) item;
+        final String privateIp = (String) row[ 3 ];
+        results.add( new VmDnsInfo(
+            (String) row[ 0 ],
+            (String) row[ 1 ],
+            (Integer) row[ 2 ],
+            privateIp,
+            publicIp( privateIp, (String) row[ 4 ] ),
+            (String) row[ 5 ] ) );
+      }
+      return results;
+    }
+
+    /**
+     * Public address as per VmInstance#hasPublicAddress
+     */
+    @Nullable
+    private static String publicIp( final String privateIp, final String publicIp ) {
+      return Strings.isNullOrEmpty( publicIp ) ||
+          VmNetworkConfig.DEFAULT_IP.equals( publicIp ) ||
+          publicIp.equals( privateIp ) ?
+              null :
+              publicIp;
+    }
+  }
+
+  /**
+   * Instance DNS table statistics, published for the stats sensors.
+   */
+  public interface VmDnsTableMXBean {
+    int getInstances( );
+    long getAnswers( );
+    long getMisses( );
+    long getFallbackAnswers( );
+    long getLastStalenessMillis( );
+    long getMaxStalenessMillis( );
+  }
+
+  private static final class VmDnsTableStatistics implements VmDnsTableMXBean {
+    @Override
+    public int getInstances( ) {
+      final Table current = table.get( );
+      return current == null ? 0 : current.byInstanceId.size( );
+    }
+
+    @Override
+    public long getAnswers( ) {
+      return VmDnsTable.getAnswers( );
+    }
+
+    @Override
+    public long getMisses( ) {
+      return VmDnsTable.getMisses( );
+    }
+
+    @Override
+    public long getFallbackAnswers( ) {
+      return VmDnsTable.getFallbackAnswers( );
+    }
+
+    @Override
+    public long getLastStalenessMillis( ) {
+      return VmDnsTable.getLastStalenessMillis( );
+    }
+
+    @Override
+    public long getMaxStalenessMillis( ) {
+      return VmDnsTable.getMaxStalenessMillis( );
+    }
+  }
+
+  public static class VmDnsTableEventListener implements EventListener<ClockTick> {
+    private volatile int counter = 0;
+
+    public static void register( ) {
+      Listeners.register( ClockTick.class, new VmDnsTableEventListener( ) );
+      try {
+        ManagementFactory.getPlatformMBeanServer( ).registerMBean(
+            new VmDnsTableStatistics( ),
+            new ObjectName( OBJECT_NAME ) );
+      } catch ( final JMException e ) {
+        LOG.warn( "Error registering instance DNS table statistics: " + e.getMessage( ) );
+      }
+    }
+
+    @Override
+    public void fireEvent( final ClockTick event ) {
+      if ( Bootstrap.isOperational( ) && Topology.isEnabledLocally( Eucalyptus.class ) ) {
+        if ( ( counter++ % REFRESH_INTERVAL_TICKS == 0 || table.get( ) == null || pendingChangeTime.get( ) > 0 ) &&
+            refreshRequested.compareAndSet( false, true ) ) {
+          Threads.lookup( Eucalyptus.class, VmDnsTable.class ).limitTo( 1 ).submit( VmDnsTable::refresh );
+        }
+      } else if ( table.get( ) != null ) {
+        clear( );
+      }
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.cloud.run
+
+import com.eucalyptus.compute.common.network.NetworkResource
+import com.eucalyptus.compute.common.network.PrivateIPResource
+import groovy.transform.CompileStatic
+import org.junit.Test
+
+import javax.persistence.EntityTransaction
+import java.util.function.BiConsumer
+import java.util.function.Consumer
+import java.util.function.Supplier
+
+import static org.junit.Assert.*
+
+/**
+ * Unit tests for aborting allocations
+ */
+@CompileStatic
+class AllocationsTest {
+
+  private final List<String> events = [ ]
+  private final List<List<NetworkResource>> releases = [ ]
+
+  @Test
+  void testAbortReleasesNetworkResourcesOnce( ) {
+    abort( [ 'i-1', 'i-2', 'i-3' ], withResource( ) )
+    assertEquals( 'events', [
+        'begin', 'abort i-1', 'commit',
+        'begin', 'abort i-2', 'commit',
+        'begin', 'abort i-3', 'commit',
+    ], events )
+    assertEquals( 'single release', 1, releases.size( ) )
+    assertEquals( 'released resources', [ 'i-1', 'i-2', 'i-3' ], releases[ 0 ].collect{ NetworkResource resource -> resource.ownerId } )
+  }
+
+  @Test
+  void testAbortTokenFailure( ) {
+    Closure tokenAbort = { String token, List<NetworkResource> resources ->
+      if ( token == 'i-2' ) throw new IllegalStateException( 'abort failed' )
+      withResource( ).accept( token, resources )
+    }
+    abort( [ 'i-1', 'i-2', 'i-3' ], tokenAbort as BiConsumer<String,List<NetworkResource>> )
+    assertEquals( 'events', [
+        'begin', 'abort i-1', 'commit',
+        'begin', 'rollback',
+        'begin', 'abort i-3', 'commit',
+    ], events )
+    assertEquals( 'single release', 1, releases.size( ) )
+    assertEquals( 'released resources', [ 'i-1', 'i-3' ], releases[ 0 ].collect{ NetworkResource resource -> resource.ownerId } )
+  }
+
+  @Test
+  void testAbortWithoutNetworkResources( ) {
+    Closure tokenAbort = { String token, List<NetworkResource> resources ->
+      events << "abort ${token}".toString( )
+    }
+    abort( [ 'i-1', 'i-2' ], tokenAbort as BiConsumer<String,List<NetworkResource>> )
+    assertEquals( 'no release', [ ], releases )
+  }
+
+  @Test
+  void testAbortReleaseFailure( ) {
+    Closure release = { List<NetworkResource> resources ->
+      releases << resources
+      throw new IllegalStateException( 'release failed' )
+    }
+    Allocations.abort(
+        [ 'i-1' ],
+        transactions( ),
+        withResource( ),
+        release as Consumer<List<NetworkResource>> )
+    assertEquals( 'release attempted', 1, releases.size( ) )
+  }
+
+  private void abort( List<String> tokens, BiConsumer<String,List<NetworkResource>> tokenAbort ) {
+    Closure release = { List<NetworkResource> resources -> releases << resources }
+    Allocations.abort( tokens, transactions( ), tokenAbort, release as Consumer<List<NetworkResource>> )
+  }
+
+  private BiConsumer<String,List<NetworkResource>> withResource( ) {
+    Closure tokenAbort = { String token, List<NetworkResource> resources ->
+      events << "abort ${token}".toString( )
+      resources << new PrivateIPResource( token, '10.0.0.1', 'd0:0d:00:00:00:01' )
+    }
+    tokenAbort as BiConsumer<String,List<NetworkResource>>
+  }
+
+  private Supplier<EntityTransaction> transactions( ) {
+    Closure transaction = {
+      events << 'begin'
+      new TestTransaction( events )
+    }
+    transaction as Supplier<EntityTransaction>
+  }
+
+  static class TestTransaction implements EntityTransaction {
+    private final List<String> events
+    private boolean active = true
+
+    TestTransaction( List<String> events ) {
+      this.events = events
+    }
+
+    @Override void begin( ) { }
+    @Override void commit( ) { events << 'commit'; active = false }
+    @Override void rollback( ) { events << 'rollback'; active = false }
+    @Override void setRollbackOnly( ) { }
+    @Override boolean getRollbackOnly( ) { false }
+    @Override boolean isActive( ) { active }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.compute.metadata
+
+import com.eucalyptus.vm.MetadataRequest
+import com.eucalyptus.vm.VmInstanceMetadata
+import com.eucalyptus.vm.VmInstanceMetadata.MetadataDocument
+import com.google.common.base.Optional
+import org.junit.After
+import org.junit.Test
+
+import java.util.function.Function
+
+import static org.junit.Assert.*
+
+/**
+ * Tests for metadata documents by instance and address
+ */
+class VmMetadataDocumentsTest {
+
+  @After
+  void clear( ) {
+    VmMetadataDocuments.clear( )
+  }
+
+  @Test
+  void testRefreshEvictsInstancesNotRunning( ) {
+    refresh( [ 'i-00000001': 1, 'i-00000002': 1 ], [
+        document( 'i-00000001', 1, '10.0.0.1', '1.1.1.1' ),
+        document( 'i-00000002', 1, '10.0.0.2', null ),
+    ] )
+    assertEquals( 'by private address', 'i-00000001', lookupByIp( '10.0.0.1' )?.instanceId )
+    assertEquals( 'by public address', 'i-00000001', lookupByIp( '1.1.1.1', 'i-00000001' )?.instanceId )
+
+    refresh( [ 'i-00000002': 1 ], [ ] )
+    assertNull( 'stopped by id', VmMetadataDocuments.lookup( 'i-00000001' ) )
+    assertNull( 'stopped by private address', lookupByIp( '10.0.0.1' ) )
+    assertNull( 'stopped by public address', lookupByIp( '1.1.1.1', 'i-00000001' ) )
+    assertEquals( 'running by private address', 'i-00000002', lookupByIp( '10.0.0.2' )?.instanceId )
+  }
+
+  @Test
+  void testRefreshAddressChange( ) {
+    refresh( [ 'i-00000001': 1 ], [ document( 'i-00000001', 1, '10.0.0.1', '1.1.1.1' ) ] )
+    refresh( [ 'i-00000001': 2 ], [ document( 'i-00000001', 2, '10.0.0.1', '2.2.2.2' ) ] )
+
+    assertNull( 'previous public address', lookupByIp( '1.1.1.1', 'i-00000001' ) )
+    assertEquals( 'public address', 'i-00000001', lookupByIp( '2.2.2.2', 'i-00000001' )?.instanceId )
+    assertEquals( 'version', 2, VmMetadataDocuments.lookup( 'i-00000001' ).version )
+  }
+
+  @Test
+  void testAddressMovedBetweenInstances( ) {
+    refresh( [ 'i-00000001': 1, 'i-00000002': 1 ], [
+        document( 'i-00000001', 1, '10.0.0.1', '1.1.1.1' ),
+        document( 'i-00000002', 1, '10.0.0.2', null ),
+    ] )
+    // new holder of the address rendered first
+    Map<String,Integer> versions = new LinkedHashMap<>( )
+    versions.put( 'i-00000002', 2 )
+    versions.put( 'i-00000001', 2 )
+    refresh( versions, [
+        document( 'i-00000001', 2, '10.0.0.1', null ),
+        document( 'i-00000002', 2, '10.0.0.2', '1.1.1.1' ),
+    ] )
+
+    assertEquals( 'moved address', 'i-00000002', lookupByIp( '1.1.1.1', 'i-00000002' )?.instanceId )
+  }
+
+  @Test
+  void testPublicAddressOwnership( ) {
+    refresh( [ 'i-00000001': 1 ], [ document( 'i-00000001', 1, '10.0.0.1', '1.1.1.1' ) ] )
+
+    assertNull( 'public address assigned to other instance', lookupByIp( '1.1.1.1', 'i-00000002' ) )
+    assertNull( 'public address not assigned', lookupByIp( '1.1.1.1', null ) )
+    assertEquals( 'public address assigned', 'i-00000001', lookupByIp( '1.1.1.1', 'i-00000001' )?.instanceId )
+    assertEquals( 'private address', 'i-00000001', lookupByIp( '10.0.0.1', 'i-00000002' )?.instanceId )
+  }
+
+  @Test
+  void testEvictedWhileRendering( ) {
+    VmMetadataDocuments.refresh( [ 'i-00000001': 1 ], { String instanceId ->
+      VmMetadataDocuments.evict( instanceId ) // clean up during render
+      document( instanceId, 1, '10.0.0.1', null )
+    } as Function<String,MetadataDocument> )
+
+    assertNull( 'evicted by id', VmMetadataDocuments.lookup( 'i-00000001' ) )
+    assertNull( 'evicted by address', lookupByIp( '10.0.0.1' ) )
+  }
+
+  @Test
+  void testFromDocument( ) {
+    MetadataDocument document = document( 'i-00000001', 1, '10.0.0.1', null )
+
+    assertEquals( 'listing', 'dynamic\nmeta-data\nuser-data', serve( document, '' ).get( ) )
+    assertEquals( 'meta-data', 'i-00000001', serve( document, 'meta-data/instance-id' ).get( ) )
+    assertEquals( 'dynamic', 'enabled', serve( document, 'dynamic/fws/instance-monitoring' ).get( ) )
+    assertEquals( 'user-data', 'user-data', serve( document, 'user-data' ).get( ) )
+    assertFalse( 'iam not rendered', serve( document, 'meta-data/iam/security-credentials/' ).isPresent( ) )
+    try {
+      serve( document, 'meta-data/kernel-id' )
+      fail( 'Expected missing meta-data' )
+    } catch ( NoSuchElementException e ) {
+      // expected
+    }
+  }
+
+  private static Optional<String> serve( MetadataDocument document, String path ) {
+    VmMetadata.fromDocument( document, new MetadataRequest( '10.0.0.1', path, Optional.of( document.instanceId ) ) )
+        .transform{ content -> new String( content.bytes ) }
+  }
+
+  private static void refresh( Map<String,Integer> versions, List<MetadataDocument> documents ) {
+    Map<String,MetadataDocument> documentsById = documents.collectEntries{ MetadataDocument document ->
+      [ ( document.instanceId ): document ]
+    }
+    VmMetadataDocuments.refresh( versions, { String instanceId -> documentsById.get( instanceId ) } as Function<String,MetadataDocument> )
+  }
+
+  private static MetadataDocument lookupByIp( String ip, String publicAddressInstanceId = null ) {
+    VmMetadataDocuments.lookupByIp( ip, { String address -> publicAddressInstanceId } as Function<String,String> )
+  }
+
+  private static MetadataDocument document( String instanceId, int version, String privateAddress, String publicAddress ) {
+    VmInstanceMetadata.document(
+        instanceId,
+        version,
+        publicAddress,
+        privateAddress,
+        [
+            Core: [
+                'instance-id': instanceId,
+                'local-ipv4': privateAddress,
+                '': 'instance-id\nlocal-ipv4'
+            ],
+            CoreDynamic: [
+                'fws/instance-monitoring': 'enabled'
+            ],
+        ] as Map<String,Map<String,String>>,
+        'user-data'.bytes
+    )
+  }
+}
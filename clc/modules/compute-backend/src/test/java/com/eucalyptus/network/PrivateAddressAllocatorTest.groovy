@@ -31,8 +31,10 @@ package com.eucalyptus.network
 import com.eucalyptus.compute.common.internal.vm.VmInstance
 import com.eucalyptus.util.Callback
 import com.google.common.collect.Iterables
+import com.google.common.collect.Lists
 import com.google.common.collect.Maps
 import groovy.transform.CompileStatic
+import org.junit.Ignore
 import org.junit.Test
 
 import java.util.function.Function
@@ -71,6 +73,108 @@ class PrivateAddressAllocatorTest {
     verifyOneAvailableAddress( persistence.reset( ), allocator )
   }
 
+  @Test
+  void testBitmapAllocator( ) {
+    TestPrivateAddressPersistence persistence = new TestPrivateAddressPersistence( )
+    PrivateAddressAllocator allocator = new BitmapPrivateAddressAllocator( persistence, 1000, 'maximumSize=10' )
+    verifyBasicAllocation( persistence.reset( ), allocator )
+    verifyAddressesExhaustedFailure( persistence.reset( ), allocator )
+    verifyHugeAddressesExhaustedFailure( persistence.reset( ), allocator )
+    verifyEarlyRelease( persistence.reset( ), allocator )
+    verifyLazyAllocation( persistence.reset( ), allocator )
+    verifyFullRange( persistence.reset( ), allocator )
+    verifyOneAvailableAddress( persistence.reset( ), new BitmapPrivateAddressAllocator( persistence, 1000, 'maximumSize=10' ) )
+  }
+
+  @Test
+  void testBitmapAllocatorBatch( ) {
+    TestPrivateAddressPersistence persistence = new TestPrivateAddressPersistence( )
+    PrivateAddressAllocator allocator = new BitmapPrivateAddressAllocator( persistence, 1000, 'maximumSize=10' )
+    Iterable<Integer> ranges = ranges( '10.0.0.0-10.0.0.9' )
+    persistence.addresses.put( '10.0.0.1', PrivateAddress.create( null, null, '10.0.0.1' ).allocate( ) )
+    List<String> addresses = allocator.allocate( null, null, ranges, 10, -1, 5 )
+    assertEquals( '5 addresses allocated', 5, addresses.toSet( ).size( ) )
+    assertFalse( 'in use address not allocated', addresses.contains( '10.0.0.1' ) )
+    assertEquals( '6 addresses in use', 6, persistence.addresses.size( ) )
+
+    // address allocated elsewhere after bitmap loaded
+    persistence.addresses.put( '10.0.0.7', PrivateAddress.create( null, null, '10.0.0.7' ).allocate( ) )
+    try {
+      allocator.allocate( null, null, ranges, 10, -1, 4 )
+      fail( 'Allocation should have failed due to insufficient addresses' )
+    } catch ( NotEnoughResourcesException ) {
+      assertEquals( '7 addresses in use', 7, persistence.addresses.size( ) )
+    }
+
+    allocator.release( null, addresses[0], null )
+    assertEquals( 'released address allocated', addresses[0], allocator.allocate( null, null, ranges, 10, -1 ) )
+  }
+
+  @Test
+  void testBitmapAllocatorRanges( ) {
+    TestPrivateAddressPersistence persistence = new TestPrivateAddressPersistence( )
+    PrivateAddressAllocator allocator = new BitmapPrivateAddressAllocator( persistence, 1000, 'maximumSize=10' )
+    Iterable<Integer> zone1 = ranges( '10.0.0.0-10.0.0.9' )
+    Iterable<Integer> zone2 = ranges( '10.0.1.0-10.0.1.9' )
+    List<String> zone1Addresses = allocator.allocate( null, null, zone1, 10, -1, 3 )
+    List<String> zone2Addresses = allocator.allocate( null, null, zone2, 10, -1, 3 )
+    zone1Addresses.addAll( allocator.allocate( null, null, zone1, 10, -1, 3 ) )
+    zone2Addresses.addAll( allocator.allocate( null, null, zone2, 10, -1, 3 ) )
+    assertTrue( 'zone 1 addresses', zone1Addresses.every{ String address -> address.startsWith( '10.0.0.' ) } )
+    assertTrue( 'zone 2 addresses', zone2Addresses.every{ String address -> address.startsWith( '10.0.1.' ) } )
+    assertEquals( 'distinct addresses', 12, ( zone1Addresses + zone2Addresses ).toSet( ).size( ) )
+    assertEquals( 'bitmap loaded once per range', 2, persistence.lists )
+
+    allocator.release( null, zone2Addresses[0], null )
+    assertTrue( 'released address allocated',
+        allocator.allocate( null, null, zone2, 10, -1, 5 ).contains( zone2Addresses[0] ) )
+    assertEquals( 'bitmap loaded once per range after release', 2, persistence.lists )
+  }
+
+  /**
+   * Allocation latency and database insert attempts by subnet fill ratio for a /16 subnet.
+   */
+  @Ignore( "Manual development test" )
+  @Test
+  void benchmarkAllocationByFillRatio( ) {
+    Iterable<Integer> ranges = Iterables.skip( ranges( '10.1.0.0-10.1.255.255' ), 3 )
+    int addressCount = Iterables.size( ranges )
+    [ 0.0d, 0.5d, 0.9d, 0.99d, 0.999d ].each { double fill ->
+      [
+          'random': { TestPrivateAddressPersistence p -> new RandomPrivateAddressAllocator( p, 1000, 15, 3, 10 ) },
+          'first-free': { TestPrivateAddressPersistence p -> new FirstFreePrivateAddressAllocator( p ) },
+          'bitmap': { TestPrivateAddressPersistence p -> new BitmapPrivateAddressAllocator( p, 1 << 18, 'maximumSize=10' ) },
+      ].each { String name, Closure<PrivateAddressAllocator> allocatorFactory ->
+        TestPrivateAddressPersistence persistence = new TestPrivateAddressPersistence( )
+        List<Integer> shuffled = Lists.newArrayList( ranges )
+        Collections.shuffle( shuffled, new Random( 1 ) )
+        int used = (int) ( addressCount * fill )
+        shuffled.subList( 0, used ).each { Integer address ->
+          String addressText = PrivateAddresses.fromInteger( address )
+          persistence.addresses.put( addressText, PrivateAddress.create( 'vpc-1', 'subnet-1', addressText ).allocate( ) )
+        }
+        PrivateAddressAllocator allocator = (PrivateAddressAllocator) allocatorFactory.call( persistence )
+        long loadStart = System.nanoTime( )
+        allocator.release( 'vpc-1', allocator.allocate( 'vpc-1', 'subnet-1', ranges, addressCount, used ), null )
+        long load = System.nanoTime( ) - loadStart
+        int allocations = 1000
+        int failures = 0
+        persistence.creates = 0
+        long start = System.nanoTime( )
+        allocations.times {
+          try {
+            allocator.release( 'vpc-1', allocator.allocate( 'vpc-1', 'subnet-1', ranges, addressCount, used ), null )
+          } catch ( NotEnoughResourcesException ) {
+            failures++
+          }
+        }
+        long elapsed = System.nanoTime( ) - start
+        println String.format( '%-10s fill %5.1f%%: %8.1fus/allocation, %7.1f inserts/allocation, %4d failures, first %.1fms',
+            name, fill * 100, elapsed / allocations / 1000d, persistence.creates / (double) allocations, failures, load / 1000000d )
+      }
+    }
+  }
+
   private void verifyBasicAllocation( TestPrivateAddressPersistence persistence,
                                       PrivateAddressAllocator allocator ) {
     String address = allocator.allocate( null, null, ranges( '10.0.0.0-10.0.0.10' ), 10, 0 )
@@ -167,9 +271,12 @@ class PrivateAddressAllocatorTest {
 
   static class TestPrivateAddressPersistence implements PrivateAddressPersistence {
     final Map<String,PrivateAddress> addresses = Maps.newHashMapWithExpectedSize( 20000 )
+    int creates
+    int lists
 
     @Override
     Optional<PrivateAddress> tryCreate( final String scope, final String tag, final String address ) {
+      creates++
       addresses.containsKey( address ) ?
           Optional.<PrivateAddress>empty( ) :
           Optional.of( add( PrivateAddress.create( scope, tag, address ).allocate( ) ) )
@@ -201,6 +308,7 @@ class PrivateAddressAllocatorTest {
     <T> List<T> list( final String scope,
                           final String tag,
                           final Function<? super PrivateAddress, T> transform ) {
+      lists++
       addresses.values()
           .findAll{ PrivateAddress pa -> pa.scope == scope && pa.tag == tag }
           .collect{ PrivateAddress pa -> transform.apply( pa ) } as List<T>
@@ -29,6 +29,8 @@
 package com.eucalyptus.vm
 
 import com.eucalyptus.compute.common.internal.vm.VmInstance
+import com.eucalyptus.compute.common.internal.tags.Filter
+import org.junit.Ignore
 import org.junit.Test
 import com.eucalyptus.tags.FilterSupportTest
 import com.eucalyptus.compute.common.internal.images.ImageInfo
@@ -36,6 +38,10 @@ import com.eucalyptus.compute.common.internal.images.KernelImageInfo
 import com.eucalyptus.compute.common.internal.images.MachineImageInfo
 import com.eucalyptus.compute.common.internal.images.RamdiskImageInfo
 
+import java.util.concurrent.TimeUnit
+
+import static org.junit.Assert.assertEquals
+
 /**
  * Unit tests for instance filter support
  */
@@ -62,6 +68,64 @@ class VmInstanceFilterSupportTest extends FilterSupportTest.InstanceTestSupport<
     //TODO:STEVE: add remaining filters when mock library available
   }
 
+  @Test
+  void testStateNamePersistenceFilter() {
+    Filter filter = new VmInstances.VmInstanceFilterSupport().generate( [ "instance-state-name": [ "terminated" ] as Set ], false, "000000000" )
+    assertEquals( "criterion", "((state in (TERMINATED, BURIED)))", filter.asCriterion( ).toString( ) )
+
+    filter = new VmInstances.VmInstanceFilterSupport().generate( [ "instance-state-name": [ "run*" ] as Set ], false, "000000000" )
+    assertEquals( "wildcard criterion", "()", filter.asCriterion( ).toString( ) )
+  }
+
+  @Test
+  void testPlanIdentifierFirst() {
+    Filter filter = new VmInstances.VmInstanceFilterSupport().generate( [
+        "instance-type": [ "m1.small" ] as Set,
+        "availability-zone": [ "zone*" ] as Set,
+        "owner-id": [ "123456789012" ] as Set,
+    ], false, "000000000" )
+    assertEquals( "criterion", "((ownerAccountNumber=123456789012) and (vmType.name=m1.small) and (placement.partitionName like zone%))", filter.asCriterion( ).toString( ) )
+    assertEquals( "aliases", [ "bootRecord.vmType" ] as Set, filter.aliases.keySet( ) )
+
+    filter = new VmInstances.VmInstanceFilterSupport().generate( [
+        "instance-type": [ "m1.small" ] as Set,
+        "group-name": [ "default" ] as Set,
+        "instance-id": [ "i-00000001", "i-00000002" ] as Set,
+    ], false, "000000000" )
+    assertEquals( "identifier criterion", "((displayName=i-00000001 or displayName=i-00000002))", filter.asCriterion( ).toString( ) )
+    assertEquals( "identifier aliases", [ ] as Set, filter.aliases.keySet( ) )
+  }
+
+  /**
+   * Filter combinations commonly used with describe instances, prints the
+   * generated query and the in memory filtering rate for 50k instances.
+   */
+  @Ignore( "Manual development test" )
+  @Test
+  void benchmarkFilterCombinations() {
+    List<VmInstance> instances = ( 1..50000 ).collect{ int index ->
+      new VmInstance(
+          displayName: String.format( 'i-%08x', index ),
+          ownerAccountNumber: String.format( '%012d', index % 100 ),
+          state: index % 10 == 0 ? VmInstance.VmState.STOPPED : VmInstance.VmState.RUNNING )
+    }
+    List<Map<String,Set<String>>> combinations = [
+        [ "instance-state-name": [ "running" ] as Set ],
+        [ "instance-state-name": [ "running" ] as Set, "owner-id": [ "000000000042" ] as Set ],
+        [ "instance-id": [ "i-00000001", "i-0000002a" ] as Set, "instance-type": [ "m1.small" ] as Set ],
+        [ "instance-type": [ "m1.small" ] as Set, "group-name": [ "default" ] as Set ],
+        [ "owner-id": [ "0000000000*" ] as Set, "instance-state-name": [ "stopped" ] as Set ],
+    ]
+    combinations.each{ Map<String,Set<String>> filters ->
+      Filter filter = new VmInstances.VmInstanceFilterSupport().generate( filters, false, "000000000" )
+      long start = System.nanoTime( )
+      int matched = instances.count{ VmInstance instance -> filter.asPredicate( ).apply( instance ) }
+      long elapsedMicros = TimeUnit.NANOSECONDS.toMicros( System.nanoTime( ) - start )
+      println "${filters}\n  query: ${filter.asCriterion( )} aliases: ${filter.aliases.keySet( )}\n" +
+          "  matched ${matched}/${instances.size( )} in memory in ${elapsedMicros}us"
+    }
+  }
+
   private void assertMatch( final boolean expectedMatch, final String filterKey, final String filterValue, final VmInstance target) {
     super.assertMatch( new VmInstances.VmInstanceFilterSupport(), expectedMatch, filterKey, filterValue, target )
   }
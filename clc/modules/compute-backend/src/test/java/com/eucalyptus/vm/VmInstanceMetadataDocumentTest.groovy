@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.vm
+
+import com.eucalyptus.vm.VmInstanceMetadata.MetadataDocument
+import org.junit.Ignore
+import org.junit.Test
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+import static org.junit.Assert.*
+
+/**
+ * Tests for rendered instance metadata documents
+ */
+class VmInstanceMetadataDocumentTest {
+
+  @Test
+  void testDocumentLookup( ) {
+    MetadataDocument document = document( 1 )
+
+    assertEquals( 'instance-id', 'i-00000001', document.getByKey( 'instance-id' ) )
+    assertEquals( 'listing', 'ami-id\ninstance-id\nlocal-ipv4', document.getByKey( '' ) )
+    assertEquals( 'network', '0', document.getByKey( 'network/interfaces/macs/d0:0d:00:00:00:01/device-number' ) )
+    assertNull( 'missing', document.getByKey( 'kernel-id' ) )
+    assertEquals( 'dynamic', 'enabled', document.getDynamicByKey( 'fws/instance-monitoring' ) )
+    assertArrayEquals( 'user-data', 'user-data'.bytes, document.getUserData( ) )
+  }
+
+  @Test
+  void testDocumentRendered( ) {
+    MetadataDocument document = document( 1 )
+
+    assertTrue( 'core rendered', document.isRendered( 'instance-id' ) )
+    assertTrue( 'network rendered', document.isRendered( 'network/interfaces/' ) )
+    assertFalse( 'iam rendered', document.isRendered( 'iam/security-credentials/' ) )
+  }
+
+  /**
+   * Simulated boot storm, every instance requests the metadata used by cloud-init at the same time.
+   */
+  @Ignore( "Manual development test" )
+  @Test
+  void benchmarkBootStorm( ) {
+    int instances = 500
+    int threads = 64
+    int requestsPerInstance = 200
+    ConcurrentMap<String,MetadataDocument> documentsByIp = new ConcurrentHashMap<>( )
+    ( 1..instances ).each{ int index ->
+      MetadataDocument document = document( index )
+      documentsByIp.put( document.privateAddress, document )
+    }
+    List<String> paths = [ '', 'instance-id', 'local-ipv4', 'network/interfaces/macs/', 'public-keys/', 'ami-id' ]
+    ExecutorService executor = Executors.newFixedThreadPool( threads )
+    CountDownLatch latch = new CountDownLatch( instances )
+    AtomicLong requests = new AtomicLong( )
+    long start = System.nanoTime( )
+    ( 1..instances ).each{ int index ->
+      executor.submit{
+        String ip = address( index )
+        for ( int i = 0; i < requestsPerInstance; i++ ) {
+          MetadataDocument document = documentsByIp.get( ip )
+          String path = paths.get( i % paths.size( ) )
+          if ( document.isRendered( path ) ) document.getByKey( path )
+          requests.incrementAndGet( )
+        }
+        latch.countDown( )
+      }
+    }
+    latch.await( )
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - start )
+    executor.shutdown( )
+    println "Served ${requests.get( )} metadata requests for ${instances} instances in ${elapsedMillis}ms " +
+        "(${(long)( requests.get( ) * 1000d / Math.max( 1, elapsedMillis ) )}/s)"
+  }
+
+  private static MetadataDocument document( int index ) {
+    String instanceId = String.format( 'i-%08x', index )
+    String mac = String.format( 'd0:0d:00:00:00:%02x', index % 256 )
+    VmInstanceMetadata.document(
+        instanceId,
+        1,
+        null,
+        address( index ),
+        [
+            Core: [
+                'ami-id': 'emi-00000001',
+                'instance-id': instanceId,
+                'local-ipv4': address( index ),
+                '': 'ami-id\ninstance-id\nlocal-ipv4'
+            ],
+            Network: [
+                ( "network/interfaces/macs/${mac}/device-number".toString( ) ): '0',
+                'network/interfaces/macs/': mac + '/'
+            ],
+            CoreDynamic: [
+                'fws/instance-monitoring': 'enabled'
+            ],
+        ] as Map<String,Map<String,String>>,
+        'user-data'.bytes
+    )
+  }
+
+  private static String address( int index ) {
+    "10.${ index >> 16 & 0xff }.${ index >> 8 & 0xff }.${ index & 0xff }"
+  }
+}
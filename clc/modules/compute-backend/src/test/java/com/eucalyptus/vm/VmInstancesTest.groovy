@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.vm
+
+import com.eucalyptus.compute.common.internal.util.ResourceAllocationException
+import com.eucalyptus.compute.common.internal.vm.VmInstance
+import org.junit.Test
+
+import javax.persistence.EntityTransaction
+
+import static org.junit.Assert.*
+
+/**
+ * Unit tests for batch instance creation
+ */
+class VmInstancesTest {
+
+  @Test
+  void testCreateBatch( ) {
+    TestInstanceBatch batch = new TestInstanceBatch( existing: [ new VmInstance( displayName: 'i-2' ) ] )
+    List<VmInstance> instances = VmInstances.create( [ 'i-1', 'i-2', 'i-3' ], batch )
+    assertEquals( 'instances', [ 'i-1', 'i-2', 'i-3' ], instances*.displayName )
+    assertEquals( 'events', [
+        'begin',
+        'existing [i-1, i-2, i-3]',
+        'delete i-2',
+        'flush',
+        'build i-1',
+        'build i-2',
+        'build i-3',
+        'flush',
+        'commit',
+        'created i-1',
+        'created i-2',
+        'created i-3',
+    ], batch.events )
+  }
+
+  @Test
+  void testCreateBatchWithoutExisting( ) {
+    TestInstanceBatch batch = new TestInstanceBatch( )
+    VmInstances.create( [ 'i-1', 'i-2' ], batch )
+    assertEquals( 'single flush', 1, batch.events.count( 'flush' ) )
+    assertEquals( 'single commit', 1, batch.events.count( 'commit' ) )
+  }
+
+  @Test
+  void testCreateBatchFailure( ) {
+    TestInstanceBatch batch = new TestInstanceBatch( failing: 'i-2' )
+    try {
+      VmInstances.create( [ 'i-1', 'i-2', 'i-3' ], batch )
+      fail( 'Expected failure' )
+    } catch ( RuntimeException e ) {
+      assertTrue( 'cause', e.cause instanceof ResourceAllocationException )
+    }
+    assertEquals( 'events', [
+        'begin',
+        'existing [i-1, i-2, i-3]',
+        'build i-1',
+        'build i-2',
+        'rollback',
+    ], batch.events )
+  }
+
+  static class TestInstanceBatch implements VmInstances.InstanceBatch<String> {
+    final List<String> events = [ ]
+    List<VmInstance> existing = [ ]
+    String failing
+    boolean active
+
+    @Override
+    EntityTransaction begin( ) {
+      events << 'begin'
+      active = true
+      [
+          commit: { events << 'commit'; active = false },
+          rollback: { events << 'rollback'; active = false },
+          isActive: { active },
+      ] as EntityTransaction
+    }
+
+    @Override
+    List<VmInstance> existing( final List<String> tokens ) {
+      events << "existing ${tokens}".toString( )
+      existing
+    }
+
+    @Override
+    void delete( final VmInstance instance ) {
+      events << "delete ${instance.displayName}".toString( )
+    }
+
+    @Override
+    VmInstance build( final String token ) throws ResourceAllocationException {
+      events << "build ${token}".toString( )
+      if ( token == failing ) throw new ResourceAllocationException( 'build failed' )
+      new VmInstance( displayName: token )
+    }
+
+    @Override
+    void flush( ) {
+      events << 'flush'
+    }
+
+    @Override
+    void created( final String token, final VmInstance instance ) {
+      events << "created ${token}".toString( )
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.vm.dns
+
+import com.eucalyptus.util.Cidr
+import com.eucalyptus.vm.dns.SplitHorizonResolver.VmDnsInfo
+import com.google.common.base.Optional
+import org.junit.After
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+/**
+ * Unit tests for the instance DNS table
+ */
+class VmDnsTableTest {
+
+  private static final Closure<Optional<VmDnsInfo>> NONE = { Optional.absent( ) }
+
+  @After
+  void clear( ) {
+    VmDnsTable.clear( )
+  }
+
+  @Test
+  void testLookup( ) {
+    assertFalse( 'available before load', VmDnsTable.isAvailable( ) )
+    VmDnsTable.load( [
+        new VmDnsInfo( 'uuid-1', 'i-00000001', 1, '10.0.0.1', '1.1.1.1', null ),
+        new VmDnsInfo( 'uuid-2', 'i-00000002', 1, '10.0.0.2', null, 'vpc-00000001' ),
+    ], [ 'vpc-00000001': Cidr.parse( '172.31.0.0/16' ) ] )
+    assertTrue( 'available after load', VmDnsTable.isAvailable( ) )
+    assertEquals( 'private lookup', 'i-00000001', VmDnsTable.lookupPrivate( '10.0.0.1', NONE ).get( ).id )
+    assertEquals( 'public lookup', 'i-00000001', VmDnsTable.lookupPublic( '1.1.1.1', NONE ).get( ).id )
+    assertEquals( 'vpc lookup', 'vpc-00000001', VmDnsTable.lookupPrivate( '10.0.0.2', NONE ).get( ).vpcId )
+    assertFalse( 'private address as public', VmDnsTable.lookupPublic( '10.0.0.1', NONE ).isPresent( ) )
+    assertEquals( 'vpc cidr', Cidr.parse( '172.31.0.0/16' ), VmDnsTable.lookupVpcCidr( 'vpc-00000001', { Optional.absent( ) } ).get( ) )
+    assertEquals( 'vpc cidr fallback', Cidr.parse( '10.0.0.0/16' ),
+        VmDnsTable.lookupVpcCidr( 'vpc-00000002', { Optional.of( Cidr.parse( '10.0.0.0/16' ) ) } ).get( ) )
+  }
+
+  @Test
+  void testMissFallback( ) {
+    VmDnsTable.load( [
+        new VmDnsInfo( 'uuid-1', 'i-00000001', 1, '10.0.0.1', '1.1.1.1', null ),
+    ], [ : ] )
+    int lookups = 0
+    long fallbackAnswers = VmDnsTable.getFallbackAnswers( )
+    Closure<Optional<VmDnsInfo>> fallback = {
+      lookups++
+      Optional.of( new VmDnsInfo( 'uuid-3', 'i-00000003', 1, '10.0.0.3', null, null ) )
+    }
+    assertEquals( 'table answer', 'i-00000001', VmDnsTable.lookupPrivate( '10.0.0.1', fallback ).get( ).id )
+    assertEquals( 'lookups for table answer', 0, lookups )
+    assertEquals( 'launched since load', 'i-00000003', VmDnsTable.lookupPrivate( '10.0.0.3', fallback ).get( ).id )
+    assertEquals( 'lookups for miss', 1, lookups )
+    assertEquals( 'fallback answers', fallbackAnswers + 1, VmDnsTable.getFallbackAnswers( ) )
+
+    VmDnsTable.invalidateInstance( 'i-00000001' )
+    assertFalse( 'removed private address', VmDnsTable.lookupPrivate( '10.0.0.1', fallback ).isPresent( ) )
+    assertFalse( 'removed public address', VmDnsTable.lookupPublic( '1.1.1.1', fallback ).isPresent( ) )
+    assertEquals( 'lookups for removed addresses', 1, lookups )
+  }
+
+  @Test
+  void testInvalidate( ) {
+    VmDnsTable.load( [
+        new VmDnsInfo( 'uuid-1', 'i-00000001', 1, '10.0.0.1', '1.1.1.1', null ),
+        new VmDnsInfo( 'uuid-2', 'i-00000002', 1, '10.0.0.2', '1.1.1.2', null ),
+    ], [ : ] )
+    VmDnsTable.invalidatePublicAddress( '1.1.1.1' )
+    assertFalse( 'invalidated public address', VmDnsTable.lookupPublic( '1.1.1.1', NONE ).isPresent( ) )
+    assertTrue( 'private address after public invalidation', VmDnsTable.lookupPrivate( '10.0.0.1', NONE ).isPresent( ) )
+
+    VmDnsTable.invalidateInstance( 'i-00000002' )
+    assertFalse( 'invalidated instance private', VmDnsTable.lookupPrivate( '10.0.0.2', NONE ).isPresent( ) )
+    assertFalse( 'invalidated instance public', VmDnsTable.lookupPublic( '1.1.1.2', NONE ).isPresent( ) )
+  }
+}
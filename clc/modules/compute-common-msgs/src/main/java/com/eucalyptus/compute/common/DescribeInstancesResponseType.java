@@ -33,6 +33,7 @@ import java.util.ArrayList;
 public class DescribeInstancesResponseType extends VmControlMessage {
 
   private ArrayList<ReservationInfoType> reservationSet = new ArrayList<ReservationInfoType>( );
+  private String nextToken;
 
   public ArrayList<ReservationInfoType> getReservationSet( ) {
     return reservationSet;
@@ -41,4 +42,12 @@ public class DescribeInstancesResponseType extends VmControlMessage {
   public void setReservationSet( ArrayList<ReservationInfoType> reservationSet ) {
     this.reservationSet = reservationSet;
   }
+
+  public String getNextToken( ) {
+    return nextToken;
+  }
+
+  public void setNextToken( String nextToken ) {
+    this.nextToken = nextToken;
+  }
 }
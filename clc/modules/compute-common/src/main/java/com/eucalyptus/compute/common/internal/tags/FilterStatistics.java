@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.compute.common.internal.tags;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import org.apache.log4j.Logger;
+import com.google.common.base.Predicate;
+
+/**
+ * Predicate wrapper that counts the resources loaded and returned for a describe operation.
+ *
+ * <p>A high ratio of loaded to returned resources shows that the database filter for the
+ * request is not selective and most resources are filtered in memory.</p>
+ */
+public class FilterStatistics<T> implements Predicate<T> {
+
+  private static final Logger logger = Logger.getLogger( FilterStatistics.class );
+
+  private final Predicate<? super T> predicate;
+  private final AtomicLong loaded = new AtomicLong( );
+  private final AtomicLong returned = new AtomicLong( );
+
+  private FilterStatistics( final Predicate<? super T> predicate ) {
+    this.predicate = predicate;
+  }
+
+  public static <T> FilterStatistics<T> counting( @Nonnull final Predicate<? super T> predicate ) {
+    return new FilterStatistics<>( predicate );
+  }
+
+  @Override
+  public boolean apply( final T resource ) {
+    loaded.incrementAndGet( );
+    final boolean match = predicate.apply( resource );
+    if ( match ) {
+      returned.incrementAndGet( );
+    }
+    return match;
+  }
+
+  public long getLoaded( ) {
+    return loaded.get( );
+  }
+
+  public long getReturned( ) {
+    return returned.get( );
+  }
+
+  /**
+   * Log the counts for the operation at debug level.
+   *
+   * @param operation The operation, e.g. DescribeInstances
+   * @param filter The filter for the operation
+   */
+  public void log( final String operation, final Filter filter ) {
+    if ( logger.isDebugEnabled( ) ) {
+      logger.debug( operation + " loaded " + getLoaded( ) + " returned " + getReturned( ) +
+          " using " + filter.asCriterion( ) + " with aliases " + filter.getAliases( ).keySet( ) );
+    }
+  }
+}
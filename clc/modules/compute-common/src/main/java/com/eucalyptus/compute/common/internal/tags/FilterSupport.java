@@ -34,13 +34,13 @@ import static org.hamcrest.text.IsEmptyString.isEmptyOrNullString;
 import static com.eucalyptus.compute.common.internal.tags.FilterSupport.PersistenceFilter.persistenceFilter;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -51,6 +51,7 @@ import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Property;
 import org.hibernate.criterion.Restrictions;
 import com.eucalyptus.auth.login.AuthenticationException;
+import com.eucalyptus.compute.common.CloudMetadata;
 import com.eucalyptus.context.Context;
 import com.eucalyptus.context.Contexts;
 import com.eucalyptus.crypto.util.Timestamps;
@@ -77,6 +78,11 @@ public abstract class FilterSupport<RT> {
 
   private static final ConcurrentMap<SupportKey,FilterSupport<?>> supportMap = Maps.newConcurrentMap();
 
+  /**
+   * Maximum resources for a tag filter restriction using identifiers from the tag index.
+   */
+  private static final int MAX_INDEXED_TAG_IDENTIFIERS = 1000;
+
   private final Class<RT> resourceClass;
   private final String qualifier;
   private Class<? extends Tag> tagClass;
@@ -662,49 +668,58 @@ public abstract class FilterSupport<RT> {
       and.add( Predicates.or( or ) );
     }
 
-    // Construct database filter and aliases
-    final Junction conjunction = Restrictions.conjunction();
-    final Map<String,String> aliases = Maps.newHashMap();
+    // Construct database restrictions for filters
+    final List<PersistenceRestriction> restrictions = Lists.newArrayList( );
     for ( final Map.Entry<String,Set<String>> filter : Iterables.filter( filters.entrySet(), Predicates.not( isTagFilter() ) ) ) {
+      final PersistenceFilter persistenceFilter = persistenceFilters.get( filter.getKey() );
+      if ( persistenceFilter == null ) {
+        continue;
+      }
       final Junction disjunction = Restrictions.disjunction();
+      Selectivity selectivity = null;
       for ( final String value : filter.getValue() ) {
-        final PersistenceFilter persistenceFilter = persistenceFilters.get( filter.getKey() );
-        if ( persistenceFilter != null ) {
-          final Object persistentValue = persistenceFilter.value( value );
-          if ( persistentValue != null ) {
-            for ( final String alias : persistenceFilter.getAliases() ) aliases.put( alias, this.aliases.get( alias ) );
-            disjunction.add( buildRestriction( persistenceFilter.getProperty(), persistentValue ) );
-          } // else, there is no valid DB filter for the given value (e.g. wildcard for integer value)
-        }
+        final Object persistentValue = persistenceFilter.value( value );
+        if ( persistentValue != null ) {
+          disjunction.add( buildRestriction( persistenceFilter.getProperty(), persistentValue ) );
+          selectivity = Selectivity.least( selectivity, selectivity( persistenceFilter.getProperty( ), persistentValue ) );
+        } // else, there is no valid DB filter for the given value (e.g. wildcard for integer value)
+      }
+      if ( selectivity != null ) {
+        restrictions.add( new PersistenceRestriction( disjunction, persistenceFilter.getAliases( ), selectivity, true ) );
       }
-      conjunction.add( disjunction );
     }
 
-    // Construct database filter and aliases for tags
+    // Construct database restrictions for tags
     boolean tagPresent = false;
     final List<Junction> tagJunctions = Lists.newArrayList();
     for ( final Map.Entry<String,Set<String>> filter : Iterables.filter( filters.entrySet(), isTagFilter() ) ) {
       tagPresent = true;
       if ( hasPersistenceTagFiltering( ) ) {
-        final Junction disjunction = Restrictions.disjunction( );
-        final String filterName = filter.getKey( );
-        for ( final String value : filter.getValue( ) ) {
-          if ( "tag-key".equals( filterName ) ) {
-            disjunction.add( buildTagRestriction( value, null, true ) );
-          } else if ( "tag-value".equals( filterName ) ) {
-            disjunction.add( buildTagRestriction( null, value, true ) );
-          } else {
-            disjunction.add( buildTagRestriction( filterName.substring( 4 ), value, false ) );
-          }
+        final Criterion indexedCriterion = indexedTagCriterion( accountId, filter.getKey( ), filter.getValue( ) );
+        if ( indexedCriterion != null ) {
+          restrictions.add( new PersistenceRestriction(
+              indexedCriterion, Collections.<String>emptySet( ), Selectivity.Identifier, false ) );
+          continue;
         }
-        tagJunctions.add( disjunction );
+        tagJunctions.add( tagDisjunction( filter.getKey( ), filter.getValue( ) ) );
       }
     }
     if ( tagPresent ) {
-      conjunction.add( tagCriterion( accountId, tagJunctions ) );
+      if ( !tagJunctions.isEmpty( ) ) {
+        restrictions.add( new PersistenceRestriction(
+            tagCriterion( accountId, tagJunctions ), Collections.<String>emptySet( ), Selectivity.Subquery, false ) );
+      }
       tagPredicate.forEach( and::add );
     }
 
+    // Construct database filter and aliases from the planned restrictions
+    final Junction conjunction = Restrictions.conjunction();
+    final Map<String,String> aliases = Maps.newHashMap();
+    for ( final PersistenceRestriction restriction : plan( restrictions ) ) {
+      for ( final String alias : restriction.aliases ) aliases.put( alias, this.aliases.get( alias ) );
+      conjunction.add( restriction.criterion );
+    }
+
     return new Filter( aliases, conjunction, Predicates.and( and ) );
   }
 
@@ -982,7 +997,9 @@ public abstract class FilterSupport<RT> {
     }
 
     // even if no regex, may contain \ escapes that must be removed
-    final String processedFilterPattern = filterPattern.replaceAll( "\\\\", Matcher.quoteReplacement( "\\" ) );
+    final StringBuilder literalBuilder = new StringBuilder();
+    translateWildcards( filterPattern, literalBuilder, "?", "*", Functions.<String>identity() );
+    final String processedFilterPattern = literalBuilder.toString();
 
     return new Predicate<Set<String>>() {
       @Override
@@ -1020,14 +1037,14 @@ public abstract class FilterSupport<RT> {
     if ( persistentValue instanceof String ) {
       final String value = persistentValue.toString();
       final StringBuilder likeValueBuilder = new StringBuilder();
-      translateWildcards( value, likeValueBuilder, "_", "%", SyntaxEscape.Like );
-      final String likeValue = likeValueBuilder.toString();
-
-      if ( !value.equals( likeValue ) ) { // even if no regex, may contain \ escapes that must be removed
-        return Restrictions.like( property, likeValue );
+      if ( translateWildcards( value, likeValueBuilder, "_", "%", SyntaxEscape.Like ) ) {
+        return Restrictions.like( property, likeValueBuilder.toString() );
       }
 
-      valueObject = persistentValue;
+      // even if no wildcards, may contain \ escapes that must be removed
+      final StringBuilder literalValueBuilder = new StringBuilder();
+      translateWildcards( value, literalValueBuilder, "?", "*", Functions.<String>identity() );
+      valueObject = literalValueBuilder.toString();
     } else {
       valueObject = persistentValue;
     }
@@ -1051,6 +1068,91 @@ public abstract class FilterSupport<RT> {
     return aliases;
   }
 
+  /**
+   * Order restrictions by estimated selectivity, most selective first.
+   *
+   * <p>When a restriction limits results by resource identifier, restrictions that join to other
+   * entities are left to the in memory predicate, the join fan-out would cost more than filtering
+   * the few resources that are loaded.</p>
+   */
+  static List<PersistenceRestriction> plan( final List<PersistenceRestriction> restrictions ) {
+    final List<PersistenceRestriction> planned = Lists.newArrayList( restrictions );
+    planned.sort( Comparator
+        .comparing( ( PersistenceRestriction restriction ) -> restriction.selectivity )
+        .thenComparing( restriction -> restriction.aliases.size( ) ) );
+    if ( !planned.isEmpty( ) && planned.get( 0 ).selectivity == Selectivity.Identifier ) {
+      planned.removeIf( restriction -> restriction.optional && !restriction.aliases.isEmpty( ) );
+    }
+    return planned;
+  }
+
+  private Selectivity selectivity( final String property, final Object persistentValue ) {
+    if ( persistentValue instanceof String &&
+        translateWildcards( persistentValue.toString( ), new StringBuilder( ), "_", "%", SyntaxEscape.Like ) ) {
+      return Selectivity.Pattern;
+    }
+    final TagSupport tagSupport = tagSupport( );
+    final String identifierProperty = tagSupport == null ? "displayName" : tagSupport.getResourceClassIdField( );
+    return identifierProperty.equals( property ) ? Selectivity.Identifier : Selectivity.Equality;
+  }
+
+  /**
+   * Build a criterion for a tag filter using resource identifiers from the tag index.
+   *
+   * @return The criterion or null if the index is not available or matches too many resources
+   */
+  @Nullable
+  private Criterion indexedTagCriterion( final String accountId,
+                                         final String filterName,
+                                         final Set<String> values ) {
+    final TagSupport tagSupport = tagSupport( );
+    final TagIndex.AccountTags accountTags = tagSupport == null ?
+        null :
+        TagIndex.getInstance( ).getAccountTags( accountId );
+    if ( accountTags == null ) {
+      return null;
+    }
+    final Set<String> resourceIds = accountTags.getResourceIds(
+        id -> TagSupport.fromIdentifier( id ) == tagSupport,
+        indexedTagPredicate( filterName, values ) );
+    return resourceIds.size( ) > MAX_INDEXED_TAG_IDENTIFIERS ?
+        null :
+        buildRestriction( tagSupport.getResourceClassIdField( ), resourceIds );
+  }
+
+  /**
+   * Build a predicate for a tag filter that matches the tags for a resource as the database would.
+   */
+  static Predicate<Map<String,String>> indexedTagPredicate( final String filterName,
+                                                            final Set<String> values ) {
+    final List<Predicate<Map<String,String>>> or = Lists.newArrayList( );
+    for ( final String value : values ) {
+      final Predicate<Set<String>> matcher = resourceValueMatcher( value );
+      if ( "tag-key".equals( filterName ) ) {
+        or.add( tags -> matcher.apply( tags.keySet( ) ) );
+      } else if ( "tag-value".equals( filterName ) ) {
+        or.add( tags -> matcher.apply( Sets.newHashSet( tags.values( ) ) ) );
+      } else {
+        final String key = filterName.substring( 4 );
+        or.add( tags -> tags.containsKey( key ) && matcher.apply( Collections.singleton( tags.get( key ) ) ) );
+      }
+    }
+    return Predicates.or( or );
+  }
+
+  @Nullable
+  private TagSupport tagSupport( ) {
+    if ( CloudMetadata.class.isAssignableFrom( resourceClass ) ) try {
+      final TagSupport tagSupport = TagSupport.forResourceClass( resourceClass.asSubclass( CloudMetadata.class ) );
+      if ( tagSupport != null && resourceClass.equals( tagSupport.getResourceClass( ) ) ) {
+        return tagSupport;
+      }
+    } catch ( final RuntimeException e ) {
+      // no tag support for resource
+    }
+    return null;
+  }
+
   /**
    * Build a criterion that uses sub-selects to match the given tag restrictions
    */
@@ -1069,6 +1171,24 @@ public abstract class FilterSupport<RT> {
     return conjunction;
   }
 
+  /**
+   * Build a restriction for the values of a tag filter, tags matching any value are selected.
+   */
+  Junction tagDisjunction( final String filterName,
+                           final Set<String> values ) {
+    final Junction disjunction = Restrictions.disjunction( );
+    for ( final String value : values ) {
+      if ( "tag-key".equals( filterName ) ) {
+        disjunction.add( buildTagRestriction( value, null, true ) );
+      } else if ( "tag-value".equals( filterName ) ) {
+        disjunction.add( buildTagRestriction( null, value, true ) );
+      } else {
+        disjunction.add( buildTagRestriction( filterName.substring( 4 ), value, false ) );
+      }
+    }
+    return disjunction;
+  }
+
   /**
    * Build a restriction for a tag key and/or value.
    */
@@ -1306,6 +1426,56 @@ public abstract class FilterSupport<RT> {
     }
   }
 
+  /**
+   * Estimated selectivity for a restriction, most selective first.
+   */
+  enum Selectivity {
+    Identifier,
+    Equality,
+    Pattern,
+    Subquery,
+    ;
+
+    static Selectivity least( @Nullable final Selectivity selectivity1, final Selectivity selectivity2 ) {
+      return selectivity1 == null || selectivity2.compareTo( selectivity1 ) > 0 ? selectivity2 : selectivity1;
+    }
+  }
+
+  /**
+   * A database restriction with the aliases it uses.
+   *
+   * <p>Optional restrictions are also enforced by the in memory predicate so can be omitted from
+   * the query.</p>
+   */
+  static final class PersistenceRestriction {
+    private final Criterion criterion;
+    private final Set<String> aliases;
+    private final Selectivity selectivity;
+    private final boolean optional;
+
+    PersistenceRestriction( final Criterion criterion,
+                            final Set<String> aliases,
+                            final Selectivity selectivity,
+                            final boolean optional ) {
+      this.criterion = criterion;
+      this.aliases = aliases;
+      this.selectivity = selectivity;
+      this.optional = optional;
+    }
+
+    Criterion getCriterion( ) {
+      return criterion;
+    }
+
+    Set<String> getAliases( ) {
+      return aliases;
+    }
+
+    Selectivity getSelectivity( ) {
+      return selectivity;
+    }
+  }
+
   enum SyntaxEscape implements Function<String,String> {
     Regex {
       @Override
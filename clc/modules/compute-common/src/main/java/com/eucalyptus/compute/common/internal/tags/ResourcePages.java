@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.compute.common.internal.tags;
+
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import com.eucalyptus.bootstrap.SystemIds;
+import com.eucalyptus.crypto.Digest;
+import com.eucalyptus.crypto.Hmac;
+import com.eucalyptus.crypto.util.B64;
+import com.eucalyptus.entities.Entities;
+import com.eucalyptus.util.Exceptions;
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Keyset pagination for describe operations.
+ *
+ * Resources are listed in identifier order, each page continues after the last identifier of the
+ * previous page. The identifier is passed to the caller in a signed next token.
+ */
+public class ResourcePages {
+
+  public static final int MIN_MAX_RESULTS = 5;
+  public static final int MAX_MAX_RESULTS = 1000;
+
+  /**
+   * Limit for resources loaded for a page as a multiple of the page size. Pages for a selective
+   * filter may be smaller than requested when this limit is reached.
+   */
+  private static final int MAX_LOADED_FACTOR = 10;
+
+  private static final Supplier<SecretKey> tokenKeySupplier = Suppliers.memoize( ( ) -> {
+    final MessageDigest digest = Digest.SHA256.get( );
+    digest.update( "next-token".getBytes( Charsets.UTF_8 ) );
+    digest.update( SystemIds.securityTokenPassword( ).getBytes( Charsets.UTF_8 ) );
+    return new SecretKeySpec( digest.digest( ), Hmac.HmacSHA256.toString( ) );
+  } );
+
+  /**
+   * Loader for resources following an identifier in identifier order.
+   */
+  public interface PageLoader<T> {
+    List<T> load( @Nullable String afterIdentifier, int maxResults );
+  }
+
+  /**
+   * Loader for persistent resources using a (FilterSupport) persistence filter.
+   *
+   * <P>The caller must have an active transaction for the entity.</P>
+   *
+   * @param example The example object
+   * @param criterion Restrictions for the query
+   * @param aliases Any aliases necessary for the given criterion
+   * @param identifierProperty The property for the resource identifier
+   */
+  public static <T> PageLoader<T> loader( final T example,
+                                          final Criterion criterion,
+                                          final Map<String,String> aliases,
+                                          final String identifierProperty ) {
+    return ( afterIdentifier, maxResults ) -> Entities.query(
+        example,
+        true,
+        afterIdentifier == null ?
+            criterion :
+            Restrictions.and( criterion, Restrictions.gt( identifierProperty, afterIdentifier ) ),
+        aliases,
+        Order.asc( identifierProperty ),
+        maxResults );
+  }
+
+  /**
+   * List a page of resources.
+   *
+   * @param loader The loader for resources in identifier order
+   * @param identifierFunction Function for resource identifiers
+   * @param predicate Filter for loaded resources
+   * @param afterIdentifier The identifier to start after, null for the first page
+   * @param maxResults The maximum number of resources for the page
+   * @return The page
+   */
+  public static <T> ResourcePage<T> list( final PageLoader<T> loader,
+                                          final Function<? super T,String> identifierFunction,
+                                          final Predicate<? super T> predicate,
+                                          @Nullable final String afterIdentifier,
+                                          final int maxResults ) {
+    final List<T> resources = Lists.newArrayListWithCapacity( maxResults );
+    String lastIdentifier = afterIdentifier;
+    int loaded = 0;
+    boolean exhausted = false;
+    loading:
+    while ( resources.size( ) < maxResults && loaded < maxResults * MAX_LOADED_FACTOR ) {
+      final List<T> batch = loader.load( lastIdentifier, maxResults );
+      if ( batch.isEmpty( ) ) {
+        exhausted = true;
+        break;
+      }
+      for ( final T resource : batch ) {
+        loaded++;
+        lastIdentifier = identifierFunction.apply( resource );
+        if ( predicate.apply( resource ) ) {
+          resources.add( resource );
+          if ( resources.size( ) >= maxResults ) {
+            break loading;
+          }
+        }
+      }
+    }
+    return new ResourcePage<>( resources, exhausted ? null : lastIdentifier );
+  }
+
+  /**
+   * Create a next token for the given identifier.
+   *
+   * @param scope The scope for the token, e.g. action and account
+   * @param identifier The last identifier for the page
+   * @return The token
+   */
+  @Nonnull
+  public static String nextToken( @Nonnull final String scope, @Nonnull final String identifier ) {
+    return B64.url.encString( identifier.getBytes( Charsets.UTF_8 ) ) + "." + B64.url.encString( sign( scope, identifier ) );
+  }
+
+  /**
+   * Get the identifier for a next token.
+   *
+   * @param scope The scope for the token, must match the scope used to create the token
+   * @param nextToken The token
+   * @return The identifier or absent if the token is not valid
+   */
+  @Nonnull
+  public static Optional<String> identifier( @Nonnull final String scope, @Nonnull final String nextToken ) {
+    final int separator = nextToken.indexOf( '.' );
+    if ( separator > 0 ) try {
+      final String identifier = new String( B64.url.dec( nextToken.substring( 0, separator ) ), Charsets.UTF_8 );
+      final byte[] signature = B64.url.dec( nextToken.substring( separator + 1 ) );
+      if ( MessageDigest.isEqual( sign( scope, identifier ), signature ) ) {
+        return Optional.of( identifier );
+      }
+    } catch ( final RuntimeException e ) {
+      // invalid encoding
+    }
+    return Optional.absent( );
+  }
+
+  private static byte[] sign( final String scope, final String identifier ) {
+    try {
+      return Hmac.HmacSHA256.digestBinary(
+          tokenKeySupplier.get( ),
+          ( scope + "\n" + identifier ).getBytes( Charsets.UTF_8 ) );
+    } catch ( final InvalidKeyException e ) {
+      throw Exceptions.toUndeclared( e );
+    }
+  }
+
+  public static final class ResourcePage<T> {
+    private final List<T> resources;
+    private final String lastIdentifier;
+
+    private ResourcePage( final List<T> resources, @Nullable final String lastIdentifier ) {
+      this.resources = ImmutableList.copyOf( resources );
+      this.lastIdentifier = lastIdentifier;
+    }
+
+    public List<T> getResources( ) {
+      return resources;
+    }
+
+    /**
+     * The identifier to continue after, null if there are no further pages.
+     */
+    @Nullable
+    public String getLastIdentifier( ) {
+      return lastIdentifier;
+    }
+  }
+}
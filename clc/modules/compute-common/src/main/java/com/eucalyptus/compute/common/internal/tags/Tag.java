@@ -35,6 +35,7 @@ import javax.persistence.Column;
 import javax.persistence.DiscriminatorColumn;
 import javax.persistence.DiscriminatorType;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
 import javax.persistence.PersistenceContext;
@@ -59,6 +60,7 @@ import com.google.common.base.Preconditions;
 @PersistenceContext( name = "eucalyptus_cloud" )
 @Table( name = "metadata_tags" )
 @Inheritance( strategy = InheritanceType.JOINED )
+@EntityListeners( TagIndex.TagIndexEntityListener.class )
 @DiscriminatorColumn( name="metadata_tag_resource_type", discriminatorType = DiscriminatorType.STRING, length = 32) // ignored by Hibernate (for JOINED)
 @AttributeOverride(name = "displayName", column = @Column(name = "metadata_display_name", updatable = false, nullable = false, length = 128))
 public class Tag<T extends Tag<T>> extends UserMetadata<Tag.State> implements TagMetadata {
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.compute.common.internal.tags;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import org.apache.log4j.Logger;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import com.eucalyptus.bootstrap.Databases;
+import com.eucalyptus.entities.Entities;
+import com.eucalyptus.entities.TransactionResource;
+import com.google.common.base.Predicate;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * In memory index of tags by account and resource identifier.
+ *
+ * <p>The tags for an account are loaded on first use and then maintained from committed tag
+ * changes. Each account has a change version, an index that may have missed a change is discarded
+ * and reloaded from the database.</p>
+ *
+ * <p>Tags can be changed on other hosts, so before an account index is used its signature (the
+ * tag count, version total and latest update) is checked against the database. Local changes
+ * update the expected signature, an index that does not match is reloaded.</p>
+ */
+public class TagIndex {
+
+  private static final Logger logger = Logger.getLogger( TagIndex.class );
+
+  private static final boolean ENABLED =
+      Boolean.parseBoolean( System.getProperty( "com.eucalyptus.compute.tags.index", "true" ) );
+
+  private static final String CACHE_SPEC =
+      System.getProperty( "com.eucalyptus.compute.tags.indexCacheSpec", "maximumSize=1000, expireAfterWrite=5m" );
+
+  private static final TagIndex INSTANCE = new TagIndex( );
+
+  private final Cache<String,AccountTags> accountTagsCache =
+      CacheBuilder.from( CacheBuilderSpec.parse( CACHE_SPEC ) ).build( );
+
+  private final ConcurrentMap<String,AtomicLong> accountVersions = Maps.newConcurrentMap( );
+
+  private final Function<String,Map<String,ImmutableSortedMap<String,String>>> loader;
+  private final Function<String,TagSignature> signatures;
+  private final Consumer<Synchronization> synchronizations;
+  private final BooleanSupplier available;
+
+  private TagIndex( ) {
+    this(
+        TagIndex::loadTags,
+        TagIndex::loadSignature,
+        synchronization -> Entities.registerSynchronization( Tag.class, synchronization ),
+        ( ) -> ENABLED && !Databases.isVolatile( ) );
+  }
+
+  TagIndex( final Function<String,Map<String,ImmutableSortedMap<String,String>>> loader,
+            final Function<String,TagSignature> signatures,
+            final Consumer<Synchronization> synchronizations,
+            final BooleanSupplier available ) {
+    this.loader = loader;
+    this.signatures = signatures;
+    this.synchronizations = synchronizations;
+    this.available = available;
+  }
+
+  public static TagIndex getInstance( ) {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the tags for an account.
+   *
+   * @param accountNumber The account number
+   * @return The account tags or null if not available, callers should then use the database
+   */
+  @Nullable
+  public AccountTags getAccountTags( @Nonnull final String accountNumber ) {
+    if ( !available.getAsBoolean( ) ) {
+      return null;
+    }
+    try {
+      final AccountTags accountTags = accountTagsCache.getIfPresent( accountNumber );
+      if ( accountTags != null ) {
+        if ( accountTags.signature.equals( signatures.apply( accountNumber ) ) ) {
+          return accountTags;
+        }
+        // changed on another host
+        accountTagsCache.asMap( ).remove( accountNumber, accountTags );
+      }
+      return load( accountNumber );
+    } catch ( final Exception e ) {
+      logger.warn( "Error loading tags for account " + accountNumber + ": " + e.getMessage( ) );
+      return null;
+    }
+  }
+
+  private AccountTags load( final String accountNumber ) {
+    final AtomicLong version = version( accountNumber );
+    final long loadVersion = version.get( );
+    // signature first, tags loaded after any change it misses will cause a reload on next use
+    final AccountTags accountTags = new AccountTags( signatures.apply( accountNumber ) );
+    accountTags.tagsByResource.putAll( loader.apply( accountNumber ) );
+    synchronized ( version ) {
+      if ( version.get( ) == loadVersion ) {
+        accountTagsCache.put( accountNumber, accountTags );
+      }
+    }
+    return accountTags;
+  }
+
+  private static Map<String,ImmutableSortedMap<String,String>> loadTags( final String accountNumber ) {
+    final Map<String,ImmutableSortedMap<String,String>> tagsByResource = Maps.newHashMap( );
+    try ( final TransactionResource db = Entities.readOnlyDistinctTransactionFor( Tag.class ) ) {
+      @SuppressWarnings( "unchecked" )
+      final List<Object[]> rows = (List<Object[]>) Entities.createCriteria( Tag.class )
+          .setReadOnly( true )
+          .setFetchSize( 25_000 )
+          .add( Restrictions.eq( "ownerAccountNumber", accountNumber ) )
+          .setProjection( Projections.projectionList( )
+              .add( Projections.property( "resourceId" ) )
+              .add( Projections.property( "displayName" ) )
+              .add( Projections.property( "value" ) ) )
+          .list( );
+      final Map<String,ImmutableSortedMap.Builder<String,String>> builders = Maps.newHashMap( );
+      for ( final Object[] row : rows ) {
+        final String resourceId = (String) row[ 0 ];
+        ImmutableSortedMap.Builder<String,String> builder = builders.get( resourceId );
+        if ( builder == null ) {
+          builder = ImmutableSortedMap.naturalOrder( );
+          builders.put( resourceId, builder );
+        }
+        builder.put( (String) row[ 1 ], (String) row[ 2 ] );
+      }
+      for ( final Map.Entry<String,ImmutableSortedMap.Builder<String,String>> entry : builders.entrySet( ) ) {
+        tagsByResource.put( entry.getKey( ), entry.getValue( ).build( ) );
+      }
+    }
+    return tagsByResource;
+  }
+
+  private static TagSignature loadSignature( final String accountNumber ) {
+    try ( final TransactionResource db = Entities.readOnlyDistinctTransactionFor( Tag.class ) ) {
+      final Object[] row = (Object[]) Entities.createCriteria( Tag.class )
+          .setReadOnly( true )
+          .add( Restrictions.eq( "ownerAccountNumber", accountNumber ) )
+          .setProjection( Projections.projectionList( )
+              .add( Projections.rowCount( ) )
+              .add( Projections.sum( "version" ) )
+              .add( Projections.max( "lastUpdateTimestamp" ) ) )
+          .uniqueResult( );
+      return new TagSignature(
+          row[ 0 ] == null ? 0 : ( (Number) row[ 0 ] ).longValue( ),
+          row[ 1 ] == null ? 0 : ( (Number) row[ 1 ] ).longValue( ),
+          row[ 2 ] == null ? 0 : ( (Date) row[ 2 ] ).getTime( ) );
+    }
+  }
+
+  private AtomicLong version( final String accountNumber ) {
+    AtomicLong version = accountVersions.get( accountNumber );
+    if ( version == null ) {
+      final AtomicLong newVersion = new AtomicLong( );
+      version = accountVersions.putIfAbsent( accountNumber, newVersion );
+      if ( version == null ) {
+        version = newVersion;
+      }
+    }
+    return version;
+  }
+
+  private void apply( final TagChange change ) {
+    final AtomicLong version = version( change.accountNumber );
+    synchronized ( version ) {
+      version.incrementAndGet( );
+      final AccountTags accountTags = accountTagsCache.getIfPresent( change.accountNumber );
+      if ( accountTags != null ) {
+        accountTags.apply( change );
+      }
+    }
+  }
+
+  private void invalidate( final String accountNumber ) {
+    final AtomicLong version = version( accountNumber );
+    synchronized ( version ) {
+      version.incrementAndGet( );
+      accountTagsCache.invalidate( accountNumber );
+    }
+  }
+
+  void changed( final Tag tag, final TagChangeType type ) {
+    final String accountNumber = tag.getOwnerAccountNumber( );
+    if ( !ENABLED || accountNumber == null ) {
+      return;
+    }
+    final TagChange change = new TagChange(
+        accountNumber,
+        tag.getResourceId( ),
+        tag.getKey( ),
+        type == TagChangeType.REMOVED ? null : tag.getValue( ),
+        type.signatureChange( tag ) );
+    try {
+      synchronizations.accept( new Synchronization( ) {
+        @Override
+        public void beforeCompletion( ) {
+        }
+
+        @Override
+        public void afterCompletion( final int status ) {
+          if ( Status.STATUS_COMMITTED == status ) {
+            apply( change );
+          }
+        }
+      } );
+    } catch ( final RuntimeException e ) {
+      invalidate( accountNumber );
+    }
+  }
+
+  /**
+   * Tags for an account by resource identifier, tags for a resource are ordered by key.
+   */
+  public static final class AccountTags {
+    private final ConcurrentMap<String,ImmutableSortedMap<String,String>> tagsByResource = Maps.newConcurrentMap( );
+    private volatile TagSignature signature;
+
+    private AccountTags( final TagSignature signature ) {
+      this.signature = signature;
+    }
+
+    @Nonnull
+    public Map<String,String> getTags( @Nonnull final String resourceId ) {
+      final Map<String,String> tags = tagsByResource.get( resourceId );
+      return tags == null ? ImmutableSortedMap.<String,String>of( ) : tags;
+    }
+
+    /**
+     * Get the identifiers of resources with tags matching the given predicate.
+     */
+    @Nonnull
+    public Set<String> getResourceIds( @Nonnull final Predicate<? super String> resourceIdPredicate,
+                                       @Nonnull final Predicate<? super Map<String,String>> tagsPredicate ) {
+      final Set<String> resourceIds = Sets.newHashSet( );
+      for ( final Map.Entry<String,ImmutableSortedMap<String,String>> entry : tagsByResource.entrySet( ) ) {
+        if ( resourceIdPredicate.apply( entry.getKey( ) ) && tagsPredicate.apply( entry.getValue( ) ) ) {
+          resourceIds.add( entry.getKey( ) );
+        }
+      }
+      return resourceIds;
+    }
+
+    private void apply( final TagChange change ) {
+      signature = signature.apply( change.signatureChange );
+      final Map<String,String> tags = new TreeMap<>( getTags( change.resourceId ) );
+      if ( change.value == null ) {
+        tags.remove( change.key );
+      } else {
+        tags.put( change.key, change.value );
+      }
+      if ( tags.isEmpty( ) ) {
+        tagsByResource.remove( change.resourceId );
+      } else {
+        tagsByResource.put( change.resourceId, ImmutableSortedMap.copyOf( tags ) );
+      }
+    }
+  }
+
+  private static final class TagChange {
+    private final String accountNumber;
+    private final String resourceId;
+    private final String key;
+    private final String value;
+    private final TagSignature signatureChange;
+
+    private TagChange( final String accountNumber,
+                       final String resourceId,
+                       final String key,
+                       @Nullable final String value,
+                       final TagSignature signatureChange ) {
+      this.accountNumber = accountNumber;
+      this.resourceId = resourceId;
+      this.key = key;
+      this.value = value;
+      this.signatureChange = signatureChange;
+    }
+  }
+
+  enum TagChangeType {
+    CREATED {
+      @Override
+      TagSignature signatureChange( final Tag tag ) {
+        return new TagSignature( 1, version( tag ), lastUpdate( tag ) );
+      }
+    },
+    UPDATED {
+      @Override
+      TagSignature signatureChange( final Tag tag ) {
+        return new TagSignature( 0, 1, lastUpdate( tag ) );
+      }
+    },
+    REMOVED {
+      @Override
+      TagSignature signatureChange( final Tag tag ) {
+        return new TagSignature( -1, -version( tag ), 0 );
+      }
+    },
+    ;
+
+    abstract TagSignature signatureChange( Tag tag );
+
+    private static long version( final Tag tag ) {
+      return tag.getVersion( ) == null ? 0 : tag.getVersion( );
+    }
+
+    private static long lastUpdate( final Tag tag ) {
+      return tag.getLastUpdateTimestamp( ) == null ? 0 : tag.getLastUpdateTimestamp( ).getTime( );
+    }
+  }
+
+  /**
+   * Summary of the tags for an account, used to detect changes made on other hosts.
+   *
+   * <p>A removed tag may have had the latest update, so the expected latest update can be
+   * earlier than the database, which only causes an unnecessary reload.</p>
+   */
+  static final class TagSignature {
+    private final long count;
+    private final long versions;
+    private final long lastUpdate;
+
+    TagSignature( final long count, final long versions, final long lastUpdate ) {
+      this.count = count;
+      this.versions = versions;
+      this.lastUpdate = lastUpdate;
+    }
+
+    TagSignature apply( final TagSignature change ) {
+      return new TagSignature(
+          count + change.count,
+          versions + change.versions,
+          Math.max( lastUpdate, change.lastUpdate ) );
+    }
+
+    @Override
+    public boolean equals( final Object o ) {
+      if ( this == o ) return true;
+      if ( o == null || getClass( ) != o.getClass( ) ) return false;
+      final TagSignature that = (TagSignature) o;
+      return count == that.count &&
+          versions == that.versions &&
+          lastUpdate == that.lastUpdate;
+    }
+
+    @Override
+    public int hashCode( ) {
+      return Objects.hash( count, versions, lastUpdate );
+    }
+
+    @Override
+    public String toString( ) {
+      return "TagSignature{count=" + count + ", versions=" + versions + ", lastUpdate=" + lastUpdate + "}";
+    }
+  }
+
+  /**
+   * Entity listener that maintains the index on tag changes.
+   */
+  public static class TagIndexEntityListener {
+    @PostPersist
+    public void created( final Tag tag ) {
+      getInstance( ).changed( tag, TagChangeType.CREATED );
+    }
+
+    @PostUpdate
+    public void updated( final Tag tag ) {
+      getInstance( ).changed( tag, TagChangeType.UPDATED );
+    }
+
+    @PostRemove
+    public void removed( final Tag tag ) {
+      getInstance( ).changed( tag, TagChangeType.REMOVED );
+    }
+  }
+}
@@ -45,7 +45,9 @@ import com.eucalyptus.compute.common.CloudMetadata;
 import com.eucalyptus.entities.AbstractPersistent;
 import com.eucalyptus.entities.TransactionException;
 import com.eucalyptus.util.Classes;
+import com.eucalyptus.auth.principal.AccountFullName;
 import com.eucalyptus.auth.principal.OwnerFullName;
+import com.google.common.base.Functions;
 import com.google.common.base.Predicates;
 import com.google.common.base.Splitter;
 import com.google.common.cache.CacheBuilder;
@@ -141,6 +143,8 @@ public abstract class TagSupport {
 
   /**
    * Get the tags for the given resources, grouped by ID and ordered for display.
+   *
+   * <p>Tags for an account are served from the tag index when available.</p>
    * 
    * @param owner The account for the tags
    * @param identifiers The resource identifiers for the tags
@@ -153,7 +157,17 @@ public abstract class TagSupport {
     for ( final String id : identifiers ) {
       tagMap.put( id, Lists.<Tag>newArrayList() );
     }
-    if ( !tagMap.isEmpty() ) {
+    final TagIndex.AccountTags accountTags = !tagMap.isEmpty( ) && owner instanceof AccountFullName ?
+        TagIndex.getInstance( ).getAccountTags( owner.getAccountNumber( ) ) :
+        null;
+    if ( accountTags != null ) {
+      for ( final Map.Entry<String,List<Tag>> resourceEntry : tagMap.entrySet( ) ) {
+        final String id = resourceEntry.getKey( );
+        for ( final Map.Entry<String,String> tagEntry : accountTags.getTags( id ).entrySet( ) ) {
+          resourceEntry.getValue( ).add( indexedTag( owner, id, tagEntry.getKey( ), tagEntry.getValue( ) ) );
+        }
+      }
+    } else if ( !tagMap.isEmpty() ) {
       final Tag example = example( owner );
       final Criterion idRestriction = identifiersSize < 1000 ?
           Property.forName( tagClassResourceField ).in( DetachedCriteria.forClass( resourceClass )
@@ -179,6 +193,14 @@ public abstract class TagSupport {
     return tagMap;
   }
 
+  @SuppressWarnings( "unchecked" )
+  private static Tag indexedTag( final OwnerFullName owner,
+                                 final String resourceId,
+                                 final String key,
+                                 final String value ) {
+    return new Tag( null, Functions.constant( resourceId ), owner, key, value );
+  }
+
   @Nonnull
   public Class<? extends CloudMetadata> getCloudMetadataClass() {
     return cloudMetadataClass;
@@ -51,17 +51,22 @@ import org.hibernate.Criteria;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Example;
 import org.hibernate.criterion.Projection;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import com.eucalyptus.compute.common.CloudMetadata;
+import com.eucalyptus.compute.common.internal.tags.ResourcePages;
+import com.eucalyptus.compute.common.internal.tags.ResourcePages.ResourcePage;
 import com.eucalyptus.compute.common.internal.vm.VmInstance.VmStateSet;
 import com.eucalyptus.entities.Entities;
 import com.eucalyptus.entities.TransactionResource;
 import com.eucalyptus.records.Logs;
 import com.eucalyptus.util.CollectionUtils;
+import com.eucalyptus.util.Pair;
 import com.eucalyptus.auth.principal.OwnerFullName;
 import com.eucalyptus.util.RestrictedTypes;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
+import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
@@ -222,6 +227,32 @@ public class VmInstances {
     );
   }
 
+  /**
+   * List a page of instances in any state that match the given parameters, in instance identifier order.
+   *
+   * <P>The caller must have an active transaction for instances.</P>
+   *
+   * @param afterInstanceId The instance identifier to list after, null for the first page
+   * @param maxResults The maximum number of instances for the page
+   * @see ResourcePages#list
+   */
+  public static ResourcePage<VmInstance> listPage( @Nullable final OwnerFullName ownerFullName,
+                                                   final Criterion criterion,
+                                                   final Map<String,String> aliases,
+                                                   @Nullable final Predicate<? super VmInstance> predicate,
+                                                   @Nullable final String afterInstanceId,
+                                                   final int maxResults ) {
+    return ResourcePages.list(
+        ResourcePages.loader( VmInstance.named( ownerFullName, null ), criterion, aliases, "displayName" ),
+        RestrictedTypes.<VmInstance>toDisplayName( ),
+        Predicates.<VmInstance>and(
+            RestrictedTypes.filterByOwner( ownerFullName ),
+            checkPredicate( predicate )
+        ),
+        afterInstanceId,
+        maxResults );
+  }
+
   /**
    * List instances in any state that match the given parameters.
    */
@@ -276,6 +307,34 @@ public class VmInstances {
     return StringInstanceProjections.INSTANCE_UUID;
   }
 
+  /**
+   * Projection for instance identifiers with the entity version.
+   */
+  public static InstanceProjection<Pair<String,Integer>> instanceIdAndVersionProjection( ) {
+    return InstanceIdAndVersionProjection.INSTANCE;
+  }
+
+  private enum InstanceIdAndVersionProjection implements InstanceProjection<Pair<String,Integer>> {
+    INSTANCE;
+
+    @Override
+    public Projection getProjection( ) {
+      return Projections.projectionList( )
+          .add( VmInstance.instanceIdProjection( ) )
+          .add( Projections.property( "version" ) );
+    }
+
+    @Override
+    public List<Pair<String,Integer>> results( final List<?> listing ) {
+      final List<Pair<String,Integer>> results = Lists.newArrayListWithCapacity( listing.size( ) );
+      for ( final Object item : listing ) {
+        final Object[] row = (Object[]) item;
+        results.add( Pair.of( (String) row[ 0 ], MoreObjects.firstNonNull( (Integer) row[ 1 ], 0 ) ) );
+      }
+      return results;
+    }
+  }
+
   private enum StringInstanceProjections implements InstanceProjection<String> {
     INSTANCE_ID {
       @Override
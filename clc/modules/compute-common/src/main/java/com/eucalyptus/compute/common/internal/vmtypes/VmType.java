@@ -42,6 +42,7 @@ package com.eucalyptus.compute.common.internal.vmtypes;
 import java.util.Map;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
@@ -49,6 +50,8 @@ import javax.persistence.Entity;
 import javax.persistence.PersistenceContext;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import com.eucalyptus.auth.principal.Principals;
 import com.eucalyptus.compute.common.CloudMetadata.VmTypeMetadata;
@@ -103,6 +106,8 @@ import com.google.common.collect.Sets;
 @Entity
 @PersistenceContext( name = "eucalyptus_cloud" )
 @Table( name = "cloud_vm_type" )
+@Cacheable
+@Cache( usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE )
 public class VmType extends AbstractPersistent implements VmTypeMetadata, HasFullName<VmTypeMetadata> {
 
   private static final long  serialVersionUID = 1L;
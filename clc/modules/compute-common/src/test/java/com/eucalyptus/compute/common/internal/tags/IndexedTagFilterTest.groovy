@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.compute.common.internal.tags
+
+import static org.junit.Assert.*
+import com.google.common.base.Predicate
+import org.hibernate.criterion.Conjunction
+import org.hibernate.criterion.Criterion
+import org.hibernate.criterion.Disjunction
+import org.hibernate.criterion.SimpleExpression
+import org.junit.Test
+
+import java.util.regex.Pattern
+
+/**
+ * Tests that filtering using the tag index matches filtering using the database criterion.
+ */
+class IndexedTagFilterTest {
+
+  private static final Map<String,Map<String,String>> TAGS = [
+      'i-00000001': [ 'Name': 'web', 'env': 'prod' ],
+      'i-00000002': [ 'Name': 'Web-2', 'env': 'production' ],
+      'i-00000003': [ 'Name': 'w*b', 'Names': 'web' ],
+      'i-00000004': [ 'Name': '50%_off', 'tier': '' ],
+      'i-00000005': [ 'Name': '50x-off', 'path': 'c:\\temp' ],
+      'i-00000006': [ 'other': 'web' ],
+  ]
+
+  @Test
+  void testIndexedMatchesCriterion( ) {
+    FilterSupport<Object> filterSupport = new FilterSupport<Object>( FilterSupport.builderFor( Object ) ) { }
+    [
+        'tag:Name' : [ [ 'web' ], [ 'Web' ], [ 'web*' ], [ '*eb*' ], [ 'w?b' ], [ 'w\\*b' ], [ '*' ],
+                       [ '50%_off' ], [ '50?-off' ], [ 'web', '50%_off' ], [ 'missing' ] ],
+        'tag:tier' : [ [ '' ], [ '*' ] ],
+        'tag:path' : [ [ 'c:\\\\temp' ], [ 'c:*' ] ],
+        'tag-key'  : [ [ 'Name' ], [ 'Name*' ], [ 'N?me' ], [ '*e*' ], [ 'env', 'tier' ] ],
+        'tag-value': [ [ 'web' ], [ 'prod*' ], [ '*%*' ], [ '?eb' ], [ '' ] ],
+    ].each{ String filterName, List<List<String>> valueLists ->
+      valueLists.each{ List<String> values ->
+        Set<String> valueSet = values as Set<String>
+        Predicate<Map<String,String>> indexed = FilterSupport.indexedTagPredicate( filterName, valueSet )
+        Criterion criterion = filterSupport.tagDisjunction( filterName, valueSet )
+        Set<String> indexedIds = TAGS.findAll{ String id, Map<String,String> tags -> indexed.apply( tags ) }.keySet( )
+        Set<String> criterionIds = TAGS.findAll{ String id, Map<String,String> tags ->
+          tags.any{ String key, String value -> matches( criterion, key, value ) }
+        }.keySet( )
+        assertEquals( "${filterName}=${values}".toString( ), criterionIds, indexedIds )
+      }
+    }
+  }
+
+  @Test
+  void testIndexedFiltering( ) {
+    TagIndex.AccountTags accountTags = new TagIndex.AccountTags( )
+    TAGS.each{ String id, Map<String,String> tags -> accountTags.tagsByResource.put( id, tags.sort( ) ) }
+    assertEquals( 'tag filter', [ 'i-00000001', 'i-00000002' ] as Set,
+        accountTags.getResourceIds( { String id -> true } as Predicate, FilterSupport.indexedTagPredicate( 'tag:env', [ 'prod*' ] as Set ) ) )
+    assertEquals( 'resource filter', [ 'i-00000002' ] as Set,
+        accountTags.getResourceIds( { String id -> id == 'i-00000002' } as Predicate, FilterSupport.indexedTagPredicate( 'tag:env', [ 'prod*' ] as Set ) ) )
+  }
+
+  /**
+   * Evaluate a tag criterion as the database would for a single tag.
+   */
+  private static boolean matches( Criterion criterion, String key, String value ) {
+    switch ( criterion ) {
+      case Disjunction:
+        return ( (Disjunction) criterion ).conditions( ).any{ Criterion condition -> matches( condition, key, value ) }
+      case Conjunction:
+        return ( (Conjunction) criterion ).conditions( ).every{ Criterion condition -> matches( condition, key, value ) }
+      case SimpleExpression:
+        SimpleExpression expression = (SimpleExpression) criterion
+        String tagValue = expression.propertyName == 'displayName' ? key : value
+        String operator = expression.op.trim( )
+        if ( operator == '=' ) {
+          return tagValue == expression.value
+        } else if ( operator == 'like' ) {
+          return like( String.valueOf( expression.value ) ).matcher( tagValue ).matches( )
+        }
+    }
+    throw new IllegalArgumentException( "Unsupported criterion ${criterion}" )
+  }
+
+  private static Pattern like( String expression ) {
+    StringBuilder regex = new StringBuilder( )
+    boolean escaped = false
+    expression.each{ String character ->
+      if ( escaped ) {
+        regex.append( Pattern.quote( character ) )
+        escaped = false
+      } else if ( character == '\\' ) {
+        escaped = true
+      } else if ( character == '%' ) {
+        regex.append( '.*' )
+      } else if ( character == '_' ) {
+        regex.append( '.' )
+      } else {
+        regex.append( Pattern.quote( character ) )
+      }
+    }
+    Pattern.compile( regex.toString( ), Pattern.DOTALL )
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.compute.common.internal.tags;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import com.eucalyptus.compute.common.internal.tags.ResourcePages.PageLoader;
+import com.eucalyptus.compute.common.internal.tags.ResourcePages.ResourcePage;
+import com.google.common.base.Functions;
+import com.google.common.base.Predicates;
+
+/**
+ * Unit tests for keyset pagination
+ */
+public class ResourcePagesTest {
+
+  private static final List<String> IDS =
+      IntStream.range( 0, 25 ).mapToObj( i -> String.format( "i-%08d", i ) ).collect( Collectors.toList( ) );
+
+  private static final PageLoader<String> LOADER = ( after, maxResults ) -> IDS.stream( )
+      .filter( id -> after == null || id.compareTo( after ) > 0 )
+      .limit( maxResults )
+      .collect( Collectors.toList( ) );
+
+  @Test
+  public void testPages( ) {
+    final ResourcePage<String> first = ResourcePages.list( LOADER, Functions.identity( ), Predicates.alwaysTrue( ), null, 10 );
+    assertEquals( "first page", IDS.subList( 0, 10 ), first.getResources( ) );
+    assertEquals( "first page last", "i-00000009", first.getLastIdentifier( ) );
+
+    final ResourcePage<String> second = ResourcePages.list( LOADER, Functions.identity( ), Predicates.alwaysTrue( ), first.getLastIdentifier( ), 10 );
+    assertEquals( "second page", IDS.subList( 10, 20 ), second.getResources( ) );
+
+    final ResourcePage<String> third = ResourcePages.list( LOADER, Functions.identity( ), Predicates.alwaysTrue( ), second.getLastIdentifier( ), 10 );
+    assertEquals( "third page", IDS.subList( 20, 25 ), third.getResources( ) );
+    assertNull( "third page last", third.getLastIdentifier( ) );
+  }
+
+  @Test
+  public void testFilteredPage( ) {
+    final ResourcePage<String> page =
+        ResourcePages.list( LOADER, Functions.identity( ), id -> id.endsWith( "3" ) || id.endsWith( "7" ), null, 3 );
+    assertEquals( "page", "[i-00000003, i-00000007, i-00000013]", String.valueOf( page.getResources( ) ) );
+    assertEquals( "page last", "i-00000013", page.getLastIdentifier( ) );
+  }
+
+  @Test
+  public void testLoadLimit( ) {
+    final ResourcePage<String> page =
+        ResourcePages.list( LOADER, Functions.identity( ), Predicates.alwaysFalse( ), null, 2 );
+    assertEquals( "page", 0, page.getResources( ).size( ) );
+    assertEquals( "page last", "i-00000019", page.getLastIdentifier( ) );
+  }
+}
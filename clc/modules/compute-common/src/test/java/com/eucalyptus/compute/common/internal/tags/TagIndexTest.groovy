@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.compute.common.internal.tags
+
+import static org.junit.Assert.*
+import groovy.transform.CompileStatic
+import com.eucalyptus.auth.principal.AccountFullName
+import com.google.common.base.Functions
+import com.google.common.base.Predicates
+import com.google.common.collect.ImmutableSortedMap
+import org.junit.Test
+
+import javax.transaction.Status
+import javax.transaction.Synchronization
+import java.util.function.BooleanSupplier
+import java.util.function.Consumer
+import java.util.function.Function
+
+/**
+ *
+ */
+@CompileStatic
+class TagIndexTest {
+
+  private static final String ACCOUNT = '000000000001'
+
+  private final Map<String,Map<String,String>> database = [ 'i-00000001': [ 'Name': 'web' ] as Map<String,String> ]
+  private final List<Synchronization> synchronizations = [ ]
+  private TagIndex.TagSignature signature = new TagIndex.TagSignature( 1, 0, 1000 )
+  private TagIndex.TagSignature pendingSignature = new TagIndex.TagSignature( 0, 0, 0 )
+  private long updated = 1000
+  private int loads = 0
+  private boolean available = true
+  private Closure<Void> beforeLoad = { }
+
+  @Test
+  void testLoadAndApply( ) {
+    TagIndex index = index( )
+    assertEquals( 'loaded tags', [ 'Name': 'web' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    assertEquals( 'cached tags', [ 'Name': 'web' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    assertEquals( 'loads', 1, loads )
+
+    change( index, tag( 'i-00000001', 'env', 'prod' ), TagIndex.TagChangeType.CREATED )
+    assertEquals( 'uncommitted create', [ 'Name': 'web' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    commit( )
+    assertEquals( 'created', [ 'Name': 'web', 'env': 'prod' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+
+    change( index, tag( 'i-00000001', 'Name', 'web' ), TagIndex.TagChangeType.REMOVED )
+    commit( )
+    assertEquals( 'deleted', [ 'env': 'prod' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+
+    change( index, tag( 'i-00000001', 'env', 'prod' ), TagIndex.TagChangeType.REMOVED )
+    commit( )
+    assertEquals( 'all deleted', [ ] as Set, index.getAccountTags( ACCOUNT ).getResourceIds( Predicates.alwaysTrue( ), Predicates.alwaysTrue( ) ) )
+    assertEquals( 'loads', 1, loads )
+  }
+
+  @Test
+  void testRolledBackChangeIgnored( ) {
+    TagIndex index = index( )
+    index.getAccountTags( ACCOUNT )
+    change( index, tag( 'i-00000001', 'Name', 'db' ), TagIndex.TagChangeType.UPDATED )
+    complete( Status.STATUS_ROLLEDBACK )
+    assertEquals( 'tags', [ 'Name': 'web' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+  }
+
+  @Test
+  void testChangeDuringLoadNotCached( ) {
+    TagIndex index = index( )
+    beforeLoad = {
+      beforeLoad = { }
+      // change committed after the load read the database
+      change( index, tag( 'i-00000001', 'Name', 'db' ), TagIndex.TagChangeType.UPDATED )
+      commit( )
+    }
+    assertEquals( 'loaded tags', [ 'Name': 'web' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    database.put( 'i-00000001', [ 'Name': 'db' ] )
+    assertEquals( 'reloaded tags', [ 'Name': 'db' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    assertEquals( 'loads', 2, loads )
+  }
+
+  @Test
+  void testChangeBeforeLoad( ) {
+    TagIndex index = index( )
+    change( index, tag( 'i-00000002', 'Name', 'db' ), TagIndex.TagChangeType.CREATED )
+    commit( )
+    database.put( 'i-00000002', [ 'Name': 'db' ] )
+    assertEquals( 'loaded tags', [ 'Name': 'db' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000002' ) )
+    assertEquals( 'loads', 1, loads )
+  }
+
+  @Test
+  void testInvalidatedWithoutTransaction( ) {
+    TagIndex index = new TagIndex(
+        loader( ),
+        signatures( ),
+        { Synchronization synchronization -> throw new IllegalStateException( 'no transaction' ) } as Consumer<Synchronization>,
+        { true } as BooleanSupplier )
+    index.getAccountTags( ACCOUNT )
+    database.put( 'i-00000001', [ 'Name': 'db' ] )
+    index.changed( tag( 'i-00000001', 'Name', 'db' ), TagIndex.TagChangeType.UPDATED )
+    assertEquals( 'reloaded tags', [ 'Name': 'db' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    assertEquals( 'loads', 2, loads )
+  }
+
+  @Test
+  void testChangedOnAnotherHost( ) {
+    TagIndex index = index( )
+    index.getAccountTags( ACCOUNT )
+    database.put( 'i-00000001', [ 'Name': 'web', 'env': 'prod' ] )
+    signature = signature.apply( TagIndex.TagChangeType.CREATED.signatureChange( tag( 'i-00000001', 'env', 'prod' ) ) )
+    assertEquals( 'reloaded tags', [ 'Name': 'web', 'env': 'prod' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    assertEquals( 'cached tags', [ 'Name': 'web', 'env': 'prod' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    assertEquals( 'loads', 2, loads )
+
+    // update on another host, tag count unchanged
+    database.put( 'i-00000001', [ 'Name': 'db', 'env': 'prod' ] )
+    signature = signature.apply( TagIndex.TagChangeType.UPDATED.signatureChange( tag( 'i-00000001', 'Name', 'db' ) ) )
+    assertEquals( 'reloaded updated tags', [ 'Name': 'db', 'env': 'prod' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+    assertEquals( 'loads', 3, loads )
+  }
+
+  @Test
+  void testSignatureFailure( ) {
+    TagIndex index = index( )
+    index.getAccountTags( ACCOUNT )
+    signature = null
+    assertNull( 'signature failure', index.getAccountTags( ACCOUNT ) )
+    assertEquals( 'loads', 1, loads )
+  }
+
+  @Test
+  void testUnavailable( ) {
+    TagIndex index = index( )
+    available = false
+    assertNull( 'unavailable', index.getAccountTags( ACCOUNT ) )
+    assertEquals( 'loads', 0, loads )
+  }
+
+  @Test
+  void testLoadFailure( ) {
+    TagIndex index = index( )
+    beforeLoad = {
+      beforeLoad = { }
+      throw new RuntimeException( 'database unavailable' )
+    }
+    assertNull( 'load failure', index.getAccountTags( ACCOUNT ) )
+    assertEquals( 'loaded tags', [ 'Name': 'web' ], index.getAccountTags( ACCOUNT ).getTags( 'i-00000001' ) )
+  }
+
+  private TagIndex index( ) {
+    new TagIndex(
+        loader( ),
+        signatures( ),
+        { Synchronization synchronization -> synchronizations << synchronization } as Consumer<Synchronization>,
+        { available } as BooleanSupplier )
+  }
+
+  private Function<String,Map<String,ImmutableSortedMap<String,String>>> loader( ) {
+    Closure loader = { String accountNumber ->
+      loads++
+      Map<String,ImmutableSortedMap<String,String>> tagsByResource = [ : ]
+      database.each{ String resourceId, Map<String,String> tags ->
+        tagsByResource.put( resourceId, ImmutableSortedMap.copyOf( tags ) )
+      }
+      beforeLoad.call( )
+      tagsByResource
+    }
+    loader as Function<String,Map<String,ImmutableSortedMap<String,String>>>
+  }
+
+  private Function<String,TagIndex.TagSignature> signatures( ) {
+    Closure signatures = { String accountNumber ->
+      if ( signature == null ) throw new RuntimeException( 'database unavailable' )
+      signature
+    }
+    signatures as Function<String,TagIndex.TagSignature>
+  }
+
+  private void change( TagIndex index, Tag tag, TagIndex.TagChangeType type ) {
+    index.changed( tag, type )
+    pendingSignature = pendingSignature.apply( type.signatureChange( tag ) )
+  }
+
+  private void commit( ) {
+    complete( Status.STATUS_COMMITTED )
+  }
+
+  private void complete( int status ) {
+    if ( Status.STATUS_COMMITTED == status ) {
+      signature = signature.apply( pendingSignature )
+    }
+    pendingSignature = new TagIndex.TagSignature( 0, 0, 0 )
+    synchronizations.each{ Synchronization synchronization -> synchronization.afterCompletion( status ) }
+    synchronizations.clear( )
+  }
+
+  private Tag tag( String resourceId, String key, String value ) {
+    Tag tag = new Tag( 'instance', Functions.constant( resourceId ), AccountFullName.getInstance( ACCOUNT ), key, value )
+    tag.setVersion( 0 )
+    tag.setLastUpdateTimestamp( new Date( ++updated ) )
+    tag
+  }
+}
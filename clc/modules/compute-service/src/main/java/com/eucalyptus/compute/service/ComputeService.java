@@ -85,8 +85,11 @@ import com.eucalyptus.compute.common.internal.keys.SshKeyPair;
 import com.eucalyptus.compute.common.internal.network.NetworkGroup;
 import com.eucalyptus.compute.common.internal.network.NetworkGroups;
 import com.eucalyptus.compute.common.internal.tags.Filter;
+import com.eucalyptus.compute.common.internal.tags.FilterStatistics;
 import com.eucalyptus.compute.common.internal.tags.Filters;
 import com.eucalyptus.compute.common.internal.tags.InvalidFilterException;
+import com.eucalyptus.compute.common.internal.tags.ResourcePages;
+import com.eucalyptus.compute.common.internal.tags.ResourcePages.ResourcePage;
 import com.eucalyptus.compute.common.internal.tags.Tag;
 import com.eucalyptus.compute.common.internal.tags.TagSupport;
 import com.eucalyptus.compute.common.internal.tags.Tags;
@@ -474,12 +477,36 @@ public class ComputeService {
     final OwnerFullName ownerFullName = ( ctx.isAdministrator( ) && showAll )
         ? null
         : ctx.getUserFullName( ).asAccountFullName( );
+    final FilterStatistics<VmInstance> statistics = FilterStatistics.counting( requestedAndAccessible );
+    final boolean paged = msg.getMaxResults( ) != null || msg.getNextToken( ) != null;
+    final String nextTokenScope = "DescribeInstances:" + ctx.getAccountNumber( ) + ":" + ( ownerFullName == null );
+    final String afterInstanceId = paged ?
+        describePageAfter( nextTokenScope, msg.getMaxResults( ), msg.getNextToken( ), identifiers ) :
+        null;
     try ( final TransactionResource db = Entities.readOnlyDistinctTransactionFor( VmInstance.class ) ) {
-      final List<VmInstance> instances = VmInstances.list(
-          ownerFullName,
-          persistenceFilter.asCriterionWithConjunction( Restrictions.not( VmInstance.criterion( VmInstance.VmState.BURIED ) ) ),
-          persistenceFilter.getAliases( ),
-          Predicates.and( new TrackingPredicate<>( identifiers ), requestedAndAccessible ) );
+      final Criterion criterion =
+          persistenceFilter.asCriterionWithConjunction( Restrictions.not( VmInstance.criterion( VmInstance.VmState.BURIED ) ) );
+      final List<VmInstance> instances;
+      if ( paged ) {
+        final ResourcePage<VmInstance> page = VmInstances.listPage(
+            ownerFullName,
+            criterion,
+            persistenceFilter.getAliases( ),
+            statistics,
+            afterInstanceId,
+            MoreObjects.firstNonNull( msg.getMaxResults( ), ResourcePages.MAX_MAX_RESULTS ) );
+        instances = page.getResources( );
+        if ( page.getLastIdentifier( ) != null ) {
+          reply.setNextToken( ResourcePages.nextToken( nextTokenScope, page.getLastIdentifier( ) ) );
+        }
+      } else {
+        instances = VmInstances.list(
+            ownerFullName,
+            criterion,
+            persistenceFilter.getAliases( ),
+            Predicates.and( new TrackingPredicate<>( identifiers ), statistics ) );
+      }
+      statistics.log( "DescribeInstances", persistenceFilter );
       errorIfNotFound( "InvalidInstanceID.NotFound", "instance ID", identifiers );
       final Map<String,List<Tag>> tagsMap = TagSupport.forResourceClass( VmInstance.class )
           .getResourceTagMap(  AccountFullName.getInstance( ctx.getAccountNumber() ),
@@ -2218,6 +2245,37 @@ public class ComputeService {
         filter;
   }
 
+  /**
+   * Validate paging parameters for a describe request.
+   *
+   * @return The identifier to list after, null for the first page
+   */
+  @Nullable
+  private static String describePageAfter(
+      final String nextTokenScope,
+      @Nullable final Integer maxResults,
+      @Nullable final String nextToken,
+      final Collection<String> identifiers
+  ) throws ComputeServiceClientException {
+    if ( !identifiers.isEmpty( ) ) {
+      throw new ComputeServiceClientException(
+          "InvalidParameterCombination", "The parameter identifiers cannot be used with the parameter maxResults or nextToken" );
+    }
+    if ( maxResults != null && ( maxResults < ResourcePages.MIN_MAX_RESULTS || maxResults > ResourcePages.MAX_MAX_RESULTS ) ) {
+      throw new ComputeServiceClientException( "InvalidParameterValue", String.format(
+          "Value ( %d ) for parameter maxResults is invalid. Expecting a value between %d and %d.",
+          maxResults, ResourcePages.MIN_MAX_RESULTS, ResourcePages.MAX_MAX_RESULTS ) );
+    }
+    if ( nextToken == null ) {
+      return null;
+    }
+    final Optional<String> afterIdentifier = ResourcePages.identifier( nextTokenScope, nextToken );
+    if ( !afterIdentifier.isPresent( ) ) {
+      throw new ComputeServiceClientException( "InvalidParameterValue", "Invalid value for parameter nextToken" );
+    }
+    return afterIdentifier.get( );
+  }
+
   private static Context checkAuthorized( ) throws EucalyptusCloudException {
     final Context ctx = Contexts.lookup( );
     final User requestUser = ctx.getUser( );
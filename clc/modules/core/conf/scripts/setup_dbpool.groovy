@@ -41,26 +41,32 @@ import com.eucalyptus.bootstrap.BootstrapArgs
 import com.eucalyptus.bootstrap.Host
 import com.eucalyptus.bootstrap.Hosts
 import com.eucalyptus.component.annotation.DatabaseNamingStrategy
+import com.eucalyptus.entities.ConnectionPool
+import com.eucalyptus.entities.ConnectionPools
 import org.apache.log4j.Logger
-import org.logicalcobwebs.proxool.ProxoolFacade
-import org.logicalcobwebs.proxool.StateListenerIF
 import com.eucalyptus.bootstrap.Databases
+import com.eucalyptus.component.ComponentIds
 import com.eucalyptus.component.ServiceUris
+import com.eucalyptus.entities.PersistenceReadReplicas
+import com.google.common.net.HostAndPort
 import com.eucalyptus.component.id.Database
 
+import java.util.function.Consumer
 
-Logger LOG = Logger.getLogger( 'com.eucalyptus.scripts.setup_dbpool' );
 
-ClassLoader.getSystemClassLoader().loadClass('org.logicalcobwebs.proxool.ProxoolDriver');
+Logger LOG = Logger.getLogger( 'com.eucalyptus.scripts.setup_dbpool' );
 
 String pool_db_driver = Databases.driverName;
 String db_user = Databases.userName
 String db_pass = Databases.password
 
 default_pool_props = [
+      'driver': pool_db_driver,
+      'minimumIdle': '8',
+      'maximumSize': '512',
+      'acquireTimeoutMillis': '30000',
+      'leakThresholdMillis': '300000',
       'proxool.simultaneous-build-throttle': '1000000',
-      'proxool.minimum-connection-count': '8',
-      'proxool.maximum-connection-count': '512',
       'proxool.prototype-count': '8',
       'proxool.house-keeping-test-sql': 'SELECT 1=1;',
       'proxool.house-keeping-sleep-time': '5000',
@@ -73,34 +79,38 @@ default_pool_props = [
 ]
 
 def setupDbPool = { String db_name ->
-  // Setup proxool
-  proxool_config = new Properties();
-  proxool_config.putAll(default_pool_props);
+  pool_config = new Properties();
+  pool_config.putAll(default_pool_props);
   if ( DatabaseNamingStrategy.SHARED_DATABASE_NAME == db_name ) {
     // properties for database pool shared between contexts
-    proxool_config.setProperty( 'proxool.minimum-connection-count', '16' )
-    proxool_config.setProperty( 'proxool.maximum-connection-count', '1024' )
+    pool_config.setProperty( 'minimumIdle', '16' )
+    pool_config.setProperty( 'maximumSize', '1024' )
   } else if ( 'database_events' == db_name ) {
-    proxool_config.setProperty( 'proxool.minimum-connection-count', '0' )
-    proxool_config.setProperty( 'proxool.maximum-connection-count', '8' )
-    proxool_config.setProperty( 'proxool.prototype-count', '1' )
+    pool_config.setProperty( 'minimumIdle', '0' )
+    pool_config.setProperty( 'maximumSize', '8' )
+    pool_config.setProperty( 'proxool.prototype-count', '1' )
   }
   Host host = BootstrapArgs.cloudController ? 
       Hosts.localHost( ) : 
       Hosts.listActiveDatabases( ).get( 0 )
-  String url = "proxool.${db_name}:${pool_db_driver}:jdbc:${ServiceUris.remote(Database.class,host.isLocalHost()?InetAddress.getByName('127.0.0.1'):host.getBindAddress( ), db_name ).toASCIIString( )}";
-  LOG.info( "${db_name} Preparing connection pool:     ${url}" )
+  String url = "jdbc:${ServiceUris.remote(Database.class,host.isLocalHost()?InetAddress.getByName('127.0.0.1'):host.getBindAddress( ), db_name ).toASCIIString( )}";
+  LOG.info( "${db_name} Preparing ${ConnectionPools.implementation(db_name)} connection pool:     ${url}" )
 
-  // Register proxool
-  LOG.trace( proxool_config )
-  ProxoolFacade.registerConnectionPool(url, proxool_config);
-  if ( 'database_events' != db_name ) ProxoolFacade.addStateListener(
-      db_name, 
-      { Integer state -> Databases.setVolatile( 
-          state == StateListenerIF.STATE_DOWN ||
-          state == StateListenerIF.STATE_OVERLOADED ) 
-      } as StateListenerIF )
-  ProxoolFacade.disableShutdownHook();
+  // Register pool
+  ConnectionPool pool = ConnectionPools.register( db_name, db_name, url, pool_config )
+  if ( 'database_events' != db_name ) pool.addOverloadListener(
+      { Boolean overloaded -> Databases.setVolatile( overloaded ) } as Consumer<Boolean> )
+
+  // Register read replica pools
+  if ( 'database_events' != db_name ) PersistenceReadReplicas.replicasForDatabase( db_name ).each{ HostAndPort replica ->
+    Properties replica_config = new Properties( )
+    replica_config.putAll( pool_config )
+    replica_config.setProperty( 'minimumIdle', '0' )
+    String replica_alias = PersistenceReadReplicas.poolAlias( db_name, replica )
+    String replica_url = "jdbc:${ServiceUris.remote(ComponentIds.lookup(Database.class),InetAddress.getByName(replica.host),PersistenceReadReplicas.port(replica),db_name).toASCIIString( )}";
+    LOG.info( "${db_name} Preparing replica connection pool:     ${replica_url}" )
+    ConnectionPools.register( replica_alias, db_name, replica_url, replica_config )
+  }
 }
 
 Databases.databases( ).each{ String database ->
@@ -44,6 +44,11 @@ import org.apache.log4j.Logger
 import com.eucalyptus.bootstrap.Databases
 import com.eucalyptus.bootstrap.SystemIds
 import com.eucalyptus.entities.PersistenceContexts
+import com.eucalyptus.entities.PersistenceReadReplicas
+import com.eucalyptus.entities.impl.HeapRegionFactory
+import com.eucalyptus.entities.impl.PooledConnectionProvider
+import com.eucalyptus.entities.impl.ReadReplicaConnectionProvider
+import com.google.common.net.HostAndPort
 
 import java.util.concurrent.Callable
 
@@ -73,9 +78,9 @@ PersistenceContexts.list( ).collect{ String context_name ->
         /** jdbc driver **/
         'hibernate.dialect'                            : Databases.getHibernateDialect(),
         /** db pools **/
-        'hibernate.connection.provider_class'          : 'org.hibernate.proxool.internal.ProxoolConnectionProvider',
-        'hibernate.proxool.pool_alias'                 : PersistenceContexts.toDatabaseName().apply(context_name),
-        'hibernate.proxool.existing_pool'              : 'true',
+        'hibernate.connection.provider_class'          : PooledConnectionProvider.name,
+        (PooledConnectionProvider.POOL_ALIAS)          : PersistenceContexts.toDatabaseName().apply(context_name),
+        (PooledConnectionProvider.CONTEXT)             : context_name,
         /** transactions **/
         'hibernate.transaction.auto_close_session'     : 'false',
         'hibernate.transaction.flush_before_completion': 'false',
@@ -83,6 +88,13 @@ PersistenceContexts.list( ).collect{ String context_name ->
         'hibernate.cache.use_second_level_cache'       : 'false',
         'hibernate.cache.use_query_cache'              : 'false',
     ])
+    if (HeapRegionFactory.isEnabled()) {
+      hibernate_config.putAll([
+          'hibernate.cache.use_second_level_cache': 'true',
+          'hibernate.cache.region.factory_class'  : HeapRegionFactory.name,
+          'javax.persistence.sharedCache.mode'    : 'ENABLE_SELECTIVE',
+      ])
+    }
 
     LOG.info("Context name: = '" + context_name + "'");
     if (context_name in ["eucalyptus_cloudwatch", "eucalyptus_cloudwatch_backend", "eucalyptus_cloud"]) {
@@ -98,6 +110,17 @@ PersistenceContexts.list( ).collect{ String context_name ->
       LOG.debug("Not using batching for context ${context_name}");
     }
 
+    List<HostAndPort> replicas = PersistenceReadReplicas.replicas(context_name)
+    if (!replicas.isEmpty()) {
+      String database_name = PersistenceContexts.toDatabaseName().apply(context_name)
+      LOG.info("Using read replicas ${replicas} for context ${context_name}");
+      hibernate_config.putAll([
+          'hibernate.connection.provider_class'                    : ReadReplicaConnectionProvider.name,
+          (ReadReplicaConnectionProvider.REPLICA_POOL_ALIASES)     : replicas.collect{ HostAndPort replica ->
+            PersistenceReadReplicas.poolAlias(database_name, replica) }.join(','),
+      ])
+    }
+
     String schemaName = PersistenceContexts.toSchemaName().apply(context_name)
     if (schemaName) {
       hibernate_config.put( 'hibernate.default_schema', schemaName )
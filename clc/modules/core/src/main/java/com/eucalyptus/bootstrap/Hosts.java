@@ -60,6 +60,9 @@ import com.google.common.collect.*;
 import org.apache.log4j.Logger;
 import org.jgroups.*;
 import org.jgroups.blocks.ReplicatedHashMap;
+import org.jgroups.blocks.RpcDispatcher;
+import org.jgroups.blocks.mux.MuxRpcDispatcher;
+import org.jgroups.blocks.mux.MuxUpHandler;
 import org.jgroups.conf.ClassConfigurator;
 import org.jgroups.stack.Protocol;
 import org.jgroups.stack.ProtocolStack;
@@ -74,6 +77,7 @@ import com.eucalyptus.component.id.Eucalyptus;
 import com.eucalyptus.configurable.ConfigurableClass;
 import com.eucalyptus.configurable.ConfigurableField;
 import com.eucalyptus.empyrean.Empyrean;
+import com.eucalyptus.entities.impl.HeapRegionFactory;
 import com.eucalyptus.records.Logs;
 import com.eucalyptus.scripting.Groovyness;
 import com.eucalyptus.system.Threads;
@@ -103,8 +107,16 @@ public class Hosts {
   @ConfigurableField( description = "Timeout for state initialization (in msec).",
                       initialInt = 120000 )
   public static Long                             STATE_INITIALIZE_TIMEOUT   = 120000L;
+  @ConfigurableField( description = "Interval for host state anti-entropy with a random host (in msec).",
+                      initialInt = 60000 )
+  public static Long                             ANTI_ENTROPY_INTERVAL      = 60000L;
   public static final long                       SERVICE_INITIALIZE_TIMEOUT = 10000L;
-  private static ReplicatedHashMap<String, Host> hostMap;
+  /**
+   * Dispatcher identifiers for the membership channel, must be unique on the channel.
+   */
+  public static final short                      HOST_MAP_ID                = 2046;
+  public static final short                      CACHE_INVALIDATION_ID      = 2047;
+  private static VersionedReplicatedMap<String, Host> hostMap;
 
   public static Predicate<ServiceConfiguration> nonLocalAddressMatch( final InetAddress addr ) {
     return new Predicate<ServiceConfiguration>( ) {
@@ -332,7 +344,7 @@ public class Hosts {
   private static boolean pruneHosts( ) {
     try {
       Set<Address> currentMembers = Sets.newHashSet( hostMap.getChannel( ).getView( ).getMembers( ) );
-      Map<String, Host> hostCopy = Maps.newHashMap( hostMap );
+      Map<String, Host> hostCopy = Maps.newHashMap( hostMap.snapshot( ) );
       Set<Address> currentHosts = Sets.newHashSet( Collections2.transform( hostCopy.values( ), GroupAddressTransform.INSTANCE ) );
       Set<Address> strayHosts = Sets.difference( currentHosts, currentMembers );
       if ( !strayHosts.isEmpty( ) ) {
@@ -479,7 +491,8 @@ public class Hosts {
     /**
      * When we get a MergeView all hosts need to:
      * <ol>
-     * <li>Update their map copies from non-member partition's coordinator with {@link ReplicatedHashMap#setState(java.io.InputStream)}.</li>
+     * <li>Update their map copies from non-member partition's coordinator, this is done by the
+     * host map using anti-entropy with {@link VersionedReplicatedMap#viewAccepted(View)}.</li>
      * <li>Check to see if the current view state is compatible with their previous view state.</li>
      * <li>Fail-stop if an inconsistency exists.</li>
      * </ol>
@@ -516,16 +529,6 @@ public class Hosts {
                         + ", system=" + this.coordinatorAddress
                         + ", localhost=" + this.coordinator + "]" );
               LOG.info( logPrefix( v ) + Joiner.on( ", " ).join( v.getMembers( ) ) );
-
-              /**
-               * If this subgroup/partiton is not one we are a member of then sync the state from the coordinator, i.e. {@code org.jgroups.View#getMembers()#firstElement()} is the coordinator.
-               */
-              try {
-                HostManager.getMembershipChannel().getState( v.getMembers().get( 0 ), 0L );
-              } catch ( Exception e ) {
-                LOG.error( logPrefix( v ) + " failed to merge partition state: " + e.getMessage() );
-                Logs.extreme().error( e, e );
-              }
             }
           } catch ( Exception ex ) {
             LOG.error( ex , ex );
@@ -755,6 +758,22 @@ public class Hosts {
     return HostManager.getMembershipChannel( ).getAddress( );
   }
 
+  /**
+   * Create a dispatcher for remote calls to the given server on other hosts using the
+   * membership channel.
+   *
+   * @param id The identifier for the dispatcher, must be the same on all hosts
+   * @param server The target for remote calls
+   * @return The dispatcher or null if the membership channel has not been built or is not multiplexed
+   */
+  @Nullable
+  public static RpcDispatcher dispatcher( final short id, final Object server ) {
+    final JChannel channel = HostManager.singletonChannel;
+    return channel == null || !( channel.getUpHandler( ) instanceof MuxUpHandler ) ?
+        null :
+        new MuxRpcDispatcher( id, channel, null, null, server );
+  }
+
   static class HostManager {
     private final JChannel     membershipChannel;
     private static HostManager singleton;
@@ -803,6 +822,9 @@ public class Hosts {
         try {
           final JChannel channel = new JChannel( false );
           channel.setName( Internets.localHostIdentifier( ) );
+          if ( HeapRegionFactory.isEnabled( ) ) {
+            channel.setUpHandler( new MuxUpHandler( ) );
+          }
           final ProtocolStack stack = new ProtocolStack( );
           channel.setProtocolStack( stack );
           stack.addProtocols( HostManager.getMembershipProtocolStack( ) );
@@ -867,14 +889,15 @@ public class Hosts {
         JChannel jchannel = HostManager.buildChannel( );
         LOG.info( "Started membership channel " + SystemIds.membershipGroupName( ) );
         //GRZE: 2. then start the map
-        hostMap = new ReplicatedHashMap<String, Host>( jchannel );
+        hostMap = new VersionedReplicatedMap<>( jchannel, HOST_MAP_ID, "host-map" );
         hostMap.setBlockingUpdates( true );
+        hostMap.setTimeout( STATE_TRANSFER_TIMEOUT );
         //GRZE: 3. the connect the group
         HostManager.start( );
         Runnable runMap = new Runnable( ) {
           public void run( ) {
             try {
-              hostMap.start( STATE_INITIALIZE_TIMEOUT );
+              hostMap.start( STATE_INITIALIZE_TIMEOUT, ANTI_ENTROPY_INTERVAL );
               OrderedShutdown.registerPreShutdownHook( new Runnable( ) {
 
                 @Override
@@ -971,6 +994,16 @@ public class Hosts {
     }
   }
 
+  /**
+   * Statistics for host state replication.
+   *
+   * @return The statistics or null if membership has not started
+   */
+  @Nullable
+  public static VersionedReplicatedMap.Statistics membershipStatistics( ) {
+    return hostMap == null ? null : hostMap.getStatistics( );
+  }
+
   public static List<Host> list( ) {
     List<Host> hosts = Lists.newArrayList( );
     if ( hostMap != null ) {
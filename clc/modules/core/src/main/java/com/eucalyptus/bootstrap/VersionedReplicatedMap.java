@@ -0,0 +1,704 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.bootstrap;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.apache.log4j.Logger;
+import org.jgroups.Address;
+import org.jgroups.JChannel;
+import org.jgroups.MembershipListener;
+import org.jgroups.MergeView;
+import org.jgroups.View;
+import org.jgroups.blocks.MethodCall;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.blocks.RpcDispatcher;
+import org.jgroups.blocks.ReplicatedHashMap;
+import org.jgroups.blocks.mux.MuxRpcDispatcher;
+import org.jgroups.blocks.mux.MuxUpHandler;
+import org.jgroups.util.Util;
+import com.eucalyptus.system.Threads;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Map replicated to all members of a group as versioned per-entry deltas.
+ *
+ * <p>Each update is multicast as a single versioned entry and applied by other members only if
+ * newer than their current entry. Versions are logical clocks ordered by writer name on ties so
+ * all members pick the same winner. Removed entries are kept as tombstones for a while so that a
+ * removal wins over an older update. The removal time is replicated with the tombstone and once
+ * expired the tombstone is no longer transferred or applied, so it is not copied back to a member
+ * that already discarded it.</p>
+ *
+ * <p>Missed updates are repaired by anti-entropy: members exchange digests of entry versions and
+ * then transfer only the entries that differ. This is done when members join or partitions merge
+ * and periodically with a random member.</p>
+ *
+ * <p>Listeners are notified on a dedicated thread in the order updates are applied.</p>
+ */
+public class VersionedReplicatedMap<K extends Serializable, V extends Serializable> implements MembershipListener {
+
+  private static final Logger LOG = Logger.getLogger( VersionedReplicatedMap.class );
+
+  private final String name;
+  private final JChannel channel;
+  private final RpcDispatcher dispatcher;
+  private final ConcurrentMap<K, Entry<V>> entries = Maps.newConcurrentMap( );
+  private final AtomicLong clock = new AtomicLong( );
+  private final List<ReplicatedHashMap.Notification<K, V>> notifiers = new CopyOnWriteArrayList<>( );
+  private final ExecutorService notificationExecutor;
+  private final ScheduledExecutorService antiEntropyExecutor;
+  private final Metrics metrics = new Metrics( );
+  private volatile View view;
+  private volatile boolean blockingUpdates;
+  private volatile long timeout = 10_000L;
+  private volatile long tombstoneMillis = TimeUnit.MINUTES.toMillis( 10 );
+
+  /**
+   * Create a map using a dispatcher on the given channel.
+   *
+   * <p>The dispatcher is multiplexed using the given identifier if the channel has a
+   * {@link MuxUpHandler} as up handler, else the map must be the only dispatcher for
+   * the channel.</p>
+   *
+   * @param channel The channel, may not be connected
+   * @param id The dispatcher identifier, must be the same for all members
+   * @param name The name for the map, used for threads and logging
+   */
+  public VersionedReplicatedMap( final JChannel channel, final short id, final String name ) {
+    this.name = name;
+    this.channel = channel;
+    this.notificationExecutor =
+        Executors.newSingleThreadExecutor( Threads.threadFactory( name + "-notification-%d" ) );
+    this.antiEntropyExecutor =
+        Executors.newSingleThreadScheduledExecutor( Threads.threadFactory( name + "-anti-entropy-%d" ) );
+    this.dispatcher = channel.getUpHandler( ) instanceof MuxUpHandler ?
+        new MuxRpcDispatcher( id, channel, null, this, this ) :
+        new RpcDispatcher( channel, null, this, this );
+  }
+
+  public JChannel getChannel( ) {
+    return channel;
+  }
+
+  /**
+   * Wait for updates to be applied by all members when updating.
+   */
+  public void setBlockingUpdates( final boolean blockingUpdates ) {
+    this.blockingUpdates = blockingUpdates;
+  }
+
+  /**
+   * Timeout for remote calls in milliseconds.
+   */
+  public void setTimeout( final long timeout ) {
+    this.timeout = timeout;
+  }
+
+  /**
+   * Time in milliseconds for which removed entries are retained.
+   */
+  public void setTombstoneMillis( final long tombstoneMillis ) {
+    this.tombstoneMillis = tombstoneMillis;
+  }
+
+  public void addNotifier( final ReplicatedHashMap.Notification<K, V> notifier ) {
+    notifiers.add( notifier );
+  }
+
+  public void removeNotifier( final ReplicatedHashMap.Notification<K, V> notifier ) {
+    notifiers.remove( notifier );
+  }
+
+  /**
+   * Synchronize with the coordinator and start periodic anti-entropy.
+   *
+   * @param stateTimeout Timeout for the initial synchronization in milliseconds
+   * @param antiEntropyInterval Interval for periodic anti-entropy in milliseconds
+   * @throws Exception If the initial synchronization fails
+   */
+  public void start( final long stateTimeout, final long antiEntropyInterval ) throws Exception {
+    final View currentView = channel.getView( );
+    if ( currentView != null && !currentView.getMembers( ).isEmpty( ) &&
+        !Objects.equals( currentView.getMembers( ).get( 0 ), channel.getAddress( ) ) ) {
+      final long start = System.currentTimeMillis( );
+      synchronize( currentView.getMembers( ).get( 0 ), stateTimeout );
+      metrics.converged( System.currentTimeMillis( ) - start );
+    }
+    antiEntropyExecutor.scheduleWithFixedDelay(
+        this::antiEntropy, antiEntropyInterval, antiEntropyInterval, TimeUnit.MILLISECONDS );
+  }
+
+  public void stop( ) {
+    antiEntropyExecutor.shutdownNow( );
+    dispatcher.stop( );
+    notificationExecutor.shutdown( );
+  }
+
+  @Nullable
+  public V get( final K key ) {
+    final Entry<V> entry = entries.get( key );
+    return entry == null ? null : entry.value;
+  }
+
+  public boolean containsKey( final K key ) {
+    return get( key ) != null;
+  }
+
+  public Collection<V> values( ) {
+    return snapshot( ).values( );
+  }
+
+  /**
+   * Get a copy of the current entries.
+   */
+  public Map<K, V> snapshot( ) {
+    final ImmutableMap.Builder<K, V> builder = ImmutableMap.builder( );
+    for ( final Map.Entry<K, Entry<V>> entry : entries.entrySet( ) ) {
+      if ( entry.getValue( ).value != null ) {
+        builder.put( entry.getKey( ), entry.getValue( ).value );
+      }
+    }
+    return builder.build( );
+  }
+
+  @Nullable
+  public V put( final K key, final V value ) {
+    return update( key, value, false );
+  }
+
+  @Nullable
+  public V putIfAbsent( final K key, final V value ) {
+    return update( key, value, true );
+  }
+
+  @Nullable
+  public V remove( final K key ) {
+    return update( key, null, false );
+  }
+
+  public Statistics getStatistics( ) {
+    return metrics.snapshot( entries.size( ), snapshot( ).size( ) );
+  }
+
+  @Override
+  public String toString( ) {
+    return name + snapshot( );
+  }
+
+  private V update( final K key, final V value, final boolean ifAbsent ) {
+    final Object[] previous = new Object[ 1 ];
+    final Entry<V> updated = entries.compute( key, ( k, current ) -> {
+      previous[ 0 ] = current == null ? null : current.value;
+      if ( ( ifAbsent && previous[ 0 ] != null ) || ( value == null && previous[ 0 ] == null ) ) {
+        return current;
+      }
+      final long version = clock.updateAndGet( c -> Math.max( c, current == null ? 0 : current.version.counter ) + 1 );
+      return new Entry<>( new Version( version, writer( ) ), value );
+    } );
+    @SuppressWarnings( "unchecked" )
+    final V previousValue = (V) previous[ 0 ];
+    if ( !( ( ifAbsent && previousValue != null ) || ( value == null && previousValue == null ) ) ) {
+      notify( key );
+      send( key, updated );
+    }
+    return previousValue;
+  }
+
+  private String writer( ) {
+    final Address address = channel.getAddress( );
+    return address == null ? name : address.toString( );
+  }
+
+  private void send( final K key, final Entry<V> entry ) {
+    final View currentView = view;
+    if ( currentView == null || currentView.size( ) < 2 ) {
+      return;
+    }
+    try {
+      final RequestOptions options = blockingUpdates ?
+          RequestOptions.SYNC( ).setTimeout( timeout ) :
+          RequestOptions.ASYNC( );
+      dispatcher.callRemoteMethods(
+          null,
+          new MethodCall( "applyDelta", new Object[]{ key, entry }, new Class[]{ Serializable.class, Entry.class } ),
+          options.setExclusionList( channel.getAddress( ) ) );
+      metrics.deltasSent.incrementAndGet( );
+    } catch ( final Exception e ) {
+      LOG.warn( name + " failed to send update for " + key + ", will repair: " + e.getMessage( ) );
+    }
+  }
+
+  /**
+   * Remote call target for an update.
+   */
+  public void applyDelta( final K key, final Entry<V> entry ) {
+    metrics.deltasReceived.incrementAndGet( );
+    switch ( apply( key, entry ) ) {
+      case CHANGED:
+        notify( key );
+        break;
+      case STALE:
+        metrics.staleDeltas.incrementAndGet( );
+        break;
+    }
+  }
+
+  /**
+   * Remote call target for anti-entropy push.
+   */
+  public void applyDeltas( final HashMap<K, Entry<V>> deltas ) {
+    applyAll( deltas );
+  }
+
+  /**
+   * Remote call target for anti-entropy digest.
+   */
+  public HashMap<K, Version> digest( ) {
+    final HashMap<K, Version> digest = Maps.newHashMapWithExpectedSize( entries.size( ) );
+    final long now = System.currentTimeMillis( );
+    for ( final Map.Entry<K, Entry<V>> entry : entries.entrySet( ) ) {
+      if ( !isExpired( entry.getValue( ), now ) ) {
+        digest.put( entry.getKey( ), entry.getValue( ).version );
+      }
+    }
+    return digest;
+  }
+
+  /**
+   * Remote call target for anti-entropy pull.
+   */
+  public HashMap<K, Entry<V>> entries( final HashSet<K> keys ) {
+    final HashMap<K, Entry<V>> result = Maps.newHashMapWithExpectedSize( keys.size( ) );
+    final long now = System.currentTimeMillis( );
+    for ( final K key : keys ) {
+      final Entry<V> entry = entries.get( key );
+      if ( entry != null && !isExpired( entry, now ) ) {
+        result.put( key, entry );
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Exchange entries that differ with the given member.
+   *
+   * @return The number of entries transferred
+   */
+  int synchronize( final Address member, final long syncTimeout ) throws Exception {
+    final HashMap<K, Version> remoteDigest = dispatcher.callRemoteMethod(
+        member,
+        new MethodCall( "digest", new Object[ 0 ], new Class[ 0 ] ),
+        RequestOptions.SYNC( ).setTimeout( syncTimeout ) );
+    final HashMap<K, Entry<V>> push = Maps.newHashMap( );
+    final HashSet<K> pull = Sets.newHashSet( );
+    final long now = System.currentTimeMillis( );
+    for ( final Map.Entry<K, Entry<V>> entry : entries.entrySet( ) ) {
+      if ( isExpired( entry.getValue( ), now ) ) {
+        continue;
+      }
+      final Version remoteVersion = remoteDigest.get( entry.getKey( ) );
+      if ( remoteVersion == null || entry.getValue( ).version.compareTo( remoteVersion ) > 0 ) {
+        push.put( entry.getKey( ), entry.getValue( ) );
+      }
+    }
+    for ( final Map.Entry<K, Version> remote : remoteDigest.entrySet( ) ) {
+      final Entry<V> local = entries.get( remote.getKey( ) );
+      if ( local == null || remote.getValue( ).compareTo( local.version ) > 0 ) {
+        pull.add( remote.getKey( ) );
+      }
+    }
+    if ( !push.isEmpty( ) ) {
+      dispatcher.callRemoteMethod(
+          member,
+          new MethodCall( "applyDeltas", new Object[]{ push }, new Class[]{ HashMap.class } ),
+          RequestOptions.SYNC( ).setTimeout( syncTimeout ) );
+    }
+    if ( !pull.isEmpty( ) ) {
+      final HashMap<K, Entry<V>> pulled = dispatcher.callRemoteMethod(
+          member,
+          new MethodCall( "entries", new Object[]{ pull }, new Class[]{ HashSet.class } ),
+          RequestOptions.SYNC( ).setTimeout( syncTimeout ) );
+      applyAll( pulled );
+    }
+    metrics.antiEntropyRounds.incrementAndGet( );
+    metrics.entriesRepaired.addAndGet( push.size( ) + pull.size( ) );
+    return push.size( ) + pull.size( );
+  }
+
+  private void applyAll( final Map<K, Entry<V>> deltas ) {
+    final List<K> changed = Lists.newArrayList( );
+    for ( final Map.Entry<K, Entry<V>> delta : deltas.entrySet( ) ) {
+      if ( apply( delta.getKey( ), delta.getValue( ) ) == Applied.CHANGED ) {
+        changed.add( delta.getKey( ) );
+      }
+    }
+    if ( !changed.isEmpty( ) ) {
+      notify( ( ) -> {
+        final Map<K, V> set = Maps.newHashMap( );
+        final List<K> removed = Lists.newArrayList( );
+        for ( final K key : changed ) {
+          final V value = currentValue( key );
+          if ( value != null ) {
+            set.put( key, value );
+          } else {
+            removed.add( key );
+          }
+        }
+        return notifier -> {
+          if ( !set.isEmpty( ) ) {
+            notifier.contentsSet( set );
+          }
+          for ( final K key : removed ) {
+            notifier.entryRemoved( key );
+          }
+        };
+      } );
+    }
+  }
+
+  /**
+   * Apply the entry if newer than the current entry.
+   *
+   * <p>An expired tombstone still removes an older value but is not stored.</p>
+   */
+  private Applied apply( final K key, final Entry<V> entry ) {
+    clock.accumulateAndGet( entry.version.counter, Math::max );
+    final boolean expired = isExpired( entry, System.currentTimeMillis( ) );
+    final Applied[] applied = { Applied.STALE };
+    entries.compute( key, ( k, current ) -> {
+      if ( current == null || entry.version.compareTo( current.version ) > 0 ) {
+        applied[ 0 ] = entry.value == null && ( current == null || current.value == null ) ?
+            Applied.UNCHANGED :
+            Applied.CHANGED;
+        return expired ? null : entry;
+      }
+      return current;
+    } );
+    return applied[ 0 ];
+  }
+
+  private boolean isExpired( final Entry<V> entry, final long now ) {
+    return entry.value == null && ( now - entry.removed ) > tombstoneMillis;
+  }
+
+  @Nullable
+  private V currentValue( final K key ) {
+    final Entry<V> entry = entries.get( key );
+    return entry == null ? null : entry.value;
+  }
+
+  /**
+   * Notify the current value for the key.
+   *
+   * <p>The value is read when the notification runs so notifications for concurrent updates
+   * cannot leave notifiers with an older value.</p>
+   */
+  private void notify( final K key ) {
+    notify( ( ) -> {
+      final V value = currentValue( key );
+      return value == null ?
+          notifier -> notifier.entryRemoved( key ) :
+          notifier -> notifier.entrySet( key, value );
+    } );
+  }
+
+  private void notify( final NotificationCallback<K, V> callback ) {
+    notify( ( ) -> callback );
+  }
+
+  private void notify( final Supplier<NotificationCallback<K, V>> callbackSupplier ) {
+    if ( notifiers.isEmpty( ) ) {
+      return;
+    }
+    try {
+      notificationExecutor.execute( ( ) -> {
+        final NotificationCallback<K, V> callback = callbackSupplier.get( );
+        for ( final ReplicatedHashMap.Notification<K, V> notifier : notifiers ) try {
+          callback.notify( notifier );
+        } catch ( final Exception e ) {
+          LOG.error( name + " notification failed: " + e.getMessage( ), e );
+        }
+      } );
+    } catch ( final Exception e ) {
+      LOG.debug( name + " notification skipped: " + e.getMessage( ) );
+    }
+  }
+
+  private void antiEntropy( ) {
+    try {
+      final long now = System.currentTimeMillis( );
+      entries.entrySet( ).removeIf( entry -> isExpired( entry.getValue( ), now ) );
+      final View currentView = view;
+      if ( currentView != null && currentView.size( ) > 1 ) {
+        final List<Address> others = Lists.newArrayList( currentView.getMembers( ) );
+        others.remove( channel.getAddress( ) );
+        synchronize( others.get( ThreadLocalRandom.current( ).nextInt( others.size( ) ) ), timeout );
+      }
+    } catch ( final Exception e ) {
+      LOG.warn( name + " anti-entropy failed: " + e.getMessage( ) );
+    }
+  }
+
+  @Override
+  public void viewAccepted( final View newView ) {
+    final View previousView = view;
+    view = newView;
+    final long viewTime = System.currentTimeMillis( );
+    final Set<Address> targets = Sets.newLinkedHashSet( );
+    if ( newView instanceof MergeView ) {
+      // synchronize with the coordinator of each partition we were not a member of
+      for ( final View subgroup : ( (MergeView) newView ).getSubgroups( ) ) {
+        if ( !subgroup.containsMember( channel.getAddress( ) ) && !subgroup.getMembers( ).isEmpty( ) ) {
+          targets.add( subgroup.getMembers( ).get( 0 ) );
+        }
+      }
+    } else if ( previousView != null && Objects.equals( newView.getMembers( ).get( 0 ), channel.getAddress( ) ) ) {
+      // coordinator synchronizes with joining members
+      targets.addAll( Util.newMembers( previousView.getMembers( ), newView.getMembers( ) ) );
+    }
+    notify( notifier -> notifier.viewChange(
+        newView,
+        previousView == null ? newView.getMembers( ) : Util.newMembers( previousView.getMembers( ), newView.getMembers( ) ),
+        previousView == null ? Lists.<Address>newArrayList( ) : Util.leftMembers( previousView, newView ) ) );
+    if ( !targets.isEmpty( ) ) try {
+      antiEntropyExecutor.execute( ( ) -> {
+        for ( final Address target : targets ) try {
+          synchronize( target, timeout );
+        } catch ( final Exception e ) {
+          LOG.warn( name + " synchronization with " + target + " failed: " + e.getMessage( ) );
+        }
+        metrics.converged( System.currentTimeMillis( ) - viewTime );
+      } );
+    } catch ( final Exception e ) {
+      LOG.debug( name + " synchronization skipped: " + e.getMessage( ) );
+    }
+  }
+
+  @Override
+  public void suspect( final Address suspected ) {
+  }
+
+  @Override
+  public void block( ) {
+  }
+
+  @Override
+  public void unblock( ) {
+  }
+
+  private enum Applied {
+    STALE,
+    UNCHANGED,
+    CHANGED,
+  }
+
+  private interface NotificationCallback<K, V> {
+    void notify( ReplicatedHashMap.Notification<K, V> notifier );
+  }
+
+  /**
+   * Version for an entry, ordered by logical clock then writer.
+   */
+  public static final class Version implements Comparable<Version>, Serializable {
+    private static final long serialVersionUID = 1L;
+    private final long counter;
+    private final String writer;
+
+    Version( final long counter, final String writer ) {
+      this.counter = counter;
+      this.writer = writer;
+    }
+
+    @Override
+    public int compareTo( final Version other ) {
+      final int result = Long.compare( counter, other.counter );
+      return result != 0 ? result : writer.compareTo( other.writer );
+    }
+
+    @Override
+    public String toString( ) {
+      return counter + "@" + writer;
+    }
+  }
+
+  /**
+   * Versioned value, a null value is a tombstone for a removed entry.
+   *
+   * <p>The removal time is from the clock of the member that removed the entry.</p>
+   */
+  public static final class Entry<V extends Serializable> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final Version version;
+    private final V value;
+    private final long removed;
+
+    Entry( final Version version, @Nullable final V value ) {
+      this( version, value, value == null ? System.currentTimeMillis( ) : 0L );
+    }
+
+    Entry( final Version version, @Nullable final V value, final long removed ) {
+      this.version = version;
+      this.value = value;
+      this.removed = removed;
+    }
+  }
+
+  private static final class Metrics {
+    private final AtomicLong deltasSent = new AtomicLong( );
+    private final AtomicLong deltasReceived = new AtomicLong( );
+    private final AtomicLong staleDeltas = new AtomicLong( );
+    private final AtomicLong antiEntropyRounds = new AtomicLong( );
+    private final AtomicLong entriesRepaired = new AtomicLong( );
+    private final AtomicLong convergences = new AtomicLong( );
+    private final AtomicLong lastConvergenceMillis = new AtomicLong( );
+    private final AtomicLong maxConvergenceMillis = new AtomicLong( );
+
+    private void converged( final long millis ) {
+      convergences.incrementAndGet( );
+      lastConvergenceMillis.set( millis );
+      maxConvergenceMillis.accumulateAndGet( millis, Math::max );
+    }
+
+    private Statistics snapshot( final int entries, final int liveEntries ) {
+      return new Statistics(
+          liveEntries,
+          entries - liveEntries,
+          deltasSent.get( ),
+          deltasReceived.get( ),
+          staleDeltas.get( ),
+          antiEntropyRounds.get( ),
+          entriesRepaired.get( ),
+          convergences.get( ),
+          lastConvergenceMillis.get( ),
+          maxConvergenceMillis.get( ) );
+    }
+  }
+
+  public static final class Statistics {
+    private final int entries;
+    private final int tombstones;
+    private final long deltasSent;
+    private final long deltasReceived;
+    private final long staleDeltas;
+    private final long antiEntropyRounds;
+    private final long entriesRepaired;
+    private final long convergences;
+    private final long lastConvergenceMillis;
+    private final long maxConvergenceMillis;
+
+    private Statistics(
+        final int entries,
+        final int tombstones,
+        final long deltasSent,
+        final long deltasReceived,
+        final long staleDeltas,
+        final long antiEntropyRounds,
+        final long entriesRepaired,
+        final long convergences,
+        final long lastConvergenceMillis,
+        final long maxConvergenceMillis
+    ) {
+      this.entries = entries;
+      this.tombstones = tombstones;
+      this.deltasSent = deltasSent;
+      this.deltasReceived = deltasReceived;
+      this.staleDeltas = staleDeltas;
+      this.antiEntropyRounds = antiEntropyRounds;
+      this.entriesRepaired = entriesRepaired;
+      this.convergences = convergences;
+      this.lastConvergenceMillis = lastConvergenceMillis;
+      this.maxConvergenceMillis = maxConvergenceMillis;
+    }
+
+    public int getEntries( ) {
+      return entries;
+    }
+
+    public int getTombstones( ) {
+      return tombstones;
+    }
+
+    public long getDeltasSent( ) {
+      return deltasSent;
+    }
+
+    public long getDeltasReceived( ) {
+      return deltasReceived;
+    }
+
+    /**
+     * Received updates that were not newer than the current entry
+     */
+    public long getStaleDeltas( ) {
+      return staleDeltas;
+    }
+
+    public long getAntiEntropyRounds( ) {
+      return antiEntropyRounds;
+    }
+
+    public long getEntriesRepaired( ) {
+      return entriesRepaired;
+    }
+
+    /**
+     * Number of view changes or starts after which entries were synchronized
+     */
+    public long getConvergences( ) {
+      return convergences;
+    }
+
+    /**
+     * Time from the most recent view change until entries were synchronized
+     */
+    public long getLastConvergenceMillis( ) {
+      return lastConvergenceMillis;
+    }
+
+    public long getMaxConvergenceMillis( ) {
+      return maxConvergenceMillis;
+    }
+
+    @Override
+    public String toString( ) {
+      return MoreObjects.toStringHelper( Statistics.class )
+          .add( "entries", entries )
+          .add( "tombstones", tombstones )
+          .add( "deltasSent", deltasSent )
+          .add( "deltasReceived", deltasReceived )
+          .add( "staleDeltas", staleDeltas )
+          .add( "antiEntropyRounds", antiEntropyRounds )
+          .add( "entriesRepaired", entriesRepaired )
+          .add( "convergences", convergences )
+          .add( "lastConvergenceMillis", lastConvergenceMillis )
+          .add( "maxConvergenceMillis", maxConvergenceMillis )
+          .toString( );
+    }
+  }
+}
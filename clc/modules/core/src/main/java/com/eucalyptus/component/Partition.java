@@ -47,6 +47,7 @@ import java.lang.Object;
 import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.PersistenceContext;
@@ -56,6 +57,8 @@ import javax.persistence.PostUpdate;
 import javax.persistence.PrePersist;
 import javax.persistence.Table;
 import org.apache.log4j.Logger;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 import com.eucalyptus.bootstrap.SystemIds;
 import com.eucalyptus.component.auth.SystemCredentials;
@@ -69,6 +72,8 @@ import com.eucalyptus.system.SubDirectory;
 @Entity
 @PersistenceContext( name = "eucalyptus_config" )
 @Table( name = "config_partition" )
+@Cacheable
+@Cache( usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE )
 public class Partition extends AbstractPersistent implements Comparable<Partition> {
   private static Logger LOG = Logger.getLogger( Partition.class );
   @Column( name = "config_partition_name", unique = true )
@@ -46,6 +46,7 @@ import java.net.UnknownHostException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -104,10 +105,12 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
 import com.google.common.primitives.Ints;
 
 import edu.ucsb.eucalyptus.msgs.BaseMessage;
@@ -125,6 +128,11 @@ public class Topology {
   @ConfigurableField( description = "Backoff between service state checks (in seconds).", initial = "10" )
   public static Integer                                         LOCAL_CHECK_BACKOFF_SECS       = 10;
   private final ConcurrentMap<ServiceKey, ServiceConfiguration> services                       = new ConcurrentSkipListMap<Topology.ServiceKey, ServiceConfiguration>( );
+  /**
+   * Immutable copy of services, republished on each change so lookups do not traverse the skip list.
+   */
+  private volatile Map<ServiceKey, ServiceConfiguration>        routes                         = ImmutableMap.of( );
+  private static final ConcurrentMap<Class<? extends ComponentId>, List<ComponentId>> apiComponentIds = Maps.newConcurrentMap( );
 
   private enum Queue implements Function<Callable, Future> {
     INTERNAL( 1 ) {
@@ -544,6 +552,7 @@ public class Topology {
       public boolean tryEnable( final ServiceConfiguration config ) {
         final ServiceKey serviceKey = ServiceKey.create( config );
         final ServiceConfiguration curr = Topology.this.getServices( ).putIfAbsent( serviceKey, config );
+        Topology.this.routesChanged( );
         LOG.trace( "tryEnable():before " + Topology.this.toString( ) + " => " + config );
         if ( ( curr != null ) && !curr.equals( config ) ) {
           LOG.trace( "tryEnable():false  " + Topology.this.toString( ) + " => " + config );
@@ -563,6 +572,7 @@ public class Topology {
         final ServiceKey serviceKey = ServiceKey.create( config );
         boolean tryDisable = !config.equals( Topology.this.getServices( ).get( serviceKey ) )
                || ( Topology.this.getServices( ).remove( serviceKey, config ) && this.nextEpoch( ) );
+        Topology.this.routesChanged( );
         LOG.trace( "tryDisable():" + tryDisable + " " + Topology.this.toString( ) + " => " + config );
         return tryDisable;
       }
@@ -583,6 +593,7 @@ public class Topology {
         final ServiceKey serviceKey = ServiceKey.create( config );
         LOG.trace( "tryEnable():before " + Topology.this.toString( ) + " => " + config );
         final ServiceConfiguration curr = Topology.this.getServices( ).put( serviceKey, config );
+        Topology.this.routesChanged( );
         Logs.extreme( ).info( "Current ENABLED: " + curr );
         if ( ( curr != null ) && !curr.equals( config ) ) {
           transition( State.DISABLED ).apply( curr );
@@ -601,8 +612,11 @@ public class Topology {
       public boolean tryDisable( final ServiceConfiguration config ) {
         final ServiceKey serviceKey = ServiceKey.create( config );
         LOG.trace( "tryDisable():true   " + Topology.this.toString( ) + " => " + config );
-        return ( Topology.this.getServices( ).remove( serviceKey, config ) || !config.equals( Topology.this.getServices( ).get( serviceKey ) ) )
+        final boolean tryDisable =
+            ( Topology.this.getServices( ).remove( serviceKey, config ) || !config.equals( Topology.this.getServices( ).get( serviceKey ) ) )
                && this.nextEpoch( );
+        Topology.this.routesChanged( );
+        return tryDisable;
       }
     };
   }
@@ -736,6 +750,18 @@ public class Topology {
   private ConcurrentMap<ServiceKey, ServiceConfiguration> getServices( ) {
     return this.services;
   }
+
+  private Map<ServiceKey, ServiceConfiguration> getRoutes( ) {
+    return this.routes;
+  }
+
+  /**
+   * Publish a copy of the current services, copying under the lock ensures the last published
+   * copy is never older than the last change.
+   */
+  private synchronized void routesChanged( ) {
+    this.routes = ImmutableMap.copyOf( this.services );
+  }
   
   enum ProceedToDisabledServiceFilter implements Predicate<ServiceConfiguration> {
     INSTANCE;
@@ -990,12 +1016,10 @@ public class Topology {
             maybePartition[ 0 ] :
             null;
     ServiceConfiguration res = null;
-    final Set<ComponentId> serviceComponentIds = Sets.newHashSet( );
-    if ( requestedCompId.isApi( ) ) { // resolve to impl component
-      serviceComponentIds.addAll( Stream.ofAll( ComponentIds.list( ) ).filter( comp -> comp.hasApi( compClass ) ).toJavaList( ) );
-    } else {
-      serviceComponentIds.add( requestedCompId );
-    }
+    final Map<ServiceKey, ServiceConfiguration> routes = Topology.getInstance( ).getRoutes( );
+    final List<ComponentId> serviceComponentIds = requestedCompId.isApi( ) ? // resolve to impl component
+        apiComponentIds( compClass ) :
+        Collections.singletonList( requestedCompId );
     //ManyToOne partitions are handled differently
     for ( final ComponentId compId : serviceComponentIds ) {
       if ( compId.isManyToOnePartition( ) ) {
@@ -1004,39 +1028,64 @@ public class Topology {
               .filter( ServiceConfigurations.filterEnabledByPartition( partition ) )
               .getOrElse( (ServiceConfiguration) null );
         } else {
-          final Iterable<ServiceConfiguration> configurations =
-              Components.services( compId ).filter( ServiceConfigurations.filterEnabled( ) );
-          res = Iterables.tryFind( configurations, ServiceConfigurations.filterHostLocal( ) )
-              .or( Iterables.tryFind( configurations, Predicates.alwaysTrue( ) ) )
-              .orNull( );
+          final Predicate<ServiceConfiguration> hostLocal = ServiceConfigurations.filterHostLocal( );
+          for ( final ServiceConfiguration configuration :
+              Components.services( compId ).filter( ServiceConfigurations.filterEnabled( ) ) ) {
+            if ( hostLocal.apply( configuration ) ) {
+              res = configuration;
+              break;
+            } else if ( res == null ) {
+              res = configuration;
+            }
+          }
         }
       } else {
-        res = Topology.getInstance( ).getServices( ).get( ServiceKey.create( compId, partition ) );
+        res = routes.get( ServiceKey.create( compId, partition ) );
         if ( res == null && !compId.equals( compId.partitionParent( ) ) && !compId.isAlwaysLocal( ) ) {
           try {
-            ServiceConfiguration parent = Topology.getInstance( ).getServices( ).get( ServiceKey.create( compId.partitionParent( ), null ) );
+            ServiceConfiguration parent = routes.get( ServiceKey.create( compId.partitionParent( ), null ) );
             Partition fakePartition = Partitions.lookupInternal( ServiceConfigurations.createEphemeral( compId, parent.getInetAddress( ) ) );
-            res = Topology.getInstance( ).getServices( ).get( ServiceKey.create( compId, fakePartition ) );
+            res = routes.get( ServiceKey.create( compId, fakePartition ) );
           } catch ( RuntimeException e ) {//these may throw runtime exceptions and the only thing that should propage out of lookup ever is NoSuchElementException
             res = null;
           }
         } else if ( res == null && ( compId.isAlwaysLocal( ) ||
             ( BootstrapArgs.isCloudController( ) && compId.isCloudLocal( ) && !compId.isRegisterable( ) ) ) ) {
-          res = Topology.getInstance( ).getServices( ).get( ServiceKey.create( ServiceConfigurations.createEphemeral( compId ) ) );
+          res = routes.get( ServiceKey.create( ServiceConfigurations.createEphemeral( compId ) ) );
         }
       }
       if ( res != null ) break;
     }
-    String err = "Failed to lookup ENABLED service of type " + compClass.getSimpleName( ) + ( partition != null ? " in partition " + partition : "." );
     if ( res == null ) {
-      throw new NoSuchElementException( err );
+      throw new NoSuchElementException( lookupFailure( compClass, partition ) );
     } else if ( !Component.State.ENABLED.apply( res ) ) {
-      throw new NoSuchElementException( err + "  Service is currently ENABLING." );
+      throw new NoSuchElementException( lookupFailure( compClass, partition ) + "  Service is currently ENABLING." );
     } else {
       return res;
     }
   }
 
+  /**
+   * Implementation components for an api, cached once any are registered.
+   */
+  private static List<ComponentId> apiComponentIds( final Class<? extends ComponentId> compClass ) {
+    final List<ComponentId> cached = apiComponentIds.get( compClass );
+    if ( cached != null ) {
+      return cached;
+    }
+    final List<ComponentId> compIds =
+        ImmutableList.copyOf( Stream.ofAll( ComponentIds.list( ) ).filter( comp -> comp.hasApi( compClass ) ) );
+    if ( !compIds.isEmpty( ) ) {
+      apiComponentIds.put( compClass, compIds );
+    }
+    return compIds;
+  }
+
+  private static String lookupFailure( final Class<? extends ComponentId> compClass, final Partition partition ) {
+    return "Failed to lookup ENABLED service of type " + compClass.getSimpleName( ) +
+        ( partition != null ? " in partition " + partition : "." );
+  }
+
   @Nonnull
   public static Iterable<ServiceConfiguration> lookupMany(
       final Class<? extends ComponentId> compClass,
@@ -1055,13 +1104,7 @@ public class Topology {
     } else {
       res = Collections.singleton( lookup( compClass, partition ) );
     }
-    String err = "Failed to lookup ENABLED service of type " + compClass.getSimpleName( ) +
-        ( partition != null ? " in partition " + partition : "." );
-    if ( res == null ) {
-      throw new NoSuchElementException( err );
-    } else {
-      return res;
-    }
+    return res;
   }
 
   @Nonnull
@@ -1093,7 +1136,7 @@ public class Topology {
   public static Collection<ServiceConfiguration> enabledServices( ) {
 	  //Union the two sets of services, the result may have duplicates!
 	  Collection<ServiceConfiguration> enabledServices = Lists.newArrayList();
-	  Collection<ServiceConfiguration> activePassiveServices = Topology.getInstance( ).services.values( );
+	  Collection<ServiceConfiguration> activePassiveServices = Topology.getInstance( ).getRoutes( ).values( );
 	  enabledServices.addAll(activePassiveServices);
 	  //Add the manyToOne services that have at least one enabled
 	  for(Component comp : Components.whichAreManyToOneEnabled() ) {
@@ -1108,7 +1151,17 @@ public class Topology {
   }
   
   public static boolean isEnabledLocally( final Class<? extends ComponentId> compClass ) {
-    return Iterables.any( Topology.enabledServices( compClass ), ServiceConfigurations.filterHostLocal( ) );
+    final Predicate<ServiceConfiguration> localComponentFilter =
+        Predicates.and( componentFilter( compClass ), ServiceConfigurations.filterHostLocal( ) );
+    if ( Iterables.any( Topology.getInstance( ).getRoutes( ).values( ), localComponentFilter ) ) {
+      return true;
+    }
+    for ( final Component comp : Components.whichAreManyToOneEnabled( ) ) {
+      if ( Iterables.any( comp.services( ), Predicates.and( State.ENABLED, localComponentFilter ) ) ) {
+        return true;
+      }
+    }
+    return false;
   }
   
   public static boolean isEnabled( final Class<? extends ComponentId> compClass ) {
@@ -44,6 +44,7 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.DiscriminatorColumn;
 import javax.persistence.Entity;
@@ -53,6 +54,8 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Table;
 
 import org.apache.log4j.Logger;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.eucalyptus.bootstrap.CanBootstrap;
 import com.eucalyptus.component.Component;
 import com.eucalyptus.component.Component.State;
@@ -86,6 +89,8 @@ import groovy.sql.Sql;
 @Table( name = "config_component_base" )
 @Inheritance( strategy = InheritanceType.SINGLE_TABLE )
 @DiscriminatorColumn(length = 255)
+@Cacheable
+@Cache( usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE )
 public class ComponentConfiguration extends AbstractPersistent implements ServiceConfiguration {
 
   private static final long serialVersionUID = 1L;
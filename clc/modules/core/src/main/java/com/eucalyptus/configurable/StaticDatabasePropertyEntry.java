@@ -42,6 +42,7 @@ package com.eucalyptus.configurable;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityTransaction;
@@ -49,6 +50,8 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Table;
 
 import org.apache.log4j.Logger;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 
 import com.eucalyptus.auth.principal.AccountIdentifiers;
@@ -70,6 +73,8 @@ import io.vavr.Tuple3;
 @Entity
 @PersistenceContext( name = "eucalyptus_config" )
 @Table( name = "config_static_property" )
+@Cacheable
+@Cache( usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE )
 public class StaticDatabasePropertyEntry extends AbstractPersistent {
   @Column( name = "config_static_field_name", nullable = false, unique = true )
   private String fieldName;
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * A pool of database connections.
+ *
+ * @see ConnectionPools
+ */
+public interface ConnectionPool {
+
+  String getAlias( );
+
+  /**
+   * Get a connection from the pool, the connection is returned to the pool when closed.
+   *
+   * @throws SQLException If a connection is not available within the acquisition timeout
+   */
+  Connection getConnection( ) throws SQLException;
+
+  /**
+   * The maximum number of connections for the pool.
+   */
+  int getMaximumSize( );
+
+  ConnectionPoolStatistics getStatistics( );
+
+  /**
+   * Add a listener that is notified when the pool becomes overloaded or unavailable (true) or
+   * recovers (false)
+   */
+  void addOverloadListener( Consumer<Boolean> listener );
+
+  void shutdown( );
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection acquisition metrics for a pool or for a persistence context using a pool.
+ */
+public final class ConnectionPoolMetrics {
+
+  private final String name;
+  private final AtomicInteger active = new AtomicInteger( );
+  private final AtomicLong acquisitions = new AtomicLong( );
+  private final AtomicLong waitNanos = new AtomicLong( );
+  private final AtomicLong maximumWaitNanos = new AtomicLong( );
+  private final AtomicLong timeouts = new AtomicLong( );
+  private final AtomicLong leaks = new AtomicLong( );
+
+  public ConnectionPoolMetrics( final String name ) {
+    this.name = name;
+  }
+
+  public String getName( ) {
+    return name;
+  }
+
+  public int getActive( ) {
+    return active.get( );
+  }
+
+  public void acquired( final long waitNanos ) {
+    active.incrementAndGet( );
+    acquisitions.incrementAndGet( );
+    waited( waitNanos );
+  }
+
+  public void released( ) {
+    active.decrementAndGet( );
+  }
+
+  public void timedOut( final long waitNanos ) {
+    timeouts.incrementAndGet( );
+    waited( waitNanos );
+  }
+
+  public void leaked( ) {
+    leaks.incrementAndGet( );
+  }
+
+  /**
+   * Snapshot the metrics.
+   *
+   * @param idle The idle connection count for the pool
+   */
+  public ConnectionPoolStatistics snapshot( final int active, final int idle ) {
+    final long acquisitions = this.acquisitions.get( );
+    final long waits = acquisitions + timeouts.get( );
+    return new ConnectionPoolStatistics(
+        name,
+        active,
+        idle,
+        acquisitions,
+        waits == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis( waitNanos.get( ) / waits ),
+        TimeUnit.NANOSECONDS.toMillis( maximumWaitNanos.get( ) ),
+        timeouts.get( ),
+        leaks.get( ) );
+  }
+
+  public ConnectionPoolStatistics snapshot( final int idle ) {
+    return snapshot( getActive( ), idle );
+  }
+
+  private void waited( final long nanos ) {
+    waitNanos.addAndGet( nanos );
+    maximumWaitNanos.accumulateAndGet( nanos, Math::max );
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Connection statistics for a pool or for a persistence context using a pool.
+ */
+public final class ConnectionPoolStatistics {
+
+  private final String name;
+  private final int active;
+  private final int idle;
+  private final long acquisitions;
+  private final long averageWaitMillis;
+  private final long maximumWaitMillis;
+  private final long timeouts;
+  private final long leaks;
+
+  public ConnectionPoolStatistics(
+      final String name,
+      final int active,
+      final int idle,
+      final long acquisitions,
+      final long averageWaitMillis,
+      final long maximumWaitMillis,
+      final long timeouts,
+      final long leaks
+  ) {
+    this.name = name;
+    this.active = active;
+    this.idle = idle;
+    this.acquisitions = acquisitions;
+    this.averageWaitMillis = averageWaitMillis;
+    this.maximumWaitMillis = maximumWaitMillis;
+    this.timeouts = timeouts;
+    this.leaks = leaks;
+  }
+
+  /**
+   * The pool alias or persistence context name
+   */
+  public String getName( ) {
+    return name;
+  }
+
+  /**
+   * Connections currently in use
+   */
+  public int getActive( ) {
+    return active;
+  }
+
+  /**
+   * Idle connections, for a persistence context these are the idle connections of the pool
+   */
+  public int getIdle( ) {
+    return idle;
+  }
+
+  public long getAcquisitions( ) {
+    return acquisitions;
+  }
+
+  public long getAverageWaitMillis( ) {
+    return averageWaitMillis;
+  }
+
+  public long getMaximumWaitMillis( ) {
+    return maximumWaitMillis;
+  }
+
+  /**
+   * Acquisitions that failed due to timeout
+   */
+  public long getTimeouts( ) {
+    return timeouts;
+  }
+
+  /**
+   * Connections detected as held beyond the leak threshold
+   */
+  public long getLeaks( ) {
+    return leaks;
+  }
+
+  public String toString( ) {
+    return MoreObjects.toStringHelper( this )
+        .add( "name", getName( ) )
+        .add( "active", getActive( ) )
+        .add( "idle", getIdle( ) )
+        .add( "acquisitions", getAcquisitions( ) )
+        .add( "average-wait-ms", getAverageWaitMillis( ) )
+        .add( "maximum-wait-ms", getMaximumWaitMillis( ) )
+        .add( "timeouts", getTimeouts( ) )
+        .add( "leaks", getLeaks( ) )
+        .toString( );
+  }
+}
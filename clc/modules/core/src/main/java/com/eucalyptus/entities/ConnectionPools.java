@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import org.apache.log4j.Logger;
+import com.eucalyptus.entities.impl.BoundedConnectionPool;
+import com.eucalyptus.entities.impl.ProxoolConnectionPool;
+import com.eucalyptus.util.Pair;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Registry of database connection pools.
+ *
+ * <p>The pool implementation for a database is selected at startup using the system property
+ * <code>com.eucalyptus.entities.connectionPool.DATABASE</code> or the default from
+ * <code>com.eucalyptus.entities.connectionPool</code>, one of <code>proxool</code> (the default)
+ * or <code>bounded</code>.</p>
+ *
+ * <p>Pool properties are:</p>
+ * <ul>
+ *   <li><code>driver</code> - the JDBC driver class</li>
+ *   <li><code>user</code> / <code>password</code> - database credentials</li>
+ *   <li><code>maximumSize</code> - maximum connections for the pool</li>
+ *   <li><code>minimumIdle</code> - idle connections to retain</li>
+ *   <li><code>acquireTimeoutMillis</code> - maximum wait for a connection</li>
+ *   <li><code>leakThresholdMillis</code> - connection use reported as a leak</li>
+ *   <li><code>proxool.*</code> - proxool specific properties</li>
+ * </ul>
+ */
+public final class ConnectionPools {
+
+  private static final Logger logger = Logger.getLogger( ConnectionPools.class );
+
+  public static final String PROXOOL = "proxool";
+  public static final String BOUNDED = "bounded";
+
+  private static final String POOL_PROPERTY = "com.eucalyptus.entities.connectionPool";
+
+  private static final Map<String, ConnectionPool> pools = Maps.newConcurrentMap( );
+  private static final Map<String, Pair<ConnectionPoolMetrics, String>> contexts = Maps.newConcurrentMap( );
+
+  /**
+   * The pool implementation to use for the given database.
+   */
+  public static String implementation( final String databaseName ) {
+    return System.getProperty( POOL_PROPERTY + "." + databaseName, System.getProperty( POOL_PROPERTY, PROXOOL ) );
+  }
+
+  /**
+   * Create and register a connection pool.
+   *
+   * @param alias The pool alias
+   * @param databaseName The database name, used to select the pool implementation
+   * @param jdbcUrl The database url
+   * @param properties The pool properties
+   * @return The pool
+   */
+  public static ConnectionPool register(
+      final String alias,
+      final String databaseName,
+      final String jdbcUrl,
+      final Properties properties
+  ) {
+    final String implementation = implementation( databaseName );
+    final ConnectionPool pool;
+    switch ( implementation ) {
+      case PROXOOL:
+        pool = new ProxoolConnectionPool( alias, jdbcUrl, properties );
+        break;
+      case BOUNDED:
+        pool = new BoundedConnectionPool( alias, jdbcUrl, properties );
+        break;
+      default:
+        throw new IllegalArgumentException( "Unknown connection pool implementation " + implementation + " for " + alias );
+    }
+    logger.info( "Registered " + implementation + " connection pool " + alias );
+    final ConnectionPool previous = pools.put( alias, pool );
+    if ( previous != null ) {
+      previous.shutdown( );
+    }
+    return pool;
+  }
+
+  public static ConnectionPool lookup( final String alias ) throws NoSuchElementException {
+    final ConnectionPool pool = pools.get( alias );
+    if ( pool == null ) {
+      throw new NoSuchElementException( "Connection pool not found " + alias );
+    }
+    return pool;
+  }
+
+  public static Collection<ConnectionPool> list( ) {
+    return ImmutableList.copyOf( pools.values( ) );
+  }
+
+  /**
+   * Get the metrics for a persistence context.
+   *
+   * @param context The persistence context
+   * @param alias The alias of the pool used by the context
+   */
+  public static ConnectionPoolMetrics contextMetrics( final String context, final String alias ) {
+    return contexts.computeIfAbsent( context, __ -> Pair.pair( new ConnectionPoolMetrics( context ), alias ) ).getLeft( );
+  }
+
+  /**
+   * Statistics for each pool.
+   */
+  public static List<ConnectionPoolStatistics> statistics( ) {
+    final List<ConnectionPoolStatistics> statistics = Lists.newArrayList( );
+    for ( final ConnectionPool pool : pools.values( ) ) {
+      statistics.add( pool.getStatistics( ) );
+    }
+    return statistics;
+  }
+
+  /**
+   * Statistics for each persistence context.
+   */
+  public static List<ConnectionPoolStatistics> contextStatistics( ) {
+    final List<ConnectionPoolStatistics> statistics = Lists.newArrayList( );
+    for ( final Pair<ConnectionPoolMetrics, String> contextMetrics : contexts.values( ) ) {
+      final ConnectionPool pool = pools.get( contextMetrics.getRight( ) );
+      statistics.add( contextMetrics.getLeft( ).snapshot( pool == null ? 0 : pool.getStatistics( ).getIdle( ) ) );
+    }
+    return statistics;
+  }
+
+  public static void shutdown( ) {
+    for ( final ConnectionPool pool : list( ) ) try {
+      pool.shutdown( );
+    } catch ( final RuntimeException e ) {
+      logger.error( "Error shutting down connection pool " + pool.getAlias( ), e );
+    }
+    pools.clear( );
+  }
+}
@@ -47,8 +47,17 @@ import org.hibernate.Interceptor;
 import org.hibernate.Transaction;
 import org.hibernate.type.Type;
 
+/**
+ * Session interceptor delegating to the configured interceptor.
+ *
+ * <p>Statements, loads and flushes are recorded in the profile for the transaction begun on the
+ * session.</p>
+ *
+ * @see TransactionProfiles
+ */
 public class DelegatingInterceptor implements Interceptor {
   private final Interceptor interceptor;
+  private TransactionProfiles.Profile profile;
   
   public DelegatingInterceptor( ) {
     this.interceptor = Interceptors.get( );
@@ -60,6 +69,9 @@ public class DelegatingInterceptor implements Interceptor {
   }
   
   public boolean onLoad( Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types ) throws CallbackException {
+    if ( this.profile != null ) {
+      this.profile.loaded( );
+    }
     return this.interceptor.onLoad( entity, id, state, propertyNames, types );
   }
   
@@ -88,11 +100,17 @@ public class DelegatingInterceptor implements Interceptor {
   }
   
   public void preFlush( Iterator entities ) throws CallbackException {
+    if ( this.profile != null ) {
+      this.profile.flushStarted( );
+    }
     this.interceptor.preFlush( entities );
   }
   
   public void postFlush( Iterator entities ) throws CallbackException {
     this.interceptor.postFlush( entities );
+    if ( this.profile != null ) {
+      this.profile.flushed( );
+    }
   }
   
   public Boolean isTransient( Object entity ) {
@@ -116,6 +134,7 @@ public class DelegatingInterceptor implements Interceptor {
   }
   
   public void afterTransactionBegin( Transaction tx ) {
+    this.profile = Entities.startingTransactionProfile( );
     this.interceptor.afterTransactionBegin( tx );
   }
   
@@ -125,9 +144,13 @@ public class DelegatingInterceptor implements Interceptor {
   
   public void afterTransactionCompletion( Transaction tx ) {
     this.interceptor.afterTransactionCompletion( tx );
+    this.profile = null;
   }
   
   public String onPrepareStatement( String sql ) {
+    if ( this.profile != null ) {
+      this.profile.statement( );
+    }
     return this.interceptor.onPrepareStatement( sql );
   }
   
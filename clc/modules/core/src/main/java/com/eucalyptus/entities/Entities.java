@@ -94,6 +94,7 @@ import org.hibernate.collection.internal.AbstractPersistentCollection;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Example;
 import org.hibernate.criterion.MatchMode;
+import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
@@ -118,6 +119,7 @@ import com.eucalyptus.util.LogUtil;
 import com.eucalyptus.util.NonNullFunction;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
+import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
@@ -142,6 +144,7 @@ public class Entities {
   private static Cache<String, String>                           txLog                     = CacheBuilder.newBuilder().weakKeys().softValues().build(); // No softKeys available for CacheBuilder
   private static Logger                                          LOG                       = Logger.getLogger( Entities.class );
   private static ThreadLocal<String>                             txRootThreadLocal         = new ThreadLocal<>( );
+  private static ThreadLocal<TxRecord>                           txStartingThreadLocal     = new ThreadLocal<>( );
   private static ThreadLocal<ConcurrentMap<String, CascadingTx>> txStateThreadLocal        = new ThreadLocal<ConcurrentMap<String, CascadingTx>>( ) {
 
                                                                                              @Override
@@ -207,6 +210,31 @@ public class Entities {
     }
   }
 
+  /**
+   * Describe the transaction that is starting on the current thread.
+   *
+   * <p>Connections are acquired when a transaction starts so this identifies the owner of a
+   * connection. The description is only formatted when the supplier is called.</p>
+   *
+   * @return The description supplier or null if no transaction is starting
+   */
+  @Nullable
+  public static Supplier<String> startingTransactionOwner( ) {
+    final TxRecord record = txStartingThreadLocal.get( );
+    return record == null ?
+        null :
+        ( ) -> record.getPersistenceContext( ) + " transaction " + record.getUuid( ) + " started at:\n" + record.getStack( );
+  }
+
+  /**
+   * Get the profile for the transaction that is starting on the current thread.
+   */
+  @Nullable
+  static TransactionProfiles.Profile startingTransactionProfile( ) {
+    final TxRecord record = txStartingThreadLocal.get( );
+    return record == null ? null : record.getProfile( );
+  }
+
   private static String makeTxRootName( final CascadingTx tx ) {
     return txStateThreadLocal.toString( ) + tx.getRecord( ).getPersistenceContext( );
   }
@@ -215,7 +243,12 @@ public class Entities {
     final String ctx = lookatPersistenceContext( obj );
     final CascadingTx ret = new CascadingTx( ctx );
     try {
-      ret.begin( );
+      txStartingThreadLocal.set( ret.getRecord( ) );
+      try {
+        ret.begin( );
+      } finally {
+        txStartingThreadLocal.remove( );
+      }
       if ( txRootThreadLocal.get( ) == null ) {
         final String txId = makeTxRootName( ret );
         LOG.trace( "Creating root entry for transaction tree: " + txId + " at: \n" + ret.getRecord().getStack() );
@@ -422,11 +455,21 @@ public class Entities {
    * <p>This will fail if there is already an active transaction for the
    * requested context.</p>
    *
+   * <p>The transaction may use a read replica if configured for the
+   * context.</p>
+   *
    * @param obj The object used to determine the transaction context
    * @return the TransactionResource
+   * @see PersistenceReadReplicas
    */
   public static TransactionResource readOnlyDistinctTransactionFor( final Object obj ) {
-    final TransactionResource tx = distinctTransactionFor( obj );
+    final TransactionResource tx;
+    PersistenceReadReplicas.setReadOnlyRequested( true );
+    try {
+      tx = distinctTransactionFor( obj );
+    } finally {
+      PersistenceReadReplicas.setReadOnlyRequested( false );
+    }
     readOnly( obj );
     return tx;
   }
@@ -600,6 +643,44 @@ public class Entities {
     return Lists.newArrayList( Sets.newHashSet( resultList ) );
   }
 
+  /**
+   * Query a page of items matching the given example restricted by the given criterion.
+   *
+   * <P>The caller must have an active transaction for the entity.</P>
+   *
+   * @param example The example object
+   * @param readOnly Use True if the results will not be modified
+   * @param criterion Additional restrictions for the query
+   * @param aliases Any aliases necessary for the given criterion
+   * @param order The order for the results
+   * @param maxResults The maximum number of rows to query
+   * @param <T> The entity type
+   * @return The result list, in order
+   */
+  @SuppressWarnings( { "unchecked", "cast" } )
+  public static <T> List<T> query( final T example,
+                                   final boolean readOnly,
+                                   final Criterion criterion,
+                                   final Map<String,String> aliases,
+                                   final Order order,
+                                   final int maxResults ) {
+    final Example qbe = Example.create( example );
+    final Criteria criteria = getTransaction( example ).getTxState( ).getSession( )
+        .createCriteria( example.getClass( ) )
+        .setReadOnly( readOnly )
+        .setResultTransformer( Criteria.DISTINCT_ROOT_ENTITY )
+        .add( qbe )
+        .add( criterion )
+        .addOrder( order )
+        .setMaxResults( maxResults )
+        .setFetchSize( maxResults );
+    for ( final Map.Entry<String,String> aliasEntry : aliases.entrySet() ) {
+      criteria.createAlias( aliasEntry.getKey( ), aliasEntry.getValue( ) );
+    }
+    final List<T> resultList = ( List<T> ) criteria.list( );
+    return Lists.newArrayList( Sets.newLinkedHashSet( resultList ) );
+  }
+
   /**
    * @see #query(T,QueryOptions)
    */
@@ -1254,6 +1335,8 @@ public class Entities {
         } catch ( final RuntimeException ex ) {
           Logs.extreme( ).error( ex );
 //          throw PersistenceExceptions.throwFiltered( ex );
+        } finally {
+          this.record.complete( );
         }
       } else {
         Logs.extreme( ).debug( "Duplicate call to rollback( )" );
@@ -1271,7 +1354,12 @@ public class Entities {
         try {
           this.txState.commit( );
         } catch ( final RuntimeException ex ) {
+          if ( this.record.getProfile( ) != null && PersistenceExceptions.isStaleUpdate( ex ) ) {
+            this.record.getProfile( ).conflict( );
+          }
           throw PersistenceExceptions.throwFiltered( ex );
+        } finally {
+          this.record.complete( );
         }
       } else if ( Logs.isExtrrreeeme( ) ) {
         Logs.extreme( ).error( "Duplicate call to commit( ): " + Threads.currentStackString( ) );
@@ -1472,15 +1560,18 @@ public class Entities {
   }
 
   public static class TxRecord {
-    private final String            persistenceContext;
-    private final String            uuid;
-    private final Long              startTime;
-    private final String            stack;
+    private final String                       persistenceContext;
+    private final String                       uuid;
+    private final Long                         startTime;
+    private final StackTraceElement[]          stack;
+    private final TransactionProfiles.Profile  profile;
 
     TxRecord( final String persistenceContext, final String uuid ) {
       this.persistenceContext = persistenceContext;
       this.uuid = uuid;
-      this.stack = Threads.currentStackRange( 0, 32 );
+      final StackTraceElement[] currentStack = Thread.currentThread( ).getStackTrace( );
+      this.stack = Arrays.copyOfRange( currentStack, Math.min( 1, currentStack.length ), Math.min( 33, currentStack.length ) );
+      this.profile = TransactionProfiles.start( this.stack );
       this.startTime = System.currentTimeMillis( );
     }
 
@@ -1497,7 +1588,18 @@ public class Entities {
     }
 
     String getStack( ) {
-      return this.stack;
+      return Joiner.on( "\t\n" ).join( this.stack );
+    }
+
+    @Nullable
+    TransactionProfiles.Profile getProfile( ) {
+      return this.profile;
+    }
+
+    void complete( ) {
+      if ( this.profile != null ) {
+        this.profile.complete( );
+      }
     }
 
   }
@@ -1567,6 +1669,7 @@ public class Entities {
           if ( stale != null ) try {
             Entities.evictCache( Class.forName( stale.getEntityName( ) ) );
           } catch ( ClassNotFoundException e ) { /* eviction failure */ }
+          TransactionProfiles.retried( );
           try {
             TimeUnit.MILLISECONDS.sleep( 20 );
           } catch ( InterruptedException ex1 ) {
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import com.google.common.base.CharMatcher;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.net.HostAndPort;
+import com.google.common.primitives.Longs;
+
+/**
+ * Configuration and state for routing read-only transactions to streaming replicas.
+ *
+ * <p>Replicas are configured per persistence context using the system property
+ * <code>com.eucalyptus.entities.readReplicas.CONTEXT</code> with a default for all contexts from
+ * <code>com.eucalyptus.entities.readReplicas</code>. The value is a comma separated list of
+ * <code>host[:port]</code>, an empty value disables replicas for the context.</p>
+ *
+ * <p>A replica is only used while its replication lag is below
+ * <code>com.eucalyptus.entities.readReplicaMaxLagMillis</code>, otherwise read-only transactions
+ * use the primary.</p>
+ */
+public final class PersistenceReadReplicas {
+
+  private static final String REPLICAS_PROPERTY = "com.eucalyptus.entities.readReplicas";
+  private static final long MAX_LAG_MILLIS =
+      MoreObjects.firstNonNull( Longs.tryParse( System.getProperty( "com.eucalyptus.entities.readReplicaMaxLagMillis", "" ) ), 5_000L );
+  private static final long LAG_CHECK_MILLIS =
+      MoreObjects.firstNonNull( Longs.tryParse( System.getProperty( "com.eucalyptus.entities.readReplicaLagCheckMillis", "" ) ), 5_000L );
+  private static final int DEFAULT_PORT = 5432;
+
+  private static final ThreadLocal<Boolean> readOnlyRequested = new ThreadLocal<>( );
+  private static final Map<String, ReplicaTarget> targets = Maps.newConcurrentMap( );
+
+  /**
+   * The replicas for the given persistence context.
+   */
+  public static List<HostAndPort> replicas( final String context ) {
+    final String value = System.getProperty( REPLICAS_PROPERTY + "." + context, System.getProperty( REPLICAS_PROPERTY, "" ) );
+    return parse( value );
+  }
+
+  /**
+   * The replicas for all persistence contexts using the given database.
+   */
+  public static Set<HostAndPort> replicasForDatabase( final String databaseName ) {
+    final Set<HostAndPort> replicas = Sets.newLinkedHashSet( );
+    for ( final String context : PersistenceContexts.list( ) ) {
+      if ( databaseName.equals( PersistenceContexts.toDatabaseName( ).apply( context ) ) ) {
+        replicas.addAll( replicas( context ) );
+      }
+    }
+    return replicas;
+  }
+
+  /**
+   * The connection pool alias for a database replica.
+   */
+  public static String poolAlias( final String databaseName, final HostAndPort replica ) {
+    return databaseName + "_replica_" +
+        CharMatcher.javaLetterOrDigit( ).negate( ).replaceFrom( replica.getHost( ), '_' ) + "_" +
+        replica.getPortOrDefault( DEFAULT_PORT );
+  }
+
+  public static int port( final HostAndPort replica ) {
+    return replica.getPortOrDefault( DEFAULT_PORT );
+  }
+
+  /**
+   * Get the routing state for the replica pool, targets are shared by contexts using the pool.
+   */
+  public static ReplicaTarget target( final String poolAlias ) {
+    return targets.computeIfAbsent( poolAlias, ReplicaTarget::new );
+  }
+
+  /**
+   * Statistics for each replica connection pool.
+   */
+  public static List<ReplicaTarget> statistics( ) {
+    return ImmutableList.copyOf( targets.values( ) );
+  }
+
+  /**
+   * Is a read-only connection requested for the current thread.
+   */
+  public static boolean isReadOnlyRequested( ) {
+    return Boolean.TRUE.equals( readOnlyRequested.get( ) );
+  }
+
+  static void setReadOnlyRequested( final boolean readOnly ) {
+    if ( readOnly ) {
+      readOnlyRequested.set( true );
+    } else {
+      readOnlyRequested.remove( );
+    }
+  }
+
+  static List<HostAndPort> parse( final String value ) {
+    final List<HostAndPort> replicas = Lists.newArrayList( );
+    for ( final String replica : Splitter.on( ',' ).trimResults( ).omitEmptyStrings( ).split( Strings.nullToEmpty( value ) ) ) {
+      replicas.add( HostAndPort.fromString( replica ) );
+    }
+    return ImmutableList.copyOf( replicas );
+  }
+
+  /**
+   * Routing state and statistics for a replica connection pool.
+   */
+  public static final class ReplicaTarget {
+    private final String poolAlias;
+    private final AtomicLong connections = new AtomicLong( );
+    private final AtomicLong failures = new AtomicLong( );
+    private final AtomicLong lagRejections = new AtomicLong( );
+    private final AtomicBoolean checking = new AtomicBoolean( );
+    private volatile long lagMillis = -1;
+    private volatile long nextCheck;
+    private volatile boolean usable;
+
+    private ReplicaTarget( final String poolAlias ) {
+      this.poolAlias = poolAlias;
+    }
+
+    public String getPoolAlias( ) {
+      return poolAlias;
+    }
+
+    public long getConnections( ) {
+      return connections.get( );
+    }
+
+    public long getFailures( ) {
+      return failures.get( );
+    }
+
+    /**
+     * Connections that used the primary due to replication lag or an unavailable replica.
+     */
+    public long getLagRejections( ) {
+      return lagRejections.get( );
+    }
+
+    /**
+     * Replication lag at the last check, -1 if not known
+     */
+    public long getLagMillis( ) {
+      return lagMillis;
+    }
+
+    public boolean isUsable( ) {
+      return usable;
+    }
+
+    /**
+     * Should the lag be checked, true for only one caller per check interval.
+     */
+    public boolean isCheckDue( ) {
+      return System.currentTimeMillis( ) >= nextCheck && checking.compareAndSet( false, true );
+    }
+
+    /**
+     * Record the result of a lag check.
+     *
+     * @param lagMillis The replication lag or null if not known
+     */
+    public void checked( final Long lagMillis ) {
+      this.lagMillis = lagMillis == null ? -1 : lagMillis;
+      this.usable = lagMillis != null && lagMillis <= MAX_LAG_MILLIS;
+      this.nextCheck = System.currentTimeMillis( ) + LAG_CHECK_MILLIS;
+      checking.set( false );
+    }
+
+    public void connected( ) {
+      connections.incrementAndGet( );
+    }
+
+    public void failed( ) {
+      failures.incrementAndGet( );
+      usable = false;
+      nextCheck = System.currentTimeMillis( ) + LAG_CHECK_MILLIS;
+      checking.set( false );
+    }
+
+    public void rejected( ) {
+      lagRejections.incrementAndGet( );
+    }
+
+    @Override
+    public String toString( ) {
+      return MoreObjects.toStringHelper( this )
+          .add( "pool", getPoolAlias( ) )
+          .add( "connections", getConnections( ) )
+          .add( "failures", getFailures( ) )
+          .add( "lag-rejections", getLagRejections( ) )
+          .add( "lag-ms", getLagMillis( ) )
+          .add( "usable", isUsable( ) )
+          .toString( );
+    }
+  }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+/**
+ * Transaction profiles by call site.
+ *
+ * <p>The call site for a transaction is the first stack frame outside of the entities framework
+ * when the transaction is created. For each call site the time the transaction is open, the
+ * number of statements prepared, the number of entities loaded and the time spent flushing are
+ * recorded in histograms along with stale update conflicts and retries.</p>
+ *
+ * <p>Profiling is enabled by default and can be disabled using the system property
+ * {@code com.eucalyptus.entities.transactionProfiling=false}.</p>
+ */
+public final class TransactionProfiles {
+
+  private static final boolean ENABLED =
+      Boolean.valueOf( System.getProperty( "com.eucalyptus.entities.transactionProfiling", "true" ) );
+  private static final int MAX_CALL_SITES = 10_000;
+  private static final String[] FRAMEWORK_PREFIXES = {
+      "com.eucalyptus.entities.Entities",
+      "com.eucalyptus.entities.TransactionResource",
+      "com.eucalyptus.entities.Transactions",
+      "com.eucalyptus.entities.TransactionProfiles",
+      "com.google.common.",
+      "groovy.",
+      "java.",
+      "jdk.",
+      "org.codehaus.groovy.",
+      "sun.",
+  };
+
+  private static final ConcurrentMap<String, CallSiteProfile> profiles = Maps.newConcurrentMap( );
+  private static final ThreadLocal<CallSiteProfile> lastCompleted = new ThreadLocal<>( );
+
+  public enum Metric {
+    OPEN_TIME( CallSiteStatistics::getOpenMicros ),
+    STATEMENTS( CallSiteStatistics::getStatements ),
+    ROWS_LOADED( CallSiteStatistics::getRowsLoaded ),
+    FLUSH_TIME( CallSiteStatistics::getFlushMicros ),
+    CONFLICTS( CallSiteStatistics::getConflicts ),
+    RETRIES( CallSiteStatistics::getRetries ),
+    ;
+
+    private final ToLongFunction<CallSiteStatistics> total;
+
+    Metric( final ToLongFunction<CallSiteStatistics> total ) {
+      this.total = total;
+    }
+  }
+
+  private TransactionProfiles( ) {
+  }
+
+  public static boolean isEnabled( ) {
+    return ENABLED;
+  }
+
+  /**
+   * Get the call sites with the highest totals for the given metric.
+   *
+   * @param metric The metric to order by
+   * @param limit The maximum number of call sites
+   * @return The statistics, highest first
+   */
+  public static List<CallSiteStatistics> top( final Metric metric, final int limit ) {
+    return ImmutableList.copyOf( profiles.values( ).stream( )
+        .map( CallSiteProfile::snapshot )
+        .sorted( Comparator.comparingLong( metric.total ).reversed( ) )
+        .limit( limit )
+        .collect( Collectors.toList( ) ) );
+  }
+
+  public static void reset( ) {
+    profiles.clear( );
+  }
+
+  /**
+   * Record a retry of the transaction that most recently completed on the current thread.
+   */
+  public static void retried( ) {
+    final CallSiteProfile profile = lastCompleted.get( );
+    if ( profile != null ) {
+      profile.retries.increment( );
+    }
+  }
+
+  /**
+   * Start profiling a transaction.
+   *
+   * @param stack The stack for the thread creating the transaction
+   * @return The profile or null if not profiling
+   */
+  @Nullable
+  static Profile start( final StackTraceElement[] stack ) {
+    if ( !ENABLED ) {
+      return null;
+    }
+    final String callSite = callSite( stack );
+    CallSiteProfile callSiteProfile = profiles.get( callSite );
+    if ( callSiteProfile == null ) {
+      if ( profiles.size( ) >= MAX_CALL_SITES ) {
+        return null;
+      }
+      callSiteProfile = new CallSiteProfile( callSite );
+      final CallSiteProfile existing = profiles.putIfAbsent( callSite, callSiteProfile );
+      if ( existing != null ) {
+        callSiteProfile = existing;
+      }
+    }
+    return new Profile( callSiteProfile );
+  }
+
+  static String callSite( final StackTraceElement[] stack ) {
+    for ( final StackTraceElement element : stack ) {
+      if ( !isFramework( element.getClassName( ) ) ) {
+        return element.getClassName( ) + "." + element.getMethodName( );
+      }
+    }
+    return "unknown";
+  }
+
+  private static boolean isFramework( final String className ) {
+    for ( final String prefix : FRAMEWORK_PREFIXES ) {
+      if ( className.startsWith( prefix ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Profile for a single transaction, used from the thread owning the transaction.
+   */
+  static final class Profile {
+    private final CallSiteProfile callSiteProfile;
+    private final long start = System.nanoTime( );
+    private long statements;
+    private long rowsLoaded;
+    private long flushNanos;
+    private long flushStart;
+    private boolean conflict;
+    private boolean complete;
+
+    private Profile( final CallSiteProfile callSiteProfile ) {
+      this.callSiteProfile = callSiteProfile;
+    }
+
+    void statement( ) {
+      statements++;
+    }
+
+    void loaded( ) {
+      rowsLoaded++;
+    }
+
+    void flushStarted( ) {
+      flushStart = System.nanoTime( );
+    }
+
+    void flushed( ) {
+      if ( flushStart != 0 ) {
+        flushNanos += System.nanoTime( ) - flushStart;
+        flushStart = 0;
+      }
+    }
+
+    void conflict( ) {
+      conflict = true;
+    }
+
+    void complete( ) {
+      if ( !complete ) {
+        complete = true;
+        callSiteProfile.record( this );
+        lastCompleted.set( callSiteProfile );
+      }
+    }
+  }
+
+  private static final class CallSiteProfile {
+    private final String callSite;
+    private final Histogram openMicros = new Histogram( );
+    private final Histogram statements = new Histogram( );
+    private final Histogram rowsLoaded = new Histogram( );
+    private final Histogram flushMicros = new Histogram( );
+    private final LongAdder conflicts = new LongAdder( );
+    private final LongAdder retries = new LongAdder( );
+
+    private CallSiteProfile( final String callSite ) {
+      this.callSite = callSite;
+    }
+
+    private void record( final Profile profile ) {
+      openMicros.record( TimeUnit.NANOSECONDS.toMicros( System.nanoTime( ) - profile.start ) );
+      statements.record( profile.statements );
+      rowsLoaded.record( profile.rowsLoaded );
+      flushMicros.record( TimeUnit.NANOSECONDS.toMicros( profile.flushNanos ) );
+      if ( profile.conflict ) {
+        conflicts.increment( );
+      }
+    }
+
+    private CallSiteStatistics snapshot( ) {
+      return new CallSiteStatistics(
+          callSite,
+          openMicros.snapshot( ),
+          statements.snapshot( ),
+          rowsLoaded.snapshot( ),
+          flushMicros.snapshot( ),
+          conflicts.sum( ),
+          retries.sum( ) );
+    }
+  }
+
+  /**
+   * Histogram with power of two buckets.
+   */
+  static final class Histogram {
+    private static final int BUCKETS = 64;
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+    private final LongAdder count = new LongAdder( );
+    private final LongAdder sum = new LongAdder( );
+    private volatile long max;
+
+    void record( final long value ) {
+      final long positive = Math.max( 0, value );
+      buckets.incrementAndGet( BUCKETS - Long.numberOfLeadingZeros( positive ) ); // values up to 2^i-1 in bucket i
+      count.increment( );
+      sum.add( positive );
+      if ( positive > max ) {
+        max = positive; // racy but only used for reporting
+      }
+    }
+
+    HistogramSnapshot snapshot( ) {
+      final long[] values = new long[ BUCKETS ];
+      for ( int i = 0; i < BUCKETS; i++ ) {
+        values[ i ] = buckets.get( i );
+      }
+      return new HistogramSnapshot( values, count.sum( ), sum.sum( ), max );
+    }
+  }
+
+  public static final class HistogramSnapshot {
+    private final long[] buckets;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    private HistogramSnapshot( final long[] buckets, final long count, final long total, final long max ) {
+      this.buckets = buckets;
+      this.count = count;
+      this.total = total;
+      this.max = max;
+    }
+
+    public long getCount( ) {
+      return count;
+    }
+
+    public long getTotal( ) {
+      return total;
+    }
+
+    public long getMax( ) {
+      return max;
+    }
+
+    public long getMean( ) {
+      return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * Get an upper bound for the value at the given percentile.
+     *
+     * @param percentile The percentile, e.g. 99.0
+     * @return The upper bound of the bucket containing the percentile
+     */
+    public long getPercentile( final double percentile ) {
+      final long target = (long) Math.ceil( count * percentile / 100d );
+      long seen = 0;
+      for ( int i = 0; i < buckets.length; i++ ) {
+        seen += buckets[ i ];
+        if ( seen >= Math.max( 1, target ) ) {
+          return Math.min( max, i == 0 ? 0 : ( 1L << i ) - 1 );
+        }
+      }
+      return max;
+    }
+
+    @Override
+    public String toString( ) {
+      return MoreObjects.toStringHelper( "" )
+          .add( "count", count )
+          .add( "mean", getMean( ) )
+          .add( "p99", getPercentile( 99 ) )
+          .add( "max", max )
+          .toString( );
+    }
+  }
+
+  public static final class CallSiteStatistics {
+    private final String callSite;
+    private final HistogramSnapshot openMicros;
+    private final HistogramSnapshot statements;
+    private final HistogramSnapshot rowsLoaded;
+    private final HistogramSnapshot flushMicros;
+    private final long conflicts;
+    private final long retries;
+
+    private CallSiteStatistics(
+        final String callSite,
+        final HistogramSnapshot openMicros,
+        final HistogramSnapshot statements,
+        final HistogramSnapshot rowsLoaded,
+        final HistogramSnapshot flushMicros,
+        final long conflicts,
+        final long retries
+    ) {
+      this.callSite = callSite;
+      this.openMicros = openMicros;
+      this.statements = statements;
+      this.rowsLoaded = rowsLoaded;
+      this.flushMicros = flushMicros;
+      this.conflicts = conflicts;
+      this.retries = retries;
+    }
+
+    /**
+     * The caller class and method
+     */
+    public String getCallSite( ) {
+      return callSite;
+    }
+
+    public long getTransactions( ) {
+      return openMicros.getCount( );
+    }
+
+    public HistogramSnapshot getOpenTime( ) {
+      return openMicros;
+    }
+
+    public HistogramSnapshot getStatementCounts( ) {
+      return statements;
+    }
+
+    public HistogramSnapshot getRowsLoadedCounts( ) {
+      return rowsLoaded;
+    }
+
+    public HistogramSnapshot getFlushTime( ) {
+      return flushMicros;
+    }
+
+    public long getConflicts( ) {
+      return conflicts;
+    }
+
+    public long getRetries( ) {
+      return retries;
+    }
+
+    long getOpenMicros( ) {
+      return openMicros.getTotal( );
+    }
+
+    long getStatements( ) {
+      return statements.getTotal( );
+    }
+
+    long getRowsLoaded( ) {
+      return rowsLoaded.getTotal( );
+    }
+
+    long getFlushMicros( ) {
+      return flushMicros.getTotal( );
+    }
+
+    @Override
+    public String toString( ) {
+      return MoreObjects.toStringHelper( CallSiteStatistics.class )
+          .add( "callSite", callSite )
+          .add( "openMicros", openMicros )
+          .add( "statements", statements )
+          .add( "rowsLoaded", rowsLoaded )
+          .add( "flushMicros", flushMicros )
+          .add( "conflicts", conflicts )
+          .add( "retries", retries )
+          .toString( );
+    }
+  }
+}
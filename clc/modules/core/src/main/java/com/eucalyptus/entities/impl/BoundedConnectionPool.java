@@ -0,0 +1,312 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.apache.log4j.Logger;
+import com.eucalyptus.entities.ConnectionPool;
+import com.eucalyptus.entities.ConnectionPoolMetrics;
+import com.eucalyptus.entities.ConnectionPoolStatistics;
+import com.eucalyptus.entities.Entities;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+
+/**
+ * Connection pool with a fixed maximum size and a fair queue for threads waiting for a connection.
+ *
+ * <p>A thread waits at most the acquisition timeout for a connection. Connections in use for
+ * longer than the leak threshold are logged once with the owning transaction. Idle connections
+ * are validated before use if idle for longer than the validation interval and are closed when
+ * idle for longer than the idle timeout, retaining the minimum idle count.</p>
+ */
+public class BoundedConnectionPool implements ConnectionPool {
+
+  private static final Logger logger = Logger.getLogger( BoundedConnectionPool.class );
+
+  private static final long VALIDATION_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis( 30 );
+  private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis( 10 );
+  private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis( 5 );
+
+  private final String alias;
+  private final String jdbcUrl;
+  private final Properties connectionProperties;
+  private final int maximumSize;
+  private final int minimumIdle;
+  private final long acquireTimeoutMillis;
+  private final long leakThresholdMillis;
+  private final Semaphore permits;
+  private final BlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>( );
+  private final Map<Connection, Checkout> checkedOut = Maps.newConcurrentMap( );
+  private final ConnectionPoolMetrics metrics;
+  private final List<Consumer<Boolean>> overloadListeners = new CopyOnWriteArrayList<>( );
+  private final AtomicBoolean overloaded = new AtomicBoolean( );
+  private final AtomicLong nextSweep = new AtomicLong( );
+  private volatile boolean shutdown;
+
+  public BoundedConnectionPool( final String alias, final String jdbcUrl, final Properties properties ) {
+    this.alias = alias;
+    this.jdbcUrl = jdbcUrl;
+    this.maximumSize = MoreObjects.firstNonNull( Ints.tryParse( properties.getProperty( "maximumSize", "" ) ), 512 );
+    this.minimumIdle = MoreObjects.firstNonNull( Ints.tryParse( properties.getProperty( "minimumIdle", "" ) ), 0 );
+    this.acquireTimeoutMillis =
+        MoreObjects.firstNonNull( Longs.tryParse( properties.getProperty( "acquireTimeoutMillis", "" ) ), 30_000L );
+    this.leakThresholdMillis =
+        MoreObjects.firstNonNull( Longs.tryParse( properties.getProperty( "leakThresholdMillis", "" ) ), 300_000L );
+    this.permits = new Semaphore( maximumSize, true );
+    this.metrics = new ConnectionPoolMetrics( alias );
+    this.connectionProperties = new Properties( );
+    for ( final String name : new String[]{ "user", "password" } ) {
+      if ( properties.getProperty( name ) != null ) {
+        connectionProperties.setProperty( name, properties.getProperty( name ) );
+      }
+    }
+    final String driver = properties.getProperty( "driver" );
+    if ( !Strings.isNullOrEmpty( driver ) ) try {
+      Class.forName( driver );
+    } catch ( final ClassNotFoundException e ) {
+      throw new IllegalArgumentException( "Driver not found " + driver + " for connection pool " + alias, e );
+    }
+  }
+
+  @Override
+  public String getAlias( ) {
+    return alias;
+  }
+
+  @Override
+  public Connection getConnection( ) throws SQLException {
+    if ( shutdown ) {
+      throw new SQLException( "Connection pool shutdown " + alias );
+    }
+    final long start = System.nanoTime( );
+    maybeSweep( );
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire( acquireTimeoutMillis, TimeUnit.MILLISECONDS );
+    } catch ( final InterruptedException e ) {
+      Thread.currentThread( ).interrupt( );
+      throw new SQLTransientConnectionException( "Interrupted waiting for connection from pool " + alias, e );
+    }
+    if ( !acquired ) {
+      metrics.timedOut( System.nanoTime( ) - start );
+      overloaded( true );
+      throw new SQLTransientConnectionException( "Timeout waiting for connection from pool " + alias +
+          " after " + acquireTimeoutMillis + "ms with " + checkedOut.size( ) + " connections in use" );
+    }
+    try {
+      final Connection physical = borrow( );
+      final Connection connection = pooled( physical );
+      checkedOut.put( connection, new Checkout( Entities.startingTransactionOwner( ) ) );
+      metrics.acquired( System.nanoTime( ) - start );
+      if ( permits.availablePermits( ) == 0 ) {
+        overloaded( true );
+      }
+      return connection;
+    } catch ( final SQLException | RuntimeException e ) {
+      permits.release( );
+      throw e;
+    }
+  }
+
+  @Override
+  public int getMaximumSize( ) {
+    return maximumSize;
+  }
+
+  @Override
+  public ConnectionPoolStatistics getStatistics( ) {
+    maybeSweep( );
+    return metrics.snapshot( idle.size( ) );
+  }
+
+  @Override
+  public void addOverloadListener( final Consumer<Boolean> listener ) {
+    overloadListeners.add( listener );
+  }
+
+  @Override
+  public void shutdown( ) {
+    shutdown = true;
+    IdleConnection idleConnection;
+    while ( ( idleConnection = idle.pollFirst( ) ) != null ) {
+      close( idleConnection.connection );
+    }
+  }
+
+  private Connection borrow( ) throws SQLException {
+    IdleConnection idleConnection;
+    while ( ( idleConnection = idle.pollFirst( ) ) != null ) {
+      if ( ( System.currentTimeMillis( ) - idleConnection.idleSince ) < VALIDATION_INTERVAL_MILLIS ||
+          idleConnection.connection.isValid( 5 ) ) {
+        return idleConnection.connection;
+      }
+      close( idleConnection.connection );
+    }
+    return DriverManager.getConnection( jdbcUrl, connectionProperties );
+  }
+
+  private void release( final Connection connection, final Connection physical, final boolean broken ) {
+    try {
+      checkedOut.remove( connection );
+      metrics.released( );
+      if ( shutdown || broken || physical.isClosed( ) ) {
+        close( physical );
+      } else {
+        if ( !physical.getAutoCommit( ) ) {
+          physical.rollback( );
+          physical.setAutoCommit( true );
+        }
+        physical.clearWarnings( );
+        idle.offerFirst( new IdleConnection( physical ) );
+      }
+    } catch ( final SQLException e ) {
+      logger.debug( "Error returning connection to pool " + alias + ": " + e.getMessage( ) );
+      close( physical );
+    } finally {
+      permits.release( );
+      overloaded( false );
+    }
+  }
+
+  private Connection pooled( final Connection physical ) {
+    return (Connection) Proxy.newProxyInstance(
+        BoundedConnectionPool.class.getClassLoader( ),
+        new Class<?>[]{ Connection.class },
+        new PooledConnectionHandler( physical ) );
+  }
+
+  private void overloaded( final boolean overloaded ) {
+    if ( this.overloaded.compareAndSet( !overloaded, overloaded ) ) {
+      for ( final Consumer<Boolean> listener : overloadListeners ) try {
+        listener.accept( overloaded );
+      } catch ( final RuntimeException e ) {
+        logger.error( "Error in overload listener for pool " + alias, e );
+      }
+    }
+  }
+
+  /**
+   * Log leaked connections and close connections idle beyond the timeout.
+   */
+  private void maybeSweep( ) {
+    final long now = System.currentTimeMillis( );
+    final long sweep = nextSweep.get( );
+    if ( now < sweep || !nextSweep.compareAndSet( sweep, now + SWEEP_INTERVAL_MILLIS ) ) {
+      return;
+    }
+    for ( final Checkout checkout : checkedOut.values( ) ) {
+      if ( !checkout.leaked && ( now - checkout.time ) > leakThresholdMillis ) {
+        checkout.leaked = true;
+        metrics.leaked( );
+        logger.warn( "Connection from pool " + alias + " in use for " + ( now - checkout.time ) + "ms by thread " +
+            checkout.thread + ( checkout.owner == null ? "" : " for " + checkout.owner.get( ) ) );
+      }
+    }
+    int idleCount = idle.size( );
+    for ( final Iterator<IdleConnection> iterator = idle.descendingIterator( );
+          iterator.hasNext( ) && idleCount > minimumIdle; ) {
+      final IdleConnection idleConnection = iterator.next( );
+      if ( ( now - idleConnection.idleSince ) > IDLE_TIMEOUT_MILLIS && idle.removeFirstOccurrence( idleConnection ) ) {
+        close( idleConnection.connection );
+        idleCount--;
+      }
+    }
+  }
+
+  private void close( final Connection connection ) {
+    try {
+      connection.close( );
+    } catch ( final SQLException e ) {
+      logger.debug( "Error closing connection for pool " + alias + ": " + e.getMessage( ) );
+    }
+  }
+
+  private static final class IdleConnection {
+    private final Connection connection;
+    private final long idleSince = System.currentTimeMillis( );
+
+    private IdleConnection( final Connection connection ) {
+      this.connection = connection;
+    }
+  }
+
+  private static final class Checkout {
+    private final Supplier<String> owner;
+    private final String thread = Thread.currentThread( ).getName( );
+    private final long time = System.currentTimeMillis( );
+    private volatile boolean leaked;
+
+    private Checkout( final Supplier<String> owner ) {
+      this.owner = owner;
+    }
+  }
+
+  private final class PooledConnectionHandler implements InvocationHandler {
+    private final Connection physical;
+    private final AtomicBoolean closed = new AtomicBoolean( );
+    private volatile boolean broken;
+
+    private PooledConnectionHandler( final Connection physical ) {
+      this.physical = physical;
+    }
+
+    @Override
+    public Object invoke( final Object proxy, final Method method, final Object[] args ) throws Throwable {
+      switch ( method.getName( ) ) {
+        case "close":
+          if ( closed.compareAndSet( false, true ) ) {
+            release( (Connection) proxy, physical, broken );
+          }
+          return null;
+        case "isClosed":
+          return closed.get( ) || physical.isClosed( );
+        case "equals":
+          return proxy == args[ 0 ];
+        case "hashCode":
+          return System.identityHashCode( proxy );
+        case "toString":
+          return "Pooled connection " + alias + " " + physical;
+      }
+      if ( closed.get( ) ) {
+        throw new SQLException( "Connection closed" );
+      }
+      try {
+        return method.invoke( physical, args );
+      } catch ( final InvocationTargetException e ) {
+        final Throwable cause = e.getCause( );
+        if ( cause instanceof SQLException && Strings.nullToEmpty( ( (SQLException) cause ).getSQLState( ) ).startsWith( "08" ) ) {
+          broken = true; // connection exception
+        }
+        throw cause;
+      }
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl;
+
+import java.util.Map;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * In-heap entity region.
+ *
+ * <p>Entries are not locked, a cached entity is removed when it is updated or deleted and is
+ * cached again when next loaded.</p>
+ */
+class HeapEntityRegion implements EntityRegion {
+
+  private final String name;
+  private final CacheDataDescription metadata;
+  private final Cache<Object, Object> cache;
+
+  HeapEntityRegion( final String name, final String cacheSpec, final CacheDataDescription metadata ) {
+    this.name = name;
+    this.metadata = metadata;
+    this.cache = CacheBuilder.from( CacheBuilderSpec.parse( cacheSpec ) ).recordStats( ).build( );
+  }
+
+  CacheStats stats( ) {
+    return cache.stats( );
+  }
+
+  void evict( final Object key ) {
+    cache.invalidate( key );
+  }
+
+  void evictAll( ) {
+    cache.invalidateAll( );
+  }
+
+  @Override
+  public EntityRegionAccessStrategy buildAccessStrategy( final AccessType accessType ) throws CacheException {
+    switch ( accessType ) {
+      case READ_ONLY:
+        return new AccessStrategy( true );
+      case NONSTRICT_READ_WRITE:
+        return new AccessStrategy( false );
+      default:
+        throw new CacheException( "Access type " + accessType + " not supported for region " + name );
+    }
+  }
+
+  @Override
+  public boolean isTransactionAware( ) {
+    return false;
+  }
+
+  @Override
+  public CacheDataDescription getCacheDataDescription( ) {
+    return metadata;
+  }
+
+  @Override
+  public String getName( ) {
+    return name;
+  }
+
+  @Override
+  public void destroy( ) throws CacheException {
+    cache.invalidateAll( );
+  }
+
+  @Override
+  public boolean contains( final Object key ) {
+    return cache.asMap( ).containsKey( key );
+  }
+
+  @Override
+  public long getSizeInMemory( ) {
+    return -1;
+  }
+
+  @Override
+  public long getElementCountInMemory( ) {
+    return cache.size( );
+  }
+
+  @Override
+  public long getElementCountOnDisk( ) {
+    return 0;
+  }
+
+  @Override
+  public Map toMap( ) {
+    return ImmutableMap.copyOf( cache.asMap( ) );
+  }
+
+  @Override
+  public long nextTimestamp( ) {
+    return System.currentTimeMillis( );
+  }
+
+  @Override
+  public int getTimeout( ) {
+    return 0;
+  }
+
+  private final class AccessStrategy implements EntityRegionAccessStrategy {
+    private final boolean readOnly;
+
+    private AccessStrategy( final boolean readOnly ) {
+      this.readOnly = readOnly;
+    }
+
+    @Override
+    public EntityRegion getRegion( ) {
+      return HeapEntityRegion.this;
+    }
+
+    @Override
+    public Object get( final Object key, final long txTimestamp ) throws CacheException {
+      return cache.getIfPresent( key );
+    }
+
+    @Override
+    public boolean putFromLoad(
+        final Object key,
+        final Object value,
+        final long txTimestamp,
+        final Object version
+    ) throws CacheException {
+      return putFromLoad( key, value, txTimestamp, version, true );
+    }
+
+    @Override
+    public boolean putFromLoad(
+        final Object key,
+        final Object value,
+        final long txTimestamp,
+        final Object version,
+        final boolean minimalPutOverride
+    ) throws CacheException {
+      if ( minimalPutOverride ) {
+        return cache.asMap( ).putIfAbsent( key, value ) == null;
+      }
+      cache.put( key, value );
+      return true;
+    }
+
+    @Override
+    public SoftLock lockItem( final Object key, final Object version ) throws CacheException {
+      return null;
+    }
+
+    @Override
+    public SoftLock lockRegion( ) throws CacheException {
+      return null;
+    }
+
+    @Override
+    public void unlockItem( final Object key, final SoftLock lock ) throws CacheException {
+      invalidate( key );
+    }
+
+    @Override
+    public void unlockRegion( final SoftLock lock ) throws CacheException {
+      invalidate( null );
+    }
+
+    @Override
+    public boolean insert( final Object key, final Object value, final Object version ) throws CacheException {
+      return false;
+    }
+
+    @Override
+    public boolean afterInsert( final Object key, final Object value, final Object version ) throws CacheException {
+      return false;
+    }
+
+    @Override
+    public boolean update(
+        final Object key,
+        final Object value,
+        final Object currentVersion,
+        final Object previousVersion
+    ) throws CacheException {
+      if ( readOnly ) {
+        throw new UnsupportedOperationException( "Update of read-only entity in region " + name );
+      }
+      evict( key );
+      return false;
+    }
+
+    @Override
+    public boolean afterUpdate(
+        final Object key,
+        final Object value,
+        final Object currentVersion,
+        final Object previousVersion,
+        final SoftLock lock
+    ) throws CacheException {
+      invalidate( key );
+      return false;
+    }
+
+    @Override
+    public void remove( final Object key ) throws CacheException {
+      evict( key );
+    }
+
+    @Override
+    public void removeAll( ) throws CacheException {
+      evictAll( );
+    }
+
+    @Override
+    public void evict( final Object key ) throws CacheException {
+      HeapEntityRegion.this.evict( key );
+    }
+
+    @Override
+    public void evictAll( ) throws CacheException {
+      HeapEntityRegion.this.evictAll( );
+    }
+
+    /**
+     * Evict locally and on other hosts
+     */
+    private void invalidate( final Object key ) {
+      if ( key == null ) {
+        HeapEntityRegion.this.evictAll( );
+      } else {
+        HeapEntityRegion.this.evict( key );
+      }
+      HeapRegionInvalidation.invalidate( name, key );
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl;
+
+import java.util.Map;
+import java.util.Properties;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cfg.Settings;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Second-level cache region factory for in-heap entity regions.
+ *
+ * <p>Only entity regions are supported, entities opt-in to caching using the
+ * <code>javax.persistence.Cacheable</code> and <code>org.hibernate.annotations.Cache</code>
+ * annotations with read-only or nonstrict read-write usage.</p>
+ *
+ * <p>Caching is enabled using the system property
+ * <code>com.eucalyptus.entities.secondLevelCache</code>. Region size limits use a cache
+ * specification from <code>com.eucalyptus.entities.cacheSpec.REGION</code> or the default from
+ * <code>com.eucalyptus.entities.cacheSpec</code>.</p>
+ *
+ * <p>Updated and deleted entities are invalidated on other hosts.</p>
+ */
+public class HeapRegionFactory implements RegionFactory {
+  private static final long serialVersionUID = 1L;
+
+  private static final String CACHE_SPEC_PROPERTY = "com.eucalyptus.entities.cacheSpec";
+  private static final String DEFAULT_CACHE_SPEC =
+      System.getProperty( CACHE_SPEC_PROPERTY, "maximumSize=10000, expireAfterWrite=10m" );
+  private static final boolean ENABLED = Boolean.getBoolean( "com.eucalyptus.entities.secondLevelCache" );
+
+  private static final Map<String, HeapEntityRegion> regions = Maps.newConcurrentMap( );
+
+  public static boolean isEnabled( ) {
+    return ENABLED;
+  }
+
+  /**
+   * Hit, miss and eviction statistics for each region.
+   */
+  public static Map<String, CacheStats> statistics( ) {
+    final ImmutableSortedMap.Builder<String, CacheStats> statistics = ImmutableSortedMap.naturalOrder( );
+    for ( final HeapEntityRegion region : regions.values( ) ) {
+      statistics.put( region.getName( ), region.stats( ) );
+    }
+    return statistics.build( );
+  }
+
+  /**
+   * Invalidate a locally cached entry for a region.
+   *
+   * @param regionName The region
+   * @param key The key or null to invalidate all entries
+   */
+  static void invalidate( final String regionName, final Object key ) {
+    final HeapEntityRegion region = regions.get( regionName );
+    if ( region != null ) {
+      if ( key == null ) {
+        region.evictAll( );
+      } else {
+        region.evict( key );
+      }
+    }
+  }
+
+  @Override
+  public void start( final Settings settings, final Properties properties ) throws CacheException {
+    if ( isEnabled( ) ) {
+      HeapRegionInvalidation.start( );
+    }
+  }
+
+  @Override
+  public void stop( ) {
+  }
+
+  @Override
+  public boolean isMinimalPutsEnabledByDefault( ) {
+    return true;
+  }
+
+  @Override
+  public AccessType getDefaultAccessType( ) {
+    return AccessType.NONSTRICT_READ_WRITE;
+  }
+
+  @Override
+  public long nextTimestamp( ) {
+    return System.currentTimeMillis( );
+  }
+
+  @Override
+  public EntityRegion buildEntityRegion(
+      final String regionName,
+      final Properties properties,
+      final CacheDataDescription metadata
+  ) throws CacheException {
+    final HeapEntityRegion region = new HeapEntityRegion(
+        regionName,
+        System.getProperty( CACHE_SPEC_PROPERTY + "." + regionName, DEFAULT_CACHE_SPEC ),
+        metadata );
+    regions.put( regionName, region );
+    return region;
+  }
+
+  @Override
+  public NaturalIdRegion buildNaturalIdRegion(
+      final String regionName,
+      final Properties properties,
+      final CacheDataDescription metadata
+  ) throws CacheException {
+    throw new CacheException( "Natural id caching not supported for region " + regionName );
+  }
+
+  @Override
+  public CollectionRegion buildCollectionRegion(
+      final String regionName,
+      final Properties properties,
+      final CacheDataDescription metadata
+  ) throws CacheException {
+    throw new CacheException( "Collection caching not supported for region " + regionName );
+  }
+
+  @Override
+  public QueryResultsRegion buildQueryResultsRegion(
+      final String regionName,
+      final Properties properties
+  ) throws CacheException {
+    throw new CacheException( "Query caching not supported for region " + regionName );
+  }
+
+  @Override
+  public TimestampsRegion buildTimestampsRegion(
+      final String regionName,
+      final Properties properties
+  ) throws CacheException {
+    throw new CacheException( "Query caching not supported for region " + regionName );
+  }
+}
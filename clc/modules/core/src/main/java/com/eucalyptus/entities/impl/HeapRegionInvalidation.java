@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.log4j.Logger;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.blocks.RpcDispatcher;
+import com.eucalyptus.bootstrap.Hosts;
+
+/**
+ * Invalidation of second-level cache entries on other hosts using the membership channel.
+ *
+ * <p>Invalidations are sent asynchronously, a host that misses an invalidation will expire
+ * the entry as per the region cache specification.</p>
+ */
+public final class HeapRegionInvalidation {
+
+  private static final Logger logger = Logger.getLogger( HeapRegionInvalidation.class );
+  private static final AtomicReference<RpcDispatcher> dispatcher = new AtomicReference<>( );
+
+  private HeapRegionInvalidation( ) {
+  }
+
+  static void start( ) {
+    if ( dispatcher.get( ) == null ) {
+      final RpcDispatcher newDispatcher = Hosts.dispatcher( Hosts.CACHE_INVALIDATION_ID, new HeapRegionInvalidation( ) );
+      if ( newDispatcher != null && !dispatcher.compareAndSet( null, newDispatcher ) ) {
+        newDispatcher.stop( );
+      }
+    }
+  }
+
+  static void invalidate( final String region, final Object key ) {
+    final RpcDispatcher rpcDispatcher = dispatcher.get( );
+    if ( rpcDispatcher != null && rpcDispatcher.getChannel( ).isConnected( ) ) try {
+      rpcDispatcher.callRemoteMethods(
+          null,
+          "invalidateLocal",
+          new Object[]{ region, key },
+          new Class[]{ String.class, Object.class },
+          RequestOptions.ASYNC( ).setExclusionList( rpcDispatcher.getChannel( ).getAddress( ) ) );
+    } catch ( final Exception e ) {
+      logger.warn( "Error sending cache invalidation for region " + region + ": " + e.getMessage( ) );
+    }
+  }
+
+  /**
+   * Remote call target
+   */
+  public void invalidateLocal( final String region, final Object key ) {
+    if ( logger.isTraceEnabled( ) ) {
+      logger.trace( "Invalidating cache region " + region + " key " + key );
+    }
+    HeapRegionFactory.invalidate( region, key );
+  }
+}
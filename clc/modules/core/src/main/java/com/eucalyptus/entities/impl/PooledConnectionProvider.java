@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import com.eucalyptus.entities.ConnectionPool;
+import com.eucalyptus.entities.ConnectionPoolMetrics;
+import com.eucalyptus.entities.ConnectionPools;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Hibernate connection provider using a registered connection pool.
+ *
+ * <p>The pool is identified by the <code>eucalyptus.connection.pool_alias</code> property and
+ * connection metrics are recorded for the persistence context identified by the
+ * <code>eucalyptus.connection.context</code> property.</p>
+ *
+ * @see ConnectionPools
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable {
+  private static final long serialVersionUID = 1L;
+
+  public static final String POOL_ALIAS = "eucalyptus.connection.pool_alias";
+  public static final String CONTEXT = "eucalyptus.connection.context";
+
+  private volatile ConnectionPool pool;
+  private volatile ConnectionPoolMetrics metrics;
+
+  @Override
+  public void configure( final Map properties ) {
+    final String alias = (String) properties.get( POOL_ALIAS );
+    final String context = MoreObjects.firstNonNull( (String) properties.get( CONTEXT ), alias );
+    this.pool = ConnectionPools.lookup( alias );
+    this.metrics = ConnectionPools.contextMetrics( context, alias );
+  }
+
+  @Override
+  public Connection getConnection( ) throws SQLException {
+    return getConnection( pool );
+  }
+
+  /**
+   * Get a connection from the given pool, recording metrics for the context.
+   */
+  protected Connection getConnection( final ConnectionPool pool ) throws SQLException {
+    final long start = System.nanoTime( );
+    try {
+      final Connection connection = pool.getConnection( );
+      metrics.acquired( System.nanoTime( ) - start );
+      return connection;
+    } catch ( final SQLTransientConnectionException e ) {
+      metrics.timedOut( System.nanoTime( ) - start );
+      throw e;
+    }
+  }
+
+  @Override
+  public void closeConnection( final Connection connection ) throws SQLException {
+    try {
+      connection.close( );
+    } finally {
+      metrics.released( );
+    }
+  }
+
+  @Override
+  public boolean supportsAggressiveRelease( ) {
+    return false;
+  }
+
+  @Override
+  public boolean isUnwrappableAs( final Class unwrapType ) {
+    return ConnectionProvider.class.equals( unwrapType ) ||
+        PooledConnectionProvider.class.isAssignableFrom( unwrapType );
+  }
+
+  @Override
+  @SuppressWarnings( "unchecked" )
+  public <T> T unwrap( final Class<T> unwrapType ) {
+    if ( isUnwrappableAs( unwrapType ) ) {
+      return (T) this;
+    }
+    throw new UnknownUnwrapTypeException( unwrapType );
+  }
+}
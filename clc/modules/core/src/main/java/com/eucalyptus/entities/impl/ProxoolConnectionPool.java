@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.function.Consumer;
+import org.apache.log4j.Logger;
+import org.logicalcobwebs.proxool.ProxoolException;
+import org.logicalcobwebs.proxool.ProxoolFacade;
+import org.logicalcobwebs.proxool.StateListenerIF;
+import org.logicalcobwebs.proxool.admin.SnapshotIF;
+import com.eucalyptus.entities.ConnectionPool;
+import com.eucalyptus.entities.ConnectionPoolMetrics;
+import com.eucalyptus.entities.ConnectionPoolStatistics;
+import com.eucalyptus.util.Exceptions;
+import com.google.common.base.MoreObjects;
+import com.google.common.primitives.Ints;
+
+/**
+ * Connection pool using proxool.
+ */
+public class ProxoolConnectionPool implements ConnectionPool {
+
+  private static final Logger logger = Logger.getLogger( ProxoolConnectionPool.class );
+
+  /**
+   * Proxool does not wait for a connection, it fails immediately with this message when all
+   * connections are in use.
+   */
+  private static final String POOL_EXHAUSTED_MESSAGE = "at maximum connection count";
+
+  private final String alias;
+  private final int maximumSize;
+  private final ConnectionPoolMetrics metrics;
+
+  public ProxoolConnectionPool( final String alias, final String jdbcUrl, final Properties properties ) {
+    this.alias = alias;
+    this.maximumSize = MoreObjects.firstNonNull( Ints.tryParse( properties.getProperty( "maximumSize", "" ) ), 512 );
+    this.metrics = new ConnectionPoolMetrics( alias );
+    final Properties proxoolProperties = new Properties( );
+    for ( final String name : properties.stringPropertyNames( ) ) {
+      if ( name.startsWith( "proxool." ) || name.equals( "user" ) || name.equals( "password" ) ) {
+        proxoolProperties.setProperty( name, properties.getProperty( name ) );
+      }
+    }
+    proxoolProperties.setProperty( "proxool.maximum-connection-count", String.valueOf( maximumSize ) );
+    proxoolProperties.setProperty( "proxool.minimum-connection-count", properties.getProperty( "minimumIdle", "0" ) );
+    try {
+      ClassLoader.getSystemClassLoader( ).loadClass( "org.logicalcobwebs.proxool.ProxoolDriver" );
+      ProxoolFacade.registerConnectionPool(
+          "proxool." + alias + ":" + properties.getProperty( "driver" ) + ":" + jdbcUrl,
+          proxoolProperties );
+      ProxoolFacade.disableShutdownHook( );
+    } catch ( final ClassNotFoundException | ProxoolException e ) {
+      throw Exceptions.toUndeclared( e );
+    }
+  }
+
+  @Override
+  public String getAlias( ) {
+    return alias;
+  }
+
+  @Override
+  public Connection getConnection( ) throws SQLException {
+    final long start = System.nanoTime( );
+    try {
+      final Connection connection = DriverManager.getConnection( "proxool." + alias );
+      metrics.acquired( System.nanoTime( ) - start );
+      return connection;
+    } catch ( final SQLException e ) {
+      if ( isPoolExhausted( e ) ) {
+        metrics.timedOut( System.nanoTime( ) - start );
+      }
+      throw e;
+    }
+  }
+
+  static boolean isPoolExhausted( final SQLException e ) {
+    return e.getMessage( ) != null && e.getMessage( ).contains( POOL_EXHAUSTED_MESSAGE );
+  }
+
+  @Override
+  public int getMaximumSize( ) {
+    return maximumSize;
+  }
+
+  @Override
+  public ConnectionPoolStatistics getStatistics( ) {
+    try {
+      final SnapshotIF snapshot = ProxoolFacade.getSnapshot( alias, false );
+      return metrics.snapshot( snapshot.getActiveConnectionCount( ), snapshot.getAvailableConnectionCount( ) );
+    } catch ( final ProxoolException e ) {
+      logger.debug( "Error getting snapshot for connection pool " + alias, e );
+      return metrics.snapshot( 0, 0 );
+    }
+  }
+
+  @Override
+  public void addOverloadListener( final Consumer<Boolean> listener ) {
+    try {
+      ProxoolFacade.addStateListener( alias, state -> listener.accept(
+          state == StateListenerIF.STATE_DOWN || state == StateListenerIF.STATE_OVERLOADED ) );
+    } catch ( final ProxoolException e ) {
+      throw Exceptions.toUndeclared( e );
+    }
+  }
+
+  @Override
+  public void shutdown( ) {
+    try {
+      ProxoolFacade.removeConnectionPool( alias );
+    } catch ( final ProxoolException e ) {
+      logger.warn( "Error removing connection pool " + alias + ": " + e.getMessage( ) );
+    }
+  }
+}
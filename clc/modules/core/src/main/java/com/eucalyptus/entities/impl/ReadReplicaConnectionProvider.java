@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.log4j.Logger;
+import com.eucalyptus.entities.ConnectionPool;
+import com.eucalyptus.entities.ConnectionPools;
+import com.eucalyptus.entities.PersistenceReadReplicas;
+import com.eucalyptus.entities.PersistenceReadReplicas.ReplicaTarget;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Connection provider that uses replica pools for read-only transactions.
+ *
+ * <p>Replica pool aliases are configured using the <code>eucalyptus.connection.replica_pool_aliases</code>
+ * property. Connections are taken from replica pools in turn while the replica is usable, else
+ * from the primary pool.</p>
+ *
+ * <p>Replication lag is measured from the last replayed transaction so an idle primary will
+ * appear as lag on the replica.</p>
+ */
+public class ReadReplicaConnectionProvider extends PooledConnectionProvider {
+  private static final long serialVersionUID = 1L;
+
+  private static final Logger LOG = Logger.getLogger( ReadReplicaConnectionProvider.class );
+
+  public static final String REPLICA_POOL_ALIASES = "eucalyptus.connection.replica_pool_aliases";
+
+  private static final String LAG_SQL =
+      "SELECT CASE WHEN pg_is_in_recovery() " +
+      "THEN CAST(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000 AS BIGINT) " +
+      "ELSE NULL END";
+
+  private final AtomicInteger next = new AtomicInteger( );
+  private volatile List<ReplicaTarget> replicas = ImmutableList.of( );
+
+  @Override
+  public void configure( final Map props ) {
+    super.configure( props );
+    final List<ReplicaTarget> replicas = Lists.newArrayList( );
+    for ( final String alias : Splitter.on( ',' ).trimResults( ).omitEmptyStrings( )
+        .split( Strings.nullToEmpty( (String) props.get( REPLICA_POOL_ALIASES ) ) ) ) {
+      replicas.add( PersistenceReadReplicas.target( alias ) );
+    }
+    this.replicas = ImmutableList.copyOf( replicas );
+  }
+
+  @Override
+  public Connection getConnection( ) throws SQLException {
+    final List<ReplicaTarget> replicas = this.replicas;
+    if ( !replicas.isEmpty( ) && PersistenceReadReplicas.isReadOnlyRequested( ) ) {
+      final int start = next.getAndIncrement( );
+      for ( int i = 0; i < replicas.size( ); i++ ) {
+        final ReplicaTarget replica = replicas.get( Math.abs( ( start + i ) % replicas.size( ) ) );
+        final Connection connection = replicaConnection( replica );
+        if ( connection != null ) {
+          return connection;
+        }
+      }
+    }
+    return super.getConnection( );
+  }
+
+  private Connection replicaConnection( final ReplicaTarget replica ) {
+    try {
+      final ConnectionPool pool = ConnectionPools.lookup( replica.getPoolAlias( ) );
+      if ( replica.isCheckDue( ) ) {
+        try ( final Connection connection = pool.getConnection( ) ) {
+          replica.checked( lag( connection ) );
+        }
+        if ( LOG.isDebugEnabled( ) ) {
+          LOG.debug( "Checked replica " + replica );
+        }
+      }
+      if ( !replica.isUsable( ) ) {
+        replica.rejected( );
+        return null;
+      }
+      final Connection connection = getConnection( pool );
+      replica.connected( );
+      return connection;
+    } catch ( final SQLException | RuntimeException e ) {
+      replica.failed( );
+      LOG.warn( "Error using replica pool " + replica.getPoolAlias( ) + ": " + e.getMessage( ) );
+      return null;
+    }
+  }
+
+  private static Long lag( final Connection connection ) throws SQLException {
+    try ( final Statement statement = connection.createStatement( );
+          final ResultSet result = statement.executeQuery( LAG_SQL ) ) {
+      if ( result.next( ) ) {
+        final long lag = result.getLong( 1 );
+        return result.wasNull( ) ? null : Math.max( 0, lag );
+      }
+      return null;
+    }
+  }
+}
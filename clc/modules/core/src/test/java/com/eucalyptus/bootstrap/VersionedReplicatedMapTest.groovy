@@ -0,0 +1,272 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.bootstrap
+
+import static org.junit.Assert.*
+import groovy.transform.CompileStatic
+import org.jgroups.Address
+import org.jgroups.JChannel
+import org.jgroups.MergeView
+import org.jgroups.View
+import org.jgroups.blocks.ReplicatedHashMap
+import org.jgroups.blocks.mux.MuxUpHandler
+import org.jgroups.protocols.FRAG2
+import org.jgroups.protocols.PING
+import org.jgroups.protocols.SHARED_LOOPBACK
+import org.jgroups.protocols.UNICAST2
+import org.jgroups.protocols.pbcast.GMS
+import org.jgroups.protocols.pbcast.NAKACK2
+import org.jgroups.protocols.pbcast.STABLE
+import org.jgroups.stack.ProtocolStack
+import org.junit.After
+import org.junit.Test
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+
+/**
+ * Tests using in-process channels over a shared loopback transport.
+ */
+@CompileStatic
+class VersionedReplicatedMapTest {
+
+  private static final short ID = 100
+
+  private final List<JChannel> channels = [ ]
+  private final List<VersionedReplicatedMap<String,String>> maps = [ ]
+
+  @After
+  void cleanup( ) {
+    maps.each{ VersionedReplicatedMap<String,String> map -> map.stop( ) }
+    channels.reverse( ).each{ JChannel channel -> channel.close( ) }
+  }
+
+  @Test
+  void testReplication( ) {
+    String group = 'test-replication'
+    VersionedReplicatedMap<String,String> a = map( group, 'a' )
+    VersionedReplicatedMap<String,String> b = map( group, 'b' )
+    VersionedReplicatedMap<String,String> c = map( group, 'c' )
+    List<String> notifications = new CopyOnWriteArrayList<>( )
+    c.addNotifier( new RecordingNotification( notifications ) )
+
+    a.put( 'host-1', 'value-1' )
+    b.put( 'host-2', 'value-2' )
+    awaitEquals( [ 'host-1': 'value-1', 'host-2': 'value-2' ], a, b, c )
+
+    assertEquals( 'previous value', 'value-1', b.put( 'host-1', 'value-1b' ) )
+    assertEquals( 'put if absent', 'value-2', c.putIfAbsent( 'host-2', 'value-2c' ) )
+    assertEquals( 'remove', 'value-2', a.remove( 'host-2' ) )
+    awaitEquals( [ 'host-1': 'value-1b' ], a, b, c )
+    assertTrue( 'removed on all', [ a, b, c ].every{ VersionedReplicatedMap<String,String> map -> !map.containsKey( 'host-2' ) } )
+    await{ notifications.contains( 'removed:host-2' ) }
+    assertTrue( 'set notification', notifications.contains( 'set:host-1=value-1b' ) )
+    assertEquals( 'tombstones', 1, a.statistics.tombstones )
+  }
+
+  @Test
+  void testConcurrentUpdateNotifications( ) {
+    VersionedReplicatedMap<String,String> a = map( 'test-notification-order', 'a' )
+    List<String> notifications = new CopyOnWriteArrayList<>( )
+    a.addNotifier( new RecordingNotification( notifications ) )
+    List<Thread> threads = ( 1..4 ).collect{ Integer t ->
+      Thread.start{ ( 1..100 ).each{ Integer i -> a.put( 'host-1', "value-${t}-${i}".toString( ) ) } }
+    }
+    threads.each{ Thread thread -> thread.join( ) }
+    String current = a.get( 'host-1' )
+    await{ notifications.size( ) == 400 }
+    assertEquals( 'last notification', "set:host-1=${current}".toString( ), notifications.last( ) )
+  }
+
+  @Test
+  void testReplicationWithoutMultiplexing( ) {
+    String group = 'test-plain'
+    VersionedReplicatedMap<String,String> a = map( group, 'a', TimeUnit.MINUTES.toMillis( 1 ), false )
+    VersionedReplicatedMap<String,String> b = map( group, 'b', TimeUnit.MINUTES.toMillis( 1 ), false )
+    a.put( 'host-1', 'value-1' )
+    awaitEquals( [ 'host-1': 'value-1' ], a, b )
+  }
+
+  @Test
+  void testInitialSynchronization( ) {
+    String group = 'test-initial'
+    VersionedReplicatedMap<String,String> a = map( group, 'a' )
+    ( 1..50 ).each{ Integer i -> a.put( "host-${i}".toString( ), "value-${i}".toString( ) ) }
+    a.remove( 'host-50' )
+    VersionedReplicatedMap<String,String> b = map( group, 'b' )
+    assertEquals( 'entries synchronized on start', a.snapshot( ), b.snapshot( ) )
+    assertEquals( 'entry count', 49, b.snapshot( ).size( ) )
+    assertEquals( 'tombstone synchronized', 1, b.statistics.tombstones )
+    assertEquals( 'convergences', 1L, b.statistics.convergences )
+  }
+
+  @Test
+  void testAntiEntropyRepair( ) {
+    String group = 'test-repair'
+    VersionedReplicatedMap<String,String> a = map( group, 'a' )
+    VersionedReplicatedMap<String,String> b = map( group, 'b' )
+    a.put( 'host-1', 'value-1' )
+    awaitEquals( [ 'host-1': 'value-1' ], a, b )
+
+    // simulate missed updates on each side
+    a.applyDelta( 'host-2', new VersionedReplicatedMap.Entry<String>( new VersionedReplicatedMap.Version( 100, 'a' ), 'value-2' ) )
+    b.applyDelta( 'host-1', new VersionedReplicatedMap.Entry<String>( new VersionedReplicatedMap.Version( 100, 'b' ), 'value-1b' ) )
+    b.applyDelta( 'host-1', new VersionedReplicatedMap.Entry<String>( new VersionedReplicatedMap.Version( 99, 'c' ), 'stale' ) )
+    assertEquals( 'stale delta', 1L, b.statistics.staleDeltas )
+
+    assertEquals( 'entries transferred', 2, a.synchronize( address( b ), TimeUnit.SECONDS.toMillis( 5 ) ) )
+    Map<String,String> expected = [ 'host-1': 'value-1b', 'host-2': 'value-2' ]
+    assertEquals( 'a repaired', expected, a.snapshot( ) )
+    assertEquals( 'b repaired', expected, b.snapshot( ) )
+    assertEquals( 'nothing to transfer', 0, a.synchronize( address( b ), TimeUnit.SECONDS.toMillis( 5 ) ) )
+    assertEquals( 'repaired count', 2L, a.statistics.entriesRepaired )
+  }
+
+  @Test
+  void testConflictingUpdates( ) {
+    String group = 'test-conflict'
+    VersionedReplicatedMap<String,String> a = map( group, 'a' )
+    VersionedReplicatedMap<String,String> b = map( group, 'b' )
+    VersionedReplicatedMap.Version version = new VersionedReplicatedMap.Version( 10, 'x' )
+    a.applyDelta( 'host', new VersionedReplicatedMap.Entry<String>( version, 'from-x' ) )
+    b.applyDelta( 'host', new VersionedReplicatedMap.Entry<String>( new VersionedReplicatedMap.Version( 10, 'y' ), 'from-y' ) )
+    a.synchronize( address( b ), TimeUnit.SECONDS.toMillis( 5 ) )
+    assertEquals( 'same winner', a.snapshot( ), b.snapshot( ) )
+    assertEquals( 'writer breaks tie', 'from-y', a.get( 'host' ) )
+  }
+
+  @Test
+  void testTombstoneExpiry( ) {
+    String group = 'test-tombstone'
+    VersionedReplicatedMap<String,String> a = map( group, 'a', 100 )
+    VersionedReplicatedMap<String,String> b = map( group, 'b' )
+    [ a, b ].each{ VersionedReplicatedMap<String,String> map -> map.setTombstoneMillis( 500 ) }
+    a.put( 'host-1', 'value-1' )
+    a.put( 'host-2', 'value-2' )
+    awaitEquals( [ 'host-1': 'value-1', 'host-2': 'value-2' ], a, b )
+    a.remove( 'host-2' )
+    awaitEquals( [ 'host-1': 'value-1' ], a, b )
+    assertEquals( 'tombstone replicated', 1, b.statistics.tombstones )
+
+    // a collects the tombstone and must not pull it back from b, which has not collected it yet
+    await{ a.statistics.tombstones == 0 }
+    TimeUnit.MILLISECONDS.sleep( 500 ) // several anti-entropy rounds
+    assertEquals( 'tombstone collected', 0, a.statistics.tombstones )
+    assertEquals( 'tombstone not yet collected', 1, b.statistics.tombstones )
+    assertEquals( 'not transferred', [ : ], b.entries( [ 'host-2' ] as HashSet<String> ) )
+    awaitEquals( [ 'host-1': 'value-1' ], a, b )
+
+    // expired removal still wins over an older value but is not kept
+    long removed = System.currentTimeMillis( ) - TimeUnit.MINUTES.toMillis( 1 )
+    b.applyDelta( 'host-1', new VersionedReplicatedMap.Entry<String>( new VersionedReplicatedMap.Version( 100, 'a' ), null, removed ) )
+    b.applyDelta( 'host-3', new VersionedReplicatedMap.Entry<String>( new VersionedReplicatedMap.Version( 100, 'a' ), null, removed ) )
+    assertEquals( 'expired removal applied', [ : ], b.snapshot( ) )
+    assertEquals( 'expired tombstones not stored', 1, b.statistics.tombstones ) // uncollected host-2 only
+  }
+
+  @Test
+  void testMergeSynchronization( ) {
+    String group = 'test-merge'
+    VersionedReplicatedMap<String,String> a = map( group, 'a' )
+    VersionedReplicatedMap<String,String> b = map( group, 'b' )
+
+    // simulate updates made while partitioned
+    a.applyDelta( 'host-1', new VersionedReplicatedMap.Entry<String>( new VersionedReplicatedMap.Version( 10, 'a' ), 'value-1' ) )
+    b.applyDelta( 'host-2', new VersionedReplicatedMap.Entry<String>( new VersionedReplicatedMap.Version( 10, 'b' ), 'value-2' ) )
+    long convergences = b.statistics.convergences
+
+    Address addressA = address( a )
+    Address addressB = address( b )
+    b.viewAccepted( new MergeView( addressA, 10, [ addressA, addressB ], [
+        new View( addressA, 8, [ addressA ] ),
+        new View( addressB, 9, [ addressB ] ),
+    ] as List<View> ) )
+    awaitEquals( [ 'host-1': 'value-1', 'host-2': 'value-2' ], a, b )
+    await{ b.statistics.convergences > convergences }
+    assertEquals( 'merge convergence', convergences + 1, b.statistics.convergences )
+  }
+
+  private VersionedReplicatedMap<String,String> map( String group, String name ) {
+    map( group, name, TimeUnit.MINUTES.toMillis( 1 ) )
+  }
+
+  private VersionedReplicatedMap<String,String> map( String group, String name, long antiEntropyInterval ) {
+    map( group, name, antiEntropyInterval, true )
+  }
+
+  private VersionedReplicatedMap<String,String> map( String group, String name, long antiEntropyInterval, boolean mux ) {
+    JChannel channel = new JChannel( false )
+    channel.setName( name )
+    if ( mux ) {
+      channel.setUpHandler( new MuxUpHandler( ) )
+    }
+    ProtocolStack stack = new ProtocolStack( )
+    channel.setProtocolStack( stack )
+    SHARED_LOOPBACK transport = new SHARED_LOOPBACK( )
+    PING ping = new PING( )
+    ping.setTimeout( 500 )
+    ping.setNumInitialMembers( 4 )
+    GMS gms = new GMS( )
+    gms.setJoinTimeout( 1000 )
+    stack.addProtocols( transport, ping, new NAKACK2( ), new UNICAST2( ), new STABLE( ), gms, new FRAG2( ) )
+    stack.init( )
+    VersionedReplicatedMap<String,String> map = new VersionedReplicatedMap<>( channel, ID, 'test-map-' + name )
+    map.setBlockingUpdates( true )
+    channels << channel
+    maps << map
+    channel.connect( group )
+    map.start( TimeUnit.SECONDS.toMillis( 5 ), antiEntropyInterval )
+    map
+  }
+
+  private static Address address( VersionedReplicatedMap<String,String> map ) {
+    map.channel.address
+  }
+
+  private static void awaitEquals( Map<String,String> expected, VersionedReplicatedMap<String,String>... maps ) {
+    await{ maps.every{ VersionedReplicatedMap<String,String> map -> expected == map.snapshot( ) } }
+    maps.each{ VersionedReplicatedMap<String,String> map -> assertEquals( 'entries', expected, map.snapshot( ) ) }
+  }
+
+  private static void await( Closure<Boolean> condition ) {
+    long until = System.currentTimeMillis( ) + TimeUnit.SECONDS.toMillis( 10 )
+    while ( !condition.call( ) && System.currentTimeMillis( ) < until ) {
+      TimeUnit.MILLISECONDS.sleep( 50 )
+    }
+  }
+
+  private static final class RecordingNotification implements ReplicatedHashMap.Notification<String,String> {
+    private final List<String> notifications
+
+    RecordingNotification( final List<String> notifications ) {
+      this.notifications = notifications
+    }
+
+    @Override
+    void entrySet( String key, String value ) {
+      notifications << "set:${key}=${value}".toString( )
+    }
+
+    @Override
+    void entryRemoved( String key ) {
+      notifications << "removed:${key}".toString( )
+    }
+
+    @Override
+    void viewChange( View view, List<Address> joined, List<Address> left ) {
+    }
+
+    @Override
+    void contentsSet( Map<String,String> contents ) {
+    }
+
+    @Override
+    void contentsCleared( ) {
+    }
+  }
+}
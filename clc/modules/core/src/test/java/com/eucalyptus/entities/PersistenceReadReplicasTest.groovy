@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities
+
+import static org.junit.Assert.*
+import com.google.common.net.HostAndPort
+import groovy.transform.CompileStatic
+import org.junit.Test
+
+/**
+ *
+ */
+@CompileStatic
+class PersistenceReadReplicasTest {
+
+  @Test
+  void testParse( ) {
+    assertEquals( 'empty', [], PersistenceReadReplicas.parse( '' ) )
+    assertEquals( 'replicas',
+        [ HostAndPort.fromString( '10.0.0.1' ), HostAndPort.fromParts( 'db2.internal', 5433 ) ],
+        PersistenceReadReplicas.parse( ' 10.0.0.1, db2.internal:5433,' ) )
+  }
+
+  @Test
+  void testPoolAlias( ) {
+    assertEquals( 'default port alias', 'eucalyptus_cloud_replica_10_0_0_1_5432',
+        PersistenceReadReplicas.poolAlias( 'eucalyptus_cloud', HostAndPort.fromString( '10.0.0.1' ) ) )
+    assertEquals( 'port alias', 'eucalyptus_shared_replica_db2_internal_5433',
+        PersistenceReadReplicas.poolAlias( 'eucalyptus_shared', HostAndPort.fromString( 'db2.internal:5433' ) ) )
+  }
+
+  @Test
+  void testTargetLagGuard( ) {
+    PersistenceReadReplicas.ReplicaTarget target = PersistenceReadReplicas.target( 'test_replica' )
+    assertSame( 'shared target', target, PersistenceReadReplicas.target( 'test_replica' ) )
+    assertFalse( 'usable before check', target.usable )
+    assertTrue( 'check due', target.checkDue )
+    assertFalse( 'check due while checking', target.checkDue )
+    target.checked( 100L )
+    assertTrue( 'usable with lag', target.usable )
+    assertFalse( 'check due after check', target.checkDue )
+    target.checked( null )
+    assertFalse( 'usable with unknown lag', target.usable )
+    target.checked( 60_000L )
+    assertFalse( 'usable with excessive lag', target.usable )
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities
+
+import static org.junit.Assert.*
+import groovy.transform.CompileStatic
+import org.junit.Before
+import org.junit.Test
+
+/**
+ *
+ */
+@CompileStatic
+class TransactionProfilesTest {
+
+  @Before
+  void reset( ) {
+    TransactionProfiles.reset( )
+  }
+
+  @Test
+  void testCallSite( ) {
+    StackTraceElement[] stack = [
+        new StackTraceElement( 'com.eucalyptus.entities.Entities', 'transactionFor', null, 1 ),
+        new StackTraceElement( 'com.eucalyptus.entities.Entities$TransactionalFunction', 'apply', null, 1 ),
+        new StackTraceElement( 'com.google.common.base.Suppliers$SupplierComposition', 'get', null, 1 ),
+        new StackTraceElement( 'com.eucalyptus.compute.Example', 'update', null, 1 ),
+    ] as StackTraceElement[]
+    assertEquals( 'call site', 'com.eucalyptus.compute.Example.update', TransactionProfiles.callSite( stack ) )
+  }
+
+  @Test
+  void testTop( ) {
+    profile( 'Busy', 10, 100 )
+    profile( 'Busy', 20, 200 )
+    profile( 'Quiet', 1, 1 )
+    TransactionProfiles.retried( )
+
+    List<TransactionProfiles.CallSiteStatistics> byStatements =
+        TransactionProfiles.top( TransactionProfiles.Metric.STATEMENTS, 1 )
+    assertEquals( 'top count', 1, byStatements.size( ) )
+    assertEquals( 'top call site', 'com.eucalyptus.example.Busy.run', byStatements[0].callSite )
+    assertEquals( 'transactions', 2L, byStatements[0].transactions )
+    assertEquals( 'statements', 30L, byStatements[0].statementCounts.total )
+    assertEquals( 'statements max', 20L, byStatements[0].statementCounts.max )
+    assertEquals( 'rows loaded', 300L, byStatements[0].rowsLoadedCounts.total )
+
+    List<TransactionProfiles.CallSiteStatistics> byRetries =
+        TransactionProfiles.top( TransactionProfiles.Metric.RETRIES, 2 )
+    assertEquals( 'top retries call site', 'com.eucalyptus.example.Quiet.run', byRetries[0].callSite )
+    assertEquals( 'retries', 1L, byRetries[0].retries )
+  }
+
+  @Test
+  void testHistogramPercentile( ) {
+    TransactionProfiles.Histogram histogram = new TransactionProfiles.Histogram( )
+    ( 1..100 ).each{ Integer value -> histogram.record( value ) }
+    TransactionProfiles.HistogramSnapshot snapshot = histogram.snapshot( )
+    assertEquals( 'count', 100L, snapshot.count )
+    assertEquals( 'mean', 50L, snapshot.mean )
+    assertEquals( 'p50 upper bound', 63L, snapshot.getPercentile( 50 ) )
+    assertEquals( 'p99 upper bound', 100L, snapshot.getPercentile( 99 ) )
+  }
+
+  private static void profile( String type, int statements, int rows ) {
+    TransactionProfiles.Profile profile = TransactionProfiles.start( [
+        new StackTraceElement( "com.eucalyptus.example.${type}", 'run', null, 1 )
+    ] as StackTraceElement[] )
+    ( 1..statements ).each{ profile.statement( ) }
+    ( 1..rows ).each{ profile.loaded( ) }
+    profile.complete( )
+    profile.complete( )
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl
+
+import static org.junit.Assert.*
+import groovy.transform.CompileStatic
+import com.eucalyptus.entities.ConnectionPoolStatistics
+import org.junit.BeforeClass
+import org.junit.Test
+
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+import java.sql.Connection
+import java.sql.Driver
+import java.sql.DriverManager
+import java.sql.DriverPropertyInfo
+import java.sql.SQLException
+import java.sql.SQLFeatureNotSupportedException
+import java.sql.SQLTransientConnectionException
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Consumer
+import java.util.logging.Logger
+
+/**
+ *
+ */
+@CompileStatic
+class BoundedConnectionPoolTest {
+
+  private static final AtomicInteger opened = new AtomicInteger( )
+
+  @BeforeClass
+  static void registerDriver( ) {
+    DriverManager.registerDriver( new StubDriver( ) )
+  }
+
+  @Test
+  void testReuse( ) {
+    BoundedConnectionPool pool = pool( 'test-reuse', 2 )
+    int initial = opened.get( )
+    Connection connection = pool.getConnection( )
+    assertEquals( 'active', 1, pool.statistics.active )
+    connection.close( )
+    connection.close( )
+    assertTrue( 'closed', connection.isClosed( ) )
+    pool.getConnection( ).close( )
+    ConnectionPoolStatistics statistics = pool.statistics
+    assertEquals( 'opened', 1, opened.get( ) - initial )
+    assertEquals( 'active', 0, statistics.active )
+    assertEquals( 'idle', 1, statistics.idle )
+    assertEquals( 'acquisitions', 2L, statistics.acquisitions )
+  }
+
+  @Test
+  void testTimeout( ) {
+    BoundedConnectionPool pool = pool( 'test-timeout', 1 )
+    List<Boolean> overloads = [ ]
+    pool.addOverloadListener( { Boolean overloaded -> overloads << overloaded } as Consumer<Boolean> )
+    Connection connection = pool.getConnection( )
+    try {
+      pool.getConnection( )
+      fail( 'Expected timeout' )
+    } catch ( SQLTransientConnectionException e ) {
+      // expected
+    }
+    connection.close( )
+    assertEquals( 'timeouts', 1L, pool.statistics.timeouts )
+    assertEquals( 'overload notifications', [ true, false ], overloads )
+  }
+
+  @Test( expected = SQLException )
+  void testShutdown( ) {
+    BoundedConnectionPool pool = pool( 'test-shutdown', 1 )
+    pool.getConnection( ).close( )
+    pool.shutdown( )
+    pool.getConnection( )
+  }
+
+  private static BoundedConnectionPool pool( String alias, int size ) {
+    Properties properties = new Properties( )
+    properties.setProperty( 'maximumSize', String.valueOf( size ) )
+    properties.setProperty( 'acquireTimeoutMillis', '50' )
+    new BoundedConnectionPool( alias, 'jdbc:stub:' + alias, properties )
+  }
+
+  static class StubDriver implements Driver {
+    @Override
+    Connection connect( String url, Properties info ) throws SQLException {
+      if ( !acceptsURL( url ) ) return null
+      opened.incrementAndGet( )
+      boolean[] closed = [ false ] as boolean[]
+      (Connection) Proxy.newProxyInstance( getClass( ).classLoader, [ Connection ] as Class[], { Object proxy, Method method, Object[] args ->
+        switch ( method.name ) {
+          case 'close': closed[0] = true; return null
+          case 'isClosed': return closed[0]
+          case 'isValid': return !closed[0]
+          case 'getAutoCommit': return true
+          default: return null
+        }
+      } as InvocationHandler )
+    }
+
+    @Override
+    boolean acceptsURL( String url ) throws SQLException {
+      url.startsWith( 'jdbc:stub:' )
+    }
+
+    @Override
+    DriverPropertyInfo[] getPropertyInfo( String url, Properties info ) throws SQLException {
+      new DriverPropertyInfo[0]
+    }
+
+    @Override
+    int getMajorVersion( ) {
+      1
+    }
+
+    @Override
+    int getMinorVersion( ) {
+      0
+    }
+
+    @Override
+    boolean jdbcCompliant( ) {
+      false
+    }
+
+    @Override
+    Logger getParentLogger( ) throws SQLFeatureNotSupportedException {
+      throw new SQLFeatureNotSupportedException( )
+    }
+  }
+}
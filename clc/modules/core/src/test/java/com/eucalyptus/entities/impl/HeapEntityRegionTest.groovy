@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl
+
+import static org.junit.Assert.*
+import groovy.transform.CompileStatic
+import org.hibernate.cache.spi.access.AccessType
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy
+import org.junit.Test
+
+/**
+ *
+ */
+@CompileStatic
+class HeapEntityRegionTest {
+
+  @Test
+  void testNonstrictReadWrite( ) {
+    HeapEntityRegion region = new HeapEntityRegion( 'test-nonstrict', 'maximumSize=10', null )
+    EntityRegionAccessStrategy access = region.buildAccessStrategy( AccessType.NONSTRICT_READ_WRITE )
+    assertNull( 'initial get', access.get( 'key', 0 ) )
+    assertTrue( 'put from load', access.putFromLoad( 'key', 'value', 0, null ) )
+    assertFalse( 'minimal put from load', access.putFromLoad( 'key', 'value2', 0, null ) )
+    assertEquals( 'get', 'value', access.get( 'key', 0 ) )
+    assertFalse( 'insert', access.insert( 'key2', 'value', null ) )
+    assertNull( 'get after insert', access.get( 'key2', 0 ) )
+    assertFalse( 'update', access.update( 'key', 'value3', null, null ) )
+    assertNull( 'get after update', access.get( 'key', 0 ) )
+    access.putFromLoad( 'key', 'value3', 0, null )
+    access.unlockItem( 'key', access.lockItem( 'key', null ) )
+    assertNull( 'get after unlock', access.get( 'key', 0 ) )
+    assertEquals( 'hits', 1L, region.stats( ).hitCount( ) )
+    assertEquals( 'misses', 4L, region.stats( ).missCount( ) )
+  }
+
+  @Test
+  void testSizeLimit( ) {
+    HeapEntityRegion region = new HeapEntityRegion( 'test-size', 'maximumSize=10', null )
+    EntityRegionAccessStrategy access = region.buildAccessStrategy( AccessType.READ_ONLY )
+    ( 0..<100 ).each{ Integer key -> access.putFromLoad( key, 'value', 0, null ) }
+    assertTrue( 'size limited', region.elementCountInMemory <= 10 )
+  }
+
+  @Test( expected = UnsupportedOperationException )
+  void testReadOnlyUpdate( ) {
+    HeapEntityRegion region = new HeapEntityRegion( 'test-read-only', 'maximumSize=10', null )
+    region.buildAccessStrategy( AccessType.READ_ONLY ).update( 'key', 'value', null, null )
+  }
+
+  @Test
+  void testRemoteInvalidation( ) {
+    HeapRegionFactory factory = new HeapRegionFactory( )
+    HeapEntityRegion region = (HeapEntityRegion) factory.buildEntityRegion( 'test-remote', new Properties( ), null )
+    EntityRegionAccessStrategy access = region.buildAccessStrategy( AccessType.NONSTRICT_READ_WRITE )
+    access.putFromLoad( 'key', 'value', 0, null )
+    access.putFromLoad( 'key2', 'value', 0, null )
+    HeapRegionFactory.invalidate( 'test-remote', 'key' )
+    assertNull( 'get after invalidate', access.get( 'key', 0 ) )
+    assertNotNull( 'get other after invalidate', access.get( 'key2', 0 ) )
+    HeapRegionFactory.invalidate( 'test-remote', null )
+    assertNull( 'get after invalidate all', access.get( 'key2', 0 ) )
+    assertTrue( 'statistics', HeapRegionFactory.statistics( ).containsKey( 'test-remote' ) )
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.entities.impl
+
+import static org.junit.Assert.*
+import groovy.transform.CompileStatic
+import org.junit.BeforeClass
+import org.junit.Test
+
+import java.sql.DriverManager
+import java.sql.SQLException
+
+/**
+ *
+ */
+@CompileStatic
+class ProxoolConnectionPoolTest {
+
+  @BeforeClass
+  static void registerDriver( ) {
+    DriverManager.registerDriver( new BoundedConnectionPoolTest.StubDriver( ) )
+  }
+
+  @Test
+  void testPoolExhausted( ) {
+    assertTrue( 'exhausted', ProxoolConnectionPool.isPoolExhausted( new SQLException(
+        "Couldn't get connection because we are at maximum connection count (1/1) and there are none available" ) ) )
+    assertFalse( 'connection error', ProxoolConnectionPool.isPoolExhausted( new SQLException( 'Connection refused' ) ) )
+    assertFalse( 'no message', ProxoolConnectionPool.isPoolExhausted( new SQLException( ) ) )
+  }
+
+  @Test
+  void testConnectionErrorNotCountedAsTimeout( ) {
+    ProxoolConnectionPool pool = pool( 'test-error', 'jdbc:unknown:test-error' )
+    try {
+      try {
+        pool.getConnection( )
+        fail( 'Expected connection error' )
+      } catch ( SQLException e ) {
+        assertFalse( 'exhausted', ProxoolConnectionPool.isPoolExhausted( e ) )
+      }
+      assertEquals( 'timeouts', 0L, pool.statistics.timeouts )
+    } finally {
+      pool.shutdown( )
+    }
+  }
+
+  private static ProxoolConnectionPool pool( String alias, String url ) {
+    Properties properties = new Properties( )
+    properties.setProperty( 'maximumSize', '1' )
+    properties.setProperty( 'driver', BoundedConnectionPoolTest.StubDriver.name )
+    new ProxoolConnectionPool( alias, url, properties )
+  }
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare.common.identity.msgs;
+
+public class DescribePrincipalsResponseType extends IdentityMessage {
+
+  private DescribePrincipalsResult describePrincipalsResult;
+
+  public DescribePrincipalsResult getDescribePrincipalsResult( ) {
+    return describePrincipalsResult;
+  }
+
+  public void setDescribePrincipalsResult( DescribePrincipalsResult describePrincipalsResult ) {
+    this.describePrincipalsResult = describePrincipalsResult;
+  }
+}
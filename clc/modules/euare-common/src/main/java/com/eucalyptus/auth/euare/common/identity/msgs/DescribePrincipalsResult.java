@@ -0,0 +1,24 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare.common.identity.msgs;
+
+import java.util.ArrayList;
+import edu.ucsb.eucalyptus.msgs.EucalyptusData;
+
+public class DescribePrincipalsResult extends EucalyptusData {
+
+  private ArrayList<DescribePrincipalResult> results = new ArrayList<>( );
+
+  public ArrayList<DescribePrincipalResult> getResults( ) {
+    return results;
+  }
+
+  public void setResults( ArrayList<DescribePrincipalResult> results ) {
+    this.results = results;
+  }
+}
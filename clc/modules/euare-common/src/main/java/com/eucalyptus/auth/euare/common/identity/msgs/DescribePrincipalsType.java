@@ -0,0 +1,26 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare.common.identity.msgs;
+
+import java.util.ArrayList;
+
+/**
+ * Describe multiple principals in one request, results are in request order.
+ */
+public class DescribePrincipalsType extends IdentityMessage {
+
+  private ArrayList<PrincipalQuery> queries = new ArrayList<>( );
+
+  public ArrayList<PrincipalQuery> getQueries( ) {
+    return queries;
+  }
+
+  public void setQueries( ArrayList<PrincipalQuery> queries ) {
+    this.queries = queries;
+  }
+}
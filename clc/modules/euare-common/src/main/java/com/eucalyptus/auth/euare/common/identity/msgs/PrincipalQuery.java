@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare.common.identity.msgs;
+
+import edu.ucsb.eucalyptus.msgs.EucalyptusData;
+
+/**
+ * Principal lookup parameters, as for DescribePrincipal
+ */
+public class PrincipalQuery extends EucalyptusData {
+
+  private String accessKeyId;
+  private String certificateId;
+  private String userId;
+  private String username;
+  private String roleId;
+  private String accountId;
+  private String canonicalId;
+  private String nonce;
+  private String ptag;
+
+  public static PrincipalQuery of( final DescribePrincipalType request ) {
+    final PrincipalQuery query = new PrincipalQuery( );
+    query.setAccessKeyId( request.getAccessKeyId( ) );
+    query.setCertificateId( request.getCertificateId( ) );
+    query.setUserId( request.getUserId( ) );
+    query.setUsername( request.getUsername( ) );
+    query.setRoleId( request.getRoleId( ) );
+    query.setAccountId( request.getAccountId( ) );
+    query.setCanonicalId( request.getCanonicalId( ) );
+    query.setNonce( request.getNonce( ) );
+    query.setPtag( request.getPtag( ) );
+    return query;
+  }
+
+  public DescribePrincipalType toRequest( ) {
+    final DescribePrincipalType request = new DescribePrincipalType( );
+    request.setAccessKeyId( getAccessKeyId( ) );
+    request.setCertificateId( getCertificateId( ) );
+    request.setUserId( getUserId( ) );
+    request.setUsername( getUsername( ) );
+    request.setRoleId( getRoleId( ) );
+    request.setAccountId( getAccountId( ) );
+    request.setCanonicalId( getCanonicalId( ) );
+    request.setNonce( getNonce( ) );
+    request.setPtag( getPtag( ) );
+    return request;
+  }
+
+  public String getAccessKeyId( ) {
+    return accessKeyId;
+  }
+
+  public void setAccessKeyId( String accessKeyId ) {
+    this.accessKeyId = accessKeyId;
+  }
+
+  public String getCertificateId( ) {
+    return certificateId;
+  }
+
+  public void setCertificateId( String certificateId ) {
+    this.certificateId = certificateId;
+  }
+
+  public String getUserId( ) {
+    return userId;
+  }
+
+  public void setUserId( String userId ) {
+    this.userId = userId;
+  }
+
+  public String getUsername( ) {
+    return username;
+  }
+
+  public void setUsername( String username ) {
+    this.username = username;
+  }
+
+  public String getRoleId( ) {
+    return roleId;
+  }
+
+  public void setRoleId( String roleId ) {
+    this.roleId = roleId;
+  }
+
+  public String getAccountId( ) {
+    return accountId;
+  }
+
+  public void setAccountId( String accountId ) {
+    this.accountId = accountId;
+  }
+
+  public String getCanonicalId( ) {
+    return canonicalId;
+  }
+
+  public void setCanonicalId( String canonicalId ) {
+    this.canonicalId = canonicalId;
+  }
+
+  public String getNonce( ) {
+    return nonce;
+  }
+
+  public void setNonce( String nonce ) {
+    this.nonce = nonce;
+  }
+
+  public String getPtag( ) {
+    return ptag;
+  }
+
+  public void setPtag( String ptag ) {
+    this.ptag = ptag;
+  }
+}
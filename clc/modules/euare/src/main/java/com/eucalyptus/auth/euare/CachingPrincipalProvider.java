@@ -31,28 +31,48 @@ package com.eucalyptus.auth.euare;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.text.IsEmptyString.isEmptyOrNullString;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import com.eucalyptus.auth.AuthException;
 import com.eucalyptus.auth.AuthenticationProperties;
 import com.eucalyptus.auth.principal.UserPrincipal;
+import com.eucalyptus.component.id.Euare;
+import com.eucalyptus.event.EventListener;
+import com.eucalyptus.event.Listeners;
+import com.eucalyptus.system.Threads;
 import com.eucalyptus.util.Pair;
 import com.eucalyptus.util.Parameters;
 import com.eucalyptus.util.async.AsyncExceptions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 
 /**
+ * Principal provider with a refresh-ahead cache.
  *
+ * Expired principals continue to be served while a single asynchronous reload per key runs. Stale
+ * principals are served for at most the lifetime of the cache entry, and cached principals are
+ * invalidated on local changes to identity entities.
  */
 public class CachingPrincipalProvider extends RegionDelegatingPrincipalProvider {
 
+  private static final int REFRESH_THREADS = Integer.getInteger( "com.eucalyptus.auth.principalCacheRefreshThreads", 4 );
+
   private final static AtomicReference<Pair<String,Cache<PrincipalCacheKey,PrincipalCacheValue>>> cacheReference =
       new AtomicReference<>( );
+  private final static ConcurrentMap<PrincipalCacheKey,Boolean> refreshing = Maps.newConcurrentMap( );
+  private final static ConcurrentMap<String,PrincipalCacheStatistics> statistics = Maps.newConcurrentMap( );
+  private final static AtomicLong generation = new AtomicLong( );
 
   @Override
   public UserPrincipal lookupCachedPrincipalByUserId( final UserPrincipal cached, final String userId, final String nonce ) throws AuthException {
@@ -108,11 +128,17 @@ public class CachingPrincipalProvider extends RegionDelegatingPrincipalProvider
       final PrincipalLoader loader ) throws AuthException {
     PrincipalCacheValue principalValue = null;
     final Cache<PrincipalCacheKey,PrincipalCacheValue> cache = cache( );
+    final PrincipalCacheStatistics keyStatistics = statistics( key );
     try {
-      principalValue = cache.get( key, loader.callable( null ) );
-      if ( principalValue.updated + AuthenticationProperties.getAuthorizationExpiry( ) < System.currentTimeMillis( ) ) {
-        cache.invalidate( key ); // invalidate expired and refresh
-        principalValue =  cache.get( key, loader.callable( principalValue.principal ) );
+      principalValue = cache.getIfPresent( key );
+      if ( principalValue == null ) {
+        keyStatistics.misses.incrementAndGet( );
+        principalValue = cache.get( key, loader.callable( null ) ); // concurrent loads for the key are coalesced
+      } else if ( principalValue.updated + AuthenticationProperties.getAuthorizationExpiry( ) >= System.currentTimeMillis( ) ) {
+        keyStatistics.hits.incrementAndGet( );
+      } else {
+        refresh( cache, key, loader, principalValue, keyStatistics );
+        keyStatistics.staleServes.incrementAndGet( );
       }
       return principalValue.principal;
     } catch ( final ExecutionException e ) {
@@ -131,6 +157,107 @@ public class CachingPrincipalProvider extends RegionDelegatingPrincipalProvider
     }
   }
 
+  /**
+   * Reload the given expired value asynchronously, at most one reload runs for each key.
+   */
+  private static void refresh(
+      final Cache<PrincipalCacheKey,PrincipalCacheValue> cache,
+      final PrincipalCacheKey key,
+      final PrincipalLoader loader,
+      final PrincipalCacheValue value,
+      final PrincipalCacheStatistics keyStatistics
+  ) {
+    if ( refreshing.putIfAbsent( key, Boolean.TRUE ) != null ) {
+      return; // reload in progress
+    }
+    final long refreshGeneration = generation.get( );
+    refreshExecutor( ).submit( ( ) -> {
+      try {
+        final PrincipalCacheValue refreshed = new PrincipalCacheValue( loader.load( value.principal ) );
+        if ( refreshGeneration == generation.get( ) ) { // discard if invalidated during reload
+          cache.asMap( ).replace( key, value, refreshed );
+        }
+        keyStatistics.reloads.incrementAndGet( );
+      } catch ( final Exception e ) {
+        keyStatistics.reloadFailures.incrementAndGet( );
+        // reuse cached value on failure within configured limit, else remove so the failure is seen on next lookup
+        if ( !AsyncExceptions.asWebServiceError( e ).isPresent( ) &&
+            value.created + AuthenticationProperties.getAuthorizationReuseExpiry( ) > System.currentTimeMillis( ) ) {
+          cache.asMap( ).replace( key, value, new PrincipalCacheValue( value ) );
+        } else {
+          cache.asMap( ).remove( key, value );
+        }
+      } finally {
+        refreshing.remove( key );
+      }
+    } );
+  }
+
+  private static ExecutorService refreshExecutor( ) {
+    return Threads.lookup( Euare.class, CachingPrincipalProvider.class, "refresh" ).limitTo( REFRESH_THREADS );
+  }
+
+  /**
+   * Invalidate all cached principals, reloads in progress are discarded.
+   */
+  public static void invalidateAll( ) {
+    generation.incrementAndGet( );
+    final Pair<String,Cache<PrincipalCacheKey,PrincipalCacheValue>> cachePair = cacheReference.get( );
+    if ( cachePair != null ) {
+      cachePair.getRight( ).invalidateAll( );
+    }
+  }
+
+  /**
+   * Invalidate cached principals for a user or role, or for an account.
+   *
+   * <p>All cached principals are invalidated if neither the account nor identifier is given.</p>
+   *
+   * @param accountNumber The account number, used if there is no identifier
+   * @param identifier The user or role identifier
+   */
+  public static void invalidate( @Nullable final String accountNumber, @Nullable final String identifier ) {
+    if ( accountNumber == null && identifier == null ) {
+      invalidateAll( );
+      return;
+    }
+    final Pair<String,Cache<PrincipalCacheKey,PrincipalCacheValue>> cachePair = cacheReference.get( );
+    if ( cachePair != null ) {
+      // reloads in progress for removed entries are discarded on completion
+      cachePair.getRight( ).asMap( ).entrySet( ).removeIf( entry -> identifier != null ?
+          isForIdentifier( entry.getKey( ), entry.getValue( ).principal, identifier ) :
+          isForAccount( entry.getKey( ), entry.getValue( ).principal, accountNumber ) );
+    }
+  }
+
+  private static boolean isForIdentifier( final PrincipalCacheKey key, final UserPrincipal principal, final String identifier ) {
+    final String authenticatedId = principal.getAuthenticatedId( );
+    return identifier.equals( key.identifier ) ||
+        identifier.equals( principal.getUserId( ) ) ||
+        identifier.equals( authenticatedId ) ||
+        ( authenticatedId != null && authenticatedId.startsWith( identifier + ":" ) ); // roleid:sessionName
+  }
+
+  private static boolean isForAccount( final PrincipalCacheKey key, final UserPrincipal principal, final String accountNumber ) {
+    return ( key instanceof AccountNumberPrincipalCacheKey && accountNumber.equals( key.identifier ) ) ||
+        accountNumber.equals( principal.getAccountNumber( ) );
+  }
+
+  /**
+   * Get the hit, miss, reload and stale serve counts for each key type.
+   */
+  public static Map<String,Map<String,Long>> getStatistics( ) {
+    final Map<String,Map<String,Long>> result = new TreeMap<>( );
+    for ( final Map.Entry<String,PrincipalCacheStatistics> entry : statistics.entrySet( ) ) {
+      result.put( entry.getKey( ), entry.getValue( ).toMap( ) );
+    }
+    return result;
+  }
+
+  private static PrincipalCacheStatistics statistics( final PrincipalCacheKey key ) {
+    return statistics.computeIfAbsent( key.type( ), type -> new PrincipalCacheStatistics( ) );
+  }
+
   private static Cache<PrincipalCacheKey,PrincipalCacheValue> cache( ) {
     Cache<PrincipalCacheKey,PrincipalCacheValue> cache;
     final Pair<String,Cache<PrincipalCacheKey,PrincipalCacheValue>> cachePair = cacheReference.get( );
@@ -188,6 +315,35 @@ public class CachingPrincipalProvider extends RegionDelegatingPrincipalProvider
     }
   }
 
+  public static class PrincipalChangeEventListener implements EventListener<PrincipalChangeEvent> {
+    public static void register( ) {
+      Listeners.register( PrincipalChangeEvent.class, new PrincipalChangeEventListener( ) );
+    }
+
+    @Override
+    public void fireEvent( final PrincipalChangeEvent event ) {
+      invalidate( event.getAccountNumber( ), event.getIdentifier( ) );
+    }
+  }
+
+  private static final class PrincipalCacheStatistics {
+    private final AtomicLong hits = new AtomicLong( );
+    private final AtomicLong misses = new AtomicLong( );
+    private final AtomicLong reloads = new AtomicLong( );
+    private final AtomicLong reloadFailures = new AtomicLong( );
+    private final AtomicLong staleServes = new AtomicLong( );
+
+    Map<String,Long> toMap( ) {
+      return ImmutableMap.of(
+          "Hits", hits.get( ),
+          "Misses", misses.get( ),
+          "Reloads", reloads.get( ),
+          "ReloadFailures", reloadFailures.get( ),
+          "StaleServes", staleServes.get( )
+      );
+    }
+  }
+
   private static abstract class PrincipalCacheKey {
     @Nonnull  private final String identifier;
     @Nullable private final String nonce;
@@ -201,6 +357,10 @@ public class CachingPrincipalProvider extends RegionDelegatingPrincipalProvider
       this.nonce = nonce;
     }
 
+    String type( ) {
+      return getClass( ).getSimpleName( ).replace( "PrincipalCacheKey", "" );
+    }
+
     @SuppressWarnings( "RedundantIfStatement" )
     @Override
     public boolean equals( final Object o ) {
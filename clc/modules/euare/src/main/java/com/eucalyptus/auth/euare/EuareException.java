@@ -63,6 +63,7 @@ public class EuareException extends EucalyptusWebServiceException {
   public static final String INVALID_ID = "InvalidId";
   public static final String INVALID_VALUE = "InvalidValue";
   public static final String VALIDATION_ERROR = "ValidationError";
+  public static final String INVALID_INPUT = "InvalidInput";
 
   private HttpResponseStatus status;
 
@@ -66,6 +66,9 @@ import com.eucalyptus.auth.Permissions;
 import com.eucalyptus.auth.PolicyParseException;
 import com.eucalyptus.auth.ServerCertificate;
 import com.eucalyptus.auth.euare.common.msgs.*;
+import com.eucalyptus.auth.euare.checker.InvalidValueException;
+import com.eucalyptus.auth.euare.checker.ValueChecker;
+import com.eucalyptus.auth.euare.checker.ValueCheckerFactory;
 import com.eucalyptus.auth.euare.common.policy.IamPolicySpec;
 import com.eucalyptus.auth.euare.persist.entities.ServerCertificateEntity;
 import com.eucalyptus.auth.euare.ldap.LdapSync;
@@ -108,6 +111,12 @@ public class EuareService {
 
   private static final Logger LOG = Logger.getLogger( EuareService.class );
 
+  private static final int LIST_PAGE_SIZE = Integer.getInteger( "com.eucalyptus.auth.euare.listPageSize", 1000 );
+
+  private static final int LIST_MAX_ITEMS = 1000;
+
+  private static final ValueChecker LIST_MARKER_CHECKER = ValueCheckerFactory.createUserNameChecker( );
+
   private static final boolean ENCODE_POLICIES =
       Boolean.valueOf( System.getProperty( "com.eucalyptus.auth.euare.encodePolicies", "true" ) );
 
@@ -646,16 +655,37 @@ public class EuareService {
     ListUsersResultType result = reply.getListUsersResult( );
     result.setIsTruncated( false );
     ArrayList<UserType> users = reply.getListUsersResult( ).getUsers( ).getMemberList( );
+    final int maxItems = request.getMaxItems( ) == null ?
+        Integer.MAX_VALUE :
+        Math.min( LIST_MAX_ITEMS, Math.max( 1, request.getMaxItems( ) ) );
+    if ( request.getMarker( ) != null ) {
+      try {
+        LIST_MARKER_CHECKER.check( request.getMarker( ) );
+      } catch ( InvalidValueException e ) {
+        throw new EuareException( HttpResponseStatus.BAD_REQUEST, EuareException.INVALID_INPUT, "Invalid marker " + request.getMarker( ) );
+      }
+    }
     try {
-      for ( final EuareUser user : account.getUsers( ) ) {
-        if ( user.getPath( ).startsWith( path ) ) {
-          if ( Privileged.allowListUser( requestUser, account, user ) ) {
-            UserType u = new UserType( );
-            fillUserResult( u, user, account );
-            users.add( u );
+      String marker = request.getMarker( );
+      List<EuareUser> page;
+      do {
+        page = account.getUsers( path, marker, LIST_PAGE_SIZE );
+        for ( final EuareUser user : page ) {
+          if ( users.size( ) >= maxItems ) {
+            result.setIsTruncated( true );
+            result.setMarker( marker );
+            return reply;
+          }
+          marker = user.getName( );
+          if ( user.getPath( ).startsWith( path ) ) {
+            if ( Privileged.allowListUser( requestUser, account, user ) ) {
+              UserType u = new UserType( );
+              fillUserResult( u, user, account );
+              users.add( u );
+            }
           }
         }
-      }
+      } while ( page.size( ) == LIST_PAGE_SIZE );
     } catch ( Exception e ) {
       LOG.error( e, e );
       throw new EucalyptusCloudException( e );
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare;
+
+import javax.annotation.Nullable;
+import com.eucalyptus.event.GenericEvent;
+
+/**
+ * Event for a change to persistent identity information used in principals.
+ *
+ * The message is the name of the changed entity type. The change is scoped to a user or role
+ * identifier when present, else to an account number when present, else it affects all principals.
+ */
+public class PrincipalChangeEvent extends GenericEvent<String> {
+  private static final long serialVersionUID = 1L;
+
+  @Nullable private final String accountNumber;
+  @Nullable private final String identifier;
+
+  public PrincipalChangeEvent( final String message ) {
+    this( message, null, null );
+  }
+
+  public PrincipalChangeEvent(
+      final String message,
+      @Nullable final String accountNumber,
+      @Nullable final String identifier
+  ) {
+    super( message );
+    this.accountNumber = accountNumber;
+    this.identifier = identifier;
+  }
+
+  /**
+   * The account for the changed entity, if the change affects only principals for the account.
+   */
+  @Nullable
+  public String getAccountNumber( ) {
+    return accountNumber;
+  }
+
+  /**
+   * The user or role identifier, if the change affects only principals for the user or role.
+   */
+  @Nullable
+  public String getIdentifier( ) {
+    return identifier;
+  }
+}
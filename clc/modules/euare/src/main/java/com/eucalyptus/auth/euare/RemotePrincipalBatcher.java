@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.log4j.Logger;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalResponseType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalResult;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalsResponseType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalsType;
+import com.eucalyptus.auth.euare.common.identity.msgs.IdentityMessage;
+import com.eucalyptus.auth.euare.common.identity.msgs.PrincipalQuery;
+import com.eucalyptus.util.async.AsyncExceptions;
+import com.eucalyptus.util.async.AsyncExceptions.AsyncWebServiceError;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+/**
+ * Coalesces concurrent principal lookups for a remote identity service.
+ *
+ * <p>A limited number of calls are in flight for the remote host. Lookups that arrive while all
+ * calls are in flight are queued and sent together in a single DescribePrincipals call when a
+ * call completes, so the batching window is the round trip time of the previous call. A lookup
+ * with no other lookups queued is sent as a DescribePrincipal call.</p>
+ *
+ * <p>A caller returns once its own lookup is complete. When a call completes the caller for the
+ * next queued lookup is woken to send the queued lookups.</p>
+ *
+ * <p>If the remote service fails a DescribePrincipals call, the lookups are sent individually so
+ * only the failing lookups fail. Batching is not used for the remote host for a period if the
+ * service does not support DescribePrincipals.</p>
+ *
+ * <p>A lookup that is not complete within the timeout fails and is no longer sent. Lookups are
+ * failed if sending their call fails unexpectedly.</p>
+ */
+class RemotePrincipalBatcher {
+
+  private static final Logger logger = Logger.getLogger( RemotePrincipalBatcher.class );
+
+  private static final long BATCH_RETRY_MILLIS = TimeUnit.MINUTES.toMillis( 5 );
+
+  private static final Set<String> BATCH_UNSUPPORTED_CODES =
+      ImmutableSet.of( "InvalidAction", "NotImplemented", "UnsupportedOperation" );
+
+  interface Sender {
+    IdentityMessage send( IdentityMessage request ) throws Exception;
+  }
+
+  private final Sender sender;
+  private final int maxBatchSize;
+  private final Semaphore calls;
+  private final Queue<PendingLookup> pending = new ConcurrentLinkedQueue<>( );
+  private volatile long batchUnsupportedUntil;
+
+  private final AtomicLong lookupCount = new AtomicLong( );
+  private final AtomicLong callCount = new AtomicLong( );
+
+  RemotePrincipalBatcher( final Sender sender, final int maxCalls, final int maxBatchSize ) {
+    this.sender = sender;
+    this.maxBatchSize = maxBatchSize;
+    this.calls = new Semaphore( maxCalls );
+  }
+
+  /**
+   * Lookup a principal, waiting for at most the given timeout.
+   *
+   * @param request The principal lookup
+   * @param timeoutMillis The time to wait for queued and in flight calls
+   * @return The result
+   * @throws TimeoutException If the lookup did not complete in time
+   */
+  DescribePrincipalResult describePrincipal( final DescribePrincipalType request,
+                                             final long timeoutMillis ) throws Exception {
+    lookupCount.incrementAndGet( );
+    final PendingLookup lookup = new PendingLookup( request );
+    final long deadline = System.nanoTime( ) + TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+    pending.add( lookup );
+    while ( !lookup.result.isDone( ) ) {
+      if ( calls.tryAcquire( ) ) {
+        final List<PendingLookup> batch = drain( );
+        try {
+          send( batch );
+        } catch ( final Throwable t ) {
+          batch.forEach( batchLookup -> batchLookup.fail( t ) );
+          throw t;
+        } finally {
+          calls.release( );
+          signalNext( );
+        }
+      } else {
+        // an in flight call will send the lookup or wake this caller on completion
+        final long remaining = deadline - System.nanoTime( );
+        if ( remaining <= 0 || !lookup.signal.tryAcquire( remaining, TimeUnit.NANOSECONDS ) ) {
+          pending.remove( lookup );
+          lookup.fail( new TimeoutException( "Principal lookup timed out after " + timeoutMillis + "ms" ) );
+        }
+      }
+    }
+    try {
+      return lookup.result.get( );
+    } catch ( final ExecutionException e ) {
+      throw e.getCause( ) instanceof Exception ? (Exception) e.getCause( ) : e;
+    }
+  }
+
+  long getLookupCount( ) {
+    return lookupCount.get( );
+  }
+
+  long getCallCount( ) {
+    return callCount.get( );
+  }
+
+  /**
+   * False if batching is not used because the service did not support it.
+   */
+  boolean isBatching( ) {
+    return System.currentTimeMillis( ) >= batchUnsupportedUntil;
+  }
+
+  /**
+   * Wake the caller for the next queued lookup so it can send the queued lookups.
+   */
+  private void signalNext( ) {
+    PendingLookup next;
+    while ( ( next = pending.peek( ) ) != null ) {
+      if ( !next.result.isDone( ) ) {
+        next.signal.release( );
+        return;
+      }
+      pending.remove( next );
+    }
+  }
+
+  private List<PendingLookup> drain( ) {
+    final List<PendingLookup> batch = Lists.newArrayList( );
+    PendingLookup lookup;
+    while ( batch.size( ) < maxBatchSize && ( lookup = pending.poll( ) ) != null ) {
+      if ( !lookup.result.isDone( ) ) { // skip timed out lookups
+        batch.add( lookup );
+      }
+    }
+    return batch;
+  }
+
+  private void send( final List<PendingLookup> batch ) {
+    if ( batch.isEmpty( ) ) {
+      return;
+    }
+    if ( batch.size( ) == 1 || System.currentTimeMillis( ) < batchUnsupportedUntil ) {
+      batch.forEach( this::sendSingle );
+      return;
+    }
+    final DescribePrincipalsType request = new DescribePrincipalsType( );
+    for ( final PendingLookup lookup : batch ) {
+      request.getQueries( ).add( PrincipalQuery.of( lookup.request ) );
+    }
+    final List<DescribePrincipalResult> results;
+    try {
+      callCount.incrementAndGet( );
+      final DescribePrincipalsResponseType response = (DescribePrincipalsResponseType) sender.send( request );
+      results = response.getDescribePrincipalsResult( ).getResults( );
+      if ( results.size( ) != batch.size( ) ) {
+        throw new IllegalStateException( "Expected " + batch.size( ) + " results, but was " + results.size( ) );
+      }
+    } catch ( final Exception e ) {
+      final Optional<AsyncWebServiceError> error = AsyncExceptions.asWebServiceError( e );
+      if ( e instanceof IllegalStateException ||
+          ( error.isPresent( ) && BATCH_UNSUPPORTED_CODES.contains( error.get( ).getCode( ) ) ) ) {
+        logger.debug( "Batched principal lookup not supported, using individual lookups: " + e.getMessage( ) );
+        batchUnsupportedUntil = System.currentTimeMillis( ) + BATCH_RETRY_MILLIS;
+        batch.forEach( this::sendSingle );
+      } else if ( error.isPresent( ) ) {
+        // the error may be for one lookup, send individually so only that lookup fails
+        logger.debug( "Batched principal lookup failed, using individual lookups: " + e.getMessage( ) );
+        batch.forEach( this::sendSingle );
+      } else {
+        batch.forEach( lookup -> lookup.fail( e ) );
+      }
+      return;
+    }
+    for ( int i = 0; i < batch.size( ); i++ ) {
+      batch.get( i ).complete( results.get( i ) );
+    }
+  }
+
+  private void sendSingle( final PendingLookup lookup ) {
+    try {
+      callCount.incrementAndGet( );
+      final DescribePrincipalResponseType response = (DescribePrincipalResponseType) sender.send( lookup.request );
+      lookup.complete( response.getDescribePrincipalResult( ) );
+    } catch ( final Exception e ) {
+      lookup.fail( e );
+    }
+  }
+
+  private static final class PendingLookup {
+    private final DescribePrincipalType request;
+    private final CompletableFuture<DescribePrincipalResult> result = new CompletableFuture<>( );
+    // released when the lookup completes or the caller should send queued lookups
+    private final Semaphore signal = new Semaphore( 0 );
+
+    private PendingLookup( final DescribePrincipalType request ) {
+      this.request = request;
+    }
+
+    private void complete( final DescribePrincipalResult describePrincipalResult ) {
+      result.complete( describePrincipalResult );
+      signal.release( );
+    }
+
+    private void fail( final Throwable throwable ) {
+      result.completeExceptionally( throwable );
+      signal.release( );
+    }
+  }
+}
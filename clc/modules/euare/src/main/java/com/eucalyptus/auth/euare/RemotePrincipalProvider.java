@@ -36,6 +36,8 @@ import java.security.interfaces.RSAPublicKey;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -69,6 +71,7 @@ import com.eucalyptus.auth.euare.common.identity.msgs.DescribeInstanceProfileRes
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribeInstanceProfileResult;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribeInstanceProfileType;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalResponseType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalResult;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalType;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribeRoleResponseType;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribeRoleResult;
@@ -106,14 +109,17 @@ import com.eucalyptus.util.TypeMapper;
 import com.eucalyptus.util.TypeMappers;
 import com.eucalyptus.util.async.AsyncExceptions;
 import com.eucalyptus.util.async.AsyncRequests;
+import com.eucalyptus.ws.StackConfiguration;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
  *
@@ -124,6 +130,13 @@ public class RemotePrincipalProvider implements PrincipalProvider {
   private static int RETRY_SLEEP = 20;
   private static float BACKOFF = 2.5f;
 
+  // concurrent principal lookups for an endpoint are batched, a batch size of 1 disables
+  private static final int BATCH_SIZE =
+      Integer.getInteger( "com.eucalyptus.auth.euare.remotePrincipalBatchSize", 50 );
+  private static final int BATCH_CALLS =
+      Integer.getInteger( "com.eucalyptus.auth.euare.remotePrincipalBatchCalls", 8 );
+  private static final ConcurrentMap<Set<String>,RemotePrincipalBatcher> batchers = Maps.newConcurrentMap( );
+
   private final Set<String> endpoints;
 
   public RemotePrincipalProvider( final Set<String> endpoints ) {
@@ -388,6 +401,13 @@ public class RemotePrincipalProvider implements PrincipalProvider {
   }
 
   private <R extends IdentityMessage> R send( final IdentityMessage request ) throws Exception {
+    return send( endpoints, request );
+  }
+
+  private static <R extends IdentityMessage> R send(
+      final Set<String> endpoints,
+      final IdentityMessage request
+  ) throws Exception {
     final URI endpoint = URI.create( endpoints.iterator( ).next( ) );
     final ServiceConfiguration config = new EphemeralConfiguration(
         ComponentIds.lookup( Identity.class ),
@@ -422,6 +442,26 @@ public class RemotePrincipalProvider implements PrincipalProvider {
     throw new Exception( "Retry error" ); // not reachable
   }
 
+  private DescribePrincipalResult describePrincipal( final DescribePrincipalType request ) throws Exception {
+    if ( BATCH_SIZE > 1 ) {
+      // batcher per endpoint set, calls for the batcher use its own endpoints
+      return batchers.computeIfAbsent(
+          ImmutableSet.copyOf( endpoints ),
+          batchEndpoints -> new RemotePrincipalBatcher(
+              batchRequest -> send( batchEndpoints, batchRequest ), BATCH_CALLS, BATCH_SIZE ) )
+          .describePrincipal( request, batchTimeoutMillis( ) );
+    }
+    final DescribePrincipalResponseType response = send( request );
+    return response.getDescribePrincipalResult( );
+  }
+
+  /**
+   * A batched lookup can wait for an in flight call before its own call is sent
+   */
+  private static long batchTimeoutMillis( ) {
+    return 2 * TimeUnit.SECONDS.toMillis( MoreObjects.firstNonNull( StackConfiguration.CLIENT_INTERNAL_TIMEOUT_SECS, 60 ) );
+  }
+
   private AccountIdentifiers resultFor( final DescribeAccountsType request ) throws AuthException {
     try {
       final DescribeAccountsResponseType response = send( request );
@@ -460,8 +500,7 @@ public class RemotePrincipalProvider implements PrincipalProvider {
       if ( cached != null ) {
         request.setPtag( cached.getPTag( ) );
       }
-      final DescribePrincipalResponseType response = send( request );
-      final Principal principal = response.getDescribePrincipalResult( ).getPrincipal( );
+      final Principal principal = describePrincipal( request ).getPrincipal( );
       if ( principal == null ) {
         throw new AuthException( "Invalid identity" );
       }
@@ -75,12 +75,16 @@ import com.eucalyptus.auth.euare.common.identity.msgs.DescribeOidcProviderType;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalResponseType;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalResult;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalsResponseType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalsResult;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalsType;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribeRoleResponseType;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribeRoleResult;
 import com.eucalyptus.auth.euare.common.identity.msgs.DescribeRoleType;
 import com.eucalyptus.auth.euare.common.identity.msgs.OidcProvider;
 import com.eucalyptus.auth.euare.common.identity.msgs.Policy;
 import com.eucalyptus.auth.euare.common.identity.msgs.Principal;
+import com.eucalyptus.auth.euare.common.identity.msgs.PrincipalQuery;
 import com.eucalyptus.auth.euare.common.identity.msgs.ReserveNameResponseType;
 import com.eucalyptus.auth.euare.common.identity.msgs.ReserveNameResult;
 import com.eucalyptus.auth.euare.common.identity.msgs.ReserveNameType;
@@ -227,6 +231,16 @@ public class IdentityService {
     return response;
   }
 
+  public DescribePrincipalsResponseType describePrincipals( final DescribePrincipalsType request ) throws IdentityServiceException {
+    final DescribePrincipalsResponseType response = request.getReply( );
+    final DescribePrincipalsResult result = new DescribePrincipalsResult( );
+    for ( final PrincipalQuery query : request.getQueries( ) ) {
+      result.getResults( ).add( describePrincipal( query.toRequest( ) ).getDescribePrincipalResult( ) );
+    }
+    response.setDescribePrincipalsResult( result );
+    return response;
+  }
+
   public DescribeAccountsResponseType describeAccounts(
     final DescribeAccountsType request
   ) throws IdentityServiceException {
@@ -39,16 +39,22 @@
 
 package com.eucalyptus.auth.euare.ldap;
 
+import java.io.IOException;
+import java.util.List;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 import javax.naming.directory.Attributes;
 import javax.naming.directory.SearchControls;
 import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
 import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
 import org.apache.log4j.Logger;
 import com.eucalyptus.auth.LdapException;
 import com.eucalyptus.auth.euare.ldap.authentication.AuthenticationUtil;
 import com.eucalyptus.auth.euare.ldap.authentication.LdapAuthenticatorFactory;
+import com.google.common.collect.Lists;
 
 public class LdapClient {
   
@@ -122,6 +128,45 @@ public class LdapClient {
     }
   }
   
+  /**
+   * Search using the paged results control, all pages are retrieved.
+   *
+   * <p>Servers that do not support paged results return all results in a single page.</p>
+   */
+  public synchronized List<SearchResult> searchPaged( String baseDn, String filter, String[] attrs, int pageSize ) throws LdapException {
+    if ( DEBUG ) { LOG.debug( "<searchPaged> " + baseDn + ": filter = " + filter + ", pageSize = " + pageSize ); }
+    final List<SearchResult> results = Lists.newArrayList( );
+    try {
+      byte[] cookie = null;
+      do {
+        context.setRequestControls( new Control[]{ new PagedResultsControl( pageSize, cookie, Control.NONCRITICAL ) } );
+        final NamingEnumeration<SearchResult> page = search( baseDn, filter, attrs );
+        while ( page.hasMore( ) ) {
+          results.add( page.next( ) );
+        }
+        cookie = null;
+        final Control[] responseControls = context.getResponseControls( );
+        if ( responseControls != null ) {
+          for ( final Control control : responseControls ) {
+            if ( control instanceof PagedResultsResponseControl ) {
+              cookie = ( ( PagedResultsResponseControl ) control ).getCookie( );
+            }
+          }
+        }
+      } while ( cookie != null && cookie.length > 0 );
+      return results;
+    } catch ( IOException | NamingException e ) {
+      LOG.error( e, e );
+      throw new LdapException( "Searching " + baseDn + "failed using " + filter, e );
+    } finally {
+      try {
+        context.setRequestControls( null );
+      } catch ( NamingException e ) {
+        LOG.debug( "Error clearing request controls: " + e.getMessage( ) );
+      }
+    }
+  }
+
   public synchronized NamingEnumeration<SearchResult> search( String baseDn, Attributes matchingAttrs, String[] attrs ) throws LdapException {
     if ( DEBUG ) { LOG.debug( "<search> " + baseDn + ": " + matchingAttrs ); }
     try {
@@ -39,8 +39,13 @@
 
 package com.eucalyptus.auth.euare.ldap;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.naming.InvalidNameException;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
@@ -61,6 +66,7 @@ import com.eucalyptus.auth.principal.AccountIdentifiers;
 import com.eucalyptus.auth.principal.User;
 import com.eucalyptus.bootstrap.Bootstrap;
 import com.eucalyptus.bootstrap.Hosts;
+import com.eucalyptus.component.id.Euare;
 import com.eucalyptus.event.ClockTick;
 import com.eucalyptus.event.Event;
 import com.eucalyptus.event.EventListener;
@@ -68,6 +74,7 @@ import com.eucalyptus.event.ListenerRegistry;
 import com.eucalyptus.event.SystemClock;
 import com.eucalyptus.system.Threads;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -88,11 +95,28 @@ public class LdapSync {
   
   private static final String LDAP_SYNC_THREAD = "LDAP sync";
 
+  private static final int SEARCH_PAGE_SIZE = Integer.getInteger( "com.eucalyptus.auth.ldap.searchPageSize", 500 );
+
+  private static final int SYNC_THREADS = Integer.getInteger( "com.eucalyptus.auth.ldap.syncThreads", 4 );
+
+  // number of incremental syncs between full syncs
+  private static final int FULL_SYNC_INTERVAL = Integer.getInteger( "com.eucalyptus.auth.ldap.fullSyncInterval", 12 );
+
   private static final LdapIntegrationConfiguration DEFAULT_LIC = new LdapIntegrationConfiguration( );
   
   private static LdapIntegrationConfiguration lic = DEFAULT_LIC;
   private static boolean inSync = false;
   private static long timeTillNextSync;
+
+  // snapshot of the last sync that was applied without errors, null if the next sync must be a full sync
+  private static volatile LdapSyncSnapshot lastSnapshot;
+  private static int incrementalSyncs;
+
+  private static final AtomicLong changesApplied = new AtomicLong( );
+  private static final AtomicLong syncErrors = new AtomicLong( );
+  private static volatile long lastSyncDurationMillis;
+  private static volatile long lastSyncChanges;
+  private static volatile boolean lastSyncIncremental;
   
   private static final ClockTickListener TIMER_LISTENER = new ClockTickListener( );
   
@@ -127,6 +151,7 @@ public class LdapSync {
   public static synchronized void setLic( LdapIntegrationConfiguration config ) {
     LOG.debug( "A new LIC is being set: " + config );
     lic = config;
+    lastSnapshot = null;
     if ( Bootstrap.isFinished( ) ) {
       if ( lic.isSyncEnabled( ) ) {
         if ( lic.isAutoSync( ) ) {
@@ -139,6 +164,24 @@ public class LdapSync {
     }
   }
   
+  /**
+   * @return Duration of the last sync, including the LDAP search.
+   */
+  public static long getLastSyncDurationMillis( ) {
+    return lastSyncDurationMillis;
+  }
+
+  /**
+   * @return Number of account, group and user changes applied by the last sync.
+   */
+  public static long getLastSyncChanges( ) {
+    return lastSyncChanges;
+  }
+
+  public static boolean isLastSyncIncremental( ) {
+    return lastSyncIncremental;
+  }
+
   public static synchronized void forceSync( ) {
     if ( lic.isSyncEnabled( ) ) {
       startSync( );
@@ -254,6 +297,7 @@ public class LdapSync {
   }
   
   public static void sync( final LdapIntegrationConfiguration lic ) {
+    final long start = System.currentTimeMillis( );
     // Get users/groups from LDAP
     Map<String, Set<String>> accountingGroups = Maps.newHashMap( );
     Map<String, String> groupDnToId = Maps.newHashMap( );
@@ -287,7 +331,27 @@ public class LdapSync {
     }
     
     checkConflictingIdentities( accountingGroups, groups, users );
-    rebuildLocalAuthDatabase( lic, accountingGroups, groups, users );
+
+    final LdapSyncSnapshot snapshot = LdapSyncSnapshot.of( accountingGroups, groups, users );
+    LdapSyncSnapshot previous = lastSnapshot;
+    lastSnapshot = null;
+    if ( previous != null && ++incrementalSyncs > FULL_SYNC_INTERVAL ) {
+      previous = null;
+    }
+    if ( previous == null ) {
+      incrementalSyncs = 0;
+    }
+    final long changesBefore = changesApplied.get( );
+    final long errorsBefore = syncErrors.get( );
+    final boolean incremental = rebuildLocalAuthDatabase( lic, previous, snapshot, accountingGroups, groups, users );
+    if ( syncErrors.get( ) == errorsBefore ) {
+      lastSnapshot = snapshot;
+    }
+    lastSyncIncremental = incremental;
+    lastSyncChanges = changesApplied.get( ) - changesBefore;
+    lastSyncDurationMillis = System.currentTimeMillis( ) - start;
+    LOG.info( ( incremental ? "Incremental" : "Full" ) + " LDAP sync applied " + lastSyncChanges + " changes in " +
+        lastSyncDurationMillis + "ms" + ( syncErrors.get( ) == errorsBefore ? "" : " with errors" ) );
   }
   
   private static void checkConflictingIdentities( Map<String, Set<String>> accountingGroups, Map<String, Set<String>> groups, Map<String, Map<String, String>> users ) {
@@ -307,36 +371,68 @@ public class LdapSync {
     }
   }
 
-  private static void rebuildLocalAuthDatabase( LdapIntegrationConfiguration lic, Map<String, Set<String>> accountingGroups,
-                                                Map<String, Set<String>> groups, Map<String, Map<String, String>> users ) {
+  /**
+   * Update the local auth database from the LDAP snapshot.
+   *
+   * If there is a previous snapshot only accounts that changed since that snapshot are updated,
+   * otherwise all accounts are reconciled with the local database.
+   *
+   * @return true if the update was incremental
+   */
+  private static boolean rebuildLocalAuthDatabase( final LdapIntegrationConfiguration lic, LdapSyncSnapshot previous, final LdapSyncSnapshot snapshot,
+                                                   Map<String, Set<String>> accountingGroups, final Map<String, Set<String>> groups, final Map<String, Map<String, String>> users ) {
     try {
-      Set<String> oldAccountSet = getLocalAccountSet( );      
-      for ( Map.Entry<String, Set<String>> entry : accountingGroups.entrySet( ) ) {
-        String accountName = entry.getKey( );
-        Set<String> accountMembers = entry.getValue( );
-        if ( oldAccountSet.contains( accountName ) ) {
-          // Remove common elements from old account set
-          oldAccountSet.remove( accountName );
-          updateAccount( lic, accountName, accountMembers, groups, users );
+      Set<String> oldAccountSet = getLocalAccountSet( );
+      if ( previous != null && !oldAccountSet.containsAll( previous.getAccounts( ) ) ) {
+        LOG.debug( "Local accounts changed since last sync, performing full sync" );
+        previous = null;
+      }
+      final LdapSyncSnapshot previousSnapshot = previous;
+      final Set<String> syncAccountSet = previous == null ? accountingGroups.keySet( ) : snapshot.changedAccounts( previous );
+      final ExecutorService executor = syncExecutor( );
+      final List<Future<?>> accountFutures = Lists.newArrayList( );
+      for ( final String accountName : syncAccountSet ) {
+        final Set<String> accountMembers = accountingGroups.get( accountName );
+        // Remove common elements from old account set
+        if ( oldAccountSet.remove( accountName ) ) {
+          accountFutures.add( executor.submit( ( ) -> updateAccount( lic, previousSnapshot, snapshot, accountName, accountMembers, groups, users ) ) );
         } else {
-          addNewAccount( accountName, accountMembers, groups, users );
+          accountFutures.add( executor.submit( ( ) -> addNewAccount( accountName, accountMembers, groups, users ) ) );
+        }
+      }
+      for ( final Future<?> accountFuture : accountFutures ) {
+        try {
+          accountFuture.get( );
+        } catch ( ExecutionException e ) {
+          syncErrors.incrementAndGet( );
+          LOG.error( "Error in account sync", e.getCause( ) );
         }
       }
       if ( lic.isCleanDeletion( ) ) {
-        // Remaining accounts are obsolete
-        removeObsoleteAccounts( oldAccountSet );
+        // Remaining accounts are obsolete, or for an incremental sync the accounts removed since the last sync
+        removeObsoleteAccounts( previous == null ?
+            oldAccountSet :
+            Sets.newHashSet( Sets.intersection( oldAccountSet, snapshot.removedAccounts( previous ) ) ) );
       }
+      return previous != null;
     } catch ( Exception e ) {
+      syncErrors.incrementAndGet( );
       LOG.error( e, e );
       LOG.error( "Error in rebuilding local auth database", e );
+      return false;
     }
   }
 
+  private static ExecutorService syncExecutor( ) {
+    return Threads.lookup( Euare.class, LdapSync.class, "accounts" ).limitTo( SYNC_THREADS );
+  }
+
   private static void addNewAccount( String accountName, Set<String> accountMembers, Map<String, Set<String>> groups, Map<String, Map<String, String>> users ) {
     LOG.debug( "Adding new account " + accountName );
     try {
       EuareAccount account = com.eucalyptus.auth.euare.Accounts.addAccount( accountName );
       account.addUser( User.ACCOUNT_ADMIN, "/", true, null );
+      changesApplied.incrementAndGet( );
       for ( String user : getAccountUserSet( accountMembers, groups ) ) {
         try {
           LOG.debug( "Adding new user " + user );
@@ -345,7 +441,9 @@ public class LdapSync {
             LOG.warn( "Empty user info for user " + user );
           }
           account.addUser( user, "/", true/* enabled */, info );
+          changesApplied.incrementAndGet( );
         } catch ( AuthException e ) {
+          syncErrors.incrementAndGet( );
           LOG.error( e, e );
           LOG.warn( "Failed add new user " + user, e );
         }
@@ -355,6 +453,7 @@ public class LdapSync {
         try {
           LOG.debug( "Adding new group " + group );
           dbGroup = account.addGroup( group, "/" );
+          changesApplied.incrementAndGet( );
           Set<String> groupUsers = groups.get( group );
           if ( groupUsers == null ) {
             LOG.error( "Empty user set for group " + group );
@@ -365,11 +464,13 @@ public class LdapSync {
             }
           }
         } catch ( AuthException e ) {
+          syncErrors.incrementAndGet( );
           LOG.error( e, e );
           LOG.warn( "Failed to add new group " + group + " in " + accountName, e );
         }
       }
     } catch ( AuthException e ) {
+      syncErrors.incrementAndGet( );
       LOG.error( e, e );
       LOG.error( "Failed to add new account " + accountName, e );
     }
@@ -388,7 +489,8 @@ public class LdapSync {
     return userSet;
   }
   
-  private static void updateAccount( LdapIntegrationConfiguration lic, String accountName, Set<String> accountMembers, Map<String, Set<String>> groups, Map<String, Map<String, String>> users ) {
+  private static void updateAccount( LdapIntegrationConfiguration lic, LdapSyncSnapshot previous, LdapSyncSnapshot snapshot, String accountName,
+                                     Set<String> accountMembers, Map<String, Set<String>> groups, Map<String, Map<String, String>> users ) {
     LOG.debug( "Updating account " + accountName );
     EuareAccount account = null;
     try {
@@ -399,9 +501,13 @@ public class LdapSync {
       for ( String user : newUserSet ) {
         if ( oldUserSet.contains( user ) ) {
           oldUserSet.remove( user );
+          if ( !snapshot.userChanged( previous, user ) ) {
+            continue;
+          }
           try {
             updateUser( account, user, users.get( user ) );
           } catch ( AuthException e ) {
+            syncErrors.incrementAndGet( );
             LOG.error( e, e );
             LOG.warn( "Failed to update user " + user + " in " + accountName, e );
           }
@@ -409,6 +515,7 @@ public class LdapSync {
           try {
             addNewUser( account, user, users.get( user ) );
           } catch ( AuthException e ) {
+            syncErrors.incrementAndGet( );
             LOG.error( e, e );
             LOG.warn( "Failed to add new user " + user + " in " + accountName, e );
           }
@@ -422,7 +529,9 @@ public class LdapSync {
       for ( String group : accountMembers ) {
         if ( oldGroupSet.contains( group ) ) {
           oldGroupSet.remove( group );
-          updateGroup( account, group, groups.get( group ) );
+          if ( snapshot.groupChanged( previous, group ) ) {
+            updateGroup( account, group, groups.get( group ) );
+          }
         } else {
           addNewGroup( account, group, groups.get( group ) );
         }
@@ -431,6 +540,7 @@ public class LdapSync {
         removeObsoleteGroups( account, oldGroupSet );
       }
     } catch ( AuthException e ) {
+      syncErrors.incrementAndGet( );
       LOG.error( e, e );
       LOG.error( "Failed to update account " + accountName, e );
     }
@@ -440,7 +550,9 @@ public class LdapSync {
     for ( String group : oldGroupSet ) {
       try {
         account.deleteGroup( group, true/* recursive */ );
+        changesApplied.incrementAndGet( );
       } catch ( AuthException e ) {
+        syncErrors.incrementAndGet( );
         LOG.error( e, e );
         LOG.warn( "Failed to delete group " + group + " in " + account.getName( ), e );
       }
@@ -455,11 +567,13 @@ public class LdapSync {
     }
     try {
       EuareGroup g = account.addGroup( group, "/" );
+      changesApplied.incrementAndGet( );
       for ( String user : users ) {
         LOG.debug( "Adding " + user + " to " + group );
         g.addUserByName( user );
       }
     } catch ( AuthException e ) {
+      syncErrors.incrementAndGet( );
       LOG.error( e, e );
       LOG.warn( "Failed to add new group " + group + " in " + account.getName( ), e );
     }
@@ -485,13 +599,16 @@ public class LdapSync {
         } else {
           LOG.debug( "Adding " + user + " to " + g.getName( ) );
           g.addUserByName( user );
+          changesApplied.incrementAndGet( );
         }
       }
       for ( String user : localUserSet ) {
         LOG.debug( "Removing " + user + " from " + g.getName( ) );
         g.removeUserByName( user );
+        changesApplied.incrementAndGet( );
       }
     } catch ( AuthException e ) {
+      syncErrors.incrementAndGet( );
       LOG.error( e, e );
       LOG.warn( "Failed to update group " + group + " in " + account.getName( ), e );
     }
@@ -513,7 +630,9 @@ public class LdapSync {
     for ( String user : oldUserSet ) {
       try {
         account.deleteUser( user, true/* forceDeleteAdmin */, true /* recursive */ );
+        changesApplied.incrementAndGet( );
       } catch ( AuthException e ) {
+        syncErrors.incrementAndGet( );
         LOG.error( e, e );
         LOG.warn( "Failed to delete user " + user + " in " + account.getName( ) );
       }
@@ -526,6 +645,7 @@ public class LdapSync {
       LOG.warn( "Empty user info for user " + user );
     }
     account.addUser( user, "/", true/* enabled */, info );
+    changesApplied.incrementAndGet( );
   }
 
   private static void updateUser( EuareAccount account, String user, Map<String, String> map ) throws AuthException {
@@ -534,6 +654,7 @@ public class LdapSync {
       LOG.error( "Empty info map of user " + user );
     } else {
       account.lookupUserByName( user ).setInfo( map );
+      changesApplied.incrementAndGet( );
     }
   }
 
@@ -553,8 +674,10 @@ public class LdapSync {
     for ( final String account : oldAccountSet ) {
       try {
         com.eucalyptus.auth.euare.Accounts.deleteAccount( account, false /* forceDeleteSystem */, true /* recursive */ );
+        changesApplied.incrementAndGet( );
       } catch ( final AuthException e ) {
         if ( !AuthException.DELETE_SYSTEM_ACCOUNT.equals( e.getMessage( ) ) ) {
+          syncErrors.incrementAndGet( );
           LOG.error( e, e );
           LOG.warn( "Failed to delete account " + account, e );
         }
@@ -648,34 +771,27 @@ public class LdapSync {
     if ( VERBOSE ) {
       LOG.debug( "Search users by: baseDn=" + baseDn + ", attributes=" + attrNames + ", selection=" + selection );
     }
-    try {
-      // Search by filter first.
-      NamingEnumeration<SearchResult> results = ldap.search( baseDn, selection.getSearchFilter( ), attrNames );
-      while ( results.hasMore( ) ) {
-        SearchResult res = results.next( );
-        try {
-          if ( !selection.getNotSelected( ).contains( res.getNameInNamespace( ) ) ) {
-            processor.processLdapEntry( res.getNameInNamespace( ).toLowerCase( ), res.getAttributes( ) );
-          }
-        } catch ( NamingException e ) {
-          LOG.debug( "Failed to retrieve entry " + res );
-          LOG.error( e, e );
+    // Search by filter first.
+    for ( SearchResult res : ldap.searchPaged( baseDn, selection.getSearchFilter( ), attrNames, SEARCH_PAGE_SIZE ) ) {
+      try {
+        if ( !selection.getNotSelected( ).contains( res.getNameInNamespace( ) ) ) {
+          processor.processLdapEntry( res.getNameInNamespace( ).toLowerCase( ), res.getAttributes( ) );
         }
+      } catch ( NamingException e ) {
+        LOG.debug( "Failed to retrieve entry " + res );
+        LOG.error( e, e );
       }
-      // Get one-off DNs
-      for ( String dn : selection.getSelected( ) ) {
-        Attributes attrs = null;
-        try {
-          attrs = ldap.getContext( ).getAttributes( dn, attrNames );
-          processor.processLdapEntry( dn.toLowerCase( ), attrs );
-        } catch ( NamingException e ) {
-          LOG.debug( "Failed to retrieve entry " + attrs );
-          LOG.error( e, e );
-        }
+    }
+    // Get one-off DNs
+    for ( String dn : selection.getSelected( ) ) {
+      Attributes attrs = null;
+      try {
+        attrs = ldap.getContext( ).getAttributes( dn, attrNames );
+        processor.processLdapEntry( dn.toLowerCase( ), attrs );
+      } catch ( NamingException e ) {
+        LOG.debug( "Failed to retrieve entry " + attrs );
+        LOG.error( e, e );
       }
-    } catch ( NamingException e ) {
-      LOG.error( e, e );
-      throw new LdapException( e );
     }
   }
   
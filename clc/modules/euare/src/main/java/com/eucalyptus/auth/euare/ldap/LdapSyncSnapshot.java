@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare.ldap;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Accounts, groups and users retrieved from LDAP for a sync.
+ *
+ * <p>The snapshot from the last applied sync is compared with the current snapshot so that only
+ * the accounts, groups and users that changed in LDAP are updated in the local database.</p>
+ */
+public final class LdapSyncSnapshot {
+
+  private final Map<String, Set<String>> accountingGroups;
+  private final Map<String, Set<String>> groups;
+  private final Map<String, Map<String, String>> users;
+
+  private LdapSyncSnapshot( final Map<String, Set<String>> accountingGroups,
+                            final Map<String, Set<String>> groups,
+                            final Map<String, Map<String, String>> users ) {
+    this.accountingGroups = copyOfSets( accountingGroups );
+    this.groups = copyOfSets( groups );
+    this.users = copyOfMaps( users );
+  }
+
+  public static LdapSyncSnapshot of( final Map<String, Set<String>> accountingGroups,
+                                     final Map<String, Set<String>> groups,
+                                     final Map<String, Map<String, String>> users ) {
+    return new LdapSyncSnapshot( accountingGroups, groups, users );
+  }
+
+  public Set<String> getAccounts( ) {
+    return accountingGroups.keySet( );
+  }
+
+  /**
+   * Accounts that are new or have a changed group, group membership or member user.
+   *
+   * @param previous The snapshot for the last applied sync
+   * @return The changed account names
+   */
+  public Set<String> changedAccounts( final LdapSyncSnapshot previous ) {
+    final Set<String> changed = Sets.newHashSet( );
+    for ( final Map.Entry<String, Set<String>> entry : accountingGroups.entrySet( ) ) {
+      if ( entry.getValue( ) == null || !entry.getValue( ).equals( previous.accountingGroups.get( entry.getKey( ) ) ) ) {
+        changed.add( entry.getKey( ) );
+        continue;
+      }
+      for ( final String group : entry.getValue( ) ) {
+        if ( groupChanged( previous, group ) || usersChanged( previous, groups.get( group ) ) ) {
+          changed.add( entry.getKey( ) );
+          break;
+        }
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Accounts in the previous snapshot that are no longer present.
+   */
+  public Set<String> removedAccounts( final LdapSyncSnapshot previous ) {
+    return Sets.newHashSet( Sets.difference( previous.accountingGroups.keySet( ), accountingGroups.keySet( ) ) );
+  }
+
+  /**
+   * True if the group membership differs from the previous snapshot.
+   */
+  public boolean groupChanged( @Nullable final LdapSyncSnapshot previous, final String group ) {
+    return previous == null || !Objects.equals( groups.get( group ), previous.groups.get( group ) );
+  }
+
+  /**
+   * True if the user information differs from the previous snapshot.
+   */
+  public boolean userChanged( @Nullable final LdapSyncSnapshot previous, final String user ) {
+    return previous == null || !Objects.equals( users.get( user ), previous.users.get( user ) );
+  }
+
+  private boolean usersChanged( final LdapSyncSnapshot previous, @Nullable final Set<String> groupUsers ) {
+    if ( groupUsers != null ) {
+      for ( final String user : groupUsers ) {
+        if ( userChanged( previous, user ) ) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static Map<String, Set<String>> copyOfSets( final Map<String, Set<String>> map ) {
+    final Map<String, Set<String>> copy = Maps.newHashMapWithExpectedSize( map.size( ) );
+    for ( final Map.Entry<String, Set<String>> entry : map.entrySet( ) ) {
+      copy.put( entry.getKey( ), entry.getValue( ) == null ? null : ImmutableSet.copyOf( entry.getValue( ) ) );
+    }
+    return Collections.unmodifiableMap( copy );
+  }
+
+  private static Map<String, Map<String, String>> copyOfMaps( final Map<String, Map<String, String>> map ) {
+    final Map<String, Map<String, String>> copy = Maps.newHashMapWithExpectedSize( map.size( ) );
+    for ( final Map.Entry<String, Map<String, String>> entry : map.entrySet( ) ) {
+      copy.put( entry.getKey( ), entry.getValue( ) == null ? null : Collections.unmodifiableMap( Maps.newHashMap( entry.getValue( ) ) ) );
+    }
+    return Collections.unmodifiableMap( copy );
+  }
+}
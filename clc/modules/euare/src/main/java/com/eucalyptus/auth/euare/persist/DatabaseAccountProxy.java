@@ -44,6 +44,7 @@ import java.security.PublicKey;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
@@ -52,6 +53,10 @@ import javax.crypto.spec.SecretKeySpec;
 
 import org.apache.log4j.Logger;
 import org.bouncycastle.util.Arrays;
+import org.hibernate.Criteria;
+import org.hibernate.criterion.MatchMode;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
 import org.bouncycastle.util.encoders.Base64;
 
 import com.eucalyptus.auth.Accounts;
@@ -107,6 +112,7 @@ import com.eucalyptus.entities.TransactionResource;
 import com.eucalyptus.util.Exceptions;
 import com.eucalyptus.auth.principal.OwnerFullName;
 import com.eucalyptus.util.Tx;
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Suppliers;
@@ -229,6 +235,38 @@ public class DatabaseAccountProxy implements EuareAccount {
     }
   }
 
+  @Override
+  public List<EuareUser> getUsers( final String pathPrefix,
+                                   @Nullable final String marker,
+                                   final int maxItems ) throws AuthException {
+    List<EuareUser> results = Lists.newArrayList( );
+    try ( final TransactionResource db = Entities.readOnlyDistinctTransactionFor( UserEntity.class ) ) {
+      final Criteria criteria = Entities.createCriteria( UserEntity.class )
+          .createAlias( "groups", "g" )
+          .createAlias( "g.account", "a" )
+          .add( Restrictions.eq( "g.userGroup", Boolean.TRUE ) )
+          .add( Restrictions.eq( "a.name", this.delegate.getName( ) ) )
+          .addOrder( Order.asc( "name" ) )
+          .setMaxResults( maxItems )
+          .setReadOnly( true );
+      if ( CharMatcher.anyOf( "%_\\" ).matchesNoneOf( pathPrefix ) ) {
+        criteria.add( Restrictions.like( "path", pathPrefix, MatchMode.START ) );
+      }
+      if ( marker != null ) {
+        criteria.add( Restrictions.gt( "name", marker ) );
+      }
+      @SuppressWarnings( "unchecked" )
+      final List<UserEntity> users = (List<UserEntity>) criteria.list( );
+      for ( UserEntity u : users ) {
+        results.add( new DatabaseUserProxy( u ) );
+      }
+      return results;
+    } catch ( Exception e ) {
+      Debugging.logError( LOG, e, "Failed to get users for " + this.delegate.getName( ) );
+      throw new AuthException( "Failed to get users for account", e );
+    }
+  }
+
   @Override
   public List<EuareGroup> getGroups( ) throws AuthException {
     List<EuareGroup> results = Lists.newArrayList( );
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare.persist;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.criterion.Restrictions;
+import com.eucalyptus.auth.AuthException;
+import com.eucalyptus.auth.euare.UserPrincipalImpl;
+import com.eucalyptus.auth.euare.persist.entities.GroupEntity;
+import com.eucalyptus.auth.euare.persist.entities.UserEntity;
+import com.eucalyptus.auth.principal.User;
+import com.eucalyptus.auth.principal.UserPrincipal;
+import com.eucalyptus.entities.Entities;
+
+/**
+ * Loads the entities for a user principal in a fixed number of queries.
+ *
+ * <p>The user's keys, certificates and attached policies, the user's groups with their policies
+ * and the account policies are fetched using joins so that building the principal does not
+ * query for each group or policy. Must be called within a transaction.</p>
+ */
+final class DatabasePrincipalLoader {
+
+  private DatabasePrincipalLoader( ) {
+  }
+
+  /**
+   * Load the principal for the user with the given identifier.
+   *
+   * @throws NoSuchElementException If the user is not found
+   */
+  static UserPrincipal loadByUserId( final String userId ) throws AuthException {
+    final UserEntity user = (UserEntity) userCriteria( userId ).uniqueResult( );
+    if ( user == null ) {
+      throw new NoSuchElementException( "Can not find user " + userId );
+    }
+    return load( user );
+  }
+
+  /**
+   * Load the principal for a user entity from the current transaction.
+   */
+  static UserPrincipal load( final UserEntity user ) throws AuthException {
+    if ( !Entities.isInitialized( user.getKeys( ) ) ) {
+      userCriteria( user.getUserId( ) ).uniqueResult( );
+    }
+    final List<?> groups = Entities.createCriteria( GroupEntity.class )
+        .createAlias( "users", "u" )
+        .add( Restrictions.eq( "u.userId", user.getUserId( ) ) )
+        .setFetchMode( "account", FetchMode.JOIN )
+        .setFetchMode( "policies", FetchMode.JOIN )
+        .setFetchMode( "attachedPolicies", FetchMode.JOIN )
+        .setResultTransformer( Criteria.DISTINCT_ROOT_ENTITY )
+        .setReadOnly( true )
+        .list( );
+    if ( !groups.isEmpty( ) ) {
+      // account policies are the policies of the admin user group
+      Entities.createCriteria( GroupEntity.class )
+          .add( Restrictions.eq( "account", ( (GroupEntity) groups.get( 0 ) ).getAccount( ) ) )
+          .add( Restrictions.eq( "name", DatabaseAuthUtils.getUserGroupName( User.ACCOUNT_ADMIN ) ) )
+          .add( Restrictions.eq( "userGroup", Boolean.TRUE ) )
+          .setFetchMode( "policies", FetchMode.JOIN )
+          .setResultTransformer( Criteria.DISTINCT_ROOT_ENTITY )
+          .setReadOnly( true )
+          .list( );
+    }
+    return new UserPrincipalImpl( user );
+  }
+
+  private static Criteria userCriteria( final String userId ) {
+    return Entities.createCriteria( UserEntity.class )
+        .add( Restrictions.eq( "userId", userId ) )
+        .setFetchMode( "keys", FetchMode.JOIN )
+        .setFetchMode( "certificates", FetchMode.JOIN )
+        .setFetchMode( "attachedPolicies", FetchMode.JOIN )
+        .setResultTransformer( Criteria.DISTINCT_ROOT_ENTITY )
+        .setReadOnly( true );
+  }
+}
@@ -95,8 +95,8 @@ public class DatabasePrincipalProvider implements PrincipalProvider {
   public UserPrincipal lookupPrincipalByUserId( final String userId, final String nonce ) throws AuthException {
     try ( final TransactionResource tx = Entities.readOnlyDistinctTransactionFor( UserEntity.class ) ) {
       try {
-        final UserEntity user = DatabaseAuthUtils.getUnique( UserEntity.class, UserEntity_.userId, userId );
-        return decorateCredentials( new UserPrincipalImpl( user ), nonce, user.getToken( ) );
+        final UserPrincipal principal = DatabasePrincipalLoader.loadByUserId( userId );
+        return decorateCredentials( principal, nonce, principal.getToken( ) );
       } catch ( Exception e ) {
         throw new AuthException( AuthException.NO_SUCH_USER, e );
       }
@@ -128,7 +128,7 @@ public class DatabasePrincipalProvider implements PrincipalProvider {
       if ( !user.isPresent( ) ) {
         throw new InvalidAccessKeyAuthException( "Failed to find access key" );
       }
-      final UserPrincipal principal = new UserPrincipalImpl( user.get( ) );
+      final UserPrincipal principal = DatabasePrincipalLoader.load( user.get( ) );
       final Optional<AccessKey> accessKey = Iterables.tryFind(
           principal.getKeys( ),
           CollectionUtils.propertyPredicate( keyId, AccessKeys.accessKeyIdentifier( ) ) );
@@ -45,6 +45,7 @@ import java.util.Date;
 import java.util.concurrent.Callable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
@@ -65,6 +66,7 @@ import groovy.sql.Sql;
  * Database secret key entity.
  */
 @Entity
+@EntityListeners( PrincipalChangeEntityListener.class )
 @PersistenceContext( name = "eucalyptus_auth" )
 @Table( name = "auth_access_key", indexes = {
     @Index( name = "auth_access_key_owning_user_idx", columnList = "auth_access_key_owning_user" )
@@ -41,13 +41,17 @@ package com.eucalyptus.auth.euare.persist.entities;
 
 import java.io.Serializable;
 import java.util.Set;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.OneToMany;
 import javax.persistence.PersistenceContext;
 import javax.persistence.PrePersist;
 import javax.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import com.eucalyptus.auth.AuthException;
 import com.eucalyptus.auth.util.Identifiers;
@@ -58,8 +62,11 @@ import com.eucalyptus.entities.AbstractPersistent;
  */
 
 @Entity
+@EntityListeners( PrincipalChangeEntityListener.class )
 @PersistenceContext( name = "eucalyptus_auth" )
 @Table( name = "auth_account" )
+@Cacheable
+@Cache( usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE )
 public class AccountEntity extends AbstractPersistent implements Serializable {
 
   private static final long serialVersionUID = 1L;
@@ -46,6 +46,7 @@ import java.util.Date;
 import java.util.List;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
@@ -67,6 +68,7 @@ import com.google.common.base.Predicate;
  * Database X509 certificate entity.
  */
 @Entity
+@EntityListeners( PrincipalChangeEntityListener.class )
 @PersistenceContext( name = "eucalyptus_auth" )
 @Table( name = "auth_cert", indexes = {
     @Index( name = "auth_certificate_hash_id_idx", columnList = "auth_certificate_hash_id" ),
@@ -47,6 +47,7 @@ import java.util.concurrent.Callable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
@@ -74,6 +75,7 @@ import groovy.sql.Sql;
  * Database group entity.
  */
 @Entity
+@EntityListeners( PrincipalChangeEntityListener.class )
 @AuxiliaryDatabaseObjects({
     @AuxiliaryDatabaseObject(
         dialect = "org.hibernate.dialect.PostgreSQLDialect",
@@ -35,6 +35,7 @@ import javax.annotation.Nullable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
@@ -62,6 +63,7 @@ import com.google.common.collect.Lists;
  *
  */
 @Entity
+@EntityListeners( PrincipalChangeEntityListener.class )
 @PersistenceContext( name = "eucalyptus_auth" )
 @Table( name = "auth_managed_policy", indexes = {
     @Index( name = "auth_policy_owning_account_idx", columnList = "auth_policy_owning_account" ),
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare.persist.entities;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import org.apache.log4j.Logger;
+import com.eucalyptus.auth.euare.PrincipalChangeEvent;
+import com.eucalyptus.entities.Entities;
+import com.eucalyptus.event.EventFailedException;
+import com.eucalyptus.event.ListenerRegistry;
+
+/**
+ * Entity listener that fires a principal change event when an entity used in principals is
+ * persisted, updated or removed.
+ *
+ * The event fires after the transaction commits so that principals reloaded in response see the
+ * change.
+ */
+public class PrincipalChangeEntityListener {
+  private static final Logger logger = Logger.getLogger( PrincipalChangeEntityListener.class );
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void changed( final Object entity ) {
+    final PrincipalChangeEvent event = event( entity );
+    try {
+      Entities.registerSynchronization( entity.getClass( ), new Synchronization( ) {
+        @Override
+        public void beforeCompletion( ) {
+        }
+
+        @Override
+        public void afterCompletion( final int status ) {
+          if ( Status.STATUS_COMMITTED == status ) {
+            fire( event );
+          }
+        }
+      } );
+    } catch ( final RuntimeException e ) {
+      fire( event ); // not in an entities transaction
+    }
+  }
+
+  static PrincipalChangeEvent event( final Object entity ) {
+    final String type = entity.getClass( ).getSimpleName( );
+    try {
+      if ( entity instanceof UserEntity ) {
+        return new PrincipalChangeEvent( type, null, ( (UserEntity) entity ).getUserId( ) );
+      } else if ( entity instanceof AccessKeyEntity && ( (AccessKeyEntity) entity ).getUser( ) != null ) {
+        return new PrincipalChangeEvent( type, null, ( (AccessKeyEntity) entity ).getUser( ).getUserId( ) );
+      } else if ( entity instanceof CertificateEntity && ( (CertificateEntity) entity ).getUser( ) != null ) {
+        return new PrincipalChangeEvent( type, null, ( (CertificateEntity) entity ).getUser( ).getUserId( ) );
+      } else if ( entity instanceof RoleEntity ) {
+        return new PrincipalChangeEvent( type, null, ( (RoleEntity) entity ).getRoleId( ) );
+      } else if ( entity instanceof PolicyEntity && ( (PolicyEntity) entity ).getRole( ) != null ) {
+        return new PrincipalChangeEvent( type, null, ( (PolicyEntity) entity ).getRole( ).getRoleId( ) );
+      } else if ( entity instanceof PolicyEntity && ( (PolicyEntity) entity ).getGroup( ) != null &&
+          ( (PolicyEntity) entity ).getGroup( ).getAccount( ) != null ) {
+        return new PrincipalChangeEvent( type, ( (PolicyEntity) entity ).getGroup( ).getAccount( ).getAccountNumber( ), null );
+      } else if ( entity instanceof GroupEntity && ( (GroupEntity) entity ).getAccount( ) != null ) {
+        return new PrincipalChangeEvent( type, ( (GroupEntity) entity ).getAccount( ).getAccountNumber( ), null );
+      } else if ( entity instanceof ManagedPolicyEntity && ( (ManagedPolicyEntity) entity ).getAccount( ) != null ) {
+        return new PrincipalChangeEvent( type, ( (ManagedPolicyEntity) entity ).getAccount( ).getAccountNumber( ), null );
+      } else if ( entity instanceof AccountEntity ) {
+        return new PrincipalChangeEvent( type, ( (AccountEntity) entity ).getAccountNumber( ), null );
+      }
+    } catch ( final RuntimeException e ) {
+      logger.debug( "Unable to determine principals affected by change to " + type, e );
+    }
+    return new PrincipalChangeEvent( type );
+  }
+
+  private static void fire( final PrincipalChangeEvent event ) {
+    try {
+      ListenerRegistry.getInstance( ).fireEvent( event );
+    } catch ( final EventFailedException e ) {
+      logger.error( "Error firing principal change event", e );
+    }
+  }
+}
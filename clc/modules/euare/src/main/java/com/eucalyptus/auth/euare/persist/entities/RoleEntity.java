@@ -35,6 +35,7 @@ import java.util.concurrent.Callable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
@@ -61,6 +62,7 @@ import groovy.sql.Sql;
  * Database entity for a role.
  */
 @Entity
+@EntityListeners( PrincipalChangeEntityListener.class )
 @PersistenceContext( name = "eucalyptus_auth" )
 @Table( name = "auth_role", indexes = {
     @Index( name = "auth_role_name_idx", columnList = "auth_role_name" ),
@@ -50,6 +50,7 @@ import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
@@ -76,8 +77,13 @@ import groovy.sql.Sql;
 
 /**
  * Database entity for a user.
+ *
+ * <p>Not second-level cached, users are found by queries on name, identifier or access key
+ * which do not use the entity cache, and are deleted in bulk with their account which clears the
+ * whole cache region.</p>
  */
 @Entity
+@EntityListeners( PrincipalChangeEntityListener.class )
 @PersistenceContext( name = "eucalyptus_auth" )
 @Table( name = "auth_user", indexes = {
     @Index( name = "auth_user_name_idx", columnList = "auth_user_name" )
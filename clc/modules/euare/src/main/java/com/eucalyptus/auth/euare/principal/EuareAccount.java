@@ -31,6 +31,7 @@ package com.eucalyptus.auth.euare.principal;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import com.eucalyptus.auth.AuthException;
 import com.eucalyptus.auth.PolicyParseException;
 import com.eucalyptus.auth.ServerCertificate;
@@ -59,6 +60,15 @@ public interface EuareAccount extends AccountIdentifiers, BasePrincipal, Restric
 
   List<EuareUser> getUsers( ) throws AuthException;
 
+  /**
+   * Get a page of users ordered by name.
+   *
+   * @param pathPrefix The path prefix for users
+   * @param marker The name of the last user on the previous page, null for the first page
+   * @param maxItems The maximum number of users to return
+   */
+  List<EuareUser> getUsers( String pathPrefix, @Nullable String marker, int maxItems ) throws AuthException;
+
   List<EuareGroup> getGroups( ) throws AuthException;
 
   List<EuareRole> getRoles( ) throws AuthException;
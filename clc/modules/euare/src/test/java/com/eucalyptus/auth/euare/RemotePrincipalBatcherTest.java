@@ -0,0 +1,410 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.Ignore;
+import org.junit.Test;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalResponseType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalResult;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalsResponseType;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalsResult;
+import com.eucalyptus.auth.euare.common.identity.msgs.DescribePrincipalsType;
+import com.eucalyptus.auth.euare.common.identity.msgs.IdentityMessage;
+import com.eucalyptus.auth.euare.common.identity.msgs.Principal;
+import com.eucalyptus.auth.euare.common.identity.msgs.PrincipalQuery;
+import com.eucalyptus.auth.euare.identity.IdentityServiceReceiverException;
+import com.eucalyptus.auth.euare.identity.IdentityServiceSenderException;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for remote principal lookup batching
+ */
+public class RemotePrincipalBatcherTest {
+
+  private static final long TIMEOUT = TimeUnit.SECONDS.toMillis( 5 );
+
+  @Test
+  public void testSingleLookup( ) throws Exception {
+    final StandInIdentityService service = new StandInIdentityService( 0, 0 );
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 4, 50 );
+    assertEquals( "User id", "AIDA1", batcher.describePrincipal( request( "AIDA1" ), TIMEOUT ).getPrincipal( ).getUserId( ) );
+    assertEquals( "Single calls", 1, service.singleCalls.get( ) );
+    assertEquals( "Batch calls", 0, service.batchCalls.get( ) );
+  }
+
+  @Test
+  public void testConcurrentLookupsBatched( ) throws Exception {
+    final BlockingIdentityService service = new BlockingIdentityService( false );
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 1, 50 );
+    assertLookups( service, batcher, 11 );
+    assertEquals( "Single calls", 1, service.singleCalls.get( ) );
+    assertEquals( "Batch calls", 1, service.batchCalls.get( ) );
+    assertEquals( "Batcher calls", 2, batcher.getCallCount( ) );
+  }
+
+  @Test
+  public void testBatchSizeLimit( ) throws Exception {
+    final BlockingIdentityService service = new BlockingIdentityService( false );
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 1, 4 );
+    assertLookups( service, batcher, 9 );
+    assertEquals( "Single calls", 1, service.singleCalls.get( ) );
+    assertEquals( "Batch calls", 2, service.batchCalls.get( ) );
+  }
+
+  @Test
+  public void testBatchFailureFallback( ) throws Exception {
+    final BlockingIdentityService service = new BlockingIdentityService( true );
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 1, 50 );
+    assertLookups( service, batcher, 5 );
+    assertEquals( "Single calls", 5, service.singleCalls.get( ) );
+    assertFalse( "Batching after failure", batcher.isBatching( ) );
+  }
+
+  @Test
+  public void testBatchUnsupportedFallback( ) throws Exception {
+    final BlockingIdentityService service = new BlockingIdentityService( false ) {
+      @Override
+      IdentityMessage describe( final IdentityMessage request ) throws Exception {
+        final IdentityMessage response = super.describe( request );
+        if ( request instanceof DescribePrincipalsType ) {
+          throw new IdentityServiceSenderException( "InvalidAction", "DescribePrincipals not supported" );
+        }
+        return response;
+      }
+    };
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 1, 50 );
+    assertLookups( service, batcher, 5 );
+    assertEquals( "Single calls", 5, service.singleCalls.get( ) );
+    assertFalse( "Batching after unsupported", batcher.isBatching( ) );
+  }
+
+  @Test
+  public void testBatchLookupErrorFailsOnlyLookup( ) throws Exception {
+    final BlockingIdentityService service = new BlockingIdentityService( false ) {
+      @Override
+      IdentityMessage describe( final IdentityMessage request ) throws Exception {
+        final IdentityMessage response = super.describe( request );
+        final boolean failing = request instanceof DescribePrincipalsType ?
+            ( (DescribePrincipalsType) request ).getQueries( ).stream( ).anyMatch( query -> "AIDA2".equals( query.getUserId( ) ) ) :
+            "AIDA2".equals( ( (DescribePrincipalType) request ).getUserId( ) );
+        if ( failing ) {
+          throw new IdentityServiceReceiverException( "InternalError", "lookup error" );
+        }
+        return response;
+      }
+    };
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 1, 50 );
+    final List<Future<DescribePrincipalResult>> results = submitLookups( service, batcher, 4 );
+    for ( int i = 0; i < 4; i++ ) {
+      try {
+        assertEquals( "User id", "AIDA" + i, results.get( i ).get( 5, TimeUnit.SECONDS ).getPrincipal( ).getUserId( ) );
+        assertTrue( "Expected error for AIDA2", i != 2 );
+      } catch ( final ExecutionException e ) {
+        assertEquals( "Failed lookup", 2, i );
+        assertTrue( "Service error", Throwables.getRootCause( e ) instanceof IdentityServiceReceiverException );
+      }
+    }
+    assertEquals( "Batch calls", 1, service.batchCalls.get( ) );
+    assertTrue( "Batching after lookup error", batcher.isBatching( ) );
+  }
+
+  @Test
+  public void testCallerReturnsWhenComplete( ) throws Exception {
+    final CountDownLatch batchEntered = new CountDownLatch( 1 );
+    final CountDownLatch batchRelease = new CountDownLatch( 1 );
+    final BlockingIdentityService service = new BlockingIdentityService( false ) {
+      @Override
+      IdentityMessage describe( final IdentityMessage request ) throws Exception {
+        if ( request instanceof DescribePrincipalsType ) {
+          batchEntered.countDown( );
+          batchRelease.await( );
+        }
+        return super.describe( request );
+      }
+    };
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 1, 50 );
+    final List<Future<DescribePrincipalResult>> results = submitLookups( service, batcher, 3 );
+    assertTrue( "Batch in flight", batchEntered.await( 5, TimeUnit.SECONDS ) );
+    assertEquals( "User id", "AIDA0", results.get( 0 ).get( 5, TimeUnit.SECONDS ).getPrincipal( ).getUserId( ) );
+    assertFalse( "Batched lookup complete", results.get( 1 ).isDone( ) );
+    batchRelease.countDown( );
+    for ( int i = 1; i < 3; i++ ) {
+      assertEquals( "User id", "AIDA" + i, results.get( i ).get( 5, TimeUnit.SECONDS ).getPrincipal( ).getUserId( ) );
+    }
+  }
+
+  @Test
+  public void testLookupError( ) throws Exception {
+    final Exception error = new Exception( "remote error" );
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( request -> { throw error; }, 4, 50 );
+    try {
+      batcher.describePrincipal( request( "AIDA1" ), TIMEOUT );
+      fail( "Expected error" );
+    } catch ( final Exception e ) {
+      assertSame( "Error", error, e );
+    }
+  }
+
+  @Test
+  public void testBatchErrorFailsLookups( ) throws Exception {
+    final Error error = new AssertionError( "batch error" );
+    final BlockingIdentityService service = new BlockingIdentityService( false ) {
+      @Override
+      IdentityMessage describe( final IdentityMessage request ) throws Exception {
+        final IdentityMessage response = super.describe( request );
+        if ( request instanceof DescribePrincipalsType ) {
+          throw error;
+        }
+        return response;
+      }
+    };
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 1, 50 );
+    final ExecutorService executor = Executors.newFixedThreadPool( 3 );
+    try {
+      final List<Future<DescribePrincipalResult>> results = Lists.newArrayList( );
+      for ( int i = 0; i < 3; i++ ) {
+        final String userId = "AIDA" + i;
+        results.add( executor.submit( ( ) -> batcher.describePrincipal( request( userId ), TIMEOUT ) ) );
+        if ( i == 0 ) {
+          assertTrue( "Call in flight", service.entered.await( 5, TimeUnit.SECONDS ) );
+        }
+      }
+      while ( batcher.getLookupCount( ) < 3 ) {
+        Thread.sleep( 5 );
+      }
+      service.release.countDown( );
+      // first caller returns with its own result, the next caller sends the batch
+      assertEquals( "User id", "AIDA0", results.get( 0 ).get( 5, TimeUnit.SECONDS ).getPrincipal( ).getUserId( ) );
+      for ( int i = 1; i < 3; i++ ) {
+        try {
+          results.get( i ).get( 5, TimeUnit.SECONDS );
+          fail( "Expected error" );
+        } catch ( final ExecutionException e ) {
+          assertSame( "Error", error, Throwables.getRootCause( e ) );
+        }
+      }
+    } finally {
+      executor.shutdownNow( );
+    }
+  }
+
+  @Test
+  public void testLookupTimeout( ) throws Exception {
+    final BlockingIdentityService service = new BlockingIdentityService( false );
+    final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 1, 50 );
+    final ExecutorService executor = Executors.newSingleThreadExecutor( );
+    try {
+      final Future<DescribePrincipalResult> inFlight =
+          executor.submit( ( ) -> batcher.describePrincipal( request( "AIDA0" ), 50 ) );
+      assertTrue( "Call in flight", service.entered.await( 5, TimeUnit.SECONDS ) );
+      try {
+        batcher.describePrincipal( request( "AIDA1" ), 50 );
+        fail( "Expected timeout" );
+      } catch ( final TimeoutException e ) {
+        // expected
+      }
+      service.release.countDown( );
+      assertEquals( "User id", "AIDA0", inFlight.get( 5, TimeUnit.SECONDS ).getPrincipal( ).getUserId( ) );
+      assertEquals( "User id", "AIDA2", batcher.describePrincipal( request( "AIDA2" ), TIMEOUT ).getPrincipal( ).getUserId( ) );
+      assertEquals( "Single calls", 2, service.singleCalls.get( ) );
+      assertEquals( "Batch calls", 0, service.batchCalls.get( ) );
+    } finally {
+      executor.shutdownNow( );
+    }
+  }
+
+  /**
+   * Lookups per second and p99 latency against a stand-in identity service that handles a
+   * limited number of requests at a time, with and without batching.
+   */
+  @Ignore( "Manual development test" )
+  @Test
+  public void benchmarkLookups( ) throws Exception {
+    final int threads = 64;
+    final long durationMillis = 5_000;
+    for ( final boolean batching : new boolean[]{ false, true } ) {
+      final StandInIdentityService service = new StandInIdentityService( 8, TimeUnit.MILLISECONDS.toNanos( 5 ) );
+      final RemotePrincipalBatcher batcher = new RemotePrincipalBatcher( service, 8, 50 );
+      final AtomicBoolean running = new AtomicBoolean( true );
+      final List<List<Long>> latencies = Lists.newArrayList( );
+      final ExecutorService executor = Executors.newFixedThreadPool( threads );
+      final List<Future<?>> futures = Lists.newArrayList( );
+      for ( int i = 0; i < threads; i++ ) {
+        final List<Long> threadLatencies = Lists.newArrayList( );
+        latencies.add( threadLatencies );
+        final String userId = "AIDA" + i;
+        futures.add( executor.submit( ( ) -> {
+          while ( running.get( ) ) {
+            final long start = System.nanoTime( );
+            if ( batching ) {
+              batcher.describePrincipal( request( userId ), TIMEOUT );
+            } else {
+              service.send( request( userId ) );
+            }
+            threadLatencies.add( System.nanoTime( ) - start );
+          }
+          return null;
+        } ) );
+      }
+      Thread.sleep( durationMillis );
+      running.set( false );
+      for ( final Future<?> future : futures ) {
+        future.get( );
+      }
+      executor.shutdown( );
+      final List<Long> all = Lists.newArrayList( );
+      latencies.forEach( all::addAll );
+      Collections.sort( all );
+      System.out.println( String.format(
+          "Batching %s: %d lookups/s, p99 %.1fms, %d calls",
+          batching,
+          all.size( ) * 1000 / durationMillis,
+          all.get( (int) ( all.size( ) * 0.99 ) ) / 1_000_000d,
+          service.singleCalls.get( ) + service.batchCalls.get( ) ) );
+    }
+  }
+
+  /**
+   * Perform lookups with the first call in flight until all lookups are queued.
+   */
+  private static void assertLookups( final BlockingIdentityService service,
+                                     final RemotePrincipalBatcher batcher,
+                                     final int count ) throws Exception {
+    final List<Future<DescribePrincipalResult>> results = submitLookups( service, batcher, count );
+    for ( int i = 0; i < count; i++ ) {
+      assertEquals( "User id", "AIDA" + i, results.get( i ).get( 5, TimeUnit.SECONDS ).getPrincipal( ).getUserId( ) );
+    }
+  }
+
+  /**
+   * Submit lookups with the first call in flight, the call is released once all lookups are queued.
+   */
+  private static List<Future<DescribePrincipalResult>> submitLookups( final BlockingIdentityService service,
+                                                                      final RemotePrincipalBatcher batcher,
+                                                                      final int count ) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool( count );
+    final List<Future<DescribePrincipalResult>> results = Lists.newArrayList( );
+    for ( int i = 0; i < count; i++ ) {
+      final String userId = "AIDA" + i;
+      results.add( executor.submit( ( ) -> batcher.describePrincipal( request( userId ), TIMEOUT ) ) );
+      if ( i == 0 ) {
+        assertTrue( "Call in flight", service.entered.await( 5, TimeUnit.SECONDS ) );
+      }
+    }
+    while ( batcher.getLookupCount( ) < count ) {
+      Thread.sleep( 5 );
+    }
+    service.release.countDown( );
+    executor.shutdown( );
+    return results;
+  }
+
+  private static DescribePrincipalType request( final String userId ) {
+    final DescribePrincipalType request = new DescribePrincipalType( );
+    request.setUserId( userId );
+    return request;
+  }
+
+  /**
+   * Identity service stand in with a fixed time per request and a limit on concurrent requests.
+   */
+  private static class StandInIdentityService implements RemotePrincipalBatcher.Sender {
+    private final Semaphore workers;
+    private final long requestNanos;
+    final AtomicInteger singleCalls = new AtomicInteger( );
+    final AtomicInteger batchCalls = new AtomicInteger( );
+
+    StandInIdentityService( final int workers, final long requestNanos ) {
+      this.workers = new Semaphore( workers > 0 ? workers : Integer.MAX_VALUE );
+      this.requestNanos = requestNanos;
+    }
+
+    @Override
+    public IdentityMessage send( final IdentityMessage request ) throws Exception {
+      workers.acquire( );
+      try {
+        if ( requestNanos > 0 ) {
+          LockSupport.parkNanos( requestNanos );
+        }
+        return describe( request );
+      } finally {
+        workers.release( );
+      }
+    }
+
+    IdentityMessage describe( final IdentityMessage request ) throws Exception {
+      if ( request instanceof DescribePrincipalsType ) {
+        batchCalls.incrementAndGet( );
+        final DescribePrincipalsResponseType response = new DescribePrincipalsResponseType( );
+        response.setDescribePrincipalsResult( new DescribePrincipalsResult( ) );
+        for ( final PrincipalQuery query : ( (DescribePrincipalsType) request ).getQueries( ) ) {
+          response.getDescribePrincipalsResult( ).getResults( ).add( result( query.getUserId( ) ) );
+        }
+        return response;
+      }
+      singleCalls.incrementAndGet( );
+      final DescribePrincipalResponseType response = new DescribePrincipalResponseType( );
+      response.setDescribePrincipalResult( result( ( (DescribePrincipalType) request ).getUserId( ) ) );
+      return response;
+    }
+
+    private static DescribePrincipalResult result( final String userId ) {
+      final Principal principal = new Principal( );
+      principal.setUserId( userId );
+      final DescribePrincipalResult result = new DescribePrincipalResult( );
+      result.setPrincipal( principal );
+      return result;
+    }
+  }
+
+  /**
+   * Identity service stand in that holds requests until released.
+   */
+  private static class BlockingIdentityService extends StandInIdentityService {
+    private final CountDownLatch entered = new CountDownLatch( 1 );
+    private final CountDownLatch release = new CountDownLatch( 1 );
+    private final boolean batchUnsupported;
+
+    BlockingIdentityService( final boolean batchUnsupported ) {
+      super( 0, 0 );
+      this.batchUnsupported = batchUnsupported;
+    }
+
+    @Override
+    IdentityMessage describe( final IdentityMessage request ) throws Exception {
+      entered.countDown( );
+      release.await( );
+      if ( batchUnsupported && request instanceof DescribePrincipalsType ) {
+        final DescribePrincipalsResponseType response = new DescribePrincipalsResponseType( );
+        response.setDescribePrincipalsResult( new DescribePrincipalsResult( ) );
+        return response; // no results, as for a service without batch support
+      }
+      return super.describe( request );
+    }
+  }
+}
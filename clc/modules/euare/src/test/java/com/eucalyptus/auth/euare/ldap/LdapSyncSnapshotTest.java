@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.auth.euare.ldap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Unit tests for LDAP sync change detection
+ */
+public class LdapSyncSnapshotTest {
+
+  @Test
+  public void testUnchanged( ) {
+    final LdapSyncSnapshot previous = snapshot( );
+    final LdapSyncSnapshot current = snapshot( );
+    assertEquals( "Changed accounts", ImmutableSet.of( ), current.changedAccounts( previous ) );
+    assertEquals( "Removed accounts", ImmutableSet.of( ), current.removedAccounts( previous ) );
+    assertFalse( "User changed", current.userChanged( previous, "user1" ) );
+    assertFalse( "Group changed", current.groupChanged( previous, "group1" ) );
+  }
+
+  @Test
+  public void testUserInfoChanged( ) {
+    final LdapSyncSnapshot previous = snapshot( );
+    final Map<String, Map<String, String>> users = users( );
+    users.put( "user3", ImmutableMap.of( "email", "user3@example.com" ) );
+    final LdapSyncSnapshot current = LdapSyncSnapshot.of( accountingGroups( ), groups( ), users );
+    assertEquals( "Changed accounts", ImmutableSet.of( "account2" ), current.changedAccounts( previous ) );
+    assertTrue( "User changed", current.userChanged( previous, "user3" ) );
+    assertFalse( "User changed", current.userChanged( previous, "user1" ) );
+  }
+
+  @Test
+  public void testGroupMembershipChanged( ) {
+    final LdapSyncSnapshot previous = snapshot( );
+    final Map<String, Set<String>> groups = groups( );
+    groups.put( "group1", ImmutableSet.of( "user1" ) );
+    final LdapSyncSnapshot current = LdapSyncSnapshot.of( accountingGroups( ), groups, users( ) );
+    assertEquals( "Changed accounts", ImmutableSet.of( "account1" ), current.changedAccounts( previous ) );
+    assertTrue( "Group changed", current.groupChanged( previous, "group1" ) );
+    assertFalse( "Group changed", current.groupChanged( previous, "group2" ) );
+  }
+
+  @Test
+  public void testAccountsAddedAndRemoved( ) {
+    final LdapSyncSnapshot previous = snapshot( );
+    final Map<String, Set<String>> accountingGroups = accountingGroups( );
+    accountingGroups.remove( "account1" );
+    accountingGroups.put( "account3", ImmutableSet.of( "group1" ) );
+    final LdapSyncSnapshot current = LdapSyncSnapshot.of( accountingGroups, groups( ), users( ) );
+    assertEquals( "Changed accounts", ImmutableSet.of( "account3" ), current.changedAccounts( previous ) );
+    assertEquals( "Removed accounts", ImmutableSet.of( "account1" ), current.removedAccounts( previous ) );
+  }
+
+  @Test
+  public void testSnapshotIsCopy( ) {
+    final Map<String, Set<String>> groups = groups( );
+    final LdapSyncSnapshot previous = LdapSyncSnapshot.of( accountingGroups( ), groups, users( ) );
+    groups.get( "group2" ).add( "user1" );
+    final LdapSyncSnapshot current = LdapSyncSnapshot.of( accountingGroups( ), groups, users( ) );
+    assertTrue( "Group changed", current.groupChanged( previous, "group2" ) );
+  }
+
+  private static LdapSyncSnapshot snapshot( ) {
+    return LdapSyncSnapshot.of( accountingGroups( ), groups( ), users( ) );
+  }
+
+  private static Map<String, Set<String>> accountingGroups( ) {
+    final Map<String, Set<String>> accountingGroups = Maps.newHashMap( );
+    accountingGroups.put( "account1", Sets.newHashSet( "group1" ) );
+    accountingGroups.put( "account2", Sets.newHashSet( "group2" ) );
+    return accountingGroups;
+  }
+
+  private static Map<String, Set<String>> groups( ) {
+    final Map<String, Set<String>> groups = Maps.newHashMap( );
+    groups.put( "group1", Sets.newHashSet( "user1", "user2" ) );
+    groups.put( "group2", Sets.newHashSet( "user3" ) );
+    return groups;
+  }
+
+  private static Map<String, Map<String, String>> users( ) {
+    final Map<String, Map<String, String>> users = Maps.newHashMap( );
+    for ( final String user : ImmutableSet.of( "user1", "user2", "user3" ) ) {
+      users.put( user, Maps.newHashMap( ImmutableMap.of( "dn", "uid=" + user + ",ou=people,dc=example,dc=com" ) ) );
+    }
+    return users;
+  }
+}
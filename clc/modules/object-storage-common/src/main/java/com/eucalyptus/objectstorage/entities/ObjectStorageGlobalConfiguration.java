@@ -101,6 +101,9 @@ public class ObjectStorageGlobalConfiguration extends AbstractPersistent impleme
   private static final String DEFAULT_BUCKET_NAMING_SCHEME = "extended";
   private static final Boolean DEFAULT_COPY_UNSUPPORTED_STRATEGY = Boolean.FALSE;
   private static final int DEFAULT_MAX_TAGS = 50;
+  private static final String DEFAULT_METADATA_CACHE = "maximumSize=10000, expireAfterWrite=5s";
+  private static final int DEFAULT_REAPER_CONCURRENCY = 4;
+  private static final int DEFAULT_REAPER_RATE_LIMIT = 0; // unlimited
 
   @Override
   public ObjectStorageGlobalConfiguration getLatest() {
@@ -172,6 +175,27 @@ public class ObjectStorageGlobalConfiguration extends AbstractPersistent impleme
       changeListener = PropertyChangeListeners.IsNonNegativeInteger.class)
   protected Integer max_tags;
 
+  @Column( name = "metadata_cache" )
+  @ConfigurableField(
+      initial = DEFAULT_METADATA_CACHE,
+      description = "Cache for bucket and object metadata used when reading objects. Use maximumSize=0 to disable.",
+      changeListener = PropertyChangeListeners.CacheSpecListener.class)
+  protected String metadata_cache;
+
+  @Column( name = "reaper_concurrency" )
+  @ConfigurableField(
+      initialInt = DEFAULT_REAPER_CONCURRENCY,
+      description = "Maximum number of buckets concurrently processed by the object and bucket reapers.",
+      changeListener = PropertyChangeListeners.IsPositiveInteger.class)
+  protected Integer reaper_concurrency;
+
+  @Column( name = "reaper_rate_limit" )
+  @ConfigurableField(
+      initialInt = DEFAULT_REAPER_RATE_LIMIT,
+      description = "Maximum number of objects per second removed by the object reaper. Use 0 for no limit.",
+      changeListener = PropertyChangeListeners.IsNonNegativeInteger.class)
+  protected Integer reaper_rate_limit;
+
   @ConfigurableInit
   protected ObjectStorageGlobalConfiguration initializeDefaults() {
     this.setBucket_creation_wait_interval_seconds(DEFAULT_CLEANUP_INTERVAL_SEC);
@@ -183,6 +207,9 @@ public class ObjectStorageGlobalConfiguration extends AbstractPersistent impleme
     this.setMax_metadata_request_size(DEFAULT_MAX_METADATA_REQUEST_SIZE);
     this.setMax_total_reporting_capacity_gb(Integer.MAX_VALUE);
     this.setMax_tags(DEFAULT_MAX_TAGS);
+    this.setMetadata_cache(DEFAULT_METADATA_CACHE);
+    this.setReaper_concurrency(DEFAULT_REAPER_CONCURRENCY);
+    this.setReaper_rate_limit(DEFAULT_REAPER_RATE_LIMIT);
     return this;
   }
 
@@ -289,6 +316,30 @@ public class ObjectStorageGlobalConfiguration extends AbstractPersistent impleme
     this.max_tags = max_tags;
   }
 
+  public String getMetadata_cache( ) {
+    return MoreObjects.firstNonNull( metadata_cache, DEFAULT_METADATA_CACHE );
+  }
+
+  public void setMetadata_cache( final String metadata_cache ) {
+    this.metadata_cache = metadata_cache;
+  }
+
+  public Integer getReaper_concurrency( ) {
+    return MoreObjects.firstNonNull( reaper_concurrency, DEFAULT_REAPER_CONCURRENCY );
+  }
+
+  public void setReaper_concurrency( final Integer reaper_concurrency ) {
+    this.reaper_concurrency = reaper_concurrency;
+  }
+
+  public Integer getReaper_rate_limit( ) {
+    return MoreObjects.firstNonNull( reaper_rate_limit, DEFAULT_REAPER_RATE_LIMIT );
+  }
+
+  public void setReaper_rate_limit( final Integer reaper_rate_limit ) {
+    this.reaper_rate_limit = reaper_rate_limit;
+  }
+
   @PrePersist
   @PreUpdate
   public void updateDefaults() {
@@ -298,6 +349,15 @@ public class ObjectStorageGlobalConfiguration extends AbstractPersistent impleme
     if (max_tags==null) {
       max_tags = 10; // initialize to old hard-coded limit
     }
+    if (metadata_cache == null) {
+      metadata_cache = DEFAULT_METADATA_CACHE;
+    }
+    if (reaper_concurrency == null) {
+      reaper_concurrency = DEFAULT_REAPER_CONCURRENCY;
+    }
+    if (reaper_rate_limit == null) {
+      reaper_rate_limit = DEFAULT_REAPER_RATE_LIMIT;
+    }
   }
 
   /**
@@ -60,6 +60,9 @@ import com.eucalyptus.storage.msgs.s3.Grant;
 import com.eucalyptus.storage.msgs.s3.Grantee;
 import com.eucalyptus.storage.msgs.s3.Group;
 import com.google.common.base.Function;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 
 /**
  * Common handler for authorization for S3 resources that have access controls via ACLs
@@ -71,6 +74,11 @@ public abstract class S3AccessControlledEntity<STATE extends Enum<STATE>> extend
 
   private static final Logger LOG = Logger.getLogger(S3AccessControlledEntity.class);
 
+  /**
+   * Decoded acls by json string, acls are commonly shared by many buckets and objects.
+   */
+  private static final Cache<String, Map<String, Integer>> decodedAclCache = CacheBuilder.newBuilder().maximumSize(1000).build();
+
   // Display name for IAM user
   @Column(name = "owner_iam_user_displayname")
   protected String ownerIamUserDisplayName;
@@ -277,14 +285,20 @@ public abstract class S3AccessControlledEntity<STATE extends Enum<STATE>> extend
   private synchronized Map<String, Integer> getDecodedAcl() throws Exception {
     if (this.decodedAcl == null) {
       try {
-        // Jackson requires this method to handle generics
-        Map<String, Integer> aclMap = new HashMap<String, Integer>();
-        JSONObject aclJson = (JSONObject) JSONSerializer.toJSON(this.getAcl());
-        String key = null;
-        Iterator keys = aclJson.keys();
-        while (keys.hasNext()) {
-          key = (String) keys.next();
-          aclMap.put((String) key, new Integer(aclJson.getInt((String) key)));
+        final String aclString = this.getAcl();
+        Map<String, Integer> aclMap = aclString == null ? null : decodedAclCache.getIfPresent(aclString);
+        if (aclMap == null) {
+          // Jackson requires this method to handle generics
+          Map<String, Integer> parsedAclMap = new HashMap<String, Integer>();
+          JSONObject aclJson = (JSONObject) JSONSerializer.toJSON(aclString);
+          String key = null;
+          Iterator keys = aclJson.keys();
+          while (keys.hasNext()) {
+            key = (String) keys.next();
+            parsedAclMap.put((String) key, new Integer(aclJson.getInt((String) key)));
+          }
+          aclMap = ImmutableMap.copyOf(parsedAclMap);
+          decodedAclCache.put(aclString, aclMap);
         }
         setDecodedAcl(aclMap);
       } catch (Exception e) {
@@ -47,6 +47,7 @@ import com.eucalyptus.configurable.ConfigurableClass;
 import com.eucalyptus.configurable.ConfigurableField;
 import com.eucalyptus.configurable.ConfigurableFieldType;
 import com.eucalyptus.configurable.ConfigurableInit;
+import com.eucalyptus.configurable.PropertyChangeListeners;
 import com.eucalyptus.entities.AbstractPersistent;
 import com.eucalyptus.entities.Entities;
 import com.eucalyptus.entities.TransactionResource;
@@ -60,6 +61,7 @@ import com.eucalyptus.util.EucalyptusCloudException;
 import com.eucalyptus.util.Exceptions;
 import com.eucalyptus.util.LockResource;
 
+import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicate;
 
 @Entity
@@ -79,6 +81,12 @@ public class S3ProviderConfiguration extends AbstractPersistent implements Cache
 
   private static final String DEFAULT_S3_HEAD_RESPONSE = "405";
 
+  private static final int DEFAULT_PARALLEL_GET_THRESHOLD_MB = 0;
+
+  private static final int DEFAULT_PARALLEL_GET_PART_SIZE_MB = 8;
+
+  private static final int DEFAULT_PARALLEL_GET_CONCURRENCY = 4;
+
   @ConfigurableField(description = "External S3 endpoint.", displayName = "s3_endpoint", initial = DEFAULT_S3_ENDPOINT)
   @Column(name = "endpoint")
   protected String S3Endpoint;
@@ -112,6 +120,22 @@ public class S3ProviderConfiguration extends AbstractPersistent implements Cache
   @Column(name = "endpoint_head_response")
   protected Integer S3EndpointHeadResponse;
 
+  @ConfigurableField(description = "Objects (or requested ranges) larger than this size in MB are read from the backend using concurrent " +
+      "byte-range requests. 0 disables ranged reads.", displayName = "parallel_get_threshold_mb", initial = "0",
+      changeListener = PropertyChangeListeners.IsNonNegativeInteger.class)
+  @Column(name = "parallel_get_threshold_mb")
+  protected Integer S3ParallelGetThresholdMb;
+
+  @ConfigurableField(description = "Size in MB of each byte-range request for parallel object reads.", displayName = "parallel_get_part_size_mb",
+      initial = "8", changeListener = PropertyChangeListeners.IsPositiveInteger.class)
+  @Column(name = "parallel_get_part_size_mb")
+  protected Integer S3ParallelGetPartSizeMb;
+
+  @ConfigurableField(description = "Maximum number of concurrent byte-range requests for each parallel object read.",
+      displayName = "parallel_get_concurrency", initial = "4", changeListener = PropertyChangeListeners.IsPositiveInteger.class)
+  @Column(name = "parallel_get_concurrency")
+  protected Integer S3ParallelGetConcurrency;
+
   public Boolean getS3UseBackendDns() {
     return S3UseBackendDns;
   }
@@ -188,12 +212,39 @@ public class S3ProviderConfiguration extends AbstractPersistent implements Cache
     S3EndpointHeadResponse = s3EndpointHeadResponse;
   }
 
+  public Integer getS3ParallelGetThresholdMb() {
+    return MoreObjects.firstNonNull(S3ParallelGetThresholdMb, DEFAULT_PARALLEL_GET_THRESHOLD_MB);
+  }
+
+  public void setS3ParallelGetThresholdMb(Integer s3ParallelGetThresholdMb) {
+    S3ParallelGetThresholdMb = s3ParallelGetThresholdMb;
+  }
+
+  public Integer getS3ParallelGetPartSizeMb() {
+    return MoreObjects.firstNonNull(S3ParallelGetPartSizeMb, DEFAULT_PARALLEL_GET_PART_SIZE_MB);
+  }
+
+  public void setS3ParallelGetPartSizeMb(Integer s3ParallelGetPartSizeMb) {
+    S3ParallelGetPartSizeMb = s3ParallelGetPartSizeMb;
+  }
+
+  public Integer getS3ParallelGetConcurrency() {
+    return MoreObjects.firstNonNull(S3ParallelGetConcurrency, DEFAULT_PARALLEL_GET_CONCURRENCY);
+  }
+
+  public void setS3ParallelGetConcurrency(Integer s3ParallelGetConcurrency) {
+    S3ParallelGetConcurrency = s3ParallelGetConcurrency;
+  }
+
   @ConfigurableInit
   public S3ProviderConfiguration initializeDefaults() {
     this.setS3Endpoint(DEFAULT_S3_ENDPOINT);
     this.setS3UseBackendDns(DEFAULT_BACKEND_DNS);
     this.setS3UseHttps(DEFAULT_BACKEND_HTTPS);
     this.setS3EndpointHeadResponse(Integer.valueOf(DEFAULT_S3_HEAD_RESPONSE));
+    this.setS3ParallelGetThresholdMb(DEFAULT_PARALLEL_GET_THRESHOLD_MB);
+    this.setS3ParallelGetPartSizeMb(DEFAULT_PARALLEL_GET_PART_SIZE_MB);
+    this.setS3ParallelGetConcurrency(DEFAULT_PARALLEL_GET_CONCURRENCY);
     return this;
   }
 
@@ -203,6 +254,15 @@ public class S3ProviderConfiguration extends AbstractPersistent implements Cache
     if (this.S3EndpointHeadResponse == null) {
       this.S3EndpointHeadResponse = Integer.valueOf(DEFAULT_S3_HEAD_RESPONSE);
     }
+    if (this.S3ParallelGetThresholdMb == null) {
+      this.S3ParallelGetThresholdMb = DEFAULT_PARALLEL_GET_THRESHOLD_MB;
+    }
+    if (this.S3ParallelGetPartSizeMb == null) {
+      this.S3ParallelGetPartSizeMb = DEFAULT_PARALLEL_GET_PART_SIZE_MB;
+    }
+    if (this.S3ParallelGetConcurrency == null) {
+      this.S3ParallelGetConcurrency = DEFAULT_PARALLEL_GET_CONCURRENCY;
+    }
   }
 
   public static S3ProviderConfiguration getS3ProviderConfiguration() {
@@ -35,6 +35,7 @@ public class ObjectStorageDataGetRequestType extends ObjectStorageDataRequestTyp
 
   protected Channel channel;
   private Map<String, String> responseHeaderOverrides;
+  private Long objectSize;
 
   public ObjectStorageDataGetRequestType( ) {
   }
@@ -58,4 +59,15 @@ public class ObjectStorageDataGetRequestType extends ObjectStorageDataRequestTyp
   public void setResponseHeaderOverrides( Map<String, String> responseHeaderOverrides ) {
     this.responseHeaderOverrides = responseHeaderOverrides;
   }
+
+  /**
+   * Size of the object as recorded in the object storage metadata, if known.
+   */
+  public Long getObjectSize( ) {
+    return objectSize;
+  }
+
+  public void setObjectSize( Long objectSize ) {
+    this.objectSize = objectSize;
+  }
 }
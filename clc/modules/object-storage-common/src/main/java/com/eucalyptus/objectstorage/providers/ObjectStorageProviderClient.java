@@ -30,6 +30,9 @@
 package com.eucalyptus.objectstorage.providers;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+
+import org.jboss.netty.handler.codec.http.HttpResponseStatus;
 
 import com.eucalyptus.objectstorage.exceptions.s3.S3Exception;
 import com.eucalyptus.objectstorage.msgs.AbortMultipartUploadResponseType;
@@ -42,6 +45,8 @@ import com.eucalyptus.objectstorage.msgs.CreateBucketResponseType;
 import com.eucalyptus.objectstorage.msgs.CreateBucketType;
 import com.eucalyptus.objectstorage.msgs.DeleteBucketResponseType;
 import com.eucalyptus.objectstorage.msgs.DeleteBucketType;
+import com.eucalyptus.objectstorage.msgs.DeleteMultipleObjectsResponseType;
+import com.eucalyptus.objectstorage.msgs.DeleteMultipleObjectsType;
 import com.eucalyptus.objectstorage.msgs.DeleteObjectResponseType;
 import com.eucalyptus.objectstorage.msgs.DeleteObjectType;
 import com.eucalyptus.objectstorage.msgs.DeleteVersionResponseType;
@@ -90,6 +95,11 @@ import com.eucalyptus.objectstorage.msgs.SetObjectAccessControlPolicyResponseTyp
 import com.eucalyptus.objectstorage.msgs.SetObjectAccessControlPolicyType;
 import com.eucalyptus.objectstorage.msgs.UploadPartResponseType;
 import com.eucalyptus.objectstorage.msgs.UploadPartType;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsEntry;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsEntryVersioned;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsError;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsErrorCode;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsMessageReply;
 import com.eucalyptus.util.EucalyptusCloudException;
 
 /**
@@ -175,6 +185,52 @@ public interface ObjectStorageProviderClient {
 
   public DeleteObjectResponseType deleteObject(DeleteObjectType request) throws S3Exception;
 
+  /**
+   * Delete the given objects from a bucket. Objects that do not exist are reported as deleted.
+   *
+   * The default implementation deletes each object in turn, providers supporting multi-object delete should override.
+   */
+  public default DeleteMultipleObjectsResponseType deleteMultipleObjects(DeleteMultipleObjectsType request) throws S3Exception {
+    return deleteEachObject(this, request);
+  }
+
+  /**
+   * Delete the given objects from a bucket using a delete request for each object.
+   *
+   * For providers whose backend does not support multi-object delete.
+   */
+  public static DeleteMultipleObjectsResponseType deleteEachObject(ObjectStorageProviderClient provider, DeleteMultipleObjectsType request)
+      throws S3Exception {
+    final DeleteMultipleObjectsMessageReply result = new DeleteMultipleObjectsMessageReply();
+    result.setDeleted(new ArrayList<>());
+    result.setErrors(new ArrayList<>());
+    for (final DeleteMultipleObjectsEntry entry : request.getDelete().getObjects()) {
+      final DeleteObjectType deleteRequest = new DeleteObjectType();
+      deleteRequest.setUserId(request.getUserId());
+      deleteRequest.setEffectiveUserId(request.getEffectiveUserId());
+      deleteRequest.setBucket(request.getBucket());
+      deleteRequest.setKey(entry.getKey());
+      try {
+        provider.deleteObject(deleteRequest);
+      } catch (S3Exception e) {
+        if (!HttpResponseStatus.NOT_FOUND.equals(e.getStatus())) {
+          final DeleteMultipleObjectsError error = new DeleteMultipleObjectsError();
+          error.setKey(entry.getKey());
+          error.setCode(DeleteMultipleObjectsErrorCode.InternalError);
+          error.setMessage(e.getMessage());
+          result.getErrors().add(error);
+          continue;
+        }
+      }
+      final DeleteMultipleObjectsEntryVersioned deleted = new DeleteMultipleObjectsEntryVersioned();
+      deleted.setKey(entry.getKey());
+      result.getDeleted().add(deleted);
+    }
+    final DeleteMultipleObjectsResponseType reply = request.getReply();
+    reply.setDeleteResult(result);
+    return reply;
+  }
+
   public GetObjectAccessControlPolicyResponseType getObjectAccessControlPolicy(GetObjectAccessControlPolicyType request) throws S3Exception;
 
   public SetObjectAccessControlPolicyResponseType setObjectAccessControlPolicy(SetObjectAccessControlPolicyType request) throws S3Exception;
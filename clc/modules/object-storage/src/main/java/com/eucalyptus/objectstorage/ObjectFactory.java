@@ -92,6 +92,17 @@ public interface ObjectFactory {
    */
   public void actuallyDeleteObject(ObjectStorageProviderClient provider, ObjectEntity entity, User requestUser) throws S3Exception;
 
+  /**
+   * Delete objects in 'deleting' state from the backend and metadata, using multi-object deletes on the backend and batched metadata deletes. This
+   * is intended for usage by async processes such as object GC. Objects that could not be deleted from the backend are kept for a later retry.
+   *
+   * @param bucketUuid The uuid of the bucket containing all the objects
+   * @param entities ObjectEntity records in 'deleting' state for the objects to delete
+   * @return The number of objects deleted
+   */
+  public int actuallyDeleteObjects(ObjectStorageProviderClient provider, String bucketUuid, List<ObjectEntity> entities, User requestUser)
+      throws S3Exception;
+
   /**
    * Create the named object part in metadata and on the backend.
    * 
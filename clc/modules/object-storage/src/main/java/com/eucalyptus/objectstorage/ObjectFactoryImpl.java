@@ -37,6 +37,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -73,6 +74,7 @@ import com.eucalyptus.objectstorage.msgs.CompleteMultipartUploadResponseType;
 import com.eucalyptus.objectstorage.msgs.CompleteMultipartUploadType;
 import com.eucalyptus.objectstorage.msgs.CopyObjectResponseType;
 import com.eucalyptus.objectstorage.msgs.CopyObjectType;
+import com.eucalyptus.objectstorage.msgs.DeleteMultipleObjectsType;
 import com.eucalyptus.objectstorage.msgs.DeleteObjectResponseType;
 import com.eucalyptus.objectstorage.msgs.DeleteObjectType;
 import com.eucalyptus.objectstorage.msgs.GetObjectResponseType;
@@ -90,16 +92,22 @@ import com.eucalyptus.objectstorage.util.ObjectStorageProperties;
 import com.eucalyptus.storage.common.DateFormatter;
 import com.eucalyptus.storage.config.ConfigurationCache;
 import com.eucalyptus.storage.msgs.s3.AccessControlPolicy;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsEntry;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsEntryVersioned;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsMessage;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsMessageReply;
 import com.eucalyptus.storage.msgs.s3.MetaDataEntry;
 import com.eucalyptus.storage.msgs.s3.Part;
 import com.eucalyptus.system.Threads;
 import com.eucalyptus.util.EucalyptusCloudException;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import edu.ucsb.eucalyptus.msgs.BaseMessage;
 
 public class ObjectFactoryImpl implements ObjectFactory {
   private static final Logger LOG = Logger.getLogger(ObjectFactoryImpl.class);
+  private static final int MAX_DELETE_BATCH_SIZE = 1000; // S3 multi-object delete limit
 
   /*
    * The thread pool to handle the PUT operations to the backend. Use another thread to allow status updates on the object entity in the db to renew
@@ -573,6 +581,68 @@ public class ObjectFactoryImpl implements ObjectFactory {
     }
   }
 
+  @Override
+  public int actuallyDeleteObjects(@Nonnull ObjectStorageProviderClient provider, @Nonnull String bucketUuid, @Nonnull List<ObjectEntity> entities,
+      @Nullable User requestUser) throws S3Exception {
+    final List<ObjectEntity> deleted = Lists.newArrayList();
+    final Map<String, ObjectEntity> backendObjects = Maps.newHashMap();
+    for (ObjectEntity entity : entities) {
+      if (!ObjectState.deleting.equals(entity.getState()) || !bucketUuid.equals(entity.getBucket().getBucketUuid())) {
+        LOG.debug("Skipping deletion of object " + entity.getObjectUuid() + " not in deleting state for bucket uuid " + bucketUuid);
+      } else if (entity.getIsDeleteMarker()) {
+        // Delete markers are just removed, no backend call needed.
+        deleted.add(entity);
+      } else {
+        backendObjects.put(entity.getObjectUuid(), entity);
+      }
+    }
+
+    if (!backendObjects.isEmpty()) {
+      // Always use the system admin for deletions if not given an explicit user
+      if (requestUser == null) {
+        try {
+          requestUser = Accounts.lookupSystemAdmin();
+        } catch (AuthException e) {
+          LOG.trace("System admin account not found for object deletion. Cannot remove objects in bucket uuid " + bucketUuid);
+          throw new AccountProblemException("Eucalyptus/Admin");
+        }
+      }
+
+      for (List<String> objectUuids : Lists.partition(Lists.newArrayList(backendObjects.keySet()), MAX_DELETE_BATCH_SIZE)) {
+        final DeleteMultipleObjectsMessage message = new DeleteMultipleObjectsMessage();
+        message.setQuiet(Boolean.TRUE);
+        message.setObjects(Lists.newArrayListWithCapacity(objectUuids.size()));
+        for (String objectUuid : objectUuids) {
+          final DeleteMultipleObjectsEntry entry = new DeleteMultipleObjectsEntry();
+          entry.setKey(objectUuid);
+          message.getObjects().add(entry);
+        }
+        final DeleteMultipleObjectsType deleteRequest = new DeleteMultipleObjectsType();
+        deleteRequest.setUser(requestUser);
+        deleteRequest.setBucket(bucketUuid);
+        deleteRequest.setDelete(message);
+        try {
+          final DeleteMultipleObjectsMessageReply result = provider.deleteMultipleObjects(deleteRequest).getDeleteResult();
+          for (DeleteMultipleObjectsEntryVersioned entry : result.getDeleted()) {
+            final ObjectEntity entity = backendObjects.get(entry.getKey());
+            if (entity != null) {
+              deleted.add(entity);
+            }
+          }
+          if (!result.getErrors().isEmpty()) {
+            // Failed. Keep records so we can retry later
+            LOG.trace("Error in response from backend on deletion request for " + result.getErrors().size() + " objects in bucket uuid " + bucketUuid
+                + ", first error for key " + result.getErrors().get(0).getKey() + ": " + result.getErrors().get(0).getMessage());
+          }
+        } catch (Exception e) {
+          LOG.warn("Error deleting objects in bucket uuid " + bucketUuid + " on backend. Will retry later", e);
+        }
+      }
+    }
+
+    return ObjectMetadataManagers.getInstance().deleteAll(deleted);
+  }
+
   /**
    * Create a multipart Upload (get an Id from the backend and initialize the metadata. Returns a persisted uploadId record as an ObjectEntity with
    * the uploadId in state 'mpu-pending'
@@ -752,10 +822,9 @@ public class ObjectFactoryImpl implements ObjectFactory {
       commitRequest.setKey(mpuEntity.getObjectUuid());
       commitRequest.setUploadId(mpuEntity.getUploadId());
 
-      // TODO: this is broken, need the exact set of parts used, not all parts
       long fullSize =
-          MpuPartMetadataManagers.getInstance().processPartListAndGetSize(partList,
-              MpuPartMetadataManagers.getInstance().getParts(mpuEntity.getBucket(), mpuEntity.getObjectKey(), mpuEntity.getUploadId()));
+          MpuPartMetadataManagers.getInstance().processPartListAndGetSize(mpuEntity.getBucket(), mpuEntity.getObjectKey(),
+              mpuEntity.getUploadId(), partList);
       mpuEntity.setSize(fullSize);
       Callable<CompleteMultipartUploadResponseType> completeCallable = new Callable<CompleteMultipartUploadResponseType>() {
 
@@ -1080,7 +1080,7 @@ public class ObjectStorageGateway implements ObjectStorageService {
    */
   @Override
   public GetObjectAccessControlPolicyResponseType getObjectAccessControlPolicy(GetObjectAccessControlPolicyType request) throws S3Exception {
-    ObjectEntity objectEntity = getObjectEntityAndCheckPermissions(request, request.getVersionId());
+    ObjectEntity objectEntity = getObjectEntityAndCheckPermissions(request, request.getVersionId(), true);
 
     // Get the listing from the back-end and copy results in.
     GetObjectAccessControlPolicyResponseType reply = request.getReply();
@@ -1236,7 +1236,7 @@ public class ObjectStorageGateway implements ObjectStorageService {
    */
   @Override
   public GetObjectResponseType getObject(final GetObjectType request) throws S3Exception {
-    final ObjectEntity objectEntity = getObjectEntityAndCheckPermissions(request, request.getVersionId());
+    final ObjectEntity objectEntity = getObjectEntityAndCheckPermissions(request, request.getVersionId(), true);
     if (objectEntity.getIsDeleteMarker()) {
       throw new NoSuchKeyException(request.getKey());
     }
@@ -1246,6 +1246,7 @@ public class ObjectStorageGateway implements ObjectStorageService {
 
     request.setKey(objectEntity.getObjectUuid());
     request.setBucket(objectEntity.getBucket().getBucketUuid());
+    request.setObjectSize(objectEntity.getSize());
     // Versioning not used on backend
     request.setVersionId(null);
     final GetObjectResponseType reply;
@@ -1310,7 +1311,7 @@ public class ObjectStorageGateway implements ObjectStorageService {
    */
   @Override
   public GetObjectExtendedResponseType getObjectExtended(GetObjectExtendedType request) throws S3Exception {
-    ObjectEntity objectEntity = getObjectEntityAndCheckPermissions(request, request.getVersionId());
+    ObjectEntity objectEntity = getObjectEntityAndCheckPermissions(request, request.getVersionId(), true);
     if (objectEntity.getIsDeleteMarker()) {
       throw new NoSuchKeyException(request.getKey());
     }
@@ -1425,6 +1426,7 @@ public class ObjectStorageGateway implements ObjectStorageService {
 
     request.setByteRangeStart(byteRangeStart); // Populate the computed byte range before firing request to backend
     request.setByteRangeEnd(byteRangeEnd); // Populate the computed byte range before firing request to backend
+    request.setObjectSize(objectSize);
 
     try {
       GetObjectExtendedResponseType response = ospClient.getObjectExtended(request);
@@ -1502,7 +1504,7 @@ public class ObjectStorageGateway implements ObjectStorageService {
    */
   @Override
   public HeadObjectResponseType headObject(HeadObjectType request) throws S3Exception {
-    ObjectEntity objectEntity = getObjectEntityAndCheckPermissions(request, request.getVersionId());
+    ObjectEntity objectEntity = getObjectEntityAndCheckPermissions(request, request.getVersionId(), true);
 
     if (objectEntity.getIsDeleteMarker()) {
       throw new NoSuchKeyException(request.getKey());
@@ -2530,12 +2532,25 @@ public class ObjectStorageGateway implements ObjectStorageService {
   }
 
   private ObjectEntity getObjectEntityAndCheckPermissions(ObjectStorageRequestType request, String versionId) throws S3Exception {
+    return getObjectEntityAndCheckPermissions(request, versionId, false);
+  }
+
+  /**
+   * Lookup the object and check permissions, using cached metadata if requested.
+   *
+   * Cached metadata may not reflect recent changes made via other hosts so should only be used for reads.
+   */
+  private ObjectEntity getObjectEntityAndCheckPermissions(ObjectStorageRequestType request, String versionId, boolean cached) throws S3Exception {
     logRequest(request);
-    Bucket bucket = ensureBucketExists(request.getBucket());
+    Bucket bucket = ensureBucketExists(request.getBucket(), cached);
     ObjectEntity object;
     String keyFullName = request.getBucket() + "/" + request.getKey() + (versionId == null ? "" : "?versionId=" + versionId);
     try {
-      object = ObjectMetadataManagers.getInstance().lookupObject(bucket, request.getKey(), versionId);
+      if (cached) {
+        object = ObjectStorageMetadataCache.lookupObject(bucket, request.getKey(), versionId);
+      } else {
+        object = ObjectMetadataManagers.getInstance().lookupObject(bucket, request.getKey(), versionId);
+      }
     } catch (NoSuchEntityException | NoSuchElementException e) {
       throw new NoSuchKeyException(keyFullName);
     } catch (Exception e) {
@@ -2549,9 +2564,17 @@ public class ObjectStorageGateway implements ObjectStorageService {
   }
 
   private Bucket ensureBucketExists(String bucketName) throws S3Exception {
+    return ensureBucketExists(bucketName, false);
+  }
+
+  private Bucket ensureBucketExists(String bucketName, boolean cached) throws S3Exception {
     Bucket bucket;
     try {
-      bucket = BucketMetadataManagers.getInstance().lookupExtantBucket(bucketName);
+      if (cached) {
+        bucket = ObjectStorageMetadataCache.lookupExtantBucket(bucketName);
+      } else {
+        bucket = BucketMetadataManagers.getInstance().lookupExtantBucket(bucketName);
+      }
     } catch (NoSuchEntityException e) {
       throw new NoSuchBucketException(bucketName);
     } catch (Exception e) {
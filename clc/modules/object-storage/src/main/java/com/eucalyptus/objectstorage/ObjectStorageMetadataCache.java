@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.objectstorage;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.log4j.Logger;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import com.eucalyptus.entities.AbstractPersistent;
+import com.eucalyptus.entities.Entities;
+import com.eucalyptus.entities.TransactionResource;
+import com.eucalyptus.objectstorage.entities.Bucket;
+import com.eucalyptus.objectstorage.entities.ObjectEntity;
+import com.eucalyptus.objectstorage.entities.ObjectStorageGlobalConfiguration;
+import com.eucalyptus.objectstorage.exceptions.MetadataOperationFailureException;
+import com.eucalyptus.objectstorage.exceptions.NoSuchEntityException;
+import com.eucalyptus.objectstorage.metadata.VersionedMetadataCache;
+import com.eucalyptus.storage.config.ConfigurationCache;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Read-through cache for the bucket and latest object metadata used when serving object reads.
+ *
+ * Entries are invalidated on bucket and object state transitions and metadata updates on this
+ * host. The metadata includes the ACLs used for authorization, so before a cached entry is used
+ * its version is checked against the database, which catches changes made via other hosts. This
+ * is a single column lookup, the entity and its ACL are not loaded or decoded again.
+ *
+ * Each caller gets its own copy of the cached entity so changes made while handling a request
+ * are not visible to other requests.
+ */
+public class ObjectStorageMetadataCache {
+  private static final Logger LOG = Logger.getLogger(ObjectStorageMetadataCache.class);
+  private static final String DISABLED_CACHE_SPEC = "maximumSize=0";
+
+  private static final VersionedMetadataCache<String, Bucket> buckets = new VersionedMetadataCache<>(
+      ObjectStorageMetadataCache::cacheSpec, ObjectStorageMetadataCache::copy, ObjectStorageMetadataCache::isCurrent);
+  private static final VersionedMetadataCache<String, ObjectEntity> objects = new VersionedMetadataCache<>(
+      ObjectStorageMetadataCache::cacheSpec, ObjectStorageMetadataCache::copy, ObjectStorageMetadataCache::isCurrent);
+
+  /**
+   * Cached lookup of an extant bucket.
+   *
+   * @see com.eucalyptus.objectstorage.metadata.BucketMetadataManager#lookupExtantBucket
+   */
+  public static Bucket lookupExtantBucket(@Nonnull final String bucketName) throws NoSuchEntityException, MetadataOperationFailureException {
+    return buckets.get(bucketName, () -> BucketMetadataManagers.getInstance().lookupExtantBucket(bucketName));
+  }
+
+  /**
+   * Cached lookup of an extant object. Only the latest version is cached, lookups for a specific
+   * version are passed through.
+   *
+   * @see com.eucalyptus.objectstorage.metadata.ObjectMetadataManager#lookupObject
+   */
+  public static ObjectEntity lookupObject(@Nonnull final Bucket bucket, @Nonnull final String objectKey, @Nullable final String versionId)
+      throws NoSuchElementException, MetadataOperationFailureException {
+    if (!Strings.isNullOrEmpty(versionId)) {
+      return ObjectMetadataManagers.getInstance().lookupObject(bucket, objectKey, versionId);
+    }
+    return objects.get(objectCacheKey(bucket.getBucketUuid(), objectKey),
+        () -> ObjectMetadataManagers.getInstance().lookupObject(bucket, objectKey, null));
+  }
+
+  public static void invalidateBucket(@Nullable final Bucket bucket) {
+    if (bucket != null) {
+      invalidateBucket(bucket.getBucketName());
+    }
+  }
+
+  public static void invalidateBucket(@Nullable final String bucketName) {
+    if (bucketName != null) {
+      buckets.invalidate(bucketName);
+    }
+  }
+
+  public static void invalidateObject(@Nullable final ObjectEntity object) {
+    if (object != null && object.getBucket() != null) {
+      invalidateObject(object.getBucket().getBucketUuid(), object.getObjectKey());
+    }
+  }
+
+  public static void invalidateObject(@Nullable final String bucketUuid, @Nullable final String objectKey) {
+    if (bucketUuid != null && objectKey != null) {
+      objects.invalidate(objectCacheKey(bucketUuid, objectKey));
+    }
+  }
+
+  public static Map<String, Object> getStatistics() {
+    return ImmutableMap.<String, Object>of(
+        "Buckets", buckets.getStatistics(),
+        "Objects", objects.getStatistics()
+    );
+  }
+
+  private static String objectCacheKey(final String bucketUuid, final String objectKey) {
+    return bucketUuid + "/" + objectKey;
+  }
+
+  private static <T extends Serializable> T copy(final T entity) {
+    @SuppressWarnings("unchecked")
+    final T copy = (T) SerializationUtils.clone(entity);
+    return copy;
+  }
+
+  /**
+   * Check the cached entity version against the database, any update increments the version.
+   */
+  private static boolean isCurrent(final AbstractPersistent entity) {
+    try (final TransactionResource db = Entities.transactionFor(entity.getClass())) {
+      final Object version = Entities.createCriteria(entity.getClass())
+          .add(Restrictions.eq("naturalId", entity.getNaturalId()))
+          .setProjection(Projections.property("version"))
+          .setReadOnly(true)
+          .uniqueResult();
+      db.commit();
+      return version != null && Objects.equals(version, entity.getVersion());
+    } catch (final Exception e) {
+      LOG.debug("Error checking cached metadata version, reloading: " + e.getMessage());
+      return false;
+    }
+  }
+
+  private static String cacheSpec() {
+    try {
+      return ConfigurationCache.getConfiguration(ObjectStorageGlobalConfiguration.class).getMetadata_cache();
+    } catch (final Exception e) {
+      LOG.debug("Metadata cache disabled, configuration not available: " + e.getMessage());
+      return DISABLED_CACHE_SPEC;
+    }
+  }
+}
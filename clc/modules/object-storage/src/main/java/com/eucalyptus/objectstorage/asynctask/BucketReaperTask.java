@@ -29,9 +29,14 @@
 
 package com.eucalyptus.objectstorage.asynctask;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.log4j.Level;
@@ -40,6 +45,7 @@ import org.apache.log4j.Logger;
 import com.eucalyptus.objectstorage.BucketMetadataManagers;
 import com.eucalyptus.objectstorage.BucketState;
 import com.eucalyptus.objectstorage.ObjectMetadataManagers;
+import com.eucalyptus.objectstorage.ObjectStorage;
 import com.eucalyptus.objectstorage.OsgBucketFactory;
 import com.eucalyptus.objectstorage.PaginatedResult;
 import com.eucalyptus.objectstorage.entities.Bucket;
@@ -47,11 +53,14 @@ import com.eucalyptus.objectstorage.entities.ObjectEntity;
 import com.eucalyptus.objectstorage.entities.ObjectStorageGlobalConfiguration;
 import com.eucalyptus.objectstorage.providers.ObjectStorageProviders;
 import com.eucalyptus.storage.config.ConfigurationCache;
+import com.eucalyptus.system.Threads;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.Lists;
 
 /**
- * Scans metadata for each objects in a bucket and cleans history for each.
+ * Scans metadata for each objects in a bucket and cleans history for each. Buckets are cleaned concurrently as per the configured reaper
+ * concurrency.
  */
 public class BucketReaperTask {
   private static final Logger LOG = Logger.getLogger(BucketReaperTask.class);
@@ -74,7 +83,7 @@ public class BucketReaperTask {
     Supplier<Level> timeoutLevelSupplier = Suppliers.memoize(() -> logTimeout( ) ? Level.WARN : Level.TRACE);
 
     int bucketsResolved = 0;
-    int bucketsCleaned = 0;
+    final AtomicInteger bucketsCleaned = new AtomicInteger();
     boolean cleaningStarted = false;
 
     try {
@@ -97,16 +106,26 @@ public class BucketReaperTask {
         }
       }
       LOG.trace("Finished resolving " + bucketsResolved + " bucket states.");
-      // Randomly iterate through the buckets so they all have equal chance of running before a timeout
-      Bucket b;
-      int idx;
+      // Randomly order the buckets so they all have equal chance of running before a timeout
+      Collections.shuffle(buckets, rand);
       cleaningStarted = true;
-      while (buckets.size() > 0 && !isTimedOut() && !interrupted) {
-        idx = rand.nextInt(buckets.size());
-        b = buckets.get(idx);
-        cleanObjectHistoriesInBucket(b,timeoutLevelSupplier);
-        buckets.remove(idx);
-        bucketsCleaned++;
+      final ExecutorService executor = Threads.lookup(ObjectStorage.class, BucketReaperTask.class)
+          .limitTo(ConfigurationCache.getConfiguration(ObjectStorageGlobalConfiguration.class).getReaper_concurrency());
+      final List<Future<?>> cleanups = Lists.newArrayList();
+      for (final Bucket b : buckets) {
+        cleanups.add(executor.submit(() -> {
+          if (!isTimedOut() && !interrupted) {
+            cleanObjectHistoriesInBucket(b, timeoutLevelSupplier);
+            bucketsCleaned.incrementAndGet();
+          }
+        }));
+      }
+      for (final Future<?> cleanup : cleanups) {
+        try {
+          cleanup.get();
+        } catch (ExecutionException e) {
+          LOG.error("Error during bucket cleanup execution. Will retry later", e.getCause());
+        }
       }
     } catch (final Throwable f) {
       LOG.error("Error during bucket cleanup execution. Will retry later", f);
@@ -30,6 +30,10 @@
 package com.eucalyptus.objectstorage.asynctask;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 
@@ -38,18 +42,34 @@ import com.eucalyptus.entities.Transactions;
 import com.eucalyptus.objectstorage.MpuPartMetadataManagers;
 import com.eucalyptus.objectstorage.ObjectMetadataManagers;
 import com.eucalyptus.objectstorage.ObjectState;
+import com.eucalyptus.objectstorage.ObjectStorage;
 import com.eucalyptus.objectstorage.OsgObjectFactory;
 import com.eucalyptus.objectstorage.entities.ObjectEntity;
+import com.eucalyptus.objectstorage.entities.ObjectStorageGlobalConfiguration;
 import com.eucalyptus.objectstorage.entities.PartEntity;
+import com.eucalyptus.objectstorage.providers.ObjectStorageProviderClient;
 import com.eucalyptus.objectstorage.providers.ObjectStorageProviders;
+import com.eucalyptus.storage.config.ConfigurationCache;
+import com.eucalyptus.system.Threads;
 import com.eucalyptus.util.EucalyptusCloudException;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.util.concurrent.RateLimiter;
 
 /**
  * Scans metadata for "deleted" objects and removes them from the backend. Many of these may be running concurrently.
  *
+ * Objects in 'deleting' state are processed in pages, partitioned by bucket into batches that are deleted concurrently using multi-object deletes
+ * on the backend and batched metadata deletes. Concurrency and the rate of deletion are configurable.
  */
 public class ObjectReaperTask implements Runnable {
   private static final Logger LOG = Logger.getLogger(ObjectReaperTask.class);
+  private static final int MAX_BATCH_SIZE = 1000;
+  private static final int MAX_PAGE_SIZE = 20000;
+  private static final RateLimiter rateLimiter = RateLimiter.create(MAX_BATCH_SIZE);
+  private static volatile Map<String, Object> statistics = ImmutableMap.of();
 
   private volatile boolean interrupted = false;
 
@@ -95,24 +115,94 @@ public class ObjectReaperTask implements Runnable {
   }
 
   private void cleanDeleting() {
+    final ObjectStorageGlobalConfiguration config = ConfigurationCache.getConfiguration(ObjectStorageGlobalConfiguration.class);
+    final int rateLimit = config.getReaper_rate_limit();
+    final int batchSize = rateLimit > 0 ? Math.min(rateLimit, MAX_BATCH_SIZE) : MAX_BATCH_SIZE;
+    final int pageSize = Math.min(config.getReaper_concurrency() * batchSize, MAX_PAGE_SIZE);
+    final ExecutorService executor = Threads.lookup(ObjectStorage.class, ObjectReaperTask.class).limitTo(config.getReaper_concurrency());
+    if (rateLimit > 0 && rateLimiter.getRate() != rateLimit) {
+      rateLimiter.setRate(rateLimit);
+    }
+
+    final long startTime = System.currentTimeMillis();
+    long backlog = 0;
+    long reaped = 0;
     try {
-      List<ObjectEntity> entitiesToClean = ObjectMetadataManagers.getInstance().lookupObjectsInState(null, null, null, ObjectState.deleting);
-      LOG.trace("Reaping " + entitiesToClean.size() + " objects from backend");
-      for (ObjectEntity obj : entitiesToClean) {
-        try {
-          reapObject(obj);
-        } catch (final Throwable f) {
-          LOG.error("Error during object reaper cleanup for object: " + " uuid= " + obj.getObjectUuid(), f);
+      final ObjectStorageProviderClient provider = ObjectStorageProviders.getInstance();
+      backlog = ObjectMetadataManagers.getInstance().countInState(ObjectState.deleting);
+      LOG.trace("Reaping " + backlog + " objects from backend");
+      String startUuid = null;
+      List<ObjectEntity> entitiesToClean;
+      do {
+        entitiesToClean = ObjectMetadataManagers.getInstance().listInStatePaginated(ObjectState.deleting, startUuid, pageSize);
+        if (!entitiesToClean.isEmpty()) {
+          startUuid = entitiesToClean.get(entitiesToClean.size() - 1).getObjectUuid();
+          reaped += reapObjects(provider, executor, entitiesToClean, batchSize, rateLimit);
         }
-        if (interrupted) {
-          break;
-        }
-      }
+      } while (entitiesToClean.size() == pageSize && !interrupted);
     } catch (Exception e) {
       LOG.warn("Error encountered during reaping of deleting-state object. Will retry on next cycle", e);
+    } finally {
+      final long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+      final long rate = reaped * 1000 / elapsed;
+      final long remaining = Math.max(0, backlog - reaped);
+      statistics = ImmutableMap.<String, Object>of("Reaped", reaped, "ReapedPerSecond", rate, "Backlog", remaining);
+      if (reaped > 0) {
+        LOG.info("Reaped " + reaped + " objects in " + elapsed + "ms (" + rate + " objects/s), backlog " + remaining + " objects");
+      }
     }
   }
 
+  /**
+   * Delete the given objects, partitioning into per-bucket batches that are deleted concurrently.
+   *
+   * @return The number of objects deleted
+   */
+  long reapObjects(final ObjectStorageProviderClient provider, final ExecutorService executor, final List<ObjectEntity> entities,
+      final int batchSize, final int rateLimit) {
+    final ListMultimap<String, ObjectEntity> entitiesByBucket = MultimapBuilder.hashKeys().arrayListValues().build();
+    for (ObjectEntity obj : entities) {
+      entitiesByBucket.put(obj.getBucket().getBucketUuid(), obj);
+    }
+    final List<Future<Integer>> batches = Lists.newArrayList();
+    for (final String bucketUuid : entitiesByBucket.keySet()) {
+      for (final List<ObjectEntity> batch : Lists.partition(entitiesByBucket.get(bucketUuid), batchSize)) {
+        batches.add(executor.submit(() -> reapObjects(provider, bucketUuid, batch, rateLimit)));
+      }
+    }
+    long reaped = 0;
+    for (Future<Integer> batch : batches) {
+      try {
+        reaped += batch.get();
+      } catch (ExecutionException e) {
+        LOG.error("Error during object reaper cleanup", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        interrupted = true;
+      }
+    }
+    return reaped;
+  }
+
+  private int reapObjects(final ObjectStorageProviderClient provider, final String bucketUuid, final List<ObjectEntity> batch, final int rateLimit)
+      throws Exception {
+    if (interrupted) {
+      return 0;
+    }
+    if (rateLimit > 0) {
+      rateLimiter.acquire(batch.size());
+    }
+    LOG.trace("Reaping " + batch.size() + " objects in bucket uuid " + bucketUuid);
+    return OsgObjectFactory.getFactory().actuallyDeleteObjects(provider, bucketUuid, batch, null);
+  }
+
+  /**
+   * Statistics for the most recent reaping of deleting-state objects.
+   */
+  public static Map<String, Object> getStatistics() {
+    return statistics;
+  }
+
   private void cleanFailed() {
     try {
       List<ObjectEntity> entitiesToClean = ObjectMetadataManagers.getInstance().lookupFailedObjects();
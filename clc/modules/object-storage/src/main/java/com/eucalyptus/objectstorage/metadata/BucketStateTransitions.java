@@ -37,6 +37,7 @@ import com.eucalyptus.entities.Entities;
 import com.eucalyptus.entities.TransactionException;
 import com.eucalyptus.objectstorage.BucketState;
 import com.eucalyptus.objectstorage.ObjectMetadataManagers;
+import com.eucalyptus.objectstorage.ObjectStorageMetadataCache;
 import com.eucalyptus.objectstorage.entities.Bucket;
 import com.eucalyptus.objectstorage.exceptions.IllegalResourceStateException;
 import com.eucalyptus.objectstorage.exceptions.MetadataOperationFailureException;
@@ -83,6 +84,7 @@ public class BucketStateTransitions {
         try {
           Bucket foundBucket = Entities.uniqueResult(new Bucket().withUuid(searchBucket.getBucketUuid()));
           if (!BucketState.deleting.equals(foundBucket.getState())) {
+            ObjectStorageMetadataCache.invalidateBucket(foundBucket);
             foundBucket.setState(BucketState.extant);
             return foundBucket;
           } else {
@@ -114,6 +116,7 @@ public class BucketStateTransitions {
           if (ObjectMetadataManagers.getInstance().countValid(foundBucket) > 0) {
             throw new Exception("Bucket not empty");
           }
+          ObjectStorageMetadataCache.invalidateBucket(foundBucket);
           foundBucket.setState(BucketState.deleting);
           foundBucket.setBucketName(null);
           return foundBucket;
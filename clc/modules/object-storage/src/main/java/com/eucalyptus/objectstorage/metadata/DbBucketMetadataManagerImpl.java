@@ -53,6 +53,7 @@ import com.eucalyptus.entities.TransactionException;
 import com.eucalyptus.entities.TransactionResource;
 import com.eucalyptus.entities.Transactions;
 import com.eucalyptus.objectstorage.BucketState;
+import com.eucalyptus.objectstorage.ObjectStorageMetadataCache;
 import com.eucalyptus.objectstorage.entities.Bucket;
 import com.eucalyptus.objectstorage.entities.Bucket_;
 import com.eucalyptus.objectstorage.exceptions.IllegalResourceStateException;
@@ -181,6 +182,8 @@ public class DbBucketMetadataManagerImpl implements BucketMetadataManager {
       throw new NoSuchEntityException("Bucket entity not found for merge", e);
     } catch (Exception e) {
       throw new MetadataOperationFailureException(e);
+    } finally {
+      ObjectStorageMetadataCache.invalidateBucket(bucket);
     }
   }
 
@@ -199,6 +202,8 @@ public class DbBucketMetadataManagerImpl implements BucketMetadataManager {
     } catch (NoSuchElementException e) {
       // Ok, continue.
       LOG.trace("Bucket deletion finalization for (bucket uuid) " + bucket.getBucketUuid() + " failed to find entity record. Returning normally");
+    } finally {
+      ObjectStorageMetadataCache.invalidateBucket(bucket);
     }
   }
 
@@ -300,6 +305,8 @@ public class DbBucketMetadataManagerImpl implements BucketMetadataManager {
     } catch (Exception e) {
       LOG.error("Error updating acl for bucket " + bucketEntity.getBucketName(), e);
       throw new MetadataOperationFailureException(e);
+    } finally {
+      ObjectStorageMetadataCache.invalidateBucket(bucketEntity);
     }
   }
 
@@ -316,6 +323,8 @@ public class DbBucketMetadataManagerImpl implements BucketMetadataManager {
     } catch (Exception e) {
       LOG.error("Error updating acl for bucket " + bucketEntity.getBucketName(), e);
       throw new MetadataOperationFailureException(e);
+    } finally {
+      ObjectStorageMetadataCache.invalidateBucket(bucketEntity);
     }
   }
 
@@ -339,6 +348,7 @@ public class DbBucketMetadataManagerImpl implements BucketMetadataManager {
       if (db != null && db.isActive()) {
         db.rollback();
       }
+      ObjectStorageMetadataCache.invalidateBucket(bucketEntity);
     }
   }
 
@@ -361,6 +371,8 @@ public class DbBucketMetadataManagerImpl implements BucketMetadataManager {
     } catch (TransactionException e) {
       LOG.error("Transaction error updating versioning state for bucket " + bucketEntity.getBucketName(), e);
       throw new MetadataOperationFailureException(e);
+    } finally {
+      ObjectStorageMetadataCache.invalidateBucket(bucketEntity);
     }
   }
 
@@ -389,6 +401,8 @@ public class DbBucketMetadataManagerImpl implements BucketMetadataManager {
       return bucket;
     } catch ( final NoSuchElementException e ) {
       throw new NoSuchEntityException(bucketEntity.getBucketName());
+    } finally {
+      ObjectStorageMetadataCache.invalidateBucket( bucketEntity );
     }
   }
 
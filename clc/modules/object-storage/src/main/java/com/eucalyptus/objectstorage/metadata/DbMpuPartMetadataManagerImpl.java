@@ -45,6 +45,7 @@ import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
 import org.hibernate.criterion.Example;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.ProjectionList;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 
@@ -68,6 +69,8 @@ import com.eucalyptus.storage.msgs.s3.Part;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicate;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 
 /**
  * Database backed implementation of ObjectMetadataManager
@@ -75,6 +78,7 @@ import com.google.common.base.Predicate;
  */
 public class DbMpuPartMetadataManagerImpl implements MpuPartMetadataManager {
   private static final Logger LOG = Logger.getLogger(DbMpuPartMetadataManagerImpl.class);
+  private static final int PART_PAGE_SIZE = 1000;
 
   @Override
   public void start() throws Exception {
@@ -326,33 +330,89 @@ public class DbMpuPartMetadataManagerImpl implements MpuPartMetadataManager {
   }
 
   @Override
-  public long processPartListAndGetSize(List<Part> partsInManifest, HashMap<Integer, PartEntity> availableParts) throws S3Exception {
+  public long processPartListAndGetSize(Bucket bucket, String objectKey, String uploadId, List<Part> partsInManifest) throws Exception {
     int lastPartNumber = 0;
     long objectSize = 0;
     int numPartsProcessed = 0;
-    for (Part partInManifest : partsInManifest) {
-      Integer partNumber = partInManifest.getPartNumber();
-      if (partNumber < ObjectStorageProperties.MIN_PART_NUMBER || partNumber > ObjectStorageProperties.MAX_PART_NUMBER) {
-        throw new InvalidArgumentException("PartNumber", "Part number must be an integer between " + ObjectStorageProperties.MIN_PART_NUMBER
-            + " and " + ObjectStorageProperties.MAX_PART_NUMBER + ", inclusive");
-      }
-      if (partNumber <= lastPartNumber) {
-        throw new InvalidPartOrderException("partNumber: " + partNumber);
-      }
-      PartEntity actualPart = availableParts.get(partNumber);
-      if (actualPart == null) {
-        throw new InvalidPartException("partNumber: " + partNumber);
-      }
-      final long actualPartSize = actualPart.getSize();
-      if ((++numPartsProcessed) < partsInManifest.size() && actualPartSize < ObjectStorageProperties.MPU_PART_MIN_SIZE) {
-        throw new EntityTooSmallException("uploadId: " + actualPart.getUploadId() + " partNumber: " + partNumber);
+    try (TransactionResource trans = Entities.transactionFor(PartEntity.class)) {
+      for (List<Part> manifestPage : Lists.partition(partsInManifest, PART_PAGE_SIZE)) {
+        List<Integer> pagePartNumbers = new ArrayList<>(manifestPage.size());
+        for (Part partInManifest : manifestPage) {
+          pagePartNumbers.add(checkPartNumber(partInManifest, lastPartNumber));
+          lastPartNumber = partInManifest.getPartNumber();
+        }
+
+        // Only the fields needed for validation are loaded, most recent part first for each part number
+        ProjectionList partFields = Projections.projectionList()
+            .add(Projections.property("partNumber"))
+            .add(Projections.property("size"))
+            .add(Projections.property("eTag"));
+        Criteria search = Entities.createCriteria(PartEntity.class);
+        PartEntity searchExample = new PartEntity(bucket, objectKey, uploadId).withState(ObjectState.extant);
+        search.add(Example.create(searchExample));
+        search.add(Restrictions.in("partNumber", pagePartNumbers));
+        search.setProjection(partFields);
+        search.addOrder(Order.asc("partNumber")).addOrder(Order.desc("objectModifiedTimestamp"));
+        search.setReadOnly(true);
+        search = getSearchByBucket(search, bucket);
+        List<Object[]> results = search.list();
+
+        HashMap<Integer, PartEntity> pageParts = new HashMap<>(results.size());
+        for (Object[] result : results) {
+          PartEntity part = new PartEntity().withPartNumber((Integer) result[0]).withUploadId(uploadId);
+          part.setSize((Long) result[1]);
+          part.seteTag((String) result[2]);
+          pageParts.putIfAbsent(part.getPartNumber(), part);
+        }
+
+        for (Part partInManifest : manifestPage) {
+          objectSize += checkPart(partInManifest, pageParts.get(partInManifest.getPartNumber()),
+              (++numPartsProcessed) == partsInManifest.size());
+        }
       }
-      objectSize += actualPartSize;
-      lastPartNumber = partNumber;
+      trans.commit();
     }
     return objectSize;
   }
 
+  /**
+   * Check that the part number is valid and in order, returning the part number.
+   */
+  private static int checkPartNumber(Part partInManifest, int lastPartNumber) throws S3Exception {
+    Integer partNumber = partInManifest.getPartNumber();
+    if (partNumber == null || partNumber < ObjectStorageProperties.MIN_PART_NUMBER || partNumber > ObjectStorageProperties.MAX_PART_NUMBER) {
+      throw new InvalidArgumentException("PartNumber", "Part number must be an integer between " + ObjectStorageProperties.MIN_PART_NUMBER
+          + " and " + ObjectStorageProperties.MAX_PART_NUMBER + ", inclusive");
+    }
+    if (partNumber <= lastPartNumber) {
+      throw new InvalidPartOrderException("partNumber: " + partNumber);
+    }
+    return partNumber;
+  }
+
+  /**
+   * Check that the part was uploaded and is large enough, returning the size of the part.
+   */
+  private static long checkPart(Part partInManifest, PartEntity actualPart, boolean lastPart) throws S3Exception {
+    Integer partNumber = partInManifest.getPartNumber();
+    if (actualPart == null) {
+      throw new InvalidPartException("partNumber: " + partNumber);
+    }
+    if (!Strings.isNullOrEmpty(partInManifest.getEtag()) && actualPart.geteTag() != null
+        && !unquote(partInManifest.getEtag()).equalsIgnoreCase(unquote(actualPart.geteTag()))) {
+      throw new InvalidPartException("partNumber: " + partNumber);
+    }
+    final long actualPartSize = actualPart.getSize();
+    if (!lastPart && actualPartSize < ObjectStorageProperties.MPU_PART_MIN_SIZE) {
+      throw new EntityTooSmallException("uploadId: " + actualPart.getUploadId() + " partNumber: " + partNumber);
+    }
+    return actualPartSize;
+  }
+
+  private static String unquote(String eTag) {
+    return eTag.length() > 1 && eTag.startsWith("\"") && eTag.endsWith("\"") ? eTag.substring(1, eTag.length() - 1) : eTag;
+  }
+
   @Override
   public long getTotalSize(Bucket bucket) throws Exception {
     try (TransactionResource trans = Entities.transactionFor(PartEntity.class)) {
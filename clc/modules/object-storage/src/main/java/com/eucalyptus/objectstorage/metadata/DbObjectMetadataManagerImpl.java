@@ -30,6 +30,7 @@
 package com.eucalyptus.objectstorage.metadata;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
@@ -57,6 +58,7 @@ import com.eucalyptus.entities.TransactionResource;
 import com.eucalyptus.entities.Transactions;
 import com.eucalyptus.objectstorage.ObjectMetadataManagers;
 import com.eucalyptus.objectstorage.ObjectState;
+import com.eucalyptus.objectstorage.ObjectStorageMetadataCache;
 import com.eucalyptus.objectstorage.PaginatedResult;
 import com.eucalyptus.objectstorage.entities.Bucket;
 import com.eucalyptus.objectstorage.entities.ObjectEntity;
@@ -71,6 +73,8 @@ import com.eucalyptus.storage.msgs.s3.AccessControlPolicy;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 /**
  * Database backed implementation of ObjectMetadataManager
@@ -133,6 +137,38 @@ public class DbObjectMetadataManagerImpl implements ObjectMetadataManager {
     }
   }
 
+  @Override
+  public List<ObjectEntity> listInStatePaginated(@Nonnull ObjectState state, @Nullable String startUuid, int maxRecordCount) throws Exception {
+    try (TransactionResource db = Entities.transactionFor(ObjectEntity.class)) {
+      Criteria search = Entities.createCriteria(ObjectEntity.class).add(Restrictions.eq("state", state));
+      if (startUuid != null) {
+        search.add(Restrictions.gt("objectUuid", startUuid));
+      }
+      search.addOrder(Order.asc("objectUuid")).setMaxResults(maxRecordCount).setReadOnly(true);
+      List<ObjectEntity> results = search.list();
+      db.commit();
+      return results;
+    } catch (Exception e) {
+      LOG.error("Error listing object records in state " + state + " after uuid " + startUuid);
+      throw e;
+    }
+  }
+
+  @Override
+  public long countInState(@Nonnull ObjectState state) throws Exception {
+    try (TransactionResource db = Entities.transactionFor(ObjectEntity.class)) {
+      Criteria queryCriteria =
+          Entities.createCriteria(ObjectEntity.class).add(Restrictions.eq("state", state)).setProjection(Projections.rowCount());
+      queryCriteria.setReadOnly(true);
+      final Number count = (Number) queryCriteria.uniqueResult();
+      db.commit();
+      return count.longValue();
+    } catch (Throwable e) {
+      LOG.error("Error getting object count for state " + state, e);
+      throw new Exception(e);
+    }
+  }
+
   @Override
   public List<ObjectEntity> lookupObjectsForReaping(Bucket bucket, String objectKeyPrefix, Date age) {
     List<ObjectEntity> results;
@@ -222,6 +258,8 @@ public class DbObjectMetadataManagerImpl implements ObjectMetadataManager {
       Entities.asTransaction(repairPredicate).apply(searchExample);
     } catch (final Throwable f) {
       LOG.error("Error in version/null repair", f);
+    } finally {
+      ObjectStorageMetadataCache.invalidateObject(bucket.getBucketUuid(), objectKey);
     }
   }
 
@@ -303,6 +341,8 @@ public class DbObjectMetadataManagerImpl implements ObjectMetadataManager {
     } catch (Exception e) {
       LOG.warn("Failed to persist the delete marker " + deleteMarker.getObjectUuid());
       throw new MetadataOperationFailureException(e);
+    } finally {
+      ObjectStorageMetadataCache.invalidateObject(currentObject);
     }
   }
 
@@ -323,6 +363,31 @@ public class DbObjectMetadataManagerImpl implements ObjectMetadataManager {
       throw e;
     } catch (Exception e) {
       throw new MetadataOperationFailureException(e);
+    } finally {
+      ObjectStorageMetadataCache.invalidateObject(objectToDelete);
+    }
+  }
+
+  @Override
+  public int deleteAll(final @Nonnull Collection<ObjectEntity> objectsToDelete) throws MetadataOperationFailureException {
+    if (objectsToDelete.isEmpty()) {
+      return 0;
+    }
+    final List<String> objectUuids = Lists.newArrayListWithCapacity(objectsToDelete.size());
+    for (ObjectEntity object : objectsToDelete) {
+      objectUuids.add(object.getObjectUuid());
+    }
+    try (TransactionResource db = Entities.transactionFor(ObjectEntity.class)) {
+      final int deleted = Entities.deleteAllMatching(ObjectEntity.class, "where objectUuid in (:objectUuids) and state = :state",
+          ImmutableMap.of("objectUuids", objectUuids, "state", ObjectState.deleting));
+      db.commit();
+      return deleted;
+    } catch (Exception e) {
+      throw new MetadataOperationFailureException(e);
+    } finally {
+      for (ObjectEntity object : objectsToDelete) {
+        ObjectStorageMetadataCache.invalidateObject(object);
+      }
     }
   }
 
@@ -524,6 +589,8 @@ public class DbObjectMetadataManagerImpl implements ObjectMetadataManager {
     } catch (Exception e) {
       LOG.error("Error setting ACP on backend for object: " + object.getResourceFullName());
       throw new InternalErrorException(object.getResourceFullName() + "?versionId=" + object.getVersionId());
+    } finally {
+      ObjectStorageMetadataCache.invalidateObject(object);
     }
   }
 
@@ -567,6 +634,8 @@ public class DbObjectMetadataManagerImpl implements ObjectMetadataManager {
     } catch (Exception ex) {
       LOG.warn("while attempting to set isLatest = true on the newest remaining object version, an exception was encountered: ", ex);
       throw ex;
+    } finally {
+      ObjectStorageMetadataCache.invalidateObject(entity);
     }
     return retrieved;
   }
@@ -813,6 +882,8 @@ public class DbObjectMetadataManagerImpl implements ObjectMetadataManager {
       throw e;
     } catch (Exception e) {
       throw new MetadataOperationFailureException(e);
+    } finally {
+      ObjectStorageMetadataCache.invalidateObject(entity);
     }
   }
 
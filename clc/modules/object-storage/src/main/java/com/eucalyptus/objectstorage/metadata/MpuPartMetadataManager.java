@@ -117,7 +117,19 @@ public interface MpuPartMetadataManager {
 
   public HashMap<Integer, PartEntity> getParts(Bucket bucket, String objectKey, String uploadId) throws Exception;
 
-  public long processPartListAndGetSize(List<Part> partsInManifest, HashMap<Integer, PartEntity> availableParts) throws S3Exception;
+  /**
+   * Validates the parts in the manifest against the uploaded parts and returns the size of the resulting object. Uploaded parts are looked up a
+   * page at a time so the memory used does not depend on the number of parts in the upload.
+   * 
+   * @param bucket
+   * @param objectKey
+   * @param uploadId
+   * @param partsInManifest
+   * @return The total size of the parts in the manifest
+   * @throws S3Exception If the manifest is not valid for the uploaded parts
+   * @throws Exception
+   */
+  public long processPartListAndGetSize(Bucket bucket, String objectKey, String uploadId, List<Part> partsInManifest) throws Exception;
 
   public PaginatedResult<PartEntity> listPartsForUpload(Bucket bucket, String objectKey, String uploadId, int partNumberMarker, int maxParts)
       throws Exception;
@@ -29,6 +29,7 @@
 
 package com.eucalyptus.objectstorage.metadata;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -82,6 +83,26 @@ public interface ObjectMetadataManager {
 
   public List<ObjectEntity> lookupObjectVersions(Bucket bucket, String objectKey, int numResults) throws Exception;
 
+  /**
+   * Returns a page of objects in the given state, in any bucket, ordered by object uuid.
+   *
+   * @param state The state of the objects
+   * @param startUuid Return objects with a uuid after this uuid, null for the first page
+   * @param maxRecordCount The maximum number of objects to return
+   * @return
+   * @throws Exception
+   */
+  public List<ObjectEntity> listInStatePaginated(ObjectState state, String startUuid, int maxRecordCount) throws Exception;
+
+  /**
+   * Returns the number of objects in the given state, in any bucket.
+   *
+   * @param state
+   * @return
+   * @throws Exception
+   */
+  public long countInState(ObjectState state) throws Exception;
+
   /**
    * Given an initialized object, set the state and persist it
    * 
@@ -183,6 +204,15 @@ public interface ObjectMetadataManager {
    */
   public void delete(ObjectEntity objectToDelete) throws IllegalResourceStateException, MetadataOperationFailureException;
 
+  /**
+   * Delete the object entities in a single transaction. Only entities in 'deleting' state are removed.
+   *
+   * @param objectsToDelete
+   * @return The number of entities deleted
+   * @throws MetadataOperationFailureException
+   */
+  public int deleteAll(Collection<ObjectEntity> objectsToDelete) throws MetadataOperationFailureException;
+
   /**
    * For the given object entity, generate a new delete marker for it and persist that marker
    * 
@@ -41,6 +41,7 @@ import com.eucalyptus.objectstorage.BucketState;
 import com.eucalyptus.objectstorage.MpuPartMetadataManagers;
 import com.eucalyptus.objectstorage.ObjectMetadataManagers;
 import com.eucalyptus.objectstorage.ObjectState;
+import com.eucalyptus.objectstorage.ObjectStorageMetadataCache;
 import com.eucalyptus.objectstorage.entities.Bucket;
 import com.eucalyptus.objectstorage.entities.ObjectEntity;
 import com.eucalyptus.objectstorage.exceptions.IllegalResourceStateException;
@@ -89,6 +90,7 @@ public class ObjectStateTransitions {
                 .toString());
           }
           initializedObject.setBucket(extantBucket);
+          ObjectStorageMetadataCache.invalidateObject(initializedObject);
           initializedObject.setState(ObjectState.creating);
           initializedObject.updateCreationExpiration();
           return Entities.persist(initializedObject);
@@ -123,6 +125,7 @@ public class ObjectStateTransitions {
              */
 
             // Set the new object state
+            ObjectStorageMetadataCache.invalidateObject(updatingEntity);
             updatingEntity.setState(ObjectState.extant);
             updatingEntity.setCreationExpiration(null);
             updatingEntity.setObjectModifiedTimestamp(entity.getObjectModifiedTimestamp());
@@ -169,6 +172,7 @@ public class ObjectStateTransitions {
         try {
           ObjectEntity updatingEntity = Entities.uniqueResult(new ObjectEntity().withUuid(entity.getObjectUuid()));
           if (ObjectState.creating.equals(updatingEntity.getState())) {
+            ObjectStorageMetadataCache.invalidateObject(updatingEntity);
             updatingEntity.setState(ObjectState.mpu_pending);
             updatingEntity.setCreationExpiration(null);
             updatingEntity.setObjectModifiedTimestamp(entity.getObjectModifiedTimestamp());
@@ -207,6 +211,7 @@ public class ObjectStateTransitions {
           } else {
             entity = objectToUpdate;
           }
+          ObjectStorageMetadataCache.invalidateObject(entity);
           entity.setState(ObjectState.deleting);
           entity.setIsLatest(Boolean.FALSE);
 
@@ -243,6 +248,7 @@ public class ObjectStateTransitions {
             throw new IllegalResourceStateException("Entity not in deleting state. Only valid transition to deleted is from deleting.", null,
                 ObjectState.deleting.toString(), objectToUpdate.getState().toString());
           }
+          ObjectStorageMetadataCache.invalidateObject(entity);
           Entities.delete(entity);
           return true;
         } catch (ObjectStorageInternalException e) {
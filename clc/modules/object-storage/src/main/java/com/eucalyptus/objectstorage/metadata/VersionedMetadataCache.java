@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.objectstorage.metadata;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import com.eucalyptus.util.Pair;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Read-through cache for metadata with version checked invalidation.
+ *
+ * Each key hashes to a generation counter that is advanced whenever the key is invalidated. A
+ * loaded value is only kept if the generation for its key did not change while it was loading,
+ * so a lookup that races with a state transition cannot cache the state from before the
+ * transition.
+ *
+ * Mutable values can be copied so that callers never share the cached instance, and a cached
+ * value can be validated before use so that changes made elsewhere are not served stale.
+ *
+ * The cache is rebuilt when the specification changes.
+ */
+public class VersionedMetadataCache<K, V> {
+  private static final int GENERATION_STRIPES = 1024;
+
+  private final Supplier<String> cacheSpecSupplier;
+  private final UnaryOperator<V> copier;
+  private final Predicate<? super V> validator;
+  private final AtomicReference<Pair<String, Cache<K, V>>> cacheReference = new AtomicReference<>();
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+  private final LongAdder discards = new LongAdder();
+  private final LongAdder stale = new LongAdder();
+
+  /**
+   * @param cacheSpecSupplier Supplier for the guava cache specification, e.g. "maximumSize=1000, expireAfterWrite=5s"
+   */
+  public VersionedMetadataCache(@Nonnull final Supplier<String> cacheSpecSupplier) {
+    this(cacheSpecSupplier, UnaryOperator.identity(), value -> true);
+  }
+
+  /**
+   * @param cacheSpecSupplier Supplier for the guava cache specification, e.g. "maximumSize=1000, expireAfterWrite=5s"
+   * @param copier Copies values so the cached instance is never returned
+   * @param validator Checks that a cached value is current before it is returned
+   */
+  public VersionedMetadataCache(@Nonnull final Supplier<String> cacheSpecSupplier,
+                                @Nonnull final UnaryOperator<V> copier,
+                                @Nonnull final Predicate<? super V> validator) {
+    this.cacheSpecSupplier = cacheSpecSupplier;
+    this.copier = copier;
+    this.validator = validator;
+  }
+
+  /**
+   * Get the cached value for the key, loading and caching if not present.
+   *
+   * Exceptions from the loader are not cached and are thrown to the caller. A cached value that
+   * fails validation is invalidated and loaded again.
+   *
+   * @param key The key for the value
+   * @param loader Loader for the value, null values are returned but not cached
+   * @return The value
+   */
+  @Nullable
+  public V get(@Nonnull final K key, @Nonnull final Supplier<? extends V> loader) {
+    final Cache<K, V> cache = cache();
+    final V cached = cache.getIfPresent(key);
+    if (cached != null) {
+      if (validator.test(cached)) {
+        hits.increment();
+        return copier.apply(cached);
+      }
+      stale.increment();
+      invalidate(key);
+    }
+    misses.increment();
+    final int stripe = stripe(key);
+    final long generation = generations.get(stripe);
+    final V value = loader.get();
+    if (value != null) {
+      cache.put(key, copier.apply(value));
+      if (generations.get(stripe) != generation) {
+        // invalidated during load, value may be stale
+        cache.invalidate(key);
+        discards.increment();
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Invalidate any cached value for the key and any load of the key that is in progress.
+   */
+  public void invalidate(@Nonnull final K key) {
+    invalidations.increment();
+    generations.incrementAndGet(stripe(key));
+    final Pair<String, Cache<K, V>> cachePair = cacheReference.get();
+    if (cachePair != null) {
+      cachePair.getRight().invalidate(key);
+    }
+  }
+
+  public void invalidateAll() {
+    invalidations.increment();
+    for (int i = 0; i < GENERATION_STRIPES; i++) {
+      generations.incrementAndGet(i);
+    }
+    final Pair<String, Cache<K, V>> cachePair = cacheReference.get();
+    if (cachePair != null) {
+      cachePair.getRight().invalidateAll();
+    }
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getInvalidations() {
+    return invalidations.sum();
+  }
+
+  /**
+   * Number of loaded values that were not retained due to a concurrent invalidation.
+   */
+  public long getDiscards() {
+    return discards.sum();
+  }
+
+  /**
+   * Number of cached values that failed validation.
+   */
+  public long getStale() {
+    return stale.sum();
+  }
+
+  public Map<String, Object> getStatistics() {
+    return ImmutableMap.<String, Object>builder()
+        .put("Size", size())
+        .put("Hits", getHits())
+        .put("Misses", getMisses())
+        .put("Invalidations", getInvalidations())
+        .put("Discards", getDiscards())
+        .put("Stale", getStale())
+        .build();
+  }
+
+  public long size() {
+    final Pair<String, Cache<K, V>> cachePair = cacheReference.get();
+    return cachePair == null ? 0 : cachePair.getRight().size();
+  }
+
+  private int stripe(final K key) {
+    final int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+  }
+
+  private Cache<K, V> cache() {
+    Cache<K, V> cache;
+    final Pair<String, Cache<K, V>> cachePair = cacheReference.get();
+    final String cacheSpec = cacheSpecSupplier.get();
+    if (cachePair == null || !cacheSpec.equals(cachePair.getLeft())) {
+      final Pair<String, Cache<K, V>> newCachePair = Pair.pair(cacheSpec, cache(cacheSpec));
+      if (cacheReference.compareAndSet(cachePair, newCachePair) || cachePair == null) {
+        cache = newCachePair.getRight();
+      } else {
+        cache = cachePair.getRight();
+      }
+    } else {
+      cache = cachePair.getRight();
+    }
+    return cache;
+  }
+
+  private static <K, V> Cache<K, V> cache(final String cacheSpec) {
+    return CacheBuilder.from(CacheBuilderSpec.parse(cacheSpec)).build();
+  }
+}
@@ -89,7 +89,7 @@ public class FormPOSTMultipartDecoder extends MessageStackHandler {
           throw new InternalErrorException(null, "Unexpected state in message stack");
         }
         upstreamRequest = (MappingHttpRequest) (result.getMessageEvent().getMessage());
-        content = result.getAggregatedContentBuffer();
+        content = result.getAggregatedContent();
         upstreamEvent = result.getMessageEvent();
       }
     } else {
@@ -88,12 +88,12 @@ public class HttpThresholdBufferingAggregator {
     }
 
     /**
-     * May be invoked repeatedly, but will result in distinct copies of the aggregated buffer for each call. Use carefully to avoid memory issues
-     * 
+     * Returns a composite view of the aggregated content, the content is not copied.
+     *
      * @return
      */
-    public ChannelBuffer getAggregatedContentBuffer() {
-      return ChannelBuffers.copiedBuffer(this.contentBuffers.toArray(new ChannelBuffer[this.contentBuffers.size()]));
+    public ChannelBuffer getAggregatedContent() {
+      return ChannelBuffers.wrappedBuffer(this.contentBuffers.toArray(new ChannelBuffer[this.contentBuffers.size()]));
     }
 
     public void addContentBuffer(ChannelBuffer nextContentBuffer, boolean isLast) {
@@ -140,7 +140,9 @@ public class HttpThresholdBufferingAggregator {
    */
   public AggregatedMessageEvent poll() {
     if (this.currentEvent != null && (this.currentEvent.isLastReceived() || this.currentEvent.getCurrentAggregatedSize() >= this.maxBufferingSize)) {
-      LOG.trace("Poll returning event: " + this.currentEvent.toString() + " data: " + this.currentEvent.getAggregatedContentBuffer().toString());
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("Poll returning event: " + this.currentEvent.toString() + " data size: " + this.currentEvent.getCurrentAggregatedSize());
+      }
       return this.currentEvent;
     } else {
       LOG.trace("Poll returning null");
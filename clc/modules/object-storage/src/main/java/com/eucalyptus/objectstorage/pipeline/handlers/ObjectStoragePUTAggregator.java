@@ -52,8 +52,13 @@ import com.eucalyptus.records.Logs;
 import com.eucalyptus.util.Assert;
 import com.eucalyptus.util.ChannelBufferStreamingInputStream;
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferFactory;
+import org.jboss.netty.buffer.DirectChannelBufferFactory;
 import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelConfig;
 import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.ExceptionEvent;
 import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
 import org.jboss.netty.handler.codec.http.HttpChunk;
@@ -61,9 +66,19 @@ import org.jboss.netty.handler.codec.http.HttpChunk;
 /**
  * Aggregates chunks into a single channelbuffer, which is expected to be drained at the end of the pipeline by the service
  * operation that is reading the data and pushing it out somewhere.
+ *
+ * Chunk content can be held in direct buffers by setting the system property
+ * {@code com.eucalyptus.objectstorage.putDirectBuffers=true} (default false). Each upload can queue up to
+ * {@link ChannelBufferStreamingInputStream#QUEUE_SIZE} chunks so the direct memory limit
+ * ({@code -XX:MaxDirectMemorySize}) should allow for concurrent uploads x queue size x chunk size, e.g. 500 uploads
+ * with 100KiB chunks need around 1GiB.
  */
 public class ObjectStoragePUTAggregator extends SimpleChannelUpstreamHandler {
+  private static final boolean USE_DIRECT_BUFFERS =
+      Boolean.parseBoolean( System.getProperty( "com.eucalyptus.objectstorage.putDirectBuffers", "false" ) );
+
   private ChannelBufferStreamingInputStream inputStream;
+  private ChannelBufferFactory previousBufferFactory;
 
   @Override
   public void messageReceived(ChannelHandlerContext ctx, MessageEvent event) throws Exception {
@@ -73,15 +88,64 @@ public class ObjectStoragePUTAggregator extends SimpleChannelUpstreamHandler {
       if (httpRequest.getMessage() instanceof ObjectStorageDataPutRequestType && httpRequest.isChunked()) {
         ObjectStorageDataPutRequestType putDataRequest = (ObjectStorageDataPutRequestType) httpRequest.getMessage();
         inputStream = putDataRequest.getData();
+        if (USE_DIRECT_BUFFERS) {
+          switchToDirectBuffers(ctx.getChannel().getConfig());
+        }
       }
     } else if (event.getMessage() instanceof HttpChunk) {
       HttpChunk chunk = (HttpChunk) event.getMessage();
+      if (chunk.isLast()) {
+        restoreBufferFactory(ctx.getChannel().getConfig());
+      }
       appendChunk(chunk.getContent(), ctx.getChannel());
     }
 
     ctx.sendUpstream(event);
   }
 
+  /**
+   * Switch the channel to direct buffers so that chunks queued for the upload are held outside of
+   * the heap. Direct buffers are allocated in slices of larger preallocated blocks.
+   *
+   * @return The previous buffer factory for the channel
+   */
+  static ChannelBufferFactory useDirectBuffers(ChannelConfig config) {
+    ChannelBufferFactory bufferFactory = config.getBufferFactory();
+    config.setBufferFactory(DirectChannelBufferFactory.getInstance(bufferFactory.getDefaultOrder()));
+    return bufferFactory;
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
+    restoreBufferFactory(ctx.getChannel().getConfig());
+    super.exceptionCaught(ctx, e);
+  }
+
+  @Override
+  public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+    restoreBufferFactory(ctx.getChannel().getConfig());
+    super.channelClosed(ctx, e);
+  }
+
+  /**
+   * Switch the channel to direct buffers until the last chunk is received or the channel is closed.
+   */
+  void switchToDirectBuffers(ChannelConfig config) {
+    if (previousBufferFactory == null) {
+      previousBufferFactory = useDirectBuffers(config);
+    }
+  }
+
+  /**
+   * Restore the buffer factory for the channel if it was switched to direct buffers.
+   */
+  void restoreBufferFactory(ChannelConfig config) {
+    if (previousBufferFactory != null) {
+      config.setBufferFactory(previousBufferFactory);
+      previousBufferFactory = null;
+    }
+  }
+
   protected void appendChunk(ChannelBuffer input, Channel channel) throws Exception {
     Assert.state(inputStream != null, "Received an HttpChunk without an HttpMessage");
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.objectstorage.providers.s3;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * InputStream for a range of a backend object that is read using concurrent byte-range requests.
+ *
+ * The first part is streamed directly from an already open response. Following parts are requested
+ * in order, at most concurrency at a time, and held until the reader reaches them so content is
+ * always returned in order and buffered memory is bounded by concurrency * part size.
+ */
+public class ParallelRangedGetInputStream extends InputStream {
+  private static final Logger LOG = Logger.getLogger( ParallelRangedGetInputStream.class );
+
+  private final AmazonS3 s3Client;
+  private final String bucket;
+  private final String key;
+  private final long start;
+  private final long end;
+  private final long partSize;
+  private final int concurrency;
+  private final ExecutorService executor;
+  private final Deque<Future<InputStream>> parts = new ArrayDeque<>( );
+  private final Stopwatch stopwatch = Stopwatch.createStarted( );
+  private long nextPartStart;
+  private InputStream current;
+  private long bytesRead;
+  private int partsRead;
+  private boolean closed;
+
+  /**
+   * @param s3Client The client to use for part requests
+   * @param bucket The backend bucket
+   * @param key The backend key
+   * @param firstPart The open content for the first part of the range
+   * @param start The first byte of the range
+   * @param firstPartEnd The last byte (inclusive) available from the first part
+   * @param end The last byte (inclusive) of the range
+   * @param partSize The size of each following part request
+   * @param concurrency The maximum number of parts requested or buffered ahead of the reader
+   * @param executor The executor for part requests
+   */
+  public ParallelRangedGetInputStream(
+      final AmazonS3 s3Client,
+      final String bucket,
+      final String key,
+      final InputStream firstPart,
+      final long start,
+      final long firstPartEnd,
+      final long end,
+      final long partSize,
+      final int concurrency,
+      final ExecutorService executor
+  ) {
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+    this.key = key;
+    this.start = start;
+    this.end = end;
+    this.partSize = partSize;
+    this.concurrency = Math.max( 1, concurrency );
+    this.executor = executor;
+    this.nextPartStart = firstPartEnd + 1;
+    this.parts.add( Futures.immediateFuture( firstPart ) );
+    fill( );
+  }
+
+  public long getBytesRead( ) {
+    return bytesRead;
+  }
+
+  public int getPartsRead( ) {
+    return partsRead;
+  }
+
+  @Override
+  public int read( ) throws IOException {
+    final byte[] single = new byte[1];
+    final int read = read( single, 0, 1 );
+    return read < 0 ? -1 : single[0] & 0xff;
+  }
+
+  @Override
+  public int read( final byte[] b, final int off, final int len ) throws IOException {
+    if ( closed ) {
+      throw new IOException( "Stream closed" );
+    }
+    if ( len == 0 ) {
+      return 0;
+    }
+    while ( true ) {
+      if ( current == null && !nextPart( ) ) {
+        return -1;
+      }
+      final int read = current.read( b, off, len );
+      if ( read >= 0 ) {
+        bytesRead += read;
+        return read;
+      }
+      current.close( );
+      current = null;
+    }
+  }
+
+  @Override
+  public void close( ) throws IOException {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    final boolean complete = bytesRead == ( end - start + 1 );
+    release( current, complete );
+    current = null;
+    for ( final Future<InputStream> part : parts ) {
+      if ( !part.cancel( true ) && !part.isCancelled( ) ) {
+        try {
+          release( part.get( ), false );
+        } catch ( final InterruptedException | ExecutionException e ) {
+          // part failed, nothing to release
+        }
+      }
+    }
+    parts.clear( );
+    if ( LOG.isDebugEnabled( ) ) {
+      final long millis = Math.max( 1, stopwatch.elapsed( TimeUnit.MILLISECONDS ) );
+      LOG.debug( "Parallel get for " + bucket + "/" + key + " read " + bytesRead + " of " + ( end - start + 1 ) +
+          " bytes in " + partsRead + " parts with concurrency " + concurrency + " in " + millis + "ms (" +
+          ( ( bytesRead * 1000 ) / millis / 1024 ) + "KiB/s)" + ( complete ? "" : ", incomplete" ) );
+    }
+  }
+
+  private boolean nextPart( ) throws IOException {
+    final Future<InputStream> part = parts.poll( );
+    if ( part == null ) {
+      return false;
+    }
+    try {
+      current = part.get( );
+    } catch ( final InterruptedException e ) {
+      Thread.currentThread( ).interrupt( );
+      throw new InterruptedIOException( "Interrupted reading part of " + bucket + "/" + key );
+    } catch ( final ExecutionException e ) {
+      throw new IOException( "Error reading part of " + bucket + "/" + key, e.getCause( ) );
+    }
+    partsRead++;
+    fill( );
+    return true;
+  }
+
+  private void fill( ) {
+    while ( parts.size( ) < concurrency && nextPartStart <= end ) {
+      final long partStart = nextPartStart;
+      final long partEnd = Math.min( end, partStart + partSize - 1 );
+      parts.add( executor.submit( ( ) -> fetch( partStart, partEnd ) ) );
+      nextPartStart = partEnd + 1;
+    }
+  }
+
+  private InputStream fetch( final long partStart, final long partEnd ) throws IOException {
+    final GetObjectRequest request = new GetObjectRequest( bucket, key ).withRange( partStart, partEnd );
+    try ( final S3Object object = s3Client.getObject( request );
+          final InputStream in = object.getObjectContent( ) ) {
+      final byte[] data = new byte[ (int) ( partEnd - partStart + 1 ) ];
+      ByteStreams.readFully( in, data );
+      return new ByteArrayInputStream( data );
+    }
+  }
+
+  private static void release( final InputStream in, final boolean complete ) {
+    if ( in instanceof S3ObjectInputStream && !complete ) {
+      // avoid draining the remainder of the response on close
+      ( (S3ObjectInputStream) in ).abort( );
+    } else if ( in != null ) {
+      try {
+        in.close( );
+      } catch ( final IOException e ) {
+        LOG.debug( "Error closing part stream", e );
+      }
+    }
+  }
+}
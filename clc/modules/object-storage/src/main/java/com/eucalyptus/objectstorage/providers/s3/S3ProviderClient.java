@@ -40,6 +40,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 import org.apache.log4j.Logger;
@@ -60,6 +61,8 @@ import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
 import com.amazonaws.services.s3.model.EmailAddressGrantee;
 import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
@@ -71,6 +74,8 @@ import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ListPartsRequest;
 import com.amazonaws.services.s3.model.ListVersionsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
 import com.amazonaws.services.s3.model.MultipartUpload;
 import com.amazonaws.services.s3.model.MultipartUploadListing;
 import com.amazonaws.services.s3.model.ObjectListing;
@@ -91,6 +96,7 @@ import com.amazonaws.services.s3.model.VersionListing;
 import com.eucalyptus.auth.principal.Principals;
 import com.eucalyptus.auth.principal.User;
 import com.eucalyptus.auth.principal.UserPrincipal;
+import com.eucalyptus.objectstorage.ObjectStorage;
 import com.eucalyptus.objectstorage.client.OsgInternalS3Client;
 import com.eucalyptus.objectstorage.entities.S3ProviderConfiguration;
 import com.eucalyptus.objectstorage.exceptions.S3ExceptionMapper;
@@ -107,6 +113,8 @@ import com.eucalyptus.objectstorage.msgs.CreateBucketResponseType;
 import com.eucalyptus.objectstorage.msgs.CreateBucketType;
 import com.eucalyptus.objectstorage.msgs.DeleteBucketResponseType;
 import com.eucalyptus.objectstorage.msgs.DeleteBucketType;
+import com.eucalyptus.objectstorage.msgs.DeleteMultipleObjectsResponseType;
+import com.eucalyptus.objectstorage.msgs.DeleteMultipleObjectsType;
 import com.eucalyptus.objectstorage.msgs.DeleteObjectResponseType;
 import com.eucalyptus.objectstorage.msgs.DeleteObjectType;
 import com.eucalyptus.objectstorage.msgs.DeleteVersionResponseType;
@@ -142,6 +150,8 @@ import com.eucalyptus.objectstorage.msgs.ListPartsType;
 import com.eucalyptus.objectstorage.msgs.ListVersionsResponseType;
 import com.eucalyptus.objectstorage.msgs.ListVersionsType;
 import com.eucalyptus.objectstorage.msgs.ObjectMetadataRequestType;
+import com.eucalyptus.objectstorage.msgs.ObjectStorageDataGetRequestType;
+import com.eucalyptus.objectstorage.msgs.ObjectStorageDataGetResponseType;
 import com.eucalyptus.objectstorage.msgs.ObjectStorageDataResponseType;
 import com.eucalyptus.objectstorage.msgs.ObjectStorageRequestType;
 import com.eucalyptus.objectstorage.msgs.PostObjectResponseType;
@@ -169,6 +179,11 @@ import com.eucalyptus.storage.msgs.s3.BucketListEntry;
 import com.eucalyptus.storage.msgs.s3.CanonicalUser;
 import com.eucalyptus.storage.msgs.s3.CommonPrefixesEntry;
 import com.eucalyptus.storage.msgs.s3.DeleteMarkerEntry;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsEntry;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsEntryVersioned;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsError;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsErrorCode;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsMessageReply;
 import com.eucalyptus.storage.msgs.s3.Grant;
 import com.eucalyptus.storage.msgs.s3.Grantee;
 import com.eucalyptus.storage.msgs.s3.Group;
@@ -180,9 +195,11 @@ import com.eucalyptus.storage.msgs.s3.LoggingEnabled;
 import com.eucalyptus.storage.msgs.s3.MetaDataEntry;
 import com.eucalyptus.storage.msgs.s3.Part;
 import com.eucalyptus.storage.msgs.s3.VersionEntry;
+import com.eucalyptus.system.Threads;
 import com.eucalyptus.util.EucalyptusCloudException;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 /**
  * Base class for S3-api based backends. Uses the Amazon Java SDK as the client. Can be extended for additional capabilities.
@@ -197,6 +214,8 @@ import com.google.common.collect.Lists;
 
 public class S3ProviderClient implements ObjectStorageProviderClient {
   private static final Logger LOG = Logger.getLogger(S3ProviderClient.class);
+  private static final long MB = 1024 * 1024;
+  private static final int PARALLEL_GET_THREADS = 128; // part requests in flight across all parallel gets
   private volatile URI upstreamEndpoint;
   private volatile OsgInternalS3Client backendClient;
 
@@ -679,6 +698,52 @@ public class S3ProviderClient implements ObjectStorageProviderClient {
     }
   }
 
+  @Override
+  public DeleteMultipleObjectsResponseType deleteMultipleObjects(DeleteMultipleObjectsType request) throws S3Exception {
+    User requestUser = getRequestUser(request);
+    OsgInternalS3Client internalS3Client = null;
+    DeleteMultipleObjectsMessageReply result = new DeleteMultipleObjectsMessageReply();
+    result.setDeleted(new ArrayList<>());
+    result.setErrors(new ArrayList<>());
+    Set<String> failedKeys = Sets.newHashSet();
+    try {
+      internalS3Client = getS3Client(requestUser);
+      AmazonS3Client s3Client = internalS3Client.getS3Client();
+      DeleteObjectsRequest deleteRequest = new DeleteObjectsRequest(request.getBucket()).withQuiet(true);
+      List<KeyVersion> keys = Lists.newArrayList();
+      for (DeleteMultipleObjectsEntry entry : request.getDelete().getObjects()) {
+        keys.add(new KeyVersion(entry.getKey()));
+      }
+      deleteRequest.setKeys(keys);
+      try {
+        s3Client.deleteObjects(deleteRequest);
+      } catch (MultiObjectDeleteException ex) {
+        for (DeleteError deleteError : ex.getErrors()) {
+          DeleteMultipleObjectsError error = new DeleteMultipleObjectsError();
+          error.setKey(deleteError.getKey());
+          error.setCode(DeleteMultipleObjectsErrorCode.AccessDenied.toString().equals(deleteError.getCode())
+              ? DeleteMultipleObjectsErrorCode.AccessDenied : DeleteMultipleObjectsErrorCode.InternalError);
+          error.setMessage(deleteError.getMessage());
+          result.getErrors().add(error);
+          failedKeys.add(deleteError.getKey());
+        }
+      }
+    } catch (AmazonServiceException ex) {
+      LOG.debug("Error from backend", ex);
+      throw S3ExceptionMapper.fromAWSJavaSDK(ex);
+    }
+    for (DeleteMultipleObjectsEntry entry : request.getDelete().getObjects()) {
+      if (!failedKeys.contains(entry.getKey())) {
+        DeleteMultipleObjectsEntryVersioned deleted = new DeleteMultipleObjectsEntryVersioned();
+        deleted.setKey(entry.getKey());
+        result.getDeleted().add(deleted);
+      }
+    }
+    DeleteMultipleObjectsResponseType reply = request.getReply();
+    reply.setDeleteResult(result);
+    return reply;
+  }
+
   @Override
   public ListBucketResponseType listBucket(ListBucketType request) throws S3Exception {
     ListBucketResponseType reply = request.getReply();
@@ -761,6 +826,39 @@ public class S3ProviderClient implements ObjectStorageProviderClient {
     throw new NotImplementedException("?acl");
   }
 
+  /**
+   * Populate the response for a GET using concurrent byte-range requests when the requested range is large enough.
+   *
+   * The first part is requested before returning so that backend errors are reported for the request, following parts
+   * are requested as the content is read.
+   *
+   * @return true if the response was populated, false if the caller should use a single request
+   */
+  protected boolean populateParallelGetResponse(final AmazonS3Client s3Client, final ObjectStorageDataGetRequestType request,
+      final Long byteRangeStart, final Long byteRangeEnd, final ObjectStorageDataGetResponseType reply) {
+    final Long objectSize = request.getObjectSize();
+    if (objectSize == null || objectSize <= 0 || (byteRangeStart == null) != (byteRangeEnd == null)) {
+      return false;
+    }
+    final S3ProviderConfiguration providerConfig = ConfigurationCache.getConfiguration(S3ProviderConfiguration.class);
+    final long threshold = providerConfig.getS3ParallelGetThresholdMb() * MB;
+    final long start = byteRangeStart == null ? 0 : byteRangeStart;
+    final long end = byteRangeEnd == null ? objectSize - 1 : byteRangeEnd;
+    if (threshold <= 0 || (end - start + 1) <= threshold) {
+      return false;
+    }
+
+    final long partSize = providerConfig.getS3ParallelGetPartSizeMb() * MB;
+    final long firstPartEnd = Math.min(end, start + partSize - 1);
+    final S3Object firstPart = s3Client.getObject(new GetObjectRequest(request.getBucket(), request.getKey()).withRange(start, firstPartEnd));
+    populateResponseMetadata(reply, firstPart.getObjectMetadata());
+    reply.setSize(end - start + 1);
+    reply.setDataInputStream(new ParallelRangedGetInputStream(s3Client, request.getBucket(), request.getKey(), firstPart.getObjectContent(), start,
+        firstPartEnd, end, partSize, providerConfig.getS3ParallelGetConcurrency(),
+        Threads.lookup(ObjectStorage.class, S3ProviderClient.class, "parallel-get").limitTo(PARALLEL_GET_THREADS)));
+    return true;
+  }
+
   protected void populateResponseMetadata(final ObjectStorageDataResponseType reply, final ObjectMetadata metadata) {
     reply.setSize(metadata.getContentLength());
     reply.setContentDisposition(metadata.getContentDisposition());
@@ -792,10 +890,12 @@ public class S3ProviderClient implements ObjectStorageProviderClient {
       internalS3Client = getS3Client(requestUser);
       AmazonS3Client s3Client = internalS3Client.getS3Client();
       GetObjectResponseType reply = request.getReply();
-      S3Object response;
-      response = s3Client.getObject(getRequest);
-      populateResponseMetadata(reply, response.getObjectMetadata());
-      reply.setDataInputStream(response.getObjectContent());
+      if (!populateParallelGetResponse(s3Client, request, null, null, reply)) {
+        S3Object response;
+        response = s3Client.getObject(getRequest);
+        populateResponseMetadata(reply, response.getObjectMetadata());
+        reply.setDataInputStream(response.getObjectContent());
+      }
       return reply;
     } catch (AmazonServiceException e) {
       LOG.debug("Error from backend", e);
@@ -819,11 +919,12 @@ public class S3ProviderClient implements ObjectStorageProviderClient {
     try {
       internalS3Client = getS3Client(requestUser);
       AmazonS3Client s3Client = internalS3Client.getS3Client();
-      S3Object response = s3Client.getObject(getRequest);
-
       GetObjectExtendedResponseType reply = request.getReply();
-      populateResponseMetadata(reply, response.getObjectMetadata());
-      reply.setDataInputStream(response.getObjectContent());
+      if (!populateParallelGetResponse(s3Client, request, byteRangeStart, byteRangeEnd, reply)) {
+        S3Object response = s3Client.getObject(getRequest);
+        populateResponseMetadata(reply, response.getObjectMetadata());
+        reply.setDataInputStream(response.getObjectContent());
+      }
       reply.setByteRangeStart(request.getByteRangeStart());
       reply.setByteRangeEnd(request.getByteRangeEnd());
       return reply;
@@ -29,10 +29,110 @@
 
 package com.eucalyptus.objectstorage.asynctask
 
+import com.eucalyptus.auth.Accounts
+import com.eucalyptus.auth.api.PrincipalProvider
+import com.eucalyptus.auth.principal.AccountIdentifiers
+import com.eucalyptus.auth.principal.Principals
+import com.eucalyptus.objectstorage.ObjectMetadataManagers
+import com.eucalyptus.objectstorage.ObjectState
+import com.eucalyptus.objectstorage.entities.Bucket
+import com.eucalyptus.objectstorage.entities.ObjectEntity
+import com.eucalyptus.objectstorage.exceptions.s3.InternalErrorException
+import com.eucalyptus.objectstorage.exceptions.s3.NoSuchKeyException
+import com.eucalyptus.objectstorage.exceptions.s3.S3Exception
+import com.eucalyptus.objectstorage.metadata.ObjectMetadataManager
+import com.eucalyptus.objectstorage.msgs.DeleteObjectResponseType
+import com.eucalyptus.objectstorage.msgs.DeleteObjectType
+import com.eucalyptus.objectstorage.providers.walrus.WalrusProviderClient
+import com.google.common.util.concurrent.MoreExecutors
+import org.junit.After
+import org.junit.Before
 import org.junit.Ignore
 import org.junit.Test
 
+import java.lang.reflect.Field
+
+import static org.junit.Assert.assertEquals
+
 class ObjectReaperTaskTest {
+
+  private Object identities
+
+  @Before
+  public void setUp() {
+    identities = identitiesField().get(null)
+  }
+
+  @After
+  public void tearDown() {
+    ObjectMetadataManagers.setInstance(null)
+    identitiesField().set(null, identities) // identity provider is global, restore for later tests
+  }
+
+  private static Field identitiesField() {
+    Field field = Accounts.getDeclaredField('identities')
+    field.setAccessible(true)
+    field
+  }
+
+  /**
+   * Walrus does not support multi-object delete so each object must be deleted individually
+   */
+  @Test
+  public void testDeletingObjectReapingWalrus() {
+    List<String> backendDeletes = []
+    WalrusProviderClient walrus = new WalrusProviderClient() {
+      @Override
+      DeleteObjectResponseType deleteObject(DeleteObjectType request) throws S3Exception {
+        switch (request.getKey()) {
+          case 'object-missing': throw new NoSuchKeyException(request.getKey())
+          case 'object-failing': throw new InternalErrorException(request.getKey())
+          default: backendDeletes << "${request.getBucket()}/${request.getKey()}".toString(); return request.getReply()
+        }
+      }
+    }
+    List<String> metadataDeletes = []
+    ObjectMetadataManagers.setInstance([
+        deleteAll: { Collection<ObjectEntity> entities ->
+          metadataDeletes.addAll(entities*.objectUuid)
+          entities.size()
+        }
+    ] as ObjectMetadataManager)
+    Accounts.setIdentityProvider([
+        lookupAccountIdentifiersByAlias: { String alias -> [getAccountNumber: { '000000000000' }] as AccountIdentifiers },
+        lookupPrincipalByAccountNumber: { String accountNumber -> Principals.systemUser() }
+    ] as PrincipalProvider)
+
+    Bucket bucket1 = Bucket.getInitializedBucket('bucket-1', 'canonical-id', 'display-name', 'user-id', 'private', '')
+    Bucket bucket2 = Bucket.getInitializedBucket('bucket-2', 'canonical-id', 'display-name', 'user-id', 'private', '')
+    List<ObjectEntity> entities = [
+        entity(bucket1, 'object-1'),
+        entity(bucket1, 'object-missing'),
+        entity(bucket1, 'object-failing'),
+        entity(bucket2, 'object-2'),
+        entity(bucket2, 'object-3'),
+    ]
+
+    long reaped = new ObjectReaperTask().reapObjects(walrus, MoreExecutors.newDirectExecutorService(), entities, 2, 0)
+
+    assertEquals('reaped', 4L, reaped)
+    assertEquals('backend deletes', [
+        "${bucket1.bucketUuid}/object-1".toString(),
+        "${bucket2.bucketUuid}/object-2".toString(),
+        "${bucket2.bucketUuid}/object-3".toString()
+    ] as Set, backendDeletes as Set)
+    assertEquals('metadata deletes', ['object-1', 'object-missing', 'object-2', 'object-3'] as Set, metadataDeletes as Set)
+  }
+
+  private static ObjectEntity entity(Bucket bucket, String uuid) {
+    ObjectEntity entity = new ObjectEntity()
+    entity.setBucket(bucket)
+    entity.setObjectUuid(uuid)
+    entity.setState(ObjectState.deleting)
+    entity.setIsDeleteMarker(false)
+    entity
+  }
+
   @Ignore
   @Test
   public void testDeletingObjectReaping() {
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.objectstorage.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Ignore;
+import org.junit.Test;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Unit tests for versioned metadata cache
+ */
+public class VersionedMetadataCacheTest {
+
+  @Test
+  public void testReadThrough() {
+    final VersionedMetadataCache<String, String> cache = new VersionedMetadataCache<>(() -> "maximumSize=100");
+    final AtomicInteger loads = new AtomicInteger();
+    assertEquals("value", "value-1", cache.get("key", () -> "value-" + loads.incrementAndGet()));
+    assertEquals("value", "value-1", cache.get("key", () -> "value-" + loads.incrementAndGet()));
+    assertEquals("loads", 1, loads.get());
+    assertEquals("hits", 1, cache.getHits());
+    assertEquals("misses", 1, cache.getMisses());
+  }
+
+  @Test
+  public void testInvalidate() {
+    final VersionedMetadataCache<String, String> cache = new VersionedMetadataCache<>(() -> "maximumSize=100");
+    final AtomicInteger loads = new AtomicInteger();
+    assertEquals("value", "value-1", cache.get("key", () -> "value-" + loads.incrementAndGet()));
+    cache.invalidate("key");
+    assertEquals("value", "value-2", cache.get("key", () -> "value-" + loads.incrementAndGet()));
+    assertEquals("invalidations", 1, cache.getInvalidations());
+  }
+
+  @Test
+  public void testInvalidateDuringLoad() {
+    final VersionedMetadataCache<String, String> cache = new VersionedMetadataCache<>(() -> "maximumSize=100");
+    assertEquals("value", "stale", cache.get("key", () -> {
+      cache.invalidate("key"); // transition while loading
+      return "stale";
+    }));
+    assertEquals("discards", 1, cache.getDiscards());
+    assertEquals("size", 0, cache.size());
+    assertEquals("value", "current", cache.get("key", () -> "current"));
+    assertEquals("value", "current", cache.get("key", () -> "other"));
+  }
+
+  @Test
+  public void testNullNotCached() {
+    final VersionedMetadataCache<String, String> cache = new VersionedMetadataCache<>(() -> "maximumSize=100");
+    assertNull("value", cache.get("key", () -> null));
+    assertEquals("value", "value", cache.get("key", () -> "value"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testLoadFailureNotCached() {
+    final VersionedMetadataCache<String, String> cache = new VersionedMetadataCache<>(() -> "maximumSize=100");
+    try {
+      cache.get("key", () -> {
+        throw new IllegalStateException();
+      });
+    } finally {
+      assertEquals("size", 0, cache.size());
+    }
+  }
+
+  @Test
+  public void testCopyOnRead() {
+    final VersionedMetadataCache<String, StringBuilder> cache =
+        new VersionedMetadataCache<>(() -> "maximumSize=100", StringBuilder::new, value -> true);
+    final StringBuilder loaded = cache.get("key", () -> new StringBuilder("value"));
+    loaded.append("-changed-by-loader");
+    final StringBuilder first = cache.get("key", () -> new StringBuilder("other"));
+    first.append("-changed-by-caller");
+    final StringBuilder second = cache.get("key", () -> new StringBuilder("other"));
+    assertNotSame("copy", first, second);
+    assertEquals("value", "value", second.toString());
+  }
+
+  @Test
+  public void testValidation() {
+    final AtomicBoolean current = new AtomicBoolean(true);
+    final VersionedMetadataCache<String, String> cache =
+        new VersionedMetadataCache<>(() -> "maximumSize=100", value -> value, value -> current.get());
+    final AtomicInteger loads = new AtomicInteger();
+    assertEquals("value", "value-1", cache.get("key", () -> "value-" + loads.incrementAndGet()));
+    assertEquals("value", "value-1", cache.get("key", () -> "value-" + loads.incrementAndGet()));
+    current.set(false); // changed via another host
+    assertEquals("value", "value-2", cache.get("key", () -> "value-" + loads.incrementAndGet()));
+    assertEquals("stale", 1, cache.getStale());
+    current.set(true);
+    assertEquals("value", "value-2", cache.get("key", () -> "value-" + loads.incrementAndGet()));
+    assertEquals("loads", 2, loads.get());
+  }
+
+  @Test
+  public void testDisabled() {
+    final VersionedMetadataCache<String, String> cache = new VersionedMetadataCache<>(() -> "maximumSize=0");
+    final AtomicInteger loads = new AtomicInteger();
+    cache.get("key", () -> "value-" + loads.incrementAndGet());
+    cache.get("key", () -> "value-" + loads.incrementAndGet());
+    assertEquals("loads", 2, loads.get());
+  }
+
+  /**
+   * Repeated lookups of a hot object with a loader simulating a database round trip.
+   */
+  @Ignore("Manual development test")
+  @Test
+  public void benchmarkRepeatedLookups() {
+    final int lookups = 2_000;
+    for (final String spec : new String[]{"maximumSize=0", "maximumSize=10000, expireAfterWrite=5s"}) {
+      final VersionedMetadataCache<String, String> cache = new VersionedMetadataCache<>(() -> spec);
+      final Stopwatch stopwatch = Stopwatch.createStarted();
+      for (int i = 0; i < lookups; i++) {
+        cache.get("bucket", VersionedMetadataCacheTest::databaseLookup);
+        cache.get("bucket-uuid/kernel", VersionedMetadataCacheTest::databaseLookup);
+      }
+      final long millis = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+      System.out.println(spec + ": " + (lookups * 1000L / millis) + " GETs/s " + cache.getStatistics());
+    }
+  }
+
+  private static String databaseLookup() {
+    try {
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "entity";
+  }
+}
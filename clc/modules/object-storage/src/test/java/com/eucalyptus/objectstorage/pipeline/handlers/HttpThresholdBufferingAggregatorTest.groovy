@@ -222,7 +222,7 @@ class HttpThresholdBufferingAggregatorTest {
     ChannelBuffer testbuffer = ChannelBuffers.buffer(content.length + chunkContent.length)
     testbuffer.writeBytes(content)
     testbuffer.writeBytes(chunkContent)
-    assert(output.getAggregatedContentBuffer().array() == testbuffer.array())
+    assert(output.getAggregatedContent().equals(testbuffer))
     assert(output.getMessageEvent() == initialEvent)
   }
 
@@ -279,7 +279,7 @@ class HttpThresholdBufferingAggregatorTest {
     ChannelBuffer testbuffer = ChannelBuffers.buffer(content.length + chunkContent.length)
     testbuffer.writeBytes(content)
     testbuffer.writeBytes(chunkContent)
-    assert(output.getAggregatedContentBuffer().array() == testbuffer.array())
+    assert(output.getAggregatedContent().equals(testbuffer))
 
 
   }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.objectstorage.pipeline.handlers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferFactory;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.buffer.HeapChannelBufferFactory;
+import org.jboss.netty.channel.ChannelConfig;
+import org.jboss.netty.channel.DefaultChannelConfig;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.junit.Ignore;
+import org.junit.Test;
+import com.eucalyptus.util.ChannelBufferStreamingInputStream;
+
+/**
+ * Unit tests for PUT content buffering
+ */
+public class ObjectStoragePUTAggregatorTest {
+
+  @Test
+  public void testUseDirectBuffers() {
+    final ChannelConfig config = new DefaultChannelConfig();
+    final ChannelBufferFactory heapFactory = config.getBufferFactory();
+    assertFalse("heap buffers", heapFactory.getBuffer(128).isDirect());
+
+    final ChannelBufferFactory previous = ObjectStoragePUTAggregator.useDirectBuffers(config);
+    assertSame("previous factory", heapFactory, previous);
+    assertTrue("direct buffers", config.getBufferFactory().getBuffer(128).isDirect());
+  }
+
+  @Test
+  public void testBufferFactoryRestoredOnClose() {
+    final ObjectStoragePUTAggregator aggregator = new ObjectStoragePUTAggregator();
+    final DecoderEmbedder<Object> embedder = new DecoderEmbedder<>(aggregator);
+    final ChannelConfig config = embedder.getPipeline().getChannel().getConfig();
+    final ChannelBufferFactory heapFactory = config.getBufferFactory();
+
+    aggregator.switchToDirectBuffers(config);
+    assertTrue("direct buffers", config.getBufferFactory().getBuffer(128).isDirect());
+    embedder.finish();
+    assertSame("restored factory", heapFactory, config.getBufferFactory());
+  }
+
+  @Test
+  public void testAggregatedContentView() {
+    final HttpThresholdBufferingAggregator.AggregatedMessageEvent event =
+        new HttpThresholdBufferingAggregator.AggregatedMessageEvent(null, ChannelBuffers.wrappedBuffer(new byte[]{1, 2, 3}));
+    final ChannelBuffer direct = ChannelBuffers.directBuffer(2);
+    direct.writeBytes(new byte[]{4, 5});
+    event.addContentBuffer(direct, true);
+
+    final ChannelBuffer content = event.getAggregatedContent();
+    final byte[] bytes = new byte[content.readableBytes()];
+    content.getBytes(content.readerIndex(), bytes);
+    assertArrayEquals("content", new byte[]{1, 2, 3, 4, 5}, bytes);
+    direct.setByte(0, 9);
+    assertTrue("view", content.getByte(3) == 9);
+  }
+
+  /**
+   * Heap used by the queued content for many concurrent uploads, a full chunk queue is buffered for
+   * each upload.
+   */
+  @Ignore("Manual development test")
+  @Test
+  public void benchmarkQueuedContentHeapUsage() {
+    final int uploads = 500;
+    final int chunkSize = 100 * 1024;
+    final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    final ChannelConfig config = new DefaultChannelConfig();
+    config.setBufferFactory(HeapChannelBufferFactory.getInstance());
+    ObjectStoragePUTAggregator.useDirectBuffers(config);
+    for (final ChannelBufferFactory factory : new ChannelBufferFactory[]{HeapChannelBufferFactory.getInstance(), config.getBufferFactory()}) {
+      System.gc();
+      final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+      final List<ChannelBuffer> queued = new ArrayList<>();
+      for (int i = 0; i < uploads * ChannelBufferStreamingInputStream.QUEUE_SIZE; i++) {
+        final ChannelBuffer chunk = factory.getBuffer(chunkSize);
+        chunk.writerIndex(chunkSize);
+        queued.add(chunk);
+      }
+      System.gc();
+      final long heapMb = (memory.getHeapMemoryUsage().getUsed() - heapBefore) / (1024 * 1024);
+      System.out.println(factory.getClass().getSimpleName() + ": " + queued.size() + " chunks queued, heap used " + heapMb + "MB");
+      queued.clear();
+    }
+  }
+}
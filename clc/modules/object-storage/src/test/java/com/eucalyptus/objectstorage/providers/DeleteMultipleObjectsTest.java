@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.objectstorage.providers;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import com.eucalyptus.objectstorage.exceptions.s3.InternalErrorException;
+import com.eucalyptus.objectstorage.exceptions.s3.NoSuchKeyException;
+import com.eucalyptus.objectstorage.exceptions.s3.S3Exception;
+import com.eucalyptus.objectstorage.msgs.DeleteMultipleObjectsType;
+import com.eucalyptus.objectstorage.msgs.DeleteObjectResponseType;
+import com.eucalyptus.objectstorage.msgs.DeleteObjectType;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsEntry;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsErrorCode;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsMessage;
+import com.eucalyptus.storage.msgs.s3.DeleteMultipleObjectsMessageReply;
+
+/**
+ * Unit tests for the default multi-object delete for providers
+ */
+public class DeleteMultipleObjectsTest {
+
+  @Test
+  public void testDefaultDeleteMultipleObjects() throws Exception {
+    final List<String> deletedKeys = new ArrayList<>();
+    final ObjectStorageProviderClient provider = new InMemoryProvider() {
+      @Override
+      public DeleteObjectResponseType deleteObject(final DeleteObjectType request) throws S3Exception {
+        assertEquals("bucket", "bucket-uuid", request.getBucket());
+        switch (request.getKey()) {
+          case "missing":
+            throw new NoSuchKeyException(request.getKey());
+          case "failing":
+            throw new InternalErrorException(request.getKey());
+          default:
+            deletedKeys.add(request.getKey());
+            return request.getReply();
+        }
+      }
+    };
+
+    final DeleteMultipleObjectsType request = new DeleteMultipleObjectsType();
+    request.setBucket("bucket-uuid");
+    request.setDelete(message("object-1", "missing", "failing", "object-2"));
+    final DeleteMultipleObjectsMessageReply result = provider.deleteMultipleObjects(request).getDeleteResult();
+
+    assertEquals("backend deletes", "[object-1, object-2]", String.valueOf(deletedKeys));
+    assertEquals("deleted", "[object-1, missing, object-2]",
+        String.valueOf(result.getDeleted().stream().map(DeleteMultipleObjectsEntry::getKey).collect(Collectors.toList())));
+    assertEquals("errors", 1, result.getErrors().size());
+    assertEquals("error key", "failing", result.getErrors().get(0).getKey());
+    assertEquals("error code", DeleteMultipleObjectsErrorCode.InternalError, result.getErrors().get(0).getCode());
+  }
+
+  private static DeleteMultipleObjectsMessage message(final String... keys) {
+    final DeleteMultipleObjectsMessage message = new DeleteMultipleObjectsMessage();
+    message.setObjects(new ArrayList<>());
+    for (final String key : keys) {
+      final DeleteMultipleObjectsEntry entry = new DeleteMultipleObjectsEntry();
+      entry.setKey(key);
+      message.getObjects().add(entry);
+    }
+    return message;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.objectstorage.providers.s3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for parallel ranged reads against a local S3-compatible stand-in that serves a single object.
+ */
+public class ParallelRangedGetInputStreamTest {
+  private static final Pattern RANGE = Pattern.compile( "bytes=(\\d+)-(\\d+)" );
+  private static final int OBJECT_SIZE = 3 * 1024 * 1024 + 17;
+
+  private final byte[] content = new byte[ OBJECT_SIZE ];
+  private volatile int bytesPerSecondPerStream = 0; // unlimited
+  private HttpServer server;
+  private ExecutorService executor;
+  private AmazonS3Client s3Client;
+
+  @Before
+  public void setUp( ) throws Exception {
+    new Random( 42 ).nextBytes( content );
+    executor = Executors.newFixedThreadPool( 16 );
+    server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+    server.setExecutor( executor );
+    server.createContext( "/bucket/key", this::handleGet );
+    server.start( );
+    s3Client = new AmazonS3Client( new BasicAWSCredentials( "access", "secret" ) );
+    s3Client.setS3ClientOptions( S3ClientOptions.builder( ).setPathStyleAccess( true ).disableChunkedEncoding( ).build( ) );
+    s3Client.setEndpoint( "http://127.0.0.1:" + server.getAddress( ).getPort( ) );
+  }
+
+  @After
+  public void tearDown( ) {
+    s3Client.shutdown( );
+    server.stop( 0 );
+    executor.shutdownNow( );
+  }
+
+  @Test
+  public void testReadWholeObject( ) throws Exception {
+    final byte[] read = read( 0, OBJECT_SIZE - 1, 256 * 1024, 4 );
+    assertArrayEquals( "content", content, read );
+  }
+
+  @Test
+  public void testReadRange( ) throws Exception {
+    final byte[] read = read( 1000, 2_000_000, 100_000, 3 );
+    assertArrayEquals( "content", Arrays.copyOfRange( content, 1000, 2_000_001 ), read );
+  }
+
+  @Test
+  public void testSinglePart( ) throws Exception {
+    final byte[] read = read( 10, 99, 1024 * 1024, 4 );
+    assertArrayEquals( "content", Arrays.copyOfRange( content, 10, 100 ), read );
+  }
+
+  @Test
+  public void testCloseBeforeComplete( ) throws Exception {
+    try ( final ParallelRangedGetInputStream in = open( 0, OBJECT_SIZE - 1, 64 * 1024, 4 ) ) {
+      final byte[] buffer = new byte[ 100_000 ];
+      ByteStreams.readFully( in, buffer );
+      assertArrayEquals( "content", Arrays.copyOf( content, 100_000 ), buffer );
+      assertEquals( "parts read", 2, in.getPartsRead( ) );
+    }
+  }
+
+  /**
+   * Compare a single stream GET with parallel ranged GETs when each backend connection is throttled.
+   */
+  @Ignore( "Manual development test" )
+  @Test
+  public void benchmarkParallelGet( ) throws Exception {
+    bytesPerSecondPerStream = 4 * 1024 * 1024;
+    final Stopwatch single = Stopwatch.createStarted( );
+    try ( final S3Object object = s3Client.getObject( new GetObjectRequest( "bucket", "key" ) ) ) {
+      assertArrayEquals( "content", content, ByteStreams.toByteArray( object.getObjectContent( ) ) );
+    }
+    report( "single", single );
+    for ( final int concurrency : new int[]{ 1, 2, 4, 8 } ) {
+      final Stopwatch parallel = Stopwatch.createStarted( );
+      assertArrayEquals( "content", content, read( 0, OBJECT_SIZE - 1, 256 * 1024, concurrency ) );
+      report( "concurrency " + concurrency, parallel );
+    }
+  }
+
+  private void report( final String description, final Stopwatch stopwatch ) {
+    final long millis = Math.max( 1, stopwatch.elapsed( TimeUnit.MILLISECONDS ) );
+    System.out.println( description + ": " + millis + "ms, " + ( ( OBJECT_SIZE * 1000L ) / millis / 1024 ) + "KiB/s" );
+  }
+
+  private byte[] read( final long start, final long end, final long partSize, final int concurrency ) throws IOException {
+    try ( final InputStream in = open( start, end, partSize, concurrency ) ) {
+      return ByteStreams.toByteArray( in );
+    }
+  }
+
+  private ParallelRangedGetInputStream open( final long start, final long end, final long partSize, final int concurrency ) {
+    final long firstPartEnd = Math.min( end, start + partSize - 1 );
+    final S3Object firstPart = s3Client.getObject( new GetObjectRequest( "bucket", "key" ).withRange( start, firstPartEnd ) );
+    return new ParallelRangedGetInputStream( s3Client, "bucket", "key", firstPart.getObjectContent( ),
+        start, firstPartEnd, end, partSize, concurrency, executor );
+  }
+
+  private void handleGet( final HttpExchange exchange ) throws IOException {
+    int start = 0;
+    int end = OBJECT_SIZE - 1;
+    final String range = exchange.getRequestHeaders( ).getFirst( "Range" );
+    final Matcher matcher = range == null ? null : RANGE.matcher( range );
+    if ( matcher != null && matcher.matches( ) ) {
+      start = Integer.parseInt( matcher.group( 1 ) );
+      end = Math.min( end, Integer.parseInt( matcher.group( 2 ) ) );
+      exchange.getResponseHeaders( ).add( "Content-Range", "bytes " + start + "-" + end + "/" + OBJECT_SIZE );
+    }
+    exchange.getResponseHeaders( ).add( "Content-Type", "binary/octet-stream" );
+    exchange.sendResponseHeaders( range == null ? 200 : 206, end - start + 1 );
+    try ( final OutputStream out = exchange.getResponseBody( ) ) {
+      final int chunk = 64 * 1024;
+      for ( int offset = start; offset <= end; offset += chunk ) {
+        final int length = Math.min( chunk, end - offset + 1 );
+        out.write( content, offset, length );
+        if ( bytesPerSecondPerStream > 0 ) {
+          Thread.sleep( ( length * 1000L ) / bytesPerSecondPerStream );
+        }
+      }
+    } catch ( final InterruptedException e ) {
+      Thread.currentThread( ).interrupt( );
+    }
+  }
+}
@@ -73,6 +73,7 @@ import com.google.common.collect.Sets
 import groovy.sql.Sql
 import org.apache.log4j.Logger
 import org.logicalcobwebs.proxool.ProxoolFacade
+import com.eucalyptus.entities.ConnectionPools
 
 
 import static java.util.Collections.emptyMap
@@ -495,6 +496,7 @@ ${hostOrHostSSL}\tall\tall\t::/0\tpassword
             if (!pidfile.exists()) {
                 return
             }
+            ConnectionPools.shutdown()
             ProxoolFacade.shutdown()
             try {
               int value = runProcess([
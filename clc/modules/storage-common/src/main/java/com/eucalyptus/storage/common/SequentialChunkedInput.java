@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.storage.common;
+
+import java.util.Iterator;
+import java.util.List;
+import org.apache.log4j.Logger;
+import org.jboss.netty.handler.stream.ChunkedInput;
+import edu.ucsb.eucalyptus.constants.IsData;
+
+/**
+ * ChunkedInput that reads a sequence of inputs in order, opening each input only when the
+ * previous input is exhausted.
+ *
+ * This allows content made up of many files (e.g. the parts of a multipart upload) to be served
+ * with at most one file open at a time.
+ */
+public class SequentialChunkedInput implements ChunkedInput, IsData {
+  private static final Logger LOG = Logger.getLogger(SequentialChunkedInput.class);
+
+  private final Iterator<ChunkedInputSource> sources;
+  private ChunkedInput current;
+  private boolean closed;
+
+  /**
+   * Source for a ChunkedInput that is opened on demand.
+   */
+  public interface ChunkedInputSource {
+    ChunkedInput open() throws Exception;
+  }
+
+  public SequentialChunkedInput(final List<ChunkedInputSource> sources) {
+    this.sources = sources.iterator();
+  }
+
+  @Override
+  public boolean hasNextChunk() throws Exception {
+    while (!closed) {
+      if (current != null && current.hasNextChunk()) {
+        return true;
+      }
+      closeCurrent();
+      if (!sources.hasNext()) {
+        return false;
+      }
+      current = sources.next().open();
+    }
+    return false;
+  }
+
+  @Override
+  public Object nextChunk() throws Exception {
+    return hasNextChunk() ? current.nextChunk() : null;
+  }
+
+  @Override
+  public boolean isEndOfInput() throws Exception {
+    return !hasNextChunk();
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    closeCurrent();
+  }
+
+  private void closeCurrent() {
+    if (current != null) {
+      try {
+        current.close();
+      } catch (Exception e) {
+        LOG.warn("Error closing input", e);
+      }
+      current = null;
+    }
+  }
+}
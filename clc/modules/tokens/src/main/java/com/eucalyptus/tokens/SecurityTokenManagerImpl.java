@@ -40,7 +40,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
@@ -54,8 +53,10 @@ import javax.crypto.spec.SecretKeySpec;
 import org.apache.log4j.Logger;
 import com.eucalyptus.auth.AccessKeys;
 import com.eucalyptus.auth.Accounts;
+import com.eucalyptus.auth.AuthenticationProperties;
 import com.eucalyptus.auth.AuthException;
 import com.eucalyptus.auth.InvalidAccessKeyAuthException;
+import com.eucalyptus.auth.euare.PrincipalChangeEvent;
 import com.eucalyptus.auth.euare.UserPrincipalImpl;
 import com.eucalyptus.auth.principal.AccessKey;
 import com.eucalyptus.auth.principal.BaseRole;
@@ -74,8 +75,9 @@ import com.eucalyptus.crypto.Ciphers;
 import com.eucalyptus.crypto.Crypto;
 import com.eucalyptus.crypto.Digest;
 import com.eucalyptus.crypto.util.B64;
+import com.eucalyptus.event.EventListener;
+import com.eucalyptus.event.Listeners;
 import com.eucalyptus.util.Exceptions;
-import com.eucalyptus.util.Pair;
 import com.google.common.base.Charsets;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
@@ -106,7 +108,7 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
   private static final int tokenCacheSize = MoreObjects.firstNonNull(
       Ints.tryParse( System.getProperty( "com.eucalyptus.auth.tokens.cache.maximumSize", "500" ) ),
       500 );
-  private static final Cache<Pair<String,String>,SecurityTokenContent> tokenCache =
+  private static final Cache<String,VerifiedToken> verifiedTokenCache =
       CacheBuilder.newBuilder( ).expireAfterAccess( 5, TimeUnit.MINUTES ).maximumSize( tokenCacheSize ).build( );
 
 
@@ -212,11 +214,20 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
     Preconditions.checkNotNull( accessKeyId, "Access key identifier is required" );
     Preconditions.checkNotNull( token, "Token is required" );
 
+    // verified tokens are used until the principal is due for revalidation
+    final String tokenHash = tokenHash( accessKeyId, token );
+    final long now = System.currentTimeMillis( );
+    final VerifiedToken verifiedToken = verifiedTokenCache.getIfPresent( tokenHash );
+    if ( verifiedToken != null && verifiedToken.isCurrent( now ) ) {
+      return verifiedToken.getAccessKey( );
+    }
+
     final SecurityTokenContent securityTokenContent;
-    try {
-      final Pair<String,String> tokenKey = Pair.pair( accessKeyId, token );
-      securityTokenContent = tokenCache.get( tokenKey, () -> doDispatchingDecode( accessKeyId, token ) );
-    } catch ( ExecutionException e ) {
+    if ( verifiedToken != null ) {
+      securityTokenContent = verifiedToken.getContent( );
+    } else try {
+      securityTokenContent = doDispatchingDecode( accessKeyId, token );
+    } catch ( AuthException e ) {
       log.debug( e, e );
       throw new InvalidAccessKeyAuthException("Invalid security token");
     }
@@ -241,7 +252,7 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
       type = TemporaryKeyType.Role;
     }
 
-    return new TemporaryAccessKey( ) {
+    final TemporaryAccessKey temporaryAccessKey = new TemporaryAccessKey( ) {
       private static final long serialVersionUID = 1L;
       private UserPrincipal principal = new UserPrincipalImpl( user, Collections.<AccessKey>singleton( this ) );
 
@@ -281,6 +292,13 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
         return principal;
       }
     };
+
+    if ( EncryptedSecurityToken.isValid( securityTokenContent ) ) {
+      verifiedTokenCache.put( tokenHash, new VerifiedToken( securityTokenContent, temporaryAccessKey, now ) );
+    } else {
+      verifiedTokenCache.invalidate( tokenHash );
+    }
+    return temporaryAccessKey;
   }
 
   @Nonnull
@@ -369,6 +387,18 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
     throw new SecurityTokenValidationException( message );
   }
 
+  static void invalidateVerifiedTokens( ) {
+    verifiedTokenCache.invalidateAll( );
+  }
+
+  private static String tokenHash( final String accessKeyId, final String token ) {
+    final MessageDigest digest = Digest.SHA256.get();
+    digest.update( accessKeyId.getBytes( Charsets.UTF_8 ) );
+    digest.update( (byte) '\n' );
+    digest.update( token.getBytes( Charsets.UTF_8 ) );
+    return B64.standard.encString( digest.digest( ) );
+  }
+
   private SecretKey getEncryptionKey( final String salt ) {
     final MessageDigest digest = Digest.SHA256.get();
     digest.update( salt.getBytes( Charsets.UTF_8 ) );
@@ -376,6 +406,50 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
     return new SecretKeySpec( digest.digest(), "AES" );
   }
 
+  /**
+   * A decrypted token with the access key for the resolved principal.
+   *
+   * The access key is reused until the token expires or the principal is due
+   * for revalidation as per the authorization expiry.
+   */
+  private static final class VerifiedToken {
+    private final SecurityTokenContent content;
+    private final TemporaryAccessKey accessKey;
+    private final long verified;
+
+    private VerifiedToken( final SecurityTokenContent content,
+                           final TemporaryAccessKey accessKey,
+                           final long verified ) {
+      this.content = content;
+      this.accessKey = accessKey;
+      this.verified = verified;
+    }
+
+    private SecurityTokenContent getContent( ) {
+      return content;
+    }
+
+    private TemporaryAccessKey getAccessKey( ) {
+      return accessKey;
+    }
+
+    private boolean isCurrent( final long now ) {
+      return now < content.getExpires( ) &&
+          now < verified + AuthenticationProperties.getAuthorizationExpiry( );
+    }
+  }
+
+  public static class VerifiedTokenPrincipalChangeEventListener implements EventListener<PrincipalChangeEvent> {
+    public static void register( ) {
+      Listeners.register( PrincipalChangeEvent.class, new VerifiedTokenPrincipalChangeEventListener( ) );
+    }
+
+    @Override
+    public void fireEvent( final PrincipalChangeEvent event ) {
+      invalidateVerifiedTokens( );
+    }
+  }
+
   /**
    * Immutable token representation
    *
@@ -383,6 +457,7 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
    */
   private static final class EncryptedSecurityToken {
     private static final byte[] TOKEN_PREFIX = new byte[]{ 'e', 'u', 'c', 'a', 0, 1 };
+    private static final ThreadLocal<Cipher> cipherThreadLocal = new ThreadLocal<>( );
 
     private final String accessKeyId;
     private final String originatingId;
@@ -512,6 +587,18 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
       return keyBuilder.substring( 0, 40 );
     }
 
+    /**
+     * Cipher for the current thread, ciphers are initialized for each use.
+     */
+    private static Cipher cipher( ) throws GeneralSecurityException {
+      Cipher cipher = cipherThreadLocal.get( );
+      if ( cipher == null ) {
+        cipher = Ciphers.AES_GCM.get( );
+        cipherThreadLocal.set( cipher );
+      }
+      return cipher;
+    }
+
     private byte[] toBytes() {
       try {
         final SecurityTokenOutput out = new SecurityTokenOutput();
@@ -533,7 +620,7 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
 
     private String encrypt( final SecretKey key ) {
       try {
-        final Cipher cipher = Ciphers.AES_GCM.get();
+        final Cipher cipher = cipher( );
         final byte[] iv = new byte[32];
         randomSupplier.get().nextBytes(iv);
         cipher.init( Cipher.ENCRYPT_MODE, key, new IvParameterSpec( iv ), randomSupplier.get( ) );
@@ -551,7 +638,7 @@ public class SecurityTokenManagerImpl implements SecurityTokenManager.SecurityTo
                                                    final SecretKey key,
                                                    final String securityToken ) throws GeneralSecurityException {
       try {
-        final Cipher cipher = Ciphers.AES_GCM.get();
+        final Cipher cipher = cipher( );
         final byte[] securityTokenBytes = B64.standard.dec(securityToken);
         if ( securityTokenBytes.length < 64 + TOKEN_PREFIX.length ||
             !Arrays.equals( TOKEN_PREFIX, Arrays.copyOf( securityTokenBytes, TOKEN_PREFIX.length ) ) ) {
@@ -43,6 +43,7 @@ import static org.hamcrest.CoreMatchers.*
 import static org.hamcrest.text.IsEmptyString.isEmptyOrNullString
 import static org.junit.Assert.*
 import org.hamcrest.Matcher
+import org.junit.Ignore
 import org.junit.Test
 import com.eucalyptus.auth.principal.Principals
 import com.eucalyptus.auth.principal.AccessKey
@@ -116,6 +117,48 @@ class SecurityTokenManagerTest {
     assertThat( "Invalid creation time", tokenKey.isActive(), equalTo(true) )
   }
 
+  @Test
+  void testLookupTokenVerifiedCache() {
+    long now = System.currentTimeMillis()
+
+    AccessKey testKey = accessKey( now - TimeUnit.HOURS.toMillis( 24 ), Principals.nobodyUser() )
+    SecurityTokenManagerImpl manager = manager( now, testKey, Principals.nobodyUser() )
+    SecurityToken token = manager.doIssueSecurityToken( Principals.nobodyUser(), testKey, 0, 900 )
+
+    AccessKey tokenKey = manager.doLookupAccessKey( token.getAccessKeyId(), token.getToken() )
+    assertThat( "Verified token reused", manager.doLookupAccessKey( token.getAccessKeyId(), token.getToken() ), sameInstance( tokenKey ) )
+
+    SecurityTokenManagerImpl.invalidateVerifiedTokens( )
+    AccessKey reverifiedKey = manager.doLookupAccessKey( token.getAccessKeyId(), token.getToken() )
+    assertThat( "Token verified after invalidation", reverifiedKey, not( sameInstance( tokenKey ) ) )
+    assertThat( "Invalid secret key", reverifiedKey.getSecretKey(), equalTo(token.getSecretKey())  )
+  }
+
+  /**
+   * Lookups for requests signed with temporary credentials, with and without the verified token cache.
+   */
+  @Ignore( "Manual development test" )
+  @Test
+  void benchmarkTokenLookup() {
+    long now = System.currentTimeMillis()
+    int lookups = 100_000
+
+    AccessKey testKey = accessKey( now - TimeUnit.HOURS.toMillis( 24 ), Principals.nobodyUser() )
+    SecurityTokenManagerImpl manager = manager( now, testKey, Principals.nobodyUser() )
+    SecurityToken token = manager.doIssueSecurityToken( Principals.nobodyUser(), testKey, 0, 900 )
+
+    for ( boolean cached : [ true, false ] ) {
+      SecurityTokenManagerImpl.invalidateVerifiedTokens( )
+      long start = System.nanoTime( )
+      for ( int i = 0; i < lookups; i++ ) {
+        if ( !cached ) SecurityTokenManagerImpl.invalidateVerifiedTokens( )
+        manager.doLookupAccessKey( token.getAccessKeyId( ), token.getToken( ) )
+      }
+      long elapsedMillis = Math.max( 1L, TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - start ) )
+      println "${cached ? 'Cached' : 'Uncached'} token lookups: ${lookups} in ${elapsedMillis}ms (${(long)( lookups * 1000L / elapsedMillis )}/s)"
+    }
+  }
+
   /**
    * WithPassword tests are for console authentication case
    */
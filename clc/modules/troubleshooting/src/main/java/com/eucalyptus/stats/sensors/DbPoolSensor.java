@@ -29,10 +29,12 @@
 
 package com.eucalyptus.stats.sensors;
 
+import com.eucalyptus.entities.ConnectionPool;
+import com.eucalyptus.entities.ConnectionPoolStatistics;
+import com.eucalyptus.entities.ConnectionPools;
 import com.eucalyptus.stats.StatsOutputValues;
 import com.google.common.collect.Maps;
 import org.apache.log4j.Logger;
-import org.logicalcobwebs.proxool.ProxoolFacade;
 
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -47,15 +49,29 @@ public enum DbPoolSensor implements Callable<Map<String, Object>> {
             try {
                 long max = 0;
                 long active = 0;
-                for (String alias : ProxoolFacade.getAliases()) {
-                    max = ProxoolFacade.getConnectionPoolDefinition(alias).getMaximumConnectionCount();
-                    active = ProxoolFacade.getSnapshot(alias, true).getActiveConnectionCount();
+                for (ConnectionPool pool : ConnectionPools.list()) {
+                    String alias = pool.getAlias();
+                    ConnectionPoolStatistics statistics = pool.getStatistics();
+                    max = pool.getMaximumSize();
+                    active = statistics.getActive();
                     results.put(alias + ".MaxConnectionCount", max);
                     results.put(alias + ".ActiveConnectionCount", active);
+                    results.put(alias + ".IdleConnectionCount", (long) statistics.getIdle());
+                    results.put(alias + ".AverageWaitMillis", statistics.getAverageWaitMillis());
+                    results.put(alias + ".MaximumWaitMillis", statistics.getMaximumWaitMillis());
+                    results.put(alias + ".TimeoutCount", statistics.getTimeouts());
+                    results.put(alias + ".LeakCount", statistics.getLeaks());
                     results.put(alias + ".CapacityCheck", active < max ? StatsOutputValues.CHECK_OK : StatsOutputValues.CHECK_FAILED);
                 }
+                for (ConnectionPoolStatistics statistics : ConnectionPools.contextStatistics()) {
+                    String name = statistics.getName();
+                    results.put(name + ".ActiveConnectionCount", (long) statistics.getActive());
+                    results.put(name + ".AverageWaitMillis", statistics.getAverageWaitMillis());
+                    results.put(name + ".MaximumWaitMillis", statistics.getMaximumWaitMillis());
+                    results.put(name + ".TimeoutCount", statistics.getTimeouts());
+                }
             } catch (Throwable f) {
-                LOG.warn("Error getting proxool db connection information. Continuing.", f);
+                LOG.warn("Error getting db connection pool information. Continuing.", f);
             }
             return results;
         }
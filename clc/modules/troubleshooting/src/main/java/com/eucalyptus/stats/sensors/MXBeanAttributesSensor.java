@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.stats.sensors;
+
+import com.google.common.collect.Maps;
+
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Sensor callable for all attributes of a platform MXBean.
+ *
+ * Used for statistics from modules that the stats sensors do not depend on. There are no
+ * values until the bean is registered.
+ */
+public class MXBeanAttributesSensor implements Callable<Map<String, Object>> {
+    private final ObjectName beanName;
+
+    public MXBeanAttributesSensor(ObjectName beanName) {
+        this.beanName = beanName;
+    }
+
+    @Override
+    public Map<String, Object> call() throws Exception {
+        Map<String, Object> result = Maps.newTreeMap();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(beanName)) {
+            for (MBeanAttributeInfo attribute : server.getMBeanInfo(beanName).getAttributes()) {
+                result.put(attribute.getName(), server.getAttribute(beanName, attribute.getName()));
+            }
+        }
+        return result;
+    }
+}
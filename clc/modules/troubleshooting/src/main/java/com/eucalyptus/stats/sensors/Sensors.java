@@ -34,6 +34,7 @@ import com.eucalyptus.util.Exceptions;
 import com.google.common.collect.Lists;
 import org.apache.log4j.Logger;
 
+import javax.management.ObjectName;
 import java.util.List;
 
 /**
@@ -44,6 +45,8 @@ public class Sensors {
     private static final String COMPONENT_NAME_PREFIX = "euca.components";
     private static final String CONTEXT_SENSOR_NAME = COMPONENT_NAME_PREFIX + ".message_contexts";
     private static final String DB_POOL_SENSOR_NAME = "euca.db.connection_pools";
+    private static final String DNS_INSTANCE_TABLE_SENSOR_NAME = "euca.dns.instance_table";
+    private static final String DNS_INSTANCE_TABLE_BEAN_NAME = "com.eucalyptus.vm.dns:type=VmDnsTable";
     private static final String MEMORY_NAME_PREFIX = "euca.jvm.memory";
     private static final String THREAD_SENSOR_NAME = "euca.jvm.threads.state";
     private static final String MEMORY_GENERAL_SENSOR_NAME = MEMORY_NAME_PREFIX + ".general";
@@ -204,4 +207,28 @@ public class Sensors {
         }
         return sensors;
     }
+
+    /**
+     * Sensor for split-horizon DNS instance table lookups and staleness
+     * @param pollingInterval
+     * @param ttl
+     * @return
+     */
+    public static List<SensorEntry> DnsInstanceTableSensor(final int pollingInterval, final long ttl) {
+        List<SensorEntry> sensors = Lists.newArrayList();
+        List<String> tags = Lists.newArrayList("dns");
+        tags.add(pollingIntervalTag(pollingInterval));
+        try {
+            sensors.add(new SensorEntry(BaseStatsSensor.buildSensor(DNS_INSTANCE_TABLE_SENSOR_NAME,
+                    "Instance DNS table answers, misses and staleness",
+                    tags,
+                    ttl,
+                    new MXBeanAttributesSensor(new ObjectName(DNS_INSTANCE_TABLE_BEAN_NAME))),
+                    pollingInterval));
+        } catch (Exception e) {
+            LOG.error("Error loading dns instance table sensor.");
+            throw Exceptions.toUndeclared(e);
+        }
+        return sensors;
+    }
 }
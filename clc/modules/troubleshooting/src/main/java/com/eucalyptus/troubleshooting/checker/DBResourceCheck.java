@@ -41,12 +41,11 @@ import com.eucalyptus.records.Logs;
 import com.eucalyptus.system.SubDirectory;
 
 import org.apache.log4j.Logger;
-import org.logicalcobwebs.proxool.ProxoolException;
-import org.logicalcobwebs.proxool.ProxoolFacade;
 
 import com.eucalyptus.bootstrap.OrderedShutdown;
 import com.eucalyptus.component.ComponentId;
 import com.eucalyptus.component.ComponentIds;
+import com.eucalyptus.entities.ConnectionPools;
 import com.eucalyptus.component.Faults;
 import com.eucalyptus.component.id.Eucalyptus;
 import com.eucalyptus.system.Threads;
@@ -121,14 +120,15 @@ public class DBResourceCheck {
 		public String getAlias() {
 			return alias;
 		}
-		public Integer getMaximumConnections() throws ProxoolException {
-			return ProxoolFacade.getConnectionPoolDefinition(alias).getMaximumConnectionCount();		}
+		public Integer getMaximumConnections() {
+			return ConnectionPools.lookup(alias).getMaximumSize();
+		}
 
-		public Integer getActiveConnections() throws ProxoolException{
-			return ProxoolFacade.getSnapshot(alias, true).getActiveConnectionCount();
+		public Integer getActiveConnections() {
+			return ConnectionPools.lookup(alias).getStatistics().getActive();
 		}
 
-		public Integer getThreshold() throws ProxoolException{
+		public Integer getThreshold() {
 			if (null != this.minimumFreeConnections) {
 				return this.minimumFreeConnections;
 			} else {
@@ -136,13 +136,6 @@ public class DBResourceCheck {
 			}
 		}
 
-		public String getURL() throws ProxoolException {
-			return ProxoolFacade.getConnectionPoolDefinition(alias).getCompleteUrl();
-		}
-		
-		public String getDriver() throws ProxoolException {
-			return ProxoolFacade.getConnectionPoolDefinition(alias).getDriver();
-		}
 		/**
 		 * Constructor to be used when free connections is an absolute quantity
 		 * 
@@ -33,10 +33,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 
-import org.logicalcobwebs.proxool.ProxoolFacade;
-
 import com.eucalyptus.bootstrap.TroubleshootingBootstrapper;
 import com.eucalyptus.component.id.Eucalyptus;
+import com.eucalyptus.entities.ConnectionPool;
+import com.eucalyptus.entities.ConnectionPools;
 import com.eucalyptus.troubleshooting.checker.DBResourceCheck;
 import com.eucalyptus.troubleshooting.checker.DBResourceCheck.DBChecker;
 import com.eucalyptus.troubleshooting.checker.DBResourceCheck.DBPoolInfo;
@@ -50,20 +50,18 @@ public class DBCheckScheduler {
 			dbCheckerScheduledFuture.cancel(true);
 		}
 		List<DBPoolInfo> dbPools = new ArrayList<DBPoolInfo>();
-		String[] aliases = ProxoolFacade.getAliases();
-		if (aliases != null) {
-			for (String alias : aliases) {
-				DBPoolInfo info = null;
-				if (threshold.endsWith("%")) {
-					info = new DBPoolInfo(alias, 
-							Double.parseDouble(threshold.substring(0,  threshold.length() - 1)));
-				} else {
-					info = new DBPoolInfo(alias, 
-							Integer.parseInt(threshold));
+		for (ConnectionPool pool : ConnectionPools.list()) {
+			String alias = pool.getAlias();
+			DBPoolInfo info = null;
+			if (threshold.endsWith("%")) {
+				info = new DBPoolInfo(alias, 
+						Double.parseDouble(threshold.substring(0,  threshold.length() - 1)));
+			} else {
+				info = new DBPoolInfo(alias, 
+						Integer.parseInt(threshold));
 
-				}
-				dbPools.add(info); 
 			}
+			dbPools.add(info); 
 		}
 		DBChecker dbChecker = new DBChecker(dbPools, Eucalyptus.class, Long.parseLong(pollTime));
 		dbCheckerScheduledFuture = DBResourceCheck.start(dbChecker);
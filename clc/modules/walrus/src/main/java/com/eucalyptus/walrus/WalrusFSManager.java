@@ -135,6 +135,7 @@ import org.hibernate.Criteria;
 import org.hibernate.criterion.Example;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.jboss.netty.handler.codec.http.HttpResponseStatus;
 
@@ -143,6 +144,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -156,6 +158,7 @@ import edu.ucsb.eucalyptus.util.SystemUtil;
 
 public class WalrusFSManager extends WalrusManager {
   private static Logger LOG = Logger.getLogger(WalrusFSManager.class);
+  private static final int PART_PAGE_SIZE = 1000;
 
   private StorageManager storageManager;
 
@@ -1674,11 +1677,10 @@ public class WalrusFSManager extends WalrusManager {
     }
 
     PartInfo manifest = null;
-    List<PartInfo> foundParts = null;
     long size = 0;
     Date lastModified = null;
     String eTag = new String();
-    String eTagString = new String();
+    MessageDigest digest = Digest.MD5.get();
     String prevObjectName = null;
 
     // Look for manifest and other parts
@@ -1706,47 +1708,84 @@ public class WalrusFSManager extends WalrusManager {
         }
       }
 
-      Criteria partCriteria = Entities.createCriteria(PartInfo.class);
-      partCriteria.add(Example.create(search));
-      partCriteria.add(Restrictions.isNotNull("partNumber"));
-      foundParts = partCriteria.list();
+      Criteria countCriteria = Entities.createCriteria(PartInfo.class);
+      countCriteria.add(Example.create(search));
+      countCriteria.add(Restrictions.isNotNull("partNumber"));
+      countCriteria.setProjection(Projections.rowCount());
+      long foundPartCount = ((Number) countCriteria.uniqueResult()).longValue();
 
-      if (foundParts == null || foundParts.isEmpty()) {
+      if (foundPartCount == 0) {
         throw new InvalidPartException("No parts uploaded for upload-Id=" + request.getUploadId());
       } else {
         // keep going
       }
 
-      if (requestParts.size() > foundParts.size()) {
+      if (requestParts.size() > foundPartCount) {
         throw new InvalidArgumentException("Number of parts in the manifest is greater than the number of parts uploaded. Upload Id: "
             + request.getUploadId());
       }
 
-      // Create a hashmap
-      Map<Integer, PartInfo> partsMap = new HashMap<Integer, PartInfo>(foundParts.size());
-      for (PartInfo foundPart : foundParts) {
-        partsMap.put(foundPart.getPartNumber(), foundPart);
-      }
+      // Mark the parts in the request as valid in database, a page at a time so that the number of
+      // parts loaded is bounded regardless of the size of the upload.
+      BitSet includedPartNumbers = new BitSet();
+      for (List<Part> requestPage : Lists.partition(requestParts, PART_PAGE_SIZE)) {
+        List<Integer> pagePartNumbers = new ArrayList<Integer>(requestPage.size());
+        for (Part requestPart : requestPage) {
+          if (requestPart.getPartNumber() == null) {
+            throw new InvalidPartException("Part Number: null upload id: " + request.getUploadId());
+          }
+          pagePartNumbers.add(requestPart.getPartNumber());
+        }
 
-      // Mark the parts in the request as valid in database
-      PartInfo include = null;
-      for (Part requestPart : requestParts) {
-        if ((include = partsMap.remove(requestPart.getPartNumber())) != null) {
-          eTagString += include.getEtag();
-          size += include.getSize();
-          include.setCleanup(Boolean.FALSE); // set the part cleanup to false to indicate that part should
-        } else {
-          throw new InvalidPartException("Part Number: " + requestPart.getPartNumber() + " upload id: " + request.getUploadId());
+        Criteria partCriteria = Entities.createCriteria(PartInfo.class);
+        partCriteria.add(Example.create(search));
+        partCriteria.add(Restrictions.in("partNumber", pagePartNumbers));
+        List<PartInfo> pageParts = partCriteria.list();
+
+        Map<Integer, PartInfo> partsMap = new HashMap<Integer, PartInfo>(pageParts.size());
+        for (PartInfo foundPart : pageParts) {
+          partsMap.put(foundPart.getPartNumber(), foundPart);
+        }
+
+        PartInfo include = null;
+        for (Part requestPart : requestPage) {
+          int partNumber = requestPart.getPartNumber();
+          if (partNumber >= 0 && !includedPartNumbers.get(partNumber) && (include = partsMap.get(partNumber)) != null) {
+            digest.update(String.valueOf(include.getEtag()).getBytes());
+            size += include.getSize();
+            include.setCleanup(Boolean.FALSE); // set the part cleanup to false to indicate that part should
+            includedPartNumbers.set(partNumber);
+          } else {
+            throw new InvalidPartException("Part Number: " + requestPart.getPartNumber() + " upload id: " + request.getUploadId());
+          }
+        }
+
+        Entities.flushSession(PartInfo.class);
+        for (PartInfo pagePart : pageParts) {
+          Entities.evict(pagePart);
         }
       }
 
       // Mark manifest as valid
       manifest.setCleanup(Boolean.FALSE);
 
-      // Mark the remaining parts for cleanup
-      for (PartInfo excluded : partsMap.values()) {
-        excluded.setCleanup(Boolean.TRUE);
-      }
+      // Mark the remaining parts for cleanup, marked parts no longer match so each query returns the next page
+      List<PartInfo> excludedParts;
+      do {
+        Criteria excludedCriteria = Entities.createCriteria(PartInfo.class);
+        excludedCriteria.add(Example.create(search));
+        excludedCriteria.add(Restrictions.isNotNull("partNumber"));
+        excludedCriteria.add(Restrictions.isNull("cleanup"));
+        excludedCriteria.setMaxResults(PART_PAGE_SIZE);
+        excludedParts = excludedCriteria.list();
+        for (PartInfo excluded : excludedParts) {
+          excluded.setCleanup(Boolean.TRUE);
+        }
+        Entities.flushSession(PartInfo.class);
+        for (PartInfo excluded : excludedParts) {
+          Entities.evict(excluded);
+        }
+      } while (excludedParts.size() == PART_PAGE_SIZE);
 
       tr.commit();
     } catch (WalrusException e) {
@@ -1757,8 +1796,6 @@ public class WalrusFSManager extends WalrusManager {
           + bucketName, e);
     }
 
-    MessageDigest digest = Digest.MD5.get();
-    digest.update(eTagString.getBytes());
     eTag = "uuid-" + Hashes.bytesToHex(digest.digest());
     lastModified = new Date();
 
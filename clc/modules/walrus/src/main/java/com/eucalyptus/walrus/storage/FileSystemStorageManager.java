@@ -57,6 +57,8 @@ import org.jboss.netty.handler.stream.ChunkedInput;
 import com.eucalyptus.records.Logs;
 import com.eucalyptus.storage.common.ChunkedDataFile;
 import com.eucalyptus.storage.common.CompressedChunkedFile;
+import com.eucalyptus.storage.common.SequentialChunkedInput;
+import com.eucalyptus.storage.common.SequentialChunkedInput.ChunkedInputSource;
 import com.eucalyptus.storage.common.fs.FileIO;
 import com.eucalyptus.storage.common.fs.FileReader;
 import com.eucalyptus.storage.common.fs.FileWriter;
@@ -420,83 +422,96 @@ public class FileSystemStorageManager implements StorageManager {
 
   @Override
   public void getMultipartObject(WalrusDataGetResponseType reply, List<PartInfo> parts, Boolean isCompressed) throws WalrusException {
-    try {
-      List<ChunkedInput> dataStreams = new ArrayList<>();
-      for (PartInfo part : parts) {
-        isCompressed = isCompressed == null ? false : isCompressed;
-        final ChunkedInput file;
-        RandomAccessFile raf = new RandomAccessFile(new File(getObjectPath(part.getBucketName(), part.getObjectName())), "r");
-        if (isCompressed) {
-          file = new CompressedChunkedFile(raf, part.getSize());
+    final boolean compressed = isCompressed == null ? false : isCompressed;
+    final List<ChunkedInputSource> partSources = new ArrayList<>(parts.size());
+    for (final PartInfo part : parts) {
+      final File partFile = getPartFile(part);
+      final long partSize = part.getSize();
+      partSources.add(() -> {
+        RandomAccessFile raf = new RandomAccessFile(partFile, "r");
+        if (compressed) {
+          return new CompressedChunkedFile(raf, partSize);
         } else {
-          file = new ChunkedDataFile(raf, 0, part.getSize(), 8192);
+          return new ChunkedDataFile(raf, 0, partSize, 8192);
         }
-        dataStreams.add(file);
-      }
-      reply.setDataInputStream(dataStreams);
-    } catch (IOException ex) {
-      throw new WalrusException(ex.getMessage());
+      });
     }
+    reply.setDataInputStream(sequentialDataStream(partSources));
   }
 
   @Override
   public void getMultipartObject(WalrusDataGetResponseType reply, List<PartInfo> parts, Boolean isCompressed, Long byteRangeStart, Long byteRangeEnd)
       throws WalrusException {
-    try {
-      List<ChunkedInput> dataStreams = new ArrayList<>();
-      isCompressed = isCompressed == null ? false : isCompressed;
-
-      Long requestedSize = byteRangeEnd - byteRangeStart + 1; // Assuming byteRangeEnd is inclusive
-      Iterator<PartInfo> partIterator = parts.iterator();
-      PartInfo part = null;
+    final List<ChunkedInputSource> partSources = new ArrayList<>();
+    final boolean compressed = isCompressed == null ? false : isCompressed;
+
+    Long requestedSize = byteRangeEnd - byteRangeStart + 1; // Assuming byteRangeEnd is inclusive
+    Iterator<PartInfo> partIterator = parts.iterator();
+    PartInfo part = null;
+
+    // Compute the part to begin reading from and the starting offset in that part
+    Long rangeElapsed = -1L;
+    Long startMarker = 0L;
+    while (partIterator.hasNext()) {
+      part = partIterator.next();
+      rangeElapsed += part.getSize();
+      if (byteRangeStart <= rangeElapsed) {
+        startMarker = part.getSize() - (rangeElapsed - byteRangeStart + 1);
+        break;
+      }
+    }
 
-      // Compute the part to begin reading from and the starting offset in that part
-      Long rangeElapsed = -1L;
-      Long startMarker = 0L;
-      while (partIterator.hasNext()) {
+    // Keep adding bytes from parts till the requested length is met
+    Long bytesRead = 0L;
+    Long tempLength = 0L;
+    do {
+      if (part == null && partIterator.hasNext()) {
         part = partIterator.next();
-        rangeElapsed += part.getSize();
-        if (byteRangeStart <= rangeElapsed) {
-          startMarker = part.getSize() - (rangeElapsed - byteRangeStart + 1);
-          break;
-        }
       }
 
-      // Keep adding bytes from parts till the requested length is met
-      Long bytesRead = 0L;
-      Long tempLength = 0L;
-      do {
-        if (part == null && partIterator.hasNext()) {
-          part = partIterator.next();
-        }
-
-        final ChunkedInput file;
-        RandomAccessFile raf = new RandomAccessFile(new File(getObjectPath(part.getBucketName(), part.getObjectName())), "r");
+      final File partFile = getPartFile(part);
 
-        if (requestedSize > ((part.getSize() - startMarker) + bytesRead)) { // if the part is smaller than what is required, add the part from the
-                                                                            // startMarker to end
-          tempLength = part.getSize() - startMarker;
-        } else { // if the part is larger than what is required, add the part from the startMarker to how much is necessary
-          tempLength = requestedSize - bytesRead;
-        }
+      if (requestedSize > ((part.getSize() - startMarker) + bytesRead)) { // if the part is smaller than what is required, add the part from the
+                                                                          // startMarker to end
+        tempLength = part.getSize() - startMarker;
+      } else { // if the part is larger than what is required, add the part from the startMarker to how much is necessary
+        tempLength = requestedSize - bytesRead;
+      }
 
-        if (isCompressed) {
-          file = new CompressedChunkedFile(raf, startMarker, tempLength, (int) Math.min(tempLength, 8192));
+      final long partOffset = startMarker;
+      final long partLength = tempLength;
+      partSources.add(() -> {
+        RandomAccessFile raf = new RandomAccessFile(partFile, "r");
+        if (compressed) {
+          return new CompressedChunkedFile(raf, partOffset, partLength, (int) Math.min(partLength, 8192));
         } else {
-          file = new ChunkedDataFile(raf, startMarker, tempLength, (int) Math.min(tempLength, 8192));
+          return new ChunkedDataFile(raf, partOffset, partLength, (int) Math.min(partLength, 8192));
         }
+      });
+      bytesRead = bytesRead + tempLength;
+      startMarker = 0L;
+      tempLength = 0L;
+      part = null;
+    } while (bytesRead < requestedSize && partIterator.hasNext());
+
+    reply.setDataInputStream(sequentialDataStream(partSources));
+  }
 
-        dataStreams.add(file);
-        bytesRead = bytesRead + tempLength;
-        startMarker = 0L;
-        tempLength = 0L;
-        part = null;
-      } while (bytesRead < requestedSize && partIterator.hasNext());
-
-      reply.setDataInputStream(dataStreams);
-    } catch (IOException ex) {
-      throw new WalrusException(ex.getMessage());
+  private File getPartFile(PartInfo part) throws WalrusException {
+    File partFile = new File(getObjectPath(part.getBucketName(), part.getObjectName()));
+    if (!partFile.isFile()) {
+      throw new WalrusException(partFile.getPath() + " (No such file or directory)");
     }
+    return partFile;
+  }
+
+  /**
+   * Part files are opened as they are reached so reading an object with many parts does not hold a file open per part.
+   */
+  private List<ChunkedInput> sequentialDataStream(List<ChunkedInputSource> partSources) {
+    List<ChunkedInput> dataStreams = new ArrayList<>(1);
+    dataStreams.add(new SequentialChunkedInput(partSources));
+    return dataStreams;
   }
 
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 AppScale Systems, Inc
+ *
+ * Use of this source code is governed by a BSD-2-Clause
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/BSD-2-Clause
+ */
+package com.eucalyptus.walrus.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.handler.stream.ChunkedInput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.eucalyptus.walrus.entities.PartInfo;
+import com.eucalyptus.walrus.msgs.WalrusDataGetResponseType;
+
+/**
+ * Tests for serving multipart objects from part files.
+ */
+public class FileSystemStorageManagerTest {
+  private static final int[] PART_SIZES = { 20_000, 20_000, 777 };
+
+  private File storageDir;
+  private FileSystemStorageManager storageManager;
+  private List<PartInfo> parts;
+  private byte[] content;
+
+  @Before
+  public void setUp( ) throws Exception {
+    storageDir = Files.createTempDirectory( "walrus-fs-test" ).toFile( );
+    new File( storageDir, "bucket" ).mkdir( );
+    storageManager = new FileSystemStorageManager( ) {
+      @Override
+      public String getObjectPath( final String bucket, final String object ) {
+        return storageDir.getPath( ) + File.separator + bucket + File.separator + object;
+      }
+    };
+    final Random random = new Random( 7 );
+    final ByteArrayOutputStream contentOut = new ByteArrayOutputStream( );
+    parts = new ArrayList<>( );
+    for ( int i = 0; i < PART_SIZES.length; i++ ) {
+      final byte[] partContent = new byte[ PART_SIZES[ i ] ];
+      random.nextBytes( partContent );
+      contentOut.write( partContent );
+      final PartInfo part = new PartInfo( "bucket", "key", "upload", i + 1 );
+      part.setObjectName( "part-" + i );
+      part.setSize( (long) partContent.length );
+      Files.write( new File( storageManager.getObjectPath( "bucket", part.getObjectName( ) ) ).toPath( ), partContent );
+      parts.add( part );
+    }
+    content = contentOut.toByteArray( );
+  }
+
+  @After
+  public void tearDown( ) throws Exception {
+    for ( final PartInfo part : parts ) {
+      new File( storageManager.getObjectPath( "bucket", part.getObjectName( ) ) ).delete( );
+    }
+    new File( storageDir, "bucket" ).delete( );
+    storageDir.delete( );
+  }
+
+  @Test
+  public void testGetMultipartObject( ) throws Exception {
+    final WalrusDataGetResponseType reply = new WalrusDataGetResponseType( );
+    storageManager.getMultipartObject( reply, parts, false );
+    assertArrayEquals( "content", content, read( reply ) );
+  }
+
+  @Test
+  public void testGetMultipartObjectRange( ) throws Exception {
+    final WalrusDataGetResponseType reply = new WalrusDataGetResponseType( );
+    storageManager.getMultipartObject( reply, parts, false, 19_000L, 40_100L );
+    assertArrayEquals( "content", Arrays.copyOfRange( content, 19_000, 40_101 ), read( reply ) );
+  }
+
+  @Test
+  public void testPartFilesOpenedInSequence( ) throws Exception {
+    final WalrusDataGetResponseType reply = new WalrusDataGetResponseType( );
+    storageManager.getMultipartObject( reply, parts, false );
+    final ChunkedInput input = reply.getDataInputStream( ).get( 0 );
+    final ChannelBuffer first = (ChannelBuffer) input.nextChunk( );
+    // replace the last part after reading has started, it is only opened when reached
+    final byte[] replaced = new byte[ PART_SIZES[ 2 ] ];
+    Files.write( new File( storageManager.getObjectPath( "bucket", "part-2" ) ).toPath( ), replaced );
+    final ByteArrayOutputStream out = new ByteArrayOutputStream( );
+    first.readBytes( out, first.readableBytes( ) );
+    drain( input, out );
+    assertEquals( "size", content.length, out.size( ) );
+    assertArrayEquals( "last part", replaced, Arrays.copyOfRange( out.toByteArray( ), 40_000, content.length ) );
+  }
+
+  private static byte[] read( final WalrusDataGetResponseType reply ) throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream( );
+    for ( final ChunkedInput input : reply.getDataInputStream( ) ) {
+      drain( input, out );
+    }
+    return out.toByteArray( );
+  }
+
+  private static void drain( final ChunkedInput input, final ByteArrayOutputStream out ) throws Exception {
+    try {
+      while ( !input.isEndOfInput( ) ) {
+        final ChannelBuffer buffer = (ChannelBuffer) input.nextChunk( );
+        buffer.readBytes( out, buffer.readableBytes( ) );
+      }
+    } finally {
+      input.close( );
+    }
+  }
+}